@@ -25,6 +25,7 @@ import org.apache.doris.common.Version;
 import org.apache.doris.http.HttpServer;
 import org.apache.doris.journal.bdbje.BDBTool;
 import org.apache.doris.journal.bdbje.BDBToolOptions;
+import org.apache.doris.qe.AuditEventProcessor;
 import org.apache.doris.qe.QeService;
 import org.apache.doris.service.ExecuteEnv;
 import org.apache.doris.service.FeServer;
@@ -96,6 +97,7 @@ public class PaloFe {
             HttpServer httpServer = new HttpServer(Config.http_port);
             httpServer.setup();
 
+            AuditEventProcessor.getInstance().start();
             feServer.start();
             httpServer.start();
             qeService.start();
@@ -25,6 +25,7 @@ import org.apache.doris.analysis.AlterClause;
 import org.apache.doris.analysis.AlterSystemStmt;
 import org.apache.doris.analysis.AlterTableStmt;
 import org.apache.doris.analysis.ColumnRenameClause;
+import org.apache.doris.analysis.CreateMaterializedViewStmt;
 import org.apache.doris.analysis.DropColumnClause;
 import org.apache.doris.analysis.DropPartitionClause;
 import org.apache.doris.analysis.DropRollupClause;
@@ -177,6 +178,11 @@ public class Alter {
                 throw new DdlException("Table[" + table.getName() + "]'s state is not NORMAL. Do not allow doing ALTER ops");
             }
             
+            if (hasSchemaChange && olapTable.hasMaterializedView()) {
+                throw new DdlException("Table[" + table.getName() + "] has materialized views."
+                        + " Drop them before changing columns");
+            }
+
             if (hasSchemaChange || hasModifyProp || hasAddRollup) {
                 // check if all tablets are healthy, and no tablet is in tablet scheduler
                 boolean isStable = olapTable.isStable(Catalog.getCurrentSystemInfo(),
@@ -223,6 +229,52 @@ public class Alter {
         }
     }
 
+    public void processCreateMaterializedView(CreateMaterializedViewStmt stmt) throws DdlException {
+        String dbName = stmt.getBaseTableName().getDb();
+        String tableName = stmt.getBaseTableName().getTbl();
+        Database db = Catalog.getInstance().getDb(dbName);
+        if (db == null) {
+            ErrorReport.reportDdlException(ErrorCode.ERR_BAD_DB_ERROR, dbName);
+        }
+
+        // check cluster capacity and db quota
+        Catalog.getCurrentSystemInfo().checkClusterCapacity(stmt.getClusterName());
+        db.checkQuota();
+
+        db.writeLock();
+        try {
+            Table table = db.getTable(tableName);
+            if (table == null) {
+                ErrorReport.reportDdlException(ErrorCode.ERR_BAD_TABLE_ERROR, tableName);
+            }
+            if (table.getType() != TableType.OLAP) {
+                throw new DdlException("Do not support create materialized view on non-OLAP table[" + tableName + "]");
+            }
+
+            OlapTable olapTable = (OlapTable) table;
+            if (olapTable.getPartitions().size() == 0) {
+                throw new DdlException("table with empty parition cannot create materialized view. [" + tableName + "]");
+            }
+            if (olapTable.getState() != OlapTableState.NORMAL) {
+                throw new DdlException("Table[" + table.getName() + "]'s state is not NORMAL. "
+                        + "Do not allow creating materialized view");
+            }
+            boolean isStable = olapTable.isStable(Catalog.getCurrentSystemInfo(),
+                    Catalog.getCurrentCatalog().getTabletScheduler(),
+                    db.getClusterName());
+            if (!isStable) {
+                throw new DdlException("table [" + olapTable.getName() + "] is not stable."
+                        + " Some tablets of this table may not be healthy or are being scheduled."
+                        + " You need to repair the table first"
+                        + " or stop cluster balance. See 'help admin;'.");
+            }
+
+            ((RollupHandler) rollupHandler).processCreateMaterializedView(stmt, db, olapTable);
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
     public void processAlterCluster(AlterSystemStmt stmt) throws DdlException {
         clusterHandler.process(Arrays.asList(stmt.getAlterClause()), stmt.getClusterName(), null, null);
     }
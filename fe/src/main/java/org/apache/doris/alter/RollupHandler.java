@@ -22,6 +22,7 @@ import org.apache.doris.analysis.AddRollupClause;
 import org.apache.doris.analysis.AlterClause;
 import org.apache.doris.analysis.CancelAlterTableStmt;
 import org.apache.doris.analysis.CancelStmt;
+import org.apache.doris.analysis.CreateMaterializedViewStmt;
 import org.apache.doris.analysis.DropRollupClause;
 import org.apache.doris.catalog.AggregateType;
 import org.apache.doris.catalog.Catalog;
@@ -276,20 +277,88 @@ public class RollupHandler extends AlterHandler {
 
         // assign rollup index's key type, same as base index's
         KeysType rollupKeysType = keysType;
-        
 
+        // 4. create rollup job
+        createRollupJob(db, olapTable, baseIndexId, baseIndexName, rollupIndexName, rollupSchema, rollupKeysType,
+                alterClause.getProperties(), alterClause.getTimeoutSecond());
+    }
+
+    /*
+     * Handle the Create Materialized View request.
+     * The materialized view is a rollup index of a duplicate keys table, whose keys type is AGG_KEYS,
+     * so that the rows are aggregated by the group by columns when loading, and the rollup job and
+     * the load process of rollup are reused to build and maintain it.
+     */
+    public void processCreateMaterializedView(CreateMaterializedViewStmt stmt, Database db, OlapTable olapTable)
+            throws DdlException {
+        if (olapTable.getState() == OlapTableState.ROLLUP || this.hasUnfinishedAlterJob(olapTable.getId())) {
+            throw new DdlException("Table[" + olapTable.getName() + "]'s is under ROLLUP");
+        }
+        Preconditions.checkState(olapTable.getState() == OlapTableState.NORMAL, olapTable.getState().name());
+
+        if (olapTable.getKeysType() != KeysType.DUP_KEYS) {
+            throw new DdlException("Materialized view is only supported on duplicate keys table. "
+                    + "Use rollup on table[" + olapTable.getName() + "] instead");
+        }
+
+        String mvName = stmt.getMVName();
+        if (olapTable.hasMaterializedIndex(mvName)) {
+            throw new DdlException("Materialized view[" + mvName + "] already exists");
+        }
+
+        long baseIndexId = olapTable.getBaseIndexId();
+        String baseIndexName = olapTable.getName();
+        for (Partition partition : olapTable.getPartitions()) {
+            MaterializedIndex baseIndex = partition.getIndex(baseIndexId);
+            Preconditions.checkState(baseIndex.getState() == IndexState.NORMAL, baseIndex.getState().name());
+        }
+
+        LOG.info("process create materialized view[{}] on table [{}]", mvName, olapTable.getName());
+
+        List<Column> mvSchema = Lists.newArrayList();
+        for (CreateMaterializedViewStmt.MVColumnItem item : stmt.getMVColumnItems()) {
+            Column baseColumn = olapTable.getColumn(item.getName());
+            if (baseColumn == null) {
+                throw new DdlException("Column[" + item.getName() + "] does not exist");
+            }
+            Column mvColumn = new Column(baseColumn);
+            if (item.isKey()) {
+                if (baseColumn.getType().isFloatingPointType() || baseColumn.getType().isHllType()
+                        || baseColumn.getType().isBitmapType()) {
+                    throw new DdlException("Column[" + item.getName() + "] with type "
+                            + baseColumn.getType() + " can not be group by column of materialized view");
+                }
+                mvColumn.setIsKey(true);
+                mvColumn.setAggregationType(null, false);
+            } else {
+                AggregateType aggregateType = item.getAggregateType();
+                if (!aggregateType.checkCompatibility(baseColumn.getDataType())) {
+                    throw new DdlException(aggregateType + " is not compatible with column[" + item.getName()
+                            + "] of type " + baseColumn.getType());
+                }
+                mvColumn.setIsKey(false);
+                mvColumn.setAggregationType(aggregateType, false);
+            }
+            mvSchema.add(mvColumn);
+        }
+
+        createRollupJob(db, olapTable, baseIndexId, baseIndexName, mvName, mvSchema, KeysType.AGG_KEYS,
+                stmt.getProperties(), stmt.getTimeoutSecond());
+    }
+
+    private void createRollupJob(Database db, OlapTable olapTable, long baseIndexId, String baseIndexName,
+            String rollupIndexName, List<Column> rollupSchema, KeysType rollupKeysType,
+            Map<String, String> properties, long timeoutSecond) throws DdlException {
         // get rollup schema hash
         int rollupSchemaHash = Util.schemaHash(0 /* init schema version */, rollupSchema, olapTable.getCopiedBfColumns(),
                                                olapTable.getBfFpp());
 
         // get short key column count
-        Map<String, String> properties = alterClause.getProperties();
         short rollupShortKeyColumnCount = Catalog.calcShortKeyColumnCount(rollupSchema, properties);
         
         // get timeout
-        long timeoutMs = alterClause.getTimeoutSecond() * 1000;
+        long timeoutMs = timeoutSecond * 1000;
 
-        // 4. create rollup job
         long dbId = db.getId();
         long tableId = olapTable.getId();
         int baseSchemaHash = olapTable.getSchemaHashByIndexId(baseIndexId);
@@ -264,6 +264,7 @@ public class RollupJobV2 extends AlterJobV2 {
         tbl.setIndexSchemaInfo(rollupIndexId, rollupIndexName, rollupSchema, 0 /* init schema version */,
                 rollupSchemaHash, rollupShortKeyColumnCount);
         tbl.setStorageTypeToIndex(rollupIndexId, TStorageType.COLUMN);
+        tbl.setIndexKeysType(rollupIndexId, rollupKeysType);
     }
 
     /*
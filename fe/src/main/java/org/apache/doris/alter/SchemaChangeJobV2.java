@@ -199,7 +199,8 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
                                     backendId, dbId, tableId, partitionId, shadowIdxId, shadowTabletId,
                                     shadowShortKeyColumnCount, shadowSchemaHash,
                                     Partition.PARTITION_INIT_VERSION, Partition.PARTITION_INIT_VERSION_HASH,
-                                    tbl.getKeysType(), TStorageType.COLUMN, storageMedium,
+                                    tbl.getKeysTypeByIndexId(indexIdMap.get(shadowIdxId)),
+                                    TStorageType.COLUMN, storageMedium,
                                     shadowSchema, bfColumns, bfFpp, countDownLatch);
                             createReplicaTask.setBaseTablet(partitionIndexTabletMap.get(partitionId, shadowIdxId).get(shadowTabletId), originSchemaHash);
                             
@@ -285,6 +286,7 @@ public class SchemaChangeJobV2 extends AlterJobV2 {
                     indexSchemaVersionAndHashMap.get(shadowIdxId).second,
                     indexShortKeyMap.get(shadowIdxId));
             tbl.setStorageTypeToIndex(shadowIdxId, TStorageType.COLUMN);
+            tbl.setIndexKeysType(shadowIdxId, tbl.getKeysTypeByIndexId(indexIdMap.get(shadowIdxId)));
         }
 
         tbl.rebuildFullSchema();
@@ -146,7 +146,18 @@ public class SystemHandler extends AlterHandler {
                         + "All data on this backend will be discarded permanently. "
                         + "If you insist, use DROPP BACKEND stmt (double P).");
             }
+            List<Long> droppedBackendIds = Lists.newArrayList();
+            for (Pair<String, Integer> pair : dropBackendClause.getHostPortPairs()) {
+                Backend backend = Catalog.getCurrentSystemInfo().getBackendWithHeartbeatPort(pair.first, pair.second);
+                if (backend != null) {
+                    droppedBackendIds.add(backend.getId());
+                }
+            }
             Catalog.getCurrentSystemInfo().dropBackends(dropBackendClause.getHostPortPairs());
+            // replicas on dropped backends are lost, and should be repaired
+            for (long backendId : droppedBackendIds) {
+                Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(backendId);
+            }
         } else if (alterClause instanceof DecommissionBackendClause) {
             // decommission
             DecommissionBackendClause decommissionBackendClause = (DecommissionBackendClause) alterClause;
@@ -159,6 +170,8 @@ public class SystemHandler extends AlterHandler {
             for (Backend backend : decommissionBackends) {
                 backend.setDecommissioned(true);
                 Catalog.getCurrentCatalog().getEditLog().logBackendStateChange(backend);
+                // replicas on decommissioned backend should be migrated
+                Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(backend.getId());
                 LOG.info("set backend {} to decommission", backend.getId());
             }
 
@@ -247,6 +260,7 @@ public class SystemHandler extends AlterHandler {
         for (Backend backend : backends) {
             if (backend.setDecommissioned(false)) {
                 Catalog.getInstance().getEditLog().logBackendStateChange(backend);
+                Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(backend.getId());
             } else {
                 LOG.info("backend is not decommissioned[{}]", backend.getHost());
             }
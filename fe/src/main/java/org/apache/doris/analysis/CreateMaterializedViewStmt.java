@@ -0,0 +1,224 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.AggregateType;
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.ErrorCode;
+import org.apache.doris.common.ErrorReport;
+import org.apache.doris.common.FeNameFormat;
+import org.apache.doris.common.UserException;
+import org.apache.doris.common.util.PrintableMap;
+import org.apache.doris.common.util.PropertyAnalyzer;
+import org.apache.doris.mysql.privilege.PrivPredicate;
+import org.apache.doris.qe.ConnectContext;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// used to create a materialized view on a duplicate keys table
+// syntax:
+//      CREATE MATERIALIZED VIEW mv_name [PROPERTIES ("key" = "value", ...)]
+//      AS SELECT k1, k2, SUM(v1), MAX(v2) FROM tbl GROUP BY k1, k2
+//
+// The materialized view is an aggregated rollup of the table, whose keys are the group by columns,
+// and whose values are aggregated by SUM, MIN or MAX. It is maintained when data is loaded into the table,
+// and queries on the table are answered by it if possible.
+public class CreateMaterializedViewStmt extends DdlStmt {
+
+    public static class MVColumnItem {
+        private final String name;
+        // null for key column
+        private final AggregateType aggregateType;
+
+        public MVColumnItem(String name, AggregateType aggregateType) {
+            this.name = name;
+            this.aggregateType = aggregateType;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public AggregateType getAggregateType() {
+            return aggregateType;
+        }
+
+        public boolean isKey() {
+            return aggregateType == null;
+        }
+    }
+
+    private final String mvName;
+    private final SelectStmt selectStmt;
+    private final Map<String, String> properties;
+
+    // set in analyze
+    private TableName baseTableName;
+    private final List<MVColumnItem> mvColumnItems = Lists.newArrayList();
+    private long timeoutSecond;
+
+    public CreateMaterializedViewStmt(String mvName, SelectStmt selectStmt, Map<String, String> properties) {
+        this.mvName = mvName;
+        this.selectStmt = selectStmt;
+        this.properties = properties == null ? Maps.newHashMap() : properties;
+    }
+
+    public String getMVName() {
+        return mvName;
+    }
+
+    public TableName getBaseTableName() {
+        return baseTableName;
+    }
+
+    public List<MVColumnItem> getMVColumnItems() {
+        return mvColumnItems;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public long getTimeoutSecond() {
+        return timeoutSecond;
+    }
+
+    @Override
+    public void analyze(Analyzer analyzer) throws AnalysisException, UserException {
+        super.analyze(analyzer);
+        FeNameFormat.checkTableName(mvName);
+
+        if (selectStmt.getTableRefs().size() != 1 || selectStmt.getTableRefs().get(0) instanceof InlineViewRef) {
+            throw new AnalysisException("Materialized view must be defined on exactly one table");
+        }
+        if (selectStmt.getWhereClause() != null || selectStmt.getHavingPred() != null
+                || selectStmt.hasOrderByClause() || selectStmt.hasLimitClause()) {
+            throw new AnalysisException("Materialized view does not support where, having, order by or limit");
+        }
+        if (!selectStmt.hasGroupByClause()) {
+            throw new AnalysisException("Materialized view must have group by clause, use rollup instead");
+        }
+        baseTableName = selectStmt.getTableRefs().get(0).getName();
+        baseTableName.analyze(analyzer);
+
+        analyzeSelectList();
+        analyzeGroupBy();
+
+        timeoutSecond = PropertyAnalyzer.analyzeTimeout(properties, Config.alter_table_timeout_second);
+
+        if (!Catalog.getCurrentCatalog().getAuth().checkTblPriv(ConnectContext.get(), baseTableName.getDb(),
+                baseTableName.getTbl(), PrivPredicate.ALTER)) {
+            ErrorReport.reportAnalysisException(ErrorCode.ERR_SPECIFIC_ACCESS_DENIED_ERROR, "ALTER");
+        }
+    }
+
+    // key columns are the column refs, which should be before all aggregated columns
+    private void analyzeSelectList() throws AnalysisException {
+        Set<String> columnNames = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        boolean meetValue = false;
+        for (SelectListItem item : selectStmt.getSelectList().getItems()) {
+            if (item.isStar()) {
+                throw new AnalysisException("Materialized view does not support *");
+            }
+            Expr expr = item.getExpr();
+            MVColumnItem mvColumnItem;
+            if (expr instanceof SlotRef) {
+                if (meetValue) {
+                    throw new AnalysisException("Key column should be before all aggregated columns: "
+                            + expr.toSql());
+                }
+                mvColumnItem = new MVColumnItem(((SlotRef) expr).getColumnName(), null);
+            } else if (expr instanceof FunctionCallExpr) {
+                meetValue = true;
+                mvColumnItem = analyzeAggregateExpr((FunctionCallExpr) expr);
+            } else {
+                throw new AnalysisException("Materialized view only supports column, sum, min and max: "
+                        + expr.toSql());
+            }
+            if (!columnNames.add(mvColumnItem.getName())) {
+                ErrorReport.reportAnalysisException(ErrorCode.ERR_DUP_FIELDNAME, mvColumnItem.getName());
+            }
+            mvColumnItems.add(mvColumnItem);
+        }
+        if (!mvColumnItems.get(0).isKey()) {
+            throw new AnalysisException("Materialized view must have at least one key column");
+        }
+    }
+
+    private MVColumnItem analyzeAggregateExpr(FunctionCallExpr functionCallExpr) throws AnalysisException {
+        String fnName = functionCallExpr.getFnName().getFunction().toLowerCase();
+        AggregateType aggregateType;
+        if (fnName.equals("sum")) {
+            aggregateType = AggregateType.SUM;
+        } else if (fnName.equals("min")) {
+            aggregateType = AggregateType.MIN;
+        } else if (fnName.equals("max")) {
+            aggregateType = AggregateType.MAX;
+        } else {
+            throw new AnalysisException("Materialized view only supports sum, min and max: "
+                    + functionCallExpr.toSql());
+        }
+        FunctionParams params = functionCallExpr.getParams();
+        if (params.isStar() || params.isDistinct() || params.exprs() == null || params.exprs().size() != 1
+                || !(params.exprs().get(0) instanceof SlotRef)) {
+            throw new AnalysisException("The argument of aggregate function in materialized view must be a column: "
+                    + functionCallExpr.toSql());
+        }
+        return new MVColumnItem(((SlotRef) params.exprs().get(0)).getColumnName(), aggregateType);
+    }
+
+    // group by columns must be the same as the key columns
+    private void analyzeGroupBy() throws AnalysisException {
+        Set<String> groupByColumns = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        for (Expr expr : selectStmt.getGroupingExprs()) {
+            if (!(expr instanceof SlotRef)) {
+                throw new AnalysisException("Materialized view only supports group by column: " + expr.toSql());
+            }
+            groupByColumns.add(((SlotRef) expr).getColumnName());
+        }
+        Set<String> keyColumns = Sets.newTreeSet(String.CASE_INSENSITIVE_ORDER);
+        for (MVColumnItem item : mvColumnItems) {
+            if (item.isKey()) {
+                keyColumns.add(item.getName());
+            }
+        }
+        if (!groupByColumns.equals(keyColumns)) {
+            throw new AnalysisException("The group by columns of materialized view must be the same as "
+                    + "the key columns in select list");
+        }
+    }
+
+    @Override
+    public String toSql() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("CREATE MATERIALIZED VIEW `").append(mvName).append("`");
+        if (!properties.isEmpty()) {
+            sb.append(" PROPERTIES (").append(new PrintableMap<>(properties, "=", true, false)).append(")");
+        }
+        sb.append(" AS ").append(selectStmt.toSql());
+        return sb.toString();
+    }
+}
@@ -762,6 +762,19 @@ abstract public class Expr extends TreeNode<Expr> implements ParseNode, Cloneabl
       return numDistinctValues;
     }
 
+    /**
+     * Returns the product of the given conjuncts' selectivities. The conjuncts whose
+     * selectivity is unknown are assumed to have DEFAULT_SELECTIVITY.
+     */
+    public static double getCombinedSelectivity(List<Expr> conjuncts) {
+        double selectivity = 1.0;
+        for (Expr conjunct : conjuncts) {
+            double conjunctSelectivity = conjunct.getSelectivity();
+            selectivity *= (conjunctSelectivity < 0 ? DEFAULT_SELECTIVITY : conjunctSelectivity);
+        }
+        return selectivity;
+    }
+
     public void vectorizedAnalyze(Analyzer analyzer) {
         for (Expr child: children) {
             child.vectorizedAnalyze(analyzer);
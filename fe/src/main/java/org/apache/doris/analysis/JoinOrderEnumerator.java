@@ -0,0 +1,353 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Table.TableType;
+
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Cost based join order enumerator for inner joins of olap tables.
+ *
+ * The planner builds a left-deep tree of hash joins in the order of table refs, in which
+ * the first table is the probe side, and every following table is the build side of one join.
+ * The cost of an order is the sum of the estimated sizes of all build sides and join outputs.
+ *
+ * Row count of a table comes from the row counts of tablets reported by backends, and is
+ * reduced by the selectivity of its own predicates. Output of an equal join is estimated as
+ *   |L| * |R| * (fraction of non-null keys) / max(#distinct values of L.c, R.d)
+ * If the number of distinct values of neither column is known, we assume the join key is
+ * unique in the smaller table, which is the common case of joins between fact and dimension tables.
+ *
+ * Orders are enumerated by dynamic programming if there are only a few tables, otherwise
+ * the cheapest table is added one by one greedily. Cross joins are only chosen when no table
+ * left can be joined by an equal join predicate.
+ *
+ * Tables must be analyzed, ie. have column stats collected by ANALYZE, otherwise the estimation
+ * is mostly guessed, and the order of SelectStmt.reorderTable() is kept.
+ *
+ * Same as SelectStmt.reorderTable(), a table except the first one is only joined after all the
+ * tables referenced by its equal join predicates, eg. c is joined after a and b for 'c.x = a.x + b.y'.
+ * Only inner joins are reordered, null is returned if there is any other kind of join.
+ */
+public class JoinOrderEnumerator {
+    private static final Logger LOG = LogManager.getLogger(JoinOrderEnumerator.class);
+
+    // use dynamic programming if the number of tables is not greater than this
+    private static final int MAX_DP_TABLE_NUM = 10;
+
+    private final Analyzer analyzer;
+    private final List<TableRef> tableRefs;
+    private final int tableNum;
+
+    // number of rows of each table, at least 1
+    private final long[] tableRowCounts;
+    // estimated number of rows of each table after applying its predicates
+    private final double[] scanRowCounts;
+    // selectivity of the most selective equal join predicate between two tables, 1.0 if there is none
+    private final double[][] joinSelectivities;
+    // bitmap of tables connected with each table by equal join predicates
+    private final int[] neighbors;
+    // bitmap of tables referenced by the equal join predicates of each table, except itself
+    private final int[] requiredTables;
+
+    public JoinOrderEnumerator(Analyzer analyzer, List<TableRef> tableRefs) {
+        this.analyzer = analyzer;
+        this.tableRefs = tableRefs;
+        this.tableNum = tableRefs.size();
+        this.tableRowCounts = new long[tableNum];
+        this.scanRowCounts = new double[tableNum];
+        this.joinSelectivities = new double[tableNum][tableNum];
+        this.neighbors = new int[tableNum];
+        this.requiredTables = new int[tableNum];
+    }
+
+    /*
+     * Returns the table refs in the cheapest order,
+     * or null if the order can not be estimated, eg. some table is not an olap table,
+     * or there are join hints or non inner joins, or no table has reported its row count,
+     * or some table is not analyzed,
+     * or no order satisfies the equal join predicates.
+     */
+    public List<TableRef> enumerate() {
+        if (tableNum < 2 || tableNum >= Integer.SIZE - 1 || !computeStats()) {
+            return null;
+        }
+        int[] order = tableNum <= MAX_DP_TABLE_NUM ? enumerateByDP() : enumerateGreedily();
+        if (order == null) {
+            return null;
+        }
+        List<TableRef> result = Lists.newArrayListWithCapacity(tableNum);
+        for (int idx : order) {
+            result.add(tableRefs.get(idx));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("join order: {}, scan row counts: {}", result, Arrays.toString(scanRowCounts));
+        }
+        return result;
+    }
+
+    // whether column stats of the table are collected by ANALYZE
+    private static boolean isAnalyzed(OlapTable table) {
+        List<Column> columns = table.getBaseSchema();
+        if (columns == null) {
+            return false;
+        }
+        for (Column column : columns) {
+            ColumnStats stats = column.getStats();
+            if (stats != null && stats.getNumDistinctValues() >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean computeStats() {
+        boolean hasRowCount = false;
+        for (int i = 0; i < tableNum; i++) {
+            TableRef tblRef = tableRefs.get(i);
+            if (tblRef.getJoinOp() != JoinOperator.INNER_JOIN
+                    || !(tblRef instanceof BaseTableRef) || tblRef.getTable().getType() != TableType.OLAP
+                    || tblRef.isBroadcastJoin() || tblRef.isPartitionJoin()) {
+                return false;
+            }
+            if (!isAnalyzed((OlapTable) tblRef.getTable())) {
+                return false;
+            }
+            long rowCount = ((OlapTable) tblRef.getTable()).getRowCount();
+            hasRowCount |= rowCount > 0;
+            tableRowCounts[i] = Math.max(1, rowCount);
+            List<Expr> conjuncts = analyzer.getUnassignedConjuncts(tblRef.getId().asList());
+            scanRowCounts[i] = Math.max(1.0, tableRowCounts[i] * Expr.getCombinedSelectivity(conjuncts));
+        }
+        if (!hasRowCount) {
+            return false;
+        }
+
+        for (int i = 0; i < tableNum; i++) {
+            Arrays.fill(joinSelectivities[i], 1.0);
+        }
+        for (int i = 0; i < tableNum; i++) {
+            for (int j = i + 1; j < tableNum; j++) {
+                List<TupleId> lhsIds = tableRefs.get(i).getId().asList();
+                List<TupleId> rhsIds = tableRefs.get(j).getId().asList();
+                for (Expr conjunct : analyzer.getEqJoinConjuncts(lhsIds, rhsIds)) {
+                    double selectivity = computeJoinSelectivity(conjunct, i, j);
+                    if (selectivity < 0) {
+                        continue;
+                    }
+                    joinSelectivities[i][j] = Math.min(joinSelectivities[i][j], selectivity);
+                    joinSelectivities[j][i] = joinSelectivities[i][j];
+                    neighbors[i] |= 1 << j;
+                    neighbors[j] |= 1 << i;
+                }
+            }
+        }
+
+        for (int i = 0; i < tableNum; i++) {
+            TupleId tupleId = tableRefs.get(i).getId();
+            for (Expr conjunct : analyzer.getEqJoinConjunctsExcludeAuxPredicates(tupleId)) {
+                List<TupleId> tupleIds = Lists.newArrayList();
+                conjunct.getIds(tupleIds, null);
+                for (TupleId id : tupleIds) {
+                    if (id.equals(tupleId)) {
+                        continue;
+                    }
+                    int idx = getTableIdx(id);
+                    if (idx < 0) {
+                        // references a tuple outside of these tables, leave it to the legacy order
+                        return false;
+                    }
+                    requiredTables[i] |= 1 << idx;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int getTableIdx(TupleId tupleId) {
+        for (int i = 0; i < tableNum; i++) {
+            if (tableRefs.get(i).getId().equals(tupleId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // returns -1 if the conjunct is not an equal join predicate between the two tables
+    private double computeJoinSelectivity(Expr conjunct, int lhsIdx, int rhsIdx) {
+        if (!(conjunct instanceof BinaryPredicate) || conjunct.getChildren().size() != 2) {
+            return -1;
+        }
+        Expr lhs = conjunct.getChild(0);
+        Expr rhs = conjunct.getChild(1);
+        TupleId lhsId = tableRefs.get(lhsIdx).getId();
+        TupleId rhsId = tableRefs.get(rhsIdx).getId();
+        if (!lhs.isBoundByTupleIds(lhsId.asList())) {
+            Expr tmp = lhs;
+            lhs = rhs;
+            rhs = tmp;
+        }
+        if (!lhs.isBoundByTupleIds(lhsId.asList()) || !rhs.isBoundByTupleIds(rhsId.asList())) {
+            return -1;
+        }
+
+        long numDistinct = -1;
+        double nonNullFraction = 1.0;
+        Expr[] keys = {lhs, rhs};
+        int[] tableIdxs = {lhsIdx, rhsIdx};
+        for (int k = 0; k < 2; k++) {
+            SlotRef slotRef = keys[k].unwrapSlotRef();
+            if (slotRef == null || slotRef.getDesc() == null) {
+                continue;
+            }
+            long rowCount = tableRowCounts[tableIdxs[k]];
+            ColumnStats stats = slotRef.getDesc().getStats();
+            if (stats.hasNumDistinctValues() && stats.getNumDistinctValues() > 0) {
+                numDistinct = Math.max(numDistinct, Math.min(stats.getNumDistinctValues(), rowCount));
+            }
+            if (stats.getNumNulls() > 0) {
+                nonNullFraction *= Math.max(0.0, 1.0 - (double) stats.getNumNulls() / rowCount);
+            }
+        }
+        if (numDistinct <= 0) {
+            // assume the join key is unique in the smaller table
+            numDistinct = Math.min(tableRowCounts[lhsIdx], tableRowCounts[rhsIdx]);
+        }
+        return nonNullFraction / numDistinct;
+    }
+
+    private double getJoinSelectivity(int tables, int idx) {
+        double selectivity = 1.0;
+        for (int i = 0; i < tableNum; i++) {
+            if ((tables & (1 << i)) != 0) {
+                selectivity = Math.min(selectivity, joinSelectivities[i][idx]);
+            }
+        }
+        return selectivity;
+    }
+
+    // whether the table can be joined with the joined tables, all tables referenced by its
+    // equal join predicates must have been joined, and cross join is only allowed if none of
+    // the rest tables can be joined by an equal join predicate
+    private boolean canJoin(int tables, int idx) {
+        if ((requiredTables[idx] & ~tables) != 0) {
+            return false;
+        }
+        if ((neighbors[idx] & tables) != 0) {
+            return true;
+        }
+        for (int i = 0; i < tableNum; i++) {
+            if ((tables & (1 << i)) == 0 && (neighbors[i] & tables) != 0
+                    && (requiredTables[i] & ~tables) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] enumerateByDP() {
+        int setNum = 1 << tableNum;
+        // cost and output row count of the best order of each set of tables
+        double[] costs = new double[setNum];
+        double[] rowCounts = new double[setNum];
+        // the last table joined in the best order of each set
+        int[] lastTables = new int[setNum];
+        Arrays.fill(costs, Double.MAX_VALUE);
+        for (int i = 0; i < tableNum; i++) {
+            costs[1 << i] = 0;
+            rowCounts[1 << i] = scanRowCounts[i];
+            lastTables[1 << i] = i;
+        }
+
+        for (int tables = 1; tables < setNum; tables++) {
+            if (costs[tables] == Double.MAX_VALUE) {
+                continue;
+            }
+            for (int idx = 0; idx < tableNum; idx++) {
+                if ((tables & (1 << idx)) != 0 || !canJoin(tables, idx)) {
+                    continue;
+                }
+                double rowCount = rowCounts[tables] * scanRowCounts[idx] * getJoinSelectivity(tables, idx);
+                double cost = costs[tables] + scanRowCounts[idx] + rowCount;
+                int newTables = tables | (1 << idx);
+                if (cost < costs[newTables]) {
+                    costs[newTables] = cost;
+                    rowCounts[newTables] = rowCount;
+                    lastTables[newTables] = idx;
+                }
+            }
+        }
+
+        if (costs[setNum - 1] == Double.MAX_VALUE) {
+            return null;
+        }
+        int[] order = new int[tableNum];
+        int tables = setNum - 1;
+        for (int i = tableNum - 1; i >= 0; i--) {
+            order[i] = lastTables[tables];
+            tables &= ~(1 << order[i]);
+        }
+        return order;
+    }
+
+    private int[] enumerateGreedily() {
+        int[] order = new int[tableNum];
+        // the largest table is the probe side
+        int first = 0;
+        for (int i = 1; i < tableNum; i++) {
+            if (scanRowCounts[i] > scanRowCounts[first]) {
+                first = i;
+            }
+        }
+        order[0] = first;
+        int tables = 1 << first;
+        double rowCount = scanRowCounts[first];
+        for (int i = 1; i < tableNum; i++) {
+            int best = -1;
+            double bestRowCount = Double.MAX_VALUE;
+            for (int idx = 0; idx < tableNum; idx++) {
+                if ((tables & (1 << idx)) != 0 || !canJoin(tables, idx)) {
+                    continue;
+                }
+                double newRowCount = rowCount * scanRowCounts[idx] * getJoinSelectivity(tables, idx);
+                if (best == -1 || newRowCount < bestRowCount
+                        || (newRowCount == bestRowCount && scanRowCounts[idx] < scanRowCounts[best])) {
+                    best = idx;
+                    bestRowCount = newRowCount;
+                }
+            }
+            if (best == -1) {
+                return null;
+            }
+            order[i] = best;
+            tables |= 1 << best;
+            rowCount = bestRowCount;
+        }
+        return order;
+    }
+}
@@ -205,6 +205,17 @@ public class SelectStmt extends QueryStmt {
     }
     public boolean hasHavingClause() { return havingClause != null; }
 
+    /**
+     * @return the original having clause, before analyzed
+     */
+    public Expr getHavingClause() {
+        return havingClause;
+    }
+
+    public void setHavingClause(Expr havingClause) {
+        this.havingClause = havingClause;
+    }
+
     @Override
     public SortInfo getSortInfo() {
         return sortInfo;
@@ -539,6 +550,17 @@ public class SelectStmt extends QueryStmt {
             }
             candidates.add(new Pair(tblRef, rowCount));
         }
+
+        if (ConnectContext.get() != null
+                && ConnectContext.get().getSessionVariable().isEnableCostBasedJoinReorder()) {
+            List<TableRef> joinOrder = new JoinOrderEnumerator(analyzer, fromClause_.getTableRefs()).enumerate();
+            if (joinOrder != null) {
+                fromClause_.clear();
+                fromClause_.addAll(joinOrder);
+                return;
+            }
+        }
+
         // give InlineView row count
         long last = 0;
         for (int i = candidates.size() - 1; i >= 0; --i) {
@@ -1318,6 +1340,7 @@ public class SelectStmt extends QueryStmt {
     public boolean hasWhereClause() { return whereClause != null; }
     public boolean hasAggInfo() { return aggInfo != null; }
     public boolean hasGroupByClause() { return groupingExprs != null; }
+    public List<Expr> getGroupingExprs() { return groupingExprs; }
     /**
      * Check if the stmt returns a single row. This can happen
      * in the following cases:
@@ -617,7 +617,7 @@ public class RestoreJob extends AbstractJob {
                 for (MaterializedIndex restoredIdx : restorePart.getMaterializedIndices(IndexExtState.VISIBLE)) {
                     short shortKeyColumnCount = localTbl.getShortKeyColumnCountByIndexId(restoredIdx.getId());
                     int schemaHash = localTbl.getSchemaHashByIndexId(restoredIdx.getId());
-                    KeysType keysType = localTbl.getKeysType();
+                    KeysType keysType = localTbl.getKeysTypeByIndexId(restoredIdx.getId());
                     List<Column> columns = localTbl.getSchemaByIndexId(restoredIdx.getId());
                     TabletMeta tabletMeta = new TabletMeta(db.getId(), localTbl.getId(), restorePart.getId(),
                             restoredIdx.getId(), schemaHash, TStorageMedium.HDD);
@@ -650,7 +650,7 @@ public class RestoreJob extends AbstractJob {
                     for (MaterializedIndex index : restorePart.getMaterializedIndices(IndexExtState.VISIBLE)) {
                         short shortKeyColumnCount = restoreTbl.getShortKeyColumnCountByIndexId(index.getId());
                         int schemaHash = restoreTbl.getSchemaHashByIndexId(index.getId());
-                        KeysType keysType = restoreTbl.getKeysType();
+                        KeysType keysType = restoreTbl.getKeysTypeByIndexId(index.getId());
                         List<Column> columns = restoreTbl.getSchemaByIndexId(index.getId());
                         TabletMeta tabletMeta = new TabletMeta(db.getId(), restoreTbl.getId(), restorePart.getId(),
                                 index.getId(), schemaHash, TStorageMedium.HDD);
@@ -40,6 +40,7 @@ import org.apache.doris.analysis.ColumnRenameClause;
 import org.apache.doris.analysis.CreateClusterStmt;
 import org.apache.doris.analysis.CreateDbStmt;
 import org.apache.doris.analysis.CreateFunctionStmt;
+import org.apache.doris.analysis.CreateMaterializedViewStmt;
 import org.apache.doris.analysis.CreateTableStmt;
 import org.apache.doris.analysis.CreateUserStmt;
 import org.apache.doris.analysis.CreateViewStmt;
@@ -100,6 +101,7 @@ import org.apache.doris.common.FeMetaVersion;
 import org.apache.doris.common.MarkedCountDownLatch;
 import org.apache.doris.common.Pair;
 import org.apache.doris.common.UserException;
+import org.apache.doris.common.io.DataOutputBuffer;
 import org.apache.doris.common.io.Text;
 import org.apache.doris.common.util.Daemon;
 import org.apache.doris.common.util.KuduUtil;
@@ -139,6 +141,7 @@ import org.apache.doris.load.routineload.RoutineLoadManager;
 import org.apache.doris.load.routineload.RoutineLoadScheduler;
 import org.apache.doris.load.routineload.RoutineLoadTaskScheduler;
 import org.apache.doris.master.Checkpoint;
+import org.apache.doris.master.DirtyDbCollector;
 import org.apache.doris.master.MetaHelper;
 import org.apache.doris.meta.MetaContext;
 import org.apache.doris.metric.MetricRepo;
@@ -167,6 +170,7 @@ import org.apache.doris.qe.JournalObservable;
 import org.apache.doris.qe.SessionVariable;
 import org.apache.doris.qe.VariableMgr;
 import org.apache.doris.service.FrontendOptions;
+import org.apache.doris.statistics.StatisticsCollector;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.Backend.BackendState;
 import org.apache.doris.system.Frontend;
@@ -211,6 +215,7 @@ import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
@@ -231,6 +236,10 @@ import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -314,6 +323,12 @@ public class Catalog {
     private static Catalog CHECKPOINT = null;
     private static long checkpointThreadId = -1;
     private Checkpoint checkpointer;
+    // Only used by checkpoint catalog in incremental checkpoint.
+    // dbs are not deserialized when loading image, their serialized bytes are saved in reusedDbSections.
+    // A db is deserialized when it is first accessed, or is modified by a journal, see loadReusedDb().
+    // Bytes of the rest dbs are written to the new image as is.
+    private boolean isIncrementalCheckpoint = false;
+    private Map<Long, byte[]> reusedDbSections = Maps.newHashMap();
     private List<Pair<String, Integer>> helperNodes = Lists.newArrayList();
     private Pair<String, Integer> selfNode = null;
 
@@ -354,6 +369,7 @@ public class Catalog {
     private TabletScheduler tabletScheduler;
 
     private TabletChecker tabletChecker;
+    private StatisticsCollector statisticsCollector;
 
     private MasterTaskExecutor loadTaskScheduler;
 
@@ -479,6 +495,7 @@ public class Catalog {
         this.stat = new TabletSchedulerStat();
         this.tabletScheduler = new TabletScheduler(this, systemInfo, tabletInvertedIndex, stat);
         this.tabletChecker = new TabletChecker(this, systemInfo, tabletScheduler, stat);
+        this.statisticsCollector = new StatisticsCollector();
 
         this.loadTaskScheduler = new MasterTaskExecutor(Config.async_load_task_pool_size);
         this.loadJobScheduler = new LoadJobScheduler();
@@ -490,6 +507,10 @@ public class Catalog {
         this.smallFileMgr = new SmallFileMgr();
     }
 
+    public void setIncrementalCheckpoint(boolean isIncrementalCheckpoint) {
+        this.isIncrementalCheckpoint = isIncrementalCheckpoint;
+    }
+
     public static void destroyCheckpoint() {
         if (CHECKPOINT != null) {
             CHECKPOINT = null;
@@ -545,6 +566,10 @@ public class Catalog {
         return tabletChecker;
     }
 
+    public StatisticsCollector getStatisticsCollector() {
+        return statisticsCollector;
+    }
+
     public ConcurrentHashMap<String, Database> getFullNameToDb() {
         return fullNameToDb;
     }
@@ -1154,6 +1179,8 @@ public class Catalog {
         }
         // Publish Version Daemon
         publishVersionDaemon.start();
+        // Statistics collector
+        statisticsCollector.start();
         // Start txn cleaner
         txnCleaner.start();
         // Alter
@@ -1476,9 +1503,20 @@ public class Catalog {
     public long loadDb(DataInputStream dis, long checksum) throws IOException, DdlException {
         int dbCount = dis.readInt();
         long newChecksum = checksum ^ dbCount;
-        for (long i = 0; i < dbCount; ++i) {
-            Database db = new Database();
-            db.readFields(dis);
+        List<Database> dbs;
+        if (MetaContext.get().getMetaVersion() >= FeMetaVersion.VERSION_70) {
+            dbs = loadDbSections(dis, dbCount);
+        } else {
+            dbs = Lists.newArrayListWithCapacity(dbCount);
+            for (long i = 0; i < dbCount; ++i) {
+                Database db = new Database();
+                db.readFields(dis);
+                dbs.add(db);
+            }
+        }
+
+        // dbs are put in the same order as they are saved in image
+        for (Database db : dbs) {
             newChecksum ^= db.getId();
             idToDb.put(db.getId(), db);
             fullNameToDb.put(db.getFullName(), db);
@@ -1486,10 +1524,135 @@ public class Catalog {
                 fullNameToDb.put(db.getAttachDb(), db);
             }
         }
+        for (Long dbId : reusedDbSections.keySet()) {
+            newChecksum ^= dbId;
+        }
 
         return newChecksum;
     }
 
+    /*
+     * Each db section is: db id, length of serialized db, serialized db.
+     * The bytes of all sections are read sequentially, and deserialized on a thread pool.
+     * Checkpoint thread always deserializes dbs by itself, because Catalog.getCurrentCatalog()
+     * depends on the calling thread.
+     */
+    private List<Database> loadDbSections(DataInputStream dis, int dbCount) throws IOException {
+        // bytes can only be reused if they are in the same format as we are going to save
+        if (isIncrementalCheckpoint && MetaContext.get().getMetaVersion() == FeConstants.meta_version) {
+            for (int i = 0; i < dbCount; ++i) {
+                long dbId = dis.readLong();
+                byte[] data = new byte[dis.readInt()];
+                dis.readFully(data);
+                reusedDbSections.put(dbId, data);
+            }
+            LOG.info("keep {} db sections of image for incremental checkpoint", dbCount);
+            return Lists.newArrayList();
+        }
+
+        int threadNum = Math.min(Config.image_load_thread_num, dbCount);
+        if (threadNum <= 1 || isCheckpointThread()) {
+            List<Database> dbs = Lists.newArrayListWithCapacity(dbCount);
+            for (int i = 0; i < dbCount; ++i) {
+                long dbId = dis.readLong();
+                byte[] data = new byte[dis.readInt()];
+                dis.readFully(data);
+                dbs.add(readDbSection(dbId, data));
+            }
+            return dbs;
+        }
+
+        final int metaVersion = MetaContext.get().getMetaVersion();
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        try {
+            List<Future<Database>> futures = Lists.newArrayListWithCapacity(dbCount);
+            for (int i = 0; i < dbCount; ++i) {
+                final long dbId = dis.readLong();
+                final byte[] data = new byte[dis.readInt()];
+                dis.readFully(data);
+                futures.add(executor.submit(() -> {
+                    MetaContext metaContext = new MetaContext();
+                    metaContext.setMetaVersion(metaVersion);
+                    metaContext.setThreadLocalInfo();
+                    try {
+                        return readDbSection(dbId, data);
+                    } finally {
+                        MetaContext.remove();
+                    }
+                }));
+            }
+
+            List<Database> dbs = Lists.newArrayListWithCapacity(dbCount);
+            for (Future<Database> future : futures) {
+                try {
+                    dbs.add(future.get());
+                } catch (InterruptedException e) {
+                    throw new IOException("interrupted when loading db from image", e);
+                } catch (ExecutionException e) {
+                    throw new IOException("failed to load db from image", e.getCause());
+                }
+            }
+            return dbs;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Database readDbSection(long dbId, byte[] data) throws IOException {
+        Database db = new Database();
+        db.readFields(new DataInputStream(new ByteArrayInputStream(data)));
+        if (db.getId() != dbId) {
+            throw new IOException("db id in image section does not match: " + dbId + " vs. " + db.getId());
+        }
+        return db;
+    }
+
+    /*
+     * Deserialize a db kept in reusedDbSections and add it to catalog, only in incremental checkpoint.
+     * Return null if the db is not kept.
+     */
+    private Database loadReusedDb(long dbId) {
+        byte[] data = reusedDbSections.remove(dbId);
+        if (data == null) {
+            return null;
+        }
+        Database db;
+        try {
+            db = readDbSection(dbId, data);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to load db section " + dbId, e);
+        }
+        idToDb.put(db.getId(), db);
+        fullNameToDb.put(db.getFullName(), db);
+        if (db.getDbState() == DbState.LINK) {
+            fullNameToDb.put(db.getAttachDb(), db);
+        }
+        return db;
+    }
+
+    private void loadAllReusedDbs() {
+        for (Long dbId : Lists.newArrayList(reusedDbSections.keySet())) {
+            loadReusedDb(dbId);
+        }
+    }
+
+    /*
+     * Deserialize the dbs which may be modified by the journal before replaying it, only in incremental checkpoint.
+     * Dbs must be in catalog before replaying, because replay methods may access idToDb and fullNameToDb directly.
+     */
+    void loadReusedDbsOfJournal(JournalEntity entity) {
+        if (reusedDbSections.isEmpty()) {
+            return;
+        }
+        long dbId = DirtyDbCollector.getModifiedDbId(entity);
+        if (dbId == DirtyDbCollector.ALL_DB) {
+            LOG.info("journal with op code {} may modify all dbs, load all kept db sections", entity.getOpCode());
+            loadAllReusedDbs();
+        } else if (dbId != DirtyDbCollector.NO_DB) {
+            loadReusedDb(dbId);
+        }
+    }
+
     public long loadLoadJob(DataInputStream dis, long checksum) throws IOException, DdlException {
         // load jobs
         int jobSize = dis.readInt();
@@ -1849,7 +2012,7 @@ public class Catalog {
     }
 
     public long saveDb(DataOutputStream dos, long checksum) throws IOException {
-        int dbCount = idToDb.size() - nameToCluster.keySet().size();
+        int dbCount = idToDb.size() - nameToCluster.keySet().size() + reusedDbSections.size();
         checksum ^= dbCount;
         dos.writeInt(dbCount);
         for (Map.Entry<Long, Database> entry : idToDb.entrySet()) {
@@ -1858,14 +2021,26 @@ public class Catalog {
             // Don't write information_schema db meta
             if (!InfoSchemaDb.isInfoSchemaDb(dbName)) {
                 checksum ^= entry.getKey();
+                // db section: db id, length of serialized db, serialized db. see loadDbSections()
+                DataOutputBuffer buffer = new DataOutputBuffer();
                 db.readLock();
                 try {
-                    db.write(dos);
+                    db.write(buffer);
                 } finally {
                     db.readUnlock();
                 }
+                dos.writeLong(entry.getKey());
+                dos.writeInt(buffer.getLength());
+                dos.write(buffer.getData(), 0, buffer.getLength());
             }
         }
+        // dbs which are not modified since last image, only in incremental checkpoint
+        for (Map.Entry<Long, byte[]> entry : reusedDbSections.entrySet()) {
+            checksum ^= entry.getKey();
+            dos.writeLong(entry.getKey());
+            dos.writeInt(entry.getValue().length);
+            dos.write(entry.getValue());
+        }
         return checksum;
     }
 
@@ -2305,6 +2480,7 @@ public class Catalog {
                 break;
             }
             hasLog = true;
+            loadReusedDbsOfJournal(entity);
             EditLog.loadJournal(this, entity);
             replayedJournalId.incrementAndGet();
             LOG.debug("journal {} replayed.", replayedJournalId);
@@ -2542,6 +2718,7 @@ public class Catalog {
             final Cluster cluster = nameToCluster.get(db.getClusterName());
             cluster.removeDb(dbName, db.getId());
             editLog.logDropDb(dbName);
+            globalTransactionMgr.removeDatabaseTransactionMgr(db.getId());
         } finally {
             unlock();
         }
@@ -2588,6 +2765,7 @@ public class Catalog {
             idToDb.remove(db.getId());
             final Cluster cluster = nameToCluster.get(db.getClusterName());
             cluster.removeDb(dbName, db.getId());
+            globalTransactionMgr.removeDatabaseTransactionMgr(db.getId());
         } finally {
             unlock();
         }
@@ -2849,6 +3027,7 @@ public class Catalog {
         Map<Long, Integer> indexIdToSchemaHash = null;
         Map<Long, Short> indexIdToShortKeyColumnCount = null;
         Map<Long, TStorageType> indexIdToStorageType = null;
+        Map<Long, KeysType> indexIdToKeysType = null;
         Set<String> bfColumns = null;
 
         String partitionName = singlePartitionDesc.getPartitionName();
@@ -2939,6 +3118,7 @@ public class Catalog {
             indexIdToSchemaHash = olapTable.getCopiedIndexIdToSchemaHash();
             indexIdToStorageType = olapTable.getCopiedIndexIdToStorageType();
             indexIdToSchema = olapTable.getCopiedIndexIdToSchema();
+            indexIdToKeysType = olapTable.getCopiedIndexIdToKeysType();
             bfColumns = olapTable.getCopiedBfColumns();
         } catch (AnalysisException e) {
             throw new DdlException(e.getMessage());
@@ -2968,7 +3148,7 @@ public class Catalog {
                     indexIdToSchemaHash,
                     indexIdToStorageType,
                     indexIdToSchema,
-                    olapTable.getKeysType(),
+                    indexIdToKeysType,
                     distributionInfo,
                     dataProperty.getStorageMedium(),
                     singlePartitionDesc.getReplicationNum(),
@@ -3245,7 +3425,7 @@ public class Catalog {
                                                  Map<Long, Integer> indexIdToSchemaHash,
                                                  Map<Long, TStorageType> indexIdToStorageType,
                                                  Map<Long, List<Column>> indexIdToSchema,
-                                                 KeysType keysType,
+                                                 Map<Long, KeysType> indexIdToKeysType,
                                                  DistributionInfo distributionInfo,
                                                  TStorageMedium storageMedium,
                                                  short replicationNum,
@@ -3310,7 +3490,7 @@ public class Catalog {
                             partitionId, indexId, tabletId,
                             shortKeyColumnCount, schemaHash,
                             version, versionHash,
-                            keysType,
+                            indexIdToKeysType.get(indexId),
                             storageType, storageMedium,
                             schema, bfColumns, bfFpp,
                             countDownLatch);
@@ -3535,7 +3715,7 @@ public class Catalog {
                         olapTable.getIndexIdToSchemaHash(),
                         olapTable.getIndexIdToStorageType(),
                         olapTable.getIndexIdToSchema(),
-                        keysType,
+                        olapTable.getCopiedIndexIdToKeysType(),
                         distributionInfo,
                         partitionInfo.getDataProperty(partitionId).getStorageMedium(),
                         partitionInfo.getReplicationNum(partitionId),
@@ -3567,7 +3747,7 @@ public class Catalog {
                             olapTable.getIndexIdToSchemaHash(),
                             olapTable.getIndexIdToStorageType(),
                             olapTable.getIndexIdToSchema(),
-                            keysType, distributionInfo,
+                            olapTable.getCopiedIndexIdToKeysType(), distributionInfo,
                             dataProperty.getStorageMedium(),
                             partitionInfo.getReplicationNum(entry.getValue()),
                             versionInfo, bfColumns, bfFpp,
@@ -4339,6 +4519,9 @@ public class Catalog {
     }
 
     public Database getDb(String name) {
+        if (!reusedDbSections.isEmpty() && !fullNameToDb.containsKey(name)) {
+            loadAllReusedDbs();
+        }
         if (fullNameToDb.containsKey(name)) {
             return fullNameToDb.get(name);
         } else {
@@ -4356,7 +4539,11 @@ public class Catalog {
     }
 
     public Database getDb(long dbId) {
-        return idToDb.get(dbId);
+        Database db = idToDb.get(dbId);
+        if (db == null && !reusedDbSections.isEmpty()) {
+            db = loadReusedDb(dbId);
+        }
+        return db;
     }
 
     public EditLog getEditLog() {
@@ -4370,6 +4557,7 @@ public class Catalog {
     }
 
     public List<String> getDbNames() {
+        loadAllReusedDbs();
         return Lists.newArrayList(fullNameToDb.keySet());
     }
 
@@ -4382,6 +4570,7 @@ public class Catalog {
     }
 
     public List<Long> getDbIds() {
+        loadAllReusedDbs();
         return Lists.newArrayList(idToDb.keySet());
     }
 
@@ -4733,6 +4922,14 @@ public class Catalog {
         this.alter.processAlterTable(stmt);
     }
 
+    /*
+     * used for handling CreateMaterializedViewStmt.
+     * the materialized view is created as a rollup by RollupHandler
+     */
+    public void createMaterializedView(CreateMaterializedViewStmt stmt) throws DdlException {
+        this.alter.processCreateMaterializedView(stmt);
+    }
+
     /*
      * used for handling CacnelAlterStmt (for client is the CANCEL ALTER
      * command). including SchemaChangeHandler and RollupHandler
@@ -5087,6 +5284,7 @@ public class Catalog {
         if (SingletonHolder.INSTANCE.fullNameToDb != null) {
             SingletonHolder.INSTANCE.fullNameToDb.clear();
         }
+        SingletonHolder.INSTANCE.reusedDbSections.clear();
         if (load.getIdToLoadJob() != null) {
             load.getIdToLoadJob().clear();
             // load = null;
@@ -5957,7 +6155,7 @@ public class Catalog {
                         copiedTbl.getIndexIdToSchemaHash(),
                         copiedTbl.getIndexIdToStorageType(),
                         copiedTbl.getIndexIdToSchema(),
-                        copiedTbl.getKeysType(),
+                        copiedTbl.getCopiedIndexIdToKeysType(),
                         copiedTbl.getDefaultDistributionInfo(),
                         copiedTbl.getPartitionInfo().getDataProperty(oldPartitionId).getStorageMedium(),
                         copiedTbl.getPartitionInfo().getReplicationNum(oldPartitionId),
@@ -49,6 +49,8 @@ public class DiskInfo implements Writable {
     // path hash and storage medium are reported from Backend and no need to persist
     private long pathHash = 0;
     private TStorageMedium storageMedium;
+    // percent of time the disk is busy with io, [0, 100], reported from Backend and no need to persist
+    private double ioUtil = 0.0;
 
     private DiskInfo() {
         // for persist
@@ -129,6 +131,14 @@ public class DiskInfo implements Writable {
         this.storageMedium = storageMedium;
     }
 
+    public double getIoUtil() {
+        return ioUtil;
+    }
+
+    public void setIoUtil(double ioUtil) {
+        this.ioUtil = ioUtil;
+    }
+
     /*
      * Check if this disk's capacity reach the limit. Return true if yes.
      * if floodStage is true, use floodStage threshold to check.
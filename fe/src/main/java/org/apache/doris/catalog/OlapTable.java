@@ -98,6 +98,10 @@ public class OlapTable extends Table {
     private Map<Long, TStorageType> indexIdToStorageType;
     // index name -> index id
     private Map<String, Long> indexNameToId;
+    // index id -> keys type of materialized view.
+    // Materialized views are aggregated rollups of a duplicate keys table, whose keys type is AGG_KEYS.
+    // Indices not in this map have the same keys type as the table.
+    private Map<Long, KeysType> indexIdToKeysType = Maps.newHashMap();
 
     private KeysType keysType;
     private PartitionInfo partitionInfo;
@@ -258,6 +262,7 @@ public class OlapTable extends Table {
         indexIdToSchemaHash.remove(indexId);
         indexIdToShortKeyColumnCount.remove(indexId);
         indexIdToStorageType.remove(indexId);
+        indexIdToKeysType.remove(indexId);
         return true;
     }
 
@@ -313,6 +318,9 @@ public class OlapTable extends Table {
             indexIdToSchemaVersion.put(newIdxId, indexIdToSchemaVersion.remove(entry.getKey()));
             indexIdToShortKeyColumnCount.put(newIdxId, indexIdToShortKeyColumnCount.remove(entry.getKey()));
             indexIdToStorageType.put(newIdxId, indexIdToStorageType.remove(entry.getKey()));
+            if (indexIdToKeysType.containsKey(entry.getKey())) {
+                indexIdToKeysType.put(newIdxId, indexIdToKeysType.remove(entry.getKey()));
+            }
             indexNameToId.put(entry.getValue(), newIdxId);
         }
 
@@ -332,8 +340,7 @@ public class OlapTable extends Table {
                 rangePartitionInfo.idToReplicationNum.remove(entry.getValue());
                 rangePartitionInfo.idToReplicationNum.put(newPartId,
                                                           (short) restoreReplicationNum);
-                rangePartitionInfo.getIdToRange().put(newPartId,
-                                                      rangePartitionInfo.getIdToRange().remove(entry.getValue()));
+                rangePartitionInfo.changeRangePartitionId(entry.getValue(), newPartId);
 
                 idToPartition.put(newPartId, idToPartition.remove(entry.getValue()));
             }
@@ -489,6 +496,36 @@ public class OlapTable extends Table {
         return keysType;
     }
 
+    public KeysType getKeysTypeByIndexId(long indexId) {
+        KeysType indexKeysType = indexIdToKeysType.get(indexId);
+        return indexKeysType == null ? keysType : indexKeysType;
+    }
+
+    public void setIndexKeysType(long indexId, KeysType indexKeysType) {
+        if (indexKeysType == keysType) {
+            indexIdToKeysType.remove(indexId);
+        } else {
+            indexIdToKeysType.put(indexId, indexKeysType);
+        }
+    }
+
+    // return keys type of all indices
+    public Map<Long, KeysType> getCopiedIndexIdToKeysType() {
+        Map<Long, KeysType> copiedIndexIdToKeysType = Maps.newHashMap();
+        for (Long indexId : indexIdToSchema.keySet()) {
+            copiedIndexIdToKeysType.put(indexId, getKeysTypeByIndexId(indexId));
+        }
+        return copiedIndexIdToKeysType;
+    }
+
+    public boolean isMaterializedView(long indexId) {
+        return indexIdToKeysType.containsKey(indexId);
+    }
+
+    public boolean hasMaterializedView() {
+        return !indexIdToKeysType.isEmpty();
+    }
+
     public PartitionInfo getPartitionInfo() {
         return partitionInfo;
     }
@@ -819,6 +856,13 @@ public class OlapTable extends Table {
         }
 
         out.writeLong(baseIndexId);
+
+        // keys type of materialized views
+        out.writeInt(indexIdToKeysType.size());
+        for (Map.Entry<Long, KeysType> entry : indexIdToKeysType.entrySet()) {
+            out.writeLong(entry.getKey());
+            Text.writeString(out, entry.getValue().name());
+        }
     }
 
     public void readFields(DataInput in) throws IOException {
@@ -912,6 +956,14 @@ public class OlapTable extends Table {
             // the old table use table id as base index id
             baseIndexId = id;
         }
+
+        if (Catalog.getCurrentCatalogJournalVersion() >= FeMetaVersion.VERSION_71) {
+            int mvCount = in.readInt();
+            for (int i = 0; i < mvCount; i++) {
+                long indexId = in.readLong();
+                indexIdToKeysType.put(indexId, KeysType.valueOf(Text.readString(in)));
+            }
+        }
     }
 
     public boolean equals(Table table) {
@@ -24,8 +24,11 @@ import org.apache.doris.common.DdlException;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableRangeMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.TreeRangeMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,6 +50,10 @@ public class RangePartitionInfo extends PartitionInfo {
     private List<Column> partitionColumns;
     // partition id -> partition range
     private Map<Long, Range<PartitionKey>> idToRange;
+    // partition range -> partition id, the interval index of idToRange used to prune partitions.
+    // it is built when first used after idToRange is changed, and is immutable so that
+    // it can be shared by all queries on the table.
+    private volatile RangeMap<PartitionKey, Long> rangeIndex = null;
 
     private static final Comparator<Map.Entry<Long, Range<PartitionKey>>> RANGE_MAP_ENTRY_COMPARATOR;
 
@@ -82,12 +89,14 @@ public class RangePartitionInfo extends PartitionInfo {
     public void dropPartition(long partitionId) {
         super.dropPartition(partitionId);
         idToRange.remove(partitionId);
+        rangeIndex = null;
     }
 
     public void addPartition(long partitionId, Range<PartitionKey> range, DataProperty dataProperty,
             short replicationNum) {
         addPartition(partitionId, dataProperty, replicationNum);
         idToRange.put(partitionId, range);
+        rangeIndex = null;
     }
 
     public Range<PartitionKey> checkAndCreateRange(SingleRangePartitionDesc desc) throws DdlException {
@@ -185,6 +194,7 @@ public class RangePartitionInfo extends PartitionInfo {
         try {
             range = checkAndCreateRange(desc);
             idToRange.put(partitionId, range);
+            rangeIndex = null;
         } catch (IllegalArgumentException e) {
             // Range.closedOpen may throw this if (lower > upper)
             throw new DdlException("Invalid key range: " + e.getMessage());
@@ -199,16 +209,38 @@ public class RangePartitionInfo extends PartitionInfo {
                                                       DataProperty dataProperty, short replicationNum)
             throws DdlException {
         idToRange.put(partitionId, range);
+        rangeIndex = null;
         idToDataProperty.put(partitionId, dataProperty);
         idToReplicationNum.put(partitionId, replicationNum);
     }
 
     public void setRange(long partitionId, Range<PartitionKey> range) {
         idToRange.put(partitionId, range);
+        rangeIndex = null;
     }
 
+    // for restore, the partition is assigned a new id
+    public void changeRangePartitionId(long oldPartitionId, long newPartitionId) {
+        idToRange.put(newPartitionId, idToRange.remove(oldPartitionId));
+        rangeIndex = null;
+    }
+
+    // the returned map should not be modified, use the methods above to change ranges
     public Map<Long, Range<PartitionKey>> getIdToRange() {
-        return idToRange;
+        return Collections.unmodifiableMap(idToRange);
+    }
+
+    public RangeMap<PartitionKey, Long> getRangeIndex() {
+        RangeMap<PartitionKey, Long> index = rangeIndex;
+        if (index == null) {
+            RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
+            for (Map.Entry<Long, Range<PartitionKey>> entry : idToRange.entrySet()) {
+                rangeMap.put(entry.getValue(), entry.getKey());
+            }
+            index = ImmutableRangeMap.copyOf(rangeMap);
+            rangeIndex = index;
+        }
+        return index;
     }
 
     public Range<PartitionKey> getRange(long partitionId) {
@@ -353,6 +385,7 @@ public class RangePartitionInfo extends PartitionInfo {
             Range<PartitionKey> range = RangePartitionInfo.readRange(in);
             idToRange.put(partitionId, range);
         }
+        rangeIndex = null;
     }
 
     @Override
@@ -35,15 +35,18 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -52,20 +55,35 @@ import java.util.stream.Collectors;
  * key is tablet id. value is the related ids of this tablet
  * Checkpoint thread is no need to modify this inverted index, because this inverted index will not be wrote
  * into images, all meta data are in catalog, and the inverted index will be rebuild when FE restart.
+ *
+ * Tablet metas and replicas are split into shards by tablet id, and each shard has its own lock.
+ * So that operations on different tablets, such as tablet report and query planning, do not block each other.
+ * The maps indexed by replica id and backend id are concurrent maps, and are only modified while holding
+ * the write lock of the shard which the tablet belongs to.
  */
 public class TabletInvertedIndex {
     private static final Logger LOG = LogManager.getLogger(TabletInvertedIndex.class);
 
     public static final int NOT_EXIST_VALUE = -1;
 
-    private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // must be power of 2
+    private static final int SHARD_NUM = 128;
+
+    private static class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // tablet id -> tablet meta
+        private final Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
+        // tablet id -> (backend id -> replica)
+        private final Map<Long, Map<Long, Replica>> replicaMetaMap = Maps.newHashMap();
+        // tablet id -> zone map reported by backends, not persisted
+        private final Map<Long, TabletZoneMap> zoneMapMap = Maps.newHashMap();
+    }
+
+    private final Shard[] shards = new Shard[SHARD_NUM];
 
-    // tablet id -> tablet meta
-    private Map<Long, TabletMeta> tabletMetaMap = Maps.newHashMap();
-    
     // replica id -> tablet id
-    private Map<Long, Long> replicaToTabletMap = Maps.newHashMap();
-    
+    private ConcurrentHashMap<Long, Long> replicaToTabletMap = new ConcurrentHashMap<>();
+
     /*
      *  we use this to save memory.
      *  we do not need create TabletMeta instance for each tablet,
@@ -74,35 +92,51 @@ public class TabletInvertedIndex {
      *  we use 'tabletMetaTable' to do the update things
      *      (eg. update schema hash in TabletMeta)
      *  partition id -> (index id -> tablet meta)
+     *  protected by itself
      */
     private Table<Long, Long, TabletMeta> tabletMetaTable = HashBasedTable.create();
-    
-    // tablet id -> (backend id -> replica)
-    private Table<Long, Long, Replica> replicaMetaTable = HashBasedTable.create();
+
     // backing replica table, for visiting backend replicas faster.
     // backend id -> (tablet id -> replica)
-    private Table<Long, Long, Replica> backingReplicaMetaTable = HashBasedTable.create();
+    private ConcurrentHashMap<Long, ConcurrentHashMap<Long, Replica>> backingReplicaMetaTable =
+            new ConcurrentHashMap<>();
 
     public TabletInvertedIndex() {
+        for (int i = 0; i < SHARD_NUM; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    private Shard getShard(long tabletId) {
+        // tablet ids are allocated sequentially, spread them to all shards
+        long hash = tabletId ^ (tabletId >>> 32);
+        hash ^= (hash >>> 16);
+        return shards[(int) (hash & (SHARD_NUM - 1))];
     }
 
-    private final void readLock() {
-        this.lock.readLock().lock();
+    private static void readLock(Shard shard) {
+        shard.lock.readLock().lock();
     }
 
-    private final void readUnlock() {
-        this.lock.readLock().unlock();
+    private static void readUnlock(Shard shard) {
+        shard.lock.readLock().unlock();
     }
 
-    private final void writeLock() {
-        this.lock.writeLock().lock();
+    private static void writeLock(Shard shard) {
+        shard.lock.writeLock().lock();
     }
 
-    private final void writeUnlock() {
-        this.lock.writeLock().unlock();
+    private static void writeUnlock(Shard shard) {
+        shard.lock.writeLock().unlock();
     }
 
+    /*
+     * If deletedTablets is not null, backendTablets is a delta report which only contains the tablets
+     * changed since the last report, and deletedTablets are the tablets dropped from backend since then.
+     * Only these tablets are diffed, instead of all tablets of backend.
+     */
     public void tabletReport(long backendId, Map<Long, TTablet> backendTablets,
+                             Collection<Long> deletedTablets,
                              final HashMap<Long, TStorageMedium> storageMediumMap,
                              ListMultimap<Long, Long> tabletSyncMap,
                              ListMultimap<Long, Long> tabletDeleteFromMeta,
@@ -113,125 +147,131 @@ public class TabletInvertedIndex {
                              ListMultimap<Long, Long> transactionsToClear,
                              ListMultimap<Long, Long> tabletRecoveryMap,
                              SetMultimap<Long, Integer> tabletWithoutPartitionId) {
-        long start = 0L;
-        readLock();
-        try {
-            LOG.info("begin to do tablet diff with backend[{}]. num: {}", backendId, backendTablets.size());
-            start = System.currentTimeMillis();
-            for (TTablet backendTablet : backendTablets.values()) {
-                for (TTabletInfo tabletInfo : backendTablet.tablet_infos) {
-                    if (!tabletInfo.isSetPartition_id() || tabletInfo.getPartition_id() < 1) {
-                        tabletWithoutPartitionId.put(tabletInfo.getTablet_id(), tabletInfo.getSchema_hash());
-                    }
+        long start = System.currentTimeMillis();
+        LOG.info("begin to do tablet diff with backend[{}]. num: {}, is delta: {}",
+                backendId, backendTablets.size(), deletedTablets != null);
+        for (TTablet backendTablet : backendTablets.values()) {
+            for (TTabletInfo tabletInfo : backendTablet.tablet_infos) {
+                if (!tabletInfo.isSetPartition_id() || tabletInfo.getPartition_id() < 1) {
+                    tabletWithoutPartitionId.put(tabletInfo.getTablet_id(), tabletInfo.getSchema_hash());
                 }
             }
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                // traverse replicas in meta with this backend
-                for (Map.Entry<Long, Replica> entry : replicaMetaWithBackend.entrySet()) {
-                    long tabletId = entry.getKey();
-                    Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-                    TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-
-                    if (backendTablets.containsKey(tabletId)) {
-                        TTablet backendTablet = backendTablets.get(tabletId);
-                        Replica replica = entry.getValue();
-                        for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
-                            if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
-                                foundTabletsWithValidSchema.add(tabletId);
-                                // 1. (intersection)
-                                if (needSync(replica, backendTabletInfo)) {
-                                    // need sync
-                                    tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
-                                }
-                                
-                                // check and set path
-                                // path info of replica is only saved in Master FE
-                                if (backendTabletInfo.isSetPath_hash() &&
-                                        replica.getPathHash() != backendTabletInfo.getPath_hash()) {
-                                    replica.setPathHash(backendTabletInfo.getPath_hash());
-                                }
-
-                                if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
-                                        && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
-                                    // update the schema hash only when replica is normal
-                                    replica.setSchemaHash(backendTabletInfo.getSchema_hash());
-                                }
+        }
+        Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            Collection<Long> tabletIds = replicaMetaWithBackend.keySet();
+            if (deletedTablets != null) {
+                tabletIds = Sets.newHashSet(backendTablets.keySet());
+                tabletIds.addAll(deletedTablets);
+            }
+            // traverse replicas in meta with this backend
+            for (long tabletId : tabletIds) {
+                Replica replica = replicaMetaWithBackend.get(tabletId);
+                if (replica == null) {
+                    // not in meta, or deleted concurrently
+                    continue;
+                }
+                TabletMeta tabletMeta = getTabletMeta(tabletId);
+                if (tabletMeta == null) {
+                    // tablet is deleted concurrently
+                    continue;
+                }
 
-                                if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
-                                    LOG.warn("replica {} of tablet {} on backend {} need recovery. "
-                                            + "replica in FE: {}, report version {}-{}, report schema hash: {},"
-                                            + " is bad: {}, is version missing: {}",
-                                            replica.getId(), tabletId, backendId, replica,
-                                            backendTabletInfo.getVersion(),
-                                            backendTabletInfo.getVersion_hash(),
-                                            backendTabletInfo.getSchema_hash(),
-                                            backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
-                                            backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() : "unset");
-                                    tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
+                if (backendTablets.containsKey(tabletId)) {
+                    TTablet backendTablet = backendTablets.get(tabletId);
+                    for (TTabletInfo backendTabletInfo : backendTablet.getTablet_infos()) {
+                        if (tabletMeta.containsSchemaHash(backendTabletInfo.getSchema_hash())) {
+                            foundTabletsWithValidSchema.add(tabletId);
+                            // 1. (intersection)
+                            if (needSync(replica, backendTabletInfo)) {
+                                // need sync
+                                tabletSyncMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+                            
+                            // check and set path
+                            // path info of replica is only saved in Master FE
+                            if (backendTabletInfo.isSetPath_hash() &&
+                                    replica.getPathHash() != backendTabletInfo.getPath_hash()) {
+                                replica.setPathHash(backendTabletInfo.getPath_hash());
+                            }
+
+                            if (backendTabletInfo.isSetSchema_hash() && replica.getState() == ReplicaState.NORMAL
+                                    && replica.getSchemaHash() != backendTabletInfo.getSchema_hash()) {
+                                // update the schema hash only when replica is normal
+                                replica.setSchemaHash(backendTabletInfo.getSchema_hash());
+                            }
+
+                            if (needRecover(replica, tabletMeta.getOldSchemaHash(), backendTabletInfo)) {
+                                LOG.warn("replica {} of tablet {} on backend {} need recovery. "
+                                        + "replica in FE: {}, report version {}-{}, report schema hash: {},"
+                                        + " is bad: {}, is version missing: {}",
+                                        replica.getId(), tabletId, backendId, replica,
+                                        backendTabletInfo.getVersion(),
+                                        backendTabletInfo.getVersion_hash(),
+                                        backendTabletInfo.getSchema_hash(),
+                                        backendTabletInfo.isSetUsed() ? backendTabletInfo.isUsed() : "unknown",
+                                        backendTabletInfo.isSetVersion_miss() ? backendTabletInfo.isVersion_miss() : "unset");
+                                tabletRecoveryMap.put(tabletMeta.getDbId(), tabletId);
+                            }
+
+                            // check if need migration
+                            long partitionId = tabletMeta.getPartitionId();
+                            TStorageMedium storageMedium = storageMediumMap.get(partitionId);
+                            if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
+                                if (storageMedium != backendTabletInfo.getStorage_medium()) {
+                                    tabletMigrationMap.put(storageMedium, tabletId);
                                 }
-
-                                // check if need migration
-                                long partitionId = tabletMeta.getPartitionId();
-                                TStorageMedium storageMedium = storageMediumMap.get(partitionId);
-                                if (storageMedium != null && backendTabletInfo.isSetStorage_medium()) {
-                                    if (storageMedium != backendTabletInfo.getStorage_medium()) {
-                                        tabletMigrationMap.put(storageMedium, tabletId);
-                                    }
-                                    if (storageMedium != tabletMeta.getStorageMedium()) {
-                                        tabletMeta.setStorageMedium(storageMedium);
-                                    }
+                                if (storageMedium != tabletMeta.getStorageMedium()) {
+                                    tabletMeta.setStorageMedium(storageMedium);
                                 }
-                                // check if should clear transactions
-                                if (backendTabletInfo.isSetTransaction_ids()) {
-                                    List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
-                                    GlobalTransactionMgr transactionMgr = Catalog.getCurrentGlobalTransactionMgr();
-                                    for (Long transactionId : transactionIds) {
-                                        TransactionState transactionState = transactionMgr.getTransactionState(transactionId);
-                                        if (transactionState == null || transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
-                                            transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
-                                            LOG.debug("transaction id [{}] is not valid any more, " 
-                                                    + "clear it from backend [{}]", transactionId, backendId);
-                                        } else if (transactionState.getTransactionStatus() == TransactionStatus.VISIBLE) {
-                                            TableCommitInfo tableCommitInfo = transactionState.getTableCommitInfo(tabletMeta.getTableId());
-                                            PartitionCommitInfo partitionCommitInfo = tableCommitInfo.getPartitionCommitInfo(partitionId);
-                                            if (partitionCommitInfo == null) {
-                                                LOG.warn("failed to find partition commit info. table: {}, partition: {}, tablet: {}, txn id: {}",
-                                                        tabletMeta.getTableId(), partitionId, tabletId, transactionState.getTransactionId());
-                                            }
-                                            TPartitionVersionInfo versionInfo = new TPartitionVersionInfo(tabletMeta.getPartitionId(), 
-                                                    partitionCommitInfo.getVersion(),
-                                                    partitionCommitInfo.getVersionHash());
-                                            ListMultimap<Long, TPartitionVersionInfo> map = transactionsToPublish.get(transactionState.getDbId());
-                                            if (map == null) {
-                                                map = ArrayListMultimap.create();
-                                                transactionsToPublish.put(transactionState.getDbId(), map);
-                                            }
-                                            map.put(transactionId, versionInfo);
+                            }
+                            // check if should clear transactions
+                            if (backendTabletInfo.isSetTransaction_ids()) {
+                                List<Long> transactionIds = backendTabletInfo.getTransaction_ids();
+                                GlobalTransactionMgr transactionMgr = Catalog.getCurrentGlobalTransactionMgr();
+                                for (Long transactionId : transactionIds) {
+                                    TransactionState transactionState = transactionMgr.getTransactionState(transactionId);
+                                    if (transactionState == null || transactionState.getTransactionStatus() == TransactionStatus.ABORTED) {
+                                        transactionsToClear.put(transactionId, tabletMeta.getPartitionId());
+                                        LOG.debug("transaction id [{}] is not valid any more, " 
+                                                + "clear it from backend [{}]", transactionId, backendId);
+                                    } else if (transactionState.getTransactionStatus() == TransactionStatus.VISIBLE) {
+                                        TableCommitInfo tableCommitInfo = transactionState.getTableCommitInfo(tabletMeta.getTableId());
+                                        PartitionCommitInfo partitionCommitInfo = tableCommitInfo.getPartitionCommitInfo(partitionId);
+                                        if (partitionCommitInfo == null) {
+                                            LOG.warn("failed to find partition commit info. table: {}, partition: {}, tablet: {}, txn id: {}",
+                                                    tabletMeta.getTableId(), partitionId, tabletId, transactionState.getTransactionId());
                                         }
+                                        TPartitionVersionInfo versionInfo = new TPartitionVersionInfo(tabletMeta.getPartitionId(), 
+                                                partitionCommitInfo.getVersion(),
+                                                partitionCommitInfo.getVersionHash());
+                                        ListMultimap<Long, TPartitionVersionInfo> map = transactionsToPublish.get(transactionState.getDbId());
+                                        if (map == null) {
+                                            map = ArrayListMultimap.create();
+                                            transactionsToPublish.put(transactionState.getDbId(), map);
+                                        }
+                                        map.put(transactionId, versionInfo);
                                     }
-                                } // end for txn id
-
-                                // update replicas's version count
-                                // no need to write log, and no need to get db lock.
-                                if (backendTabletInfo.isSetVersion_count()) {
-                                    replica.setVersionCount(backendTabletInfo.getVersion_count());
                                 }
-                            } else {
-                                // tablet with invalid schemahash
-                                foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
-                            } // end for be tablet info
-                        }
-                    }  else {
-                        // 2. (meta - be)
-                        // may need delete from meta
-                        LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
-                        tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                            } // end for txn id
+
+                            // update replicas's version count
+                            // no need to write log, and no need to get db lock.
+                            if (backendTabletInfo.isSetVersion_count()) {
+                                replica.setVersionCount(backendTabletInfo.getVersion_count());
+                            }
+                        } else {
+                            // tablet with invalid schemahash
+                            foundTabletsWithInvalidSchema.put(tabletId, backendTabletInfo);
+                        } // end for be tablet info
                     }
-                } // end for replicaMetaWithBackend
-            }
-        } finally {
-            readUnlock();
+                }  else {
+                    // 2. (meta - be)
+                    // may need delete from meta
+                    LOG.debug("backend[{}] does not report tablet[{}-{}]", backendId, tabletId, tabletMeta);
+                    tabletDeleteFromMeta.put(tabletMeta.getDbId(), tabletId);
+                }
+            } // end for replicaMetaWithBackend
         }
 
         long end = System.currentTimeMillis();
@@ -243,102 +283,92 @@ public class TabletInvertedIndex {
     }
 
     public long getDbId(long tabletId) {
-        readLock();
-        try {
-            if (tabletMetaMap.containsKey(tabletId)) {
-                return tabletMetaMap.get(tabletId).getDbId();
-            }
-            return NOT_EXIST_VALUE;
-        } finally {
-            readUnlock();
-        }
+        TabletMeta tabletMeta = getTabletMeta(tabletId);
+        return tabletMeta == null ? NOT_EXIST_VALUE : tabletMeta.getDbId();
     }
 
     public long getTableId(long tabletId) {
-        readLock();
-        try {
-            if (tabletMetaMap.containsKey(tabletId)) {
-                return tabletMetaMap.get(tabletId).getTableId();
-            }
-            return NOT_EXIST_VALUE;
-        } finally {
-            readUnlock();
-        }
+        TabletMeta tabletMeta = getTabletMeta(tabletId);
+        return tabletMeta == null ? NOT_EXIST_VALUE : tabletMeta.getTableId();
     }
     
     public TabletMeta getTabletMetaByReplica(long replicaId) {
-        readLock();
-        try {
-            Long tabletId = replicaToTabletMap.get(replicaId);
-            if (tabletId == null) {
-                return null;
-            }
-            TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-            return tabletMeta;
-        } finally {
-            readUnlock();
+        Long tabletId = replicaToTabletMap.get(replicaId);
+        if (tabletId == null) {
+            return null;
         }
+        return getTabletMeta(tabletId);
     }
     
     public Long getTabletIdByReplica(long replicaId) {
-        readLock();
-        try {
-            Long tabletId = replicaToTabletMap.get(replicaId);
-            return tabletId;
-        } finally {
-            readUnlock();
-        }
+        return replicaToTabletMap.get(replicaId);
     }
 
     public long getPartitionId(long tabletId) {
-        readLock();
-        try {
-            if (tabletMetaMap.containsKey(tabletId)) {
-                return tabletMetaMap.get(tabletId).getPartitionId();
-            }
-            return NOT_EXIST_VALUE;
-        } finally {
-            readUnlock();
-        }
+        TabletMeta tabletMeta = getTabletMeta(tabletId);
+        return tabletMeta == null ? NOT_EXIST_VALUE : tabletMeta.getPartitionId();
     }
 
     public long getIndexId(long tabletId) {
-        readLock();
-        try {
-            if (tabletMetaMap.containsKey(tabletId)) {
-                return tabletMetaMap.get(tabletId).getIndexId();
-            }
-            return NOT_EXIST_VALUE;
-        } finally {
-            readUnlock();
-        }
+        TabletMeta tabletMeta = getTabletMeta(tabletId);
+        return tabletMeta == null ? NOT_EXIST_VALUE : tabletMeta.getIndexId();
     }
 
     public int getEffectiveSchemaHash(long tabletId) {
         // always get old schema hash(as effective one)
-        readLock();
+        TabletMeta tabletMeta = getTabletMeta(tabletId);
+        return tabletMeta == null ? NOT_EXIST_VALUE : tabletMeta.getOldSchemaHash();
+    }
+
+    public TabletMeta getTabletMeta(long tabletId) {
+        Shard shard = getShard(tabletId);
+        readLock(shard);
         try {
-            if (tabletMetaMap.containsKey(tabletId)) {
-                return tabletMetaMap.get(tabletId).getOldSchemaHash();
+            return shard.tabletMetaMap.get(tabletId);
+        } finally {
+            readUnlock(shard);
+        }
+    }
+    
+    // keep the zone map of the newest version reported by any replica
+    public void updateTabletZoneMap(long tabletId, TabletZoneMap zoneMap) {
+        Shard shard = getShard(tabletId);
+        writeLock(shard);
+        try {
+            if (!shard.tabletMetaMap.containsKey(tabletId)) {
+                return;
+            }
+            TabletZoneMap oldZoneMap = shard.zoneMapMap.get(tabletId);
+            if (oldZoneMap == null || oldZoneMap.getVersion() <= zoneMap.getVersion()) {
+                shard.zoneMapMap.put(tabletId, zoneMap);
             }
-            return NOT_EXIST_VALUE;
         } finally {
-            readUnlock();
+            writeUnlock(shard);
         }
     }
 
-    public TabletMeta getTabletMeta(long tabletId) {
-        readLock();
+    public TabletZoneMap getTabletZoneMap(long tabletId) {
+        Shard shard = getShard(tabletId);
+        readLock(shard);
         try {
-            return tabletMetaMap.get(tabletId);
+            return shard.zoneMapMap.get(tabletId);
         } finally {
-            readUnlock();
+            readUnlock(shard);
         }
     }
-    
+
     public Set<Long> getTabletBackends(long tabletId) {
-        Map<Long, Replica> backendIdToReplica = replicaMetaTable.row(tabletId);
-        return backendIdToReplica.keySet();
+        Shard shard = getShard(tabletId);
+        readLock(shard);
+        try {
+            Map<Long, Replica> backendIdToReplica = shard.replicaMetaMap.get(tabletId);
+            if (backendIdToReplica == null) {
+                return Sets.newHashSet();
+            }
+            return Sets.newHashSet(backendIdToReplica.keySet());
+        } finally {
+            readUnlock(shard);
+        }
     }
 
     private boolean needSync(Replica replicaInFe, TTabletInfo backendTabletInfo) {
@@ -423,20 +453,23 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        writeLock(shard);
         try {
-            if (tabletMetaMap.containsKey(tabletId)) {
+            if (shard.tabletMetaMap.containsKey(tabletId)) {
                 return;
             }
-            tabletMetaMap.put(tabletId, tabletMeta);
-            if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
-                tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
-                LOG.debug("add tablet meta: {}", tabletId);
+            shard.tabletMetaMap.put(tabletId, tabletMeta);
+            synchronized (tabletMetaTable) {
+                if (!tabletMetaTable.contains(tabletMeta.getPartitionId(), tabletMeta.getIndexId())) {
+                    tabletMetaTable.put(tabletMeta.getPartitionId(), tabletMeta.getIndexId(), tabletMeta);
+                    LOG.debug("add tablet meta: {}", tabletId);
+                }
             }
 
             LOG.debug("add tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            writeUnlock(shard);
         }
     }
 
@@ -444,27 +477,34 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        writeLock(shard);
         try {
-            Map<Long, Replica> replicas = replicaMetaTable.rowMap().remove(tabletId);
+            Map<Long, Replica> replicas = shard.replicaMetaMap.remove(tabletId);
             if (replicas != null) {
                 for (Replica replica : replicas.values()) {
                     replicaToTabletMap.remove(replica.getId());
                 }
 
                 for (long backendId : replicas.keySet()) {
-                    backingReplicaMetaTable.remove(backendId, tabletId);
+                    Map<Long, Replica> backendReplicas = backingReplicaMetaTable.get(backendId);
+                    if (backendReplicas != null) {
+                        backendReplicas.remove(tabletId);
+                    }
                 }
             }
-            TabletMeta tabletMeta = tabletMetaMap.remove(tabletId);
+            shard.zoneMapMap.remove(tabletId);
+            TabletMeta tabletMeta = shard.tabletMetaMap.remove(tabletId);
             if (tabletMeta != null) {
-                tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                synchronized (tabletMetaTable) {
+                    tabletMetaTable.remove(tabletMeta.getPartitionId(), tabletMeta.getIndexId());
+                }
                 LOG.debug("delete tablet meta: {}", tabletId);
             }
 
             LOG.debug("delete tablet: {}", tabletId);
         } finally {
-            writeUnlock();
+            writeUnlock(shard);
         }
     }
 
@@ -472,16 +512,23 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        writeLock(shard);
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            replicaMetaTable.put(tabletId, replica.getBackendId(), replica);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            Map<Long, Replica> replicas = shard.replicaMetaMap.get(tabletId);
+            if (replicas == null) {
+                replicas = Maps.newHashMap();
+                shard.replicaMetaMap.put(tabletId, replicas);
+            }
+            replicas.put(replica.getBackendId(), replica);
             replicaToTabletMap.put(replica.getId(), tabletId);
-            backingReplicaMetaTable.put(replica.getBackendId(), tabletId, replica);
+            backingReplicaMetaTable.computeIfAbsent(replica.getBackendId(),
+                    k -> new ConcurrentHashMap<>()).put(tabletId, replica);
             LOG.debug("add replica {} of tablet {} in backend {}",
                     replica.getId(), tabletId, replica.getBackendId());
         } finally {
-            writeUnlock();
+            writeUnlock(shard);
         }
     }
 
@@ -489,46 +536,58 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
+        Shard shard = getShard(tabletId);
+        writeLock(shard);
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId));
-            TabletMeta tabletMeta = tabletMetaMap.get(tabletId);
-            if (replicaMetaTable.containsRow(tabletId)) {
-                Replica replica = replicaMetaTable.remove(tabletId, backendId);
-                replicaToTabletMap.remove(replica.getId());
-                replicaMetaTable.remove(tabletId, backendId);
-                backingReplicaMetaTable.remove(backendId, tabletId);
-                LOG.debug("delete replica {} of tablet {} in backend {}",
-                        replica.getId(), tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId));
+            Map<Long, Replica> replicas = shard.replicaMetaMap.get(tabletId);
+            if (replicas != null) {
+                Replica replica = replicas.remove(backendId);
+                if (replicas.isEmpty()) {
+                    shard.replicaMetaMap.remove(tabletId);
+                }
+                if (replica != null) {
+                    replicaToTabletMap.remove(replica.getId());
+                    LOG.debug("delete replica {} of tablet {} in backend {}",
+                            replica.getId(), tabletId, backendId);
+                }
+                Map<Long, Replica> backendReplicas = backingReplicaMetaTable.get(backendId);
+                if (backendReplicas != null) {
+                    backendReplicas.remove(tabletId);
+                }
             } else {
                 // this may happen when fe restart after tablet is empty(bug cause)
                 // add log instead of assertion to observe
                 LOG.error("tablet[{}] contains no replica in inverted index", tabletId);
             }
         } finally {
-            writeUnlock();
+            writeUnlock(shard);
         }
     }
     
     public Replica getReplica(long tabletId, long backendId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        readLock(shard);
         try {
-            Preconditions.checkState(tabletMetaMap.containsKey(tabletId), tabletId);
-            return replicaMetaTable.get(tabletId, backendId);
+            Preconditions.checkState(shard.tabletMetaMap.containsKey(tabletId), tabletId);
+            Map<Long, Replica> replicas = shard.replicaMetaMap.get(tabletId);
+            return replicas == null ? null : replicas.get(backendId);
         } finally {
-            readUnlock();
+            readUnlock(shard);
         }
     }
 
     public List<Replica> getReplicasByTabletId(long tabletId) {
-        readLock();
+        Shard shard = getShard(tabletId);
+        readLock(shard);
         try {
-            if (replicaMetaTable.containsRow(tabletId)) {
-                return Lists.newArrayList(replicaMetaTable.row(tabletId).values());
+            Map<Long, Replica> replicas = shard.replicaMetaMap.get(tabletId);
+            if (replicas != null) {
+                return Lists.newArrayList(replicas.values());
             }
             return Lists.newArrayList();
         } finally {
-            readUnlock();
+            readUnlock(shard);
         }
     }
 
@@ -536,12 +595,9 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
-        try {
+        synchronized (tabletMetaTable) {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).setNewSchemaHash(newSchemaHash);
-        } finally {
-            writeUnlock();
         }
     }
 
@@ -549,12 +605,9 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
-        try {
+        synchronized (tabletMetaTable) {
             Preconditions.checkState(tabletMetaTable.contains(partitionId, indexId));
             tabletMetaTable.get(partitionId, indexId).updateToNewSchemaHash();
-        } finally {
-            writeUnlock();
         }
     }
 
@@ -562,55 +615,39 @@ public class TabletInvertedIndex {
         if (Catalog.isCheckpointThread()) {
             return;
         }
-        writeLock();
-        try {
+        synchronized (tabletMetaTable) {
             TabletMeta tabletMeta = tabletMetaTable.get(partitionId, indexId);
             if (tabletMeta != null) {
                 tabletMeta.deleteNewSchemaHash();
             }
-        } finally {
-            writeUnlock();
         }
     }
 
     public List<Long> getTabletIdsByBackendId(long backendId) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds.addAll(replicaMetaWithBackend.keySet());
-            }
-        } finally {
-            readUnlock();
+        Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            tabletIds.addAll(replicaMetaWithBackend.keySet());
         }
         return tabletIds;
     }
 
     public List<Long> getTabletIdsByBackendIdAndStorageMedium(long backendId, TStorageMedium storageMedium) {
         List<Long> tabletIds = Lists.newArrayList();
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                tabletIds = replicaMetaWithBackend.keySet().stream().filter(
-                        id -> tabletMetaMap.get(id).getStorageMedium() == storageMedium).collect(Collectors.toList());
-            }
-        } finally {
-            readUnlock();
+        Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            tabletIds = replicaMetaWithBackend.keySet().stream().filter(id -> {
+                TabletMeta tabletMeta = getTabletMeta(id);
+                return tabletMeta != null && tabletMeta.getStorageMedium() == storageMedium;
+            }).collect(Collectors.toList());
         }
         return tabletIds;
     }
 
     public int getTabletNumByBackendId(long backendId) {
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                return replicaMetaWithBackend.size();
-            }
-        } finally {
-            readUnlock();
+        Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            return replicaMetaWithBackend.size();
         }
         return 0;
     }
@@ -619,20 +656,19 @@ public class TabletInvertedIndex {
         Map<TStorageMedium, Long> replicaNumMap = Maps.newHashMap();
         long hddNum = 0;
         long ssdNum = 0;
-        readLock();
-        try {
-            Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.row(backendId);
-            if (replicaMetaWithBackend != null) {
-                for (long tabletId : replicaMetaWithBackend.keySet()) {
-                    if (tabletMetaMap.get(tabletId).getStorageMedium() == TStorageMedium.HDD) {
-                        hddNum++;
-                    } else {
-                        ssdNum++;
-                    }
+        Map<Long, Replica> replicaMetaWithBackend = backingReplicaMetaTable.get(backendId);
+        if (replicaMetaWithBackend != null) {
+            for (long tabletId : replicaMetaWithBackend.keySet()) {
+                TabletMeta tabletMeta = getTabletMeta(tabletId);
+                if (tabletMeta == null) {
+                    continue;
+                }
+                if (tabletMeta.getStorageMedium() == TStorageMedium.HDD) {
+                    hddNum++;
+                } else {
+                    ssdNum++;
                 }
             }
-        } finally {
-            readUnlock();
         }
         replicaNumMap.put(TStorageMedium.HDD, hddNum);
         replicaNumMap.put(TStorageMedium.SSD, ssdNum);
@@ -641,15 +677,24 @@ public class TabletInvertedIndex {
 
     // just for test
     public void clear() {
-        writeLock();
+        for (Shard shard : shards) {
+            writeLock(shard);
+        }
         try {
-            tabletMetaMap.clear();
+            for (Shard shard : shards) {
+                shard.tabletMetaMap.clear();
+                shard.replicaMetaMap.clear();
+                shard.zoneMapMap.clear();
+            }
             replicaToTabletMap.clear();
-            tabletMetaTable.clear();
-            replicaMetaTable.clear();
+            synchronized (tabletMetaTable) {
+                tabletMetaTable.clear();
+            }
             backingReplicaMetaTable.clear();
         } finally {
-            writeUnlock();
+            for (Shard shard : shards) {
+                writeUnlock(shard);
+            }
         }
     }
 
@@ -657,4 +702,3 @@ public class TabletInvertedIndex {
         return replicaToTabletMap;
     }
 }
-
@@ -0,0 +1,101 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * The scan frequency of tablets, which is used as the hotness of tablets when balancing the cluster.
+ *
+ * Backends report the scan counts of their tablets along with the report to master (see ReportHandler),
+ * so the counts of all queries are collected on master, no matter which frontend coordinates them.
+ * The scans of all replicas of a tablet are counted to the tablet. The counts are aggregated into
+ * the hotness of tablets when roll() is called (by tablet scheduler, each time it updates the cluster
+ * load statistic), as an exponential moving average:
+ *      hotness = hotness * tablet_hotness_decay_factor + scans since last roll
+ * So the hotness of a tablet which is not scanned any more decays to 0 gradually.
+ */
+public class TabletScanStat {
+    // tablets with hotness lower than this are removed, to keep the map small
+    private static final double MIN_HOTNESS = 0.01;
+
+    private static final TabletScanStat INSTANCE = new TabletScanStat();
+
+    // tablet id -> number of scans since last roll
+    private final ConcurrentMap<Long, Long> scanCounts = Maps.newConcurrentMap();
+    // tablet id -> hotness
+    private volatile ImmutableMap<Long, Double> hotness = ImmutableMap.of();
+
+    public static TabletScanStat getInstance() {
+        return INSTANCE;
+    }
+
+    public void addScans(long tabletId, long scans) {
+        if (scans <= 0) {
+            return;
+        }
+        // atomic with the remove() in roll(), so no scan is lost
+        scanCounts.merge(tabletId, scans, Long::sum);
+    }
+
+    public synchronized void roll() {
+        double decayFactor = Math.max(0.0, Math.min(1.0, Config.tablet_hotness_decay_factor));
+        Map<Long, Double> newHotness = Maps.newHashMap();
+        for (Map.Entry<Long, Double> entry : hotness.entrySet()) {
+            newHotness.put(entry.getKey(), entry.getValue() * decayFactor);
+        }
+        for (Long tabletId : scanCounts.keySet()) {
+            Long count = scanCounts.remove(tabletId);
+            if (count == null) {
+                continue;
+            }
+            Double current = newHotness.get(tabletId);
+            newHotness.put(tabletId, (current == null ? 0.0 : current) + count);
+        }
+
+        ImmutableMap.Builder<Long, Double> builder = ImmutableMap.builder();
+        for (Map.Entry<Long, Double> entry : newHotness.entrySet()) {
+            if (entry.getValue() >= MIN_HOTNESS) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        hotness = builder.build();
+    }
+
+    public double getHotness(long tabletId) {
+        Double value = hotness.get(tabletId);
+        return value == null ? 0.0 : value;
+    }
+
+    // only contains the tablets which are scanned recently
+    public Map<Long, Double> getAllHotness() {
+        return hotness;
+    }
+
+    // only for test
+    public synchronized void clear() {
+        scanCounts.clear();
+        hotness = ImmutableMap.of();
+    }
+}
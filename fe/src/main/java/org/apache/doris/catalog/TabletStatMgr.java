@@ -137,7 +137,12 @@ public class TabletStatMgr extends MasterDaemon {
                 continue;
             }
             // TODO(cmy) no db lock protected. I think it is ok even we get wrong row num
-            replica.updateStat(entry.getValue().getData_size(), entry.getValue().getRow_num());
+            TTabletStat stat = entry.getValue();
+            replica.updateStat(stat.getData_size(), stat.getRow_num());
+            if (stat.isSetVersion() && stat.isSetColumn_zone_maps()) {
+                invertedIndex.updateTabletZoneMap(entry.getKey(),
+                        new TabletZoneMap(stat.getVersion(), stat.getColumn_zone_maps()));
+            }
         }
     }
 }
@@ -0,0 +1,141 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.thrift.TColumnZoneMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+/*
+ * The min and max values of columns in a tablet, reported by backends with tablet stat.
+ * The values are collected from the tablet data of 'version', so that they cover all rows
+ * of any version not larger than it.
+ *
+ * There may be a zone map for every tablet, so the values are kept in arrays, and column
+ * names are interned to be shared by all tablets.
+ * A null min or max value means unknown, eg: all values of the column are null.
+ *
+ * The values are parsed to literals by the column type when they are first used, and the literals
+ * are kept for the following queries until the zone map is replaced by the next report.
+ */
+public class TabletZoneMap {
+    private static final Logger LOG = LogManager.getLogger(TabletZoneMap.class);
+
+    private final long version;
+    private final String[] columnNames;
+    private final String[] minValues;
+    private final String[] maxValues;
+    private final boolean[] hasNulls;
+    // parsed min and max values of each column, null if not parsed yet
+    private final ColumnBounds[] bounds;
+
+    // the min and max values parsed by type, a null value means unknown
+    public static class ColumnBounds {
+        private final Type type;
+        private final LiteralExpr minValue;
+        private final LiteralExpr maxValue;
+
+        private ColumnBounds(Type type, LiteralExpr minValue, LiteralExpr maxValue) {
+            this.type = type;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+
+        public LiteralExpr getMinValue() {
+            return minValue;
+        }
+
+        public LiteralExpr getMaxValue() {
+            return maxValue;
+        }
+    }
+
+    public TabletZoneMap(long version, List<TColumnZoneMap> columnZoneMaps) {
+        this.version = version;
+        int num = columnZoneMaps.size();
+        columnNames = new String[num];
+        minValues = new String[num];
+        maxValues = new String[num];
+        hasNulls = new boolean[num];
+        bounds = new ColumnBounds[num];
+        for (int i = 0; i < num; i++) {
+            TColumnZoneMap zoneMap = columnZoneMaps.get(i);
+            columnNames[i] = zoneMap.getColumn_name().intern();
+            minValues[i] = zoneMap.isSetMin_value() ? zoneMap.getMin_value() : null;
+            maxValues[i] = zoneMap.isSetMax_value() ? zoneMap.getMax_value() : null;
+            // assume there are nulls if not reported
+            hasNulls[i] = !zoneMap.isSetHas_null() || zoneMap.isHas_null();
+        }
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // return the index of column, or -1 if there is no zone map of the column
+    public int getColumnIndex(String columnName) {
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columnNames[i].equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public String getMinValue(int columnIndex) {
+        return minValues[columnIndex];
+    }
+
+    public String getMaxValue(int columnIndex) {
+        return maxValues[columnIndex];
+    }
+
+    public boolean hasNull(int columnIndex) {
+        return hasNulls[columnIndex];
+    }
+
+    // Return the min and max values parsed by type. They are parsed again if the type is changed,
+    // eg: by schema change.
+    // Concurrent queries may parse the same values, which is harmless, the last one is kept.
+    public ColumnBounds getBounds(int columnIndex, Type type) {
+        ColumnBounds columnBounds = bounds[columnIndex];
+        if (columnBounds == null || !columnBounds.type.equals(type)) {
+            columnBounds = new ColumnBounds(type, parseValue(minValues[columnIndex], type),
+                    parseValue(maxValues[columnIndex], type));
+            bounds[columnIndex] = columnBounds;
+        }
+        return columnBounds;
+    }
+
+    private static LiteralExpr parseValue(String value, Type type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LiteralExpr.create(value, type);
+        } catch (AnalysisException e) {
+            LOG.debug("invalid zone map value {} of type {}", value, type);
+            return null;
+        }
+    }
+}
@@ -103,6 +103,8 @@ public class BackendLoadStatistic {
     public static class LoadScore {
         public double replicaNumCoefficient = 0.5;
         public double capacityCoefficient = 0.5;
+        public double hotnessCoefficient = 0.0;
+        public double ioUtilCoefficient = 0.0;
         public double score = 0.0;
 
         public static final LoadScore DUMMY = new LoadScore();
@@ -111,6 +113,10 @@ public class BackendLoadStatistic {
     private Map<TStorageMedium, Long> totalCapacityMap = Maps.newHashMap();
     private Map<TStorageMedium, Long> totalUsedCapacityMap = Maps.newHashMap();
     private Map<TStorageMedium, Long> totalReplicaNumMap = Maps.newHashMap();
+    // sum of hotness of replicas, see TabletScanStat
+    private Map<TStorageMedium, Double> hotnessMap = Maps.newHashMap();
+    // average io util of online disks
+    private Map<TStorageMedium, Double> ioUtilMap = Maps.newHashMap();
     private Map<TStorageMedium, LoadScore> loadScoreMap = Maps.newHashMap();
     private Map<TStorageMedium, Classification> clazzMap = Maps.newHashMap();
     private List<RootPathLoadStatistic> pathStatistics = Lists.newArrayList();
@@ -147,6 +153,18 @@ public class BackendLoadStatistic {
         return totalReplicaNumMap.getOrDefault(medium, 0L);
     }
 
+    public double getHotness(TStorageMedium medium) {
+        return hotnessMap.getOrDefault(medium, 0.0);
+    }
+
+    public void addHotness(TStorageMedium medium, double hotness) {
+        hotnessMap.put(medium, getHotness(medium) + hotness);
+    }
+
+    public double getIoUtil(TStorageMedium medium) {
+        return ioUtilMap.getOrDefault(medium, 0.0);
+    }
+
     public double getLoadScore(TStorageMedium medium) {
         if (loadScoreMap.containsKey(medium)) {
             return loadScoreMap.get(medium).score;
@@ -187,12 +205,15 @@ public class BackendLoadStatistic {
         }
 
         ImmutableMap<String, DiskInfo> disks = be.getDisks();
+        Map<TStorageMedium, Integer> onlineDiskNumMap = Maps.newHashMap();
         for (DiskInfo diskInfo : disks.values()) {
             TStorageMedium medium = diskInfo.getStorageMedium();
             if (diskInfo.getState() == DiskState.ONLINE) {
                 // we only collect online disk's capacity
                 totalCapacityMap.put(medium, totalCapacityMap.getOrDefault(medium, 0L) + diskInfo.getTotalCapacityB());
                 totalUsedCapacityMap.put(medium, totalUsedCapacityMap.getOrDefault(medium, 0L) + diskInfo.getDataUsedCapacityB());
+                ioUtilMap.put(medium, ioUtilMap.getOrDefault(medium, 0.0) + diskInfo.getIoUtil());
+                onlineDiskNumMap.put(medium, onlineDiskNumMap.getOrDefault(medium, 0) + 1);
             }
 
             RootPathLoadStatistic pathStatistic = new RootPathLoadStatistic(beId, diskInfo.getRootPath(),
@@ -201,6 +222,10 @@ public class BackendLoadStatistic {
             pathStatistics.add(pathStatistic);
         }
 
+        for (Map.Entry<TStorageMedium, Integer> entry : onlineDiskNumMap.entrySet()) {
+            ioUtilMap.put(entry.getKey(), ioUtilMap.get(entry.getKey()) / entry.getValue());
+        }
+
         totalReplicaNumMap = invertedIndex.getReplicaNumByBeIdAndStorageMedium(beId);
         // This is very tricky. because the number of replica on specified medium we get
         // from getReplicaNumByBeIdAndStorageMedium() is counted based on meta data.
@@ -260,24 +285,38 @@ public class BackendLoadStatistic {
     }
 
     public void calcScore(Map<TStorageMedium, Double> avgClusterUsedCapacityPercentMap,
-            Map<TStorageMedium, Double> avgClusterReplicaNumPerBackendMap) {
+            Map<TStorageMedium, Double> avgClusterReplicaNumPerBackendMap,
+            Map<TStorageMedium, Double> avgClusterHotnessPerBackendMap,
+            Map<TStorageMedium, Double> avgClusterIoUtilMap) {
         
         for (TStorageMedium medium : TStorageMedium.values()) {
             LoadScore loadScore = calcSore(totalUsedCapacityMap.getOrDefault(medium, 0L),
                     totalCapacityMap.getOrDefault(medium, 1L),
                     totalReplicaNumMap.getOrDefault(medium, 0L),
+                    getHotness(medium), getIoUtil(medium),
                     avgClusterUsedCapacityPercentMap.getOrDefault(medium, 0.0),
-                    avgClusterReplicaNumPerBackendMap.getOrDefault(medium, 0.0));
+                    avgClusterReplicaNumPerBackendMap.getOrDefault(medium, 0.0),
+                    avgClusterHotnessPerBackendMap.getOrDefault(medium, 0.0),
+                    avgClusterIoUtilMap.getOrDefault(medium, 0.0));
 
             loadScoreMap.put(medium, loadScore);
 
-            LOG.debug("backend {}, medium: {}, capacity coefficient: {}, replica coefficient: {}, load score: {}",
-                    beId, medium, loadScore.capacityCoefficient, loadScore.replicaNumCoefficient, loadScore.score);
+            LOG.debug("backend {}, medium: {}, capacity coefficient: {}, replica coefficient: {},"
+                    + " hotness coefficient: {}, io util coefficient: {}, load score: {}",
+                    beId, medium, loadScore.capacityCoefficient, loadScore.replicaNumCoefficient,
+                    loadScore.hotnessCoefficient, loadScore.ioUtilCoefficient, loadScore.score);
         }
     }
 
+    /*
+     * The load score is mainly decided by used capacity and replica number.
+     * If hotness of tablets or io util of disks is available in cluster, they are also taken into account
+     * by 'balance_hotness_score_weight' and 'balance_io_util_score_weight', so that hot tablets are spread out.
+     */
     public static LoadScore calcSore(long beUsedCapacityB, long beTotalCapacity, long beTotalReplicaNum,
-            double avgClusterUsedCapacityPercent, double avgClusterReplicaNumPerBackend) {
+            double beHotness, double beIoUtil,
+            double avgClusterUsedCapacityPercent, double avgClusterReplicaNumPerBackend,
+            double avgClusterHotnessPerBackend, double avgClusterIoUtil) {
         
         double usedCapacityPercent = (beUsedCapacityB / (double) beTotalCapacity);
         double capacityProportion = avgClusterUsedCapacityPercent <= 0 ? 0.0
@@ -295,8 +334,23 @@ public class BackendLoadStatistic {
                 : (usedCapacityPercent > Config.capacity_used_percent_high_water ? 1.0
                         : (2 * usedCapacityPercent - 0.5));
         loadScore.replicaNumCoefficient = 1 - loadScore.capacityCoefficient;
+
+        // hotness and io util are ignored if not available in cluster
+        loadScore.hotnessCoefficient = avgClusterHotnessPerBackend <= 0 ? 0.0
+                : Math.max(0.0, Math.min(1.0, Config.balance_hotness_score_weight));
+        loadScore.ioUtilCoefficient = avgClusterIoUtil <= 0 ? 0.0
+                : Math.max(0.0, Math.min(1.0 - loadScore.hotnessCoefficient, Config.balance_io_util_score_weight));
+        double baseCoefficient = 1 - loadScore.hotnessCoefficient - loadScore.ioUtilCoefficient;
+        loadScore.capacityCoefficient *= baseCoefficient;
+        loadScore.replicaNumCoefficient *= baseCoefficient;
+
+        double hotnessProportion = avgClusterHotnessPerBackend <= 0 ? 0.0 : beHotness / avgClusterHotnessPerBackend;
+        double ioUtilProportion = avgClusterIoUtil <= 0 ? 0.0 : beIoUtil / avgClusterIoUtil;
+
         loadScore.score = capacityProportion * loadScore.capacityCoefficient
-                + replicaNumProportion * loadScore.replicaNumCoefficient;
+                + replicaNumProportion * loadScore.replicaNumCoefficient
+                + hotnessProportion * loadScore.hotnessCoefficient
+                + ioUtilProportion * loadScore.ioUtilCoefficient;
         
         return loadScore;
     }
@@ -384,6 +438,8 @@ public class BackendLoadStatistic {
             sb.append(", ").append(medium).append(": replica: ").append(totalReplicaNumMap.get(medium));
             sb.append(" used: ").append(totalUsedCapacityMap.getOrDefault(medium, 0L));
             sb.append(" total: ").append(totalCapacityMap.getOrDefault(medium, 0L));
+            sb.append(" hotness: ").append(getHotness(medium));
+            sb.append(" io util: ").append(getIoUtil(medium));
             sb.append(" score: ").append(loadScoreMap.getOrDefault(medium, LoadScore.DUMMY).score);
         }
         return sb.toString();
@@ -404,6 +460,8 @@ public class BackendLoadStatistic {
         LoadScore loadScore = loadScoreMap.getOrDefault(medium, new LoadScore());
         info.add(String.valueOf(loadScore.capacityCoefficient));
         info.add(String.valueOf(loadScore.replicaNumCoefficient));
+        info.add(String.valueOf(getHotness(medium)));
+        info.add(String.valueOf(getIoUtil(medium)));
         info.add(String.valueOf(loadScore.score));
         info.add(clazzMap.getOrDefault(medium, Classification.INIT).name());
         return info;
@@ -17,7 +17,10 @@
 
 package org.apache.doris.clone;
 
+import org.apache.doris.catalog.Replica;
 import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.catalog.TabletScanStat;
 import org.apache.doris.clone.BackendLoadStatistic.Classification;
 import org.apache.doris.clone.BackendLoadStatistic.LoadScore;
 import org.apache.doris.common.Config;
@@ -55,6 +58,8 @@ public class ClusterLoadStatistic {
     private Map<TStorageMedium, Long> totalReplicaNumMap = Maps.newHashMap();
     private Map<TStorageMedium, Double> avgUsedCapacityPercentMap = Maps.newHashMap();
     private Map<TStorageMedium, Double> avgReplicaNumPercentMap = Maps.newHashMap();
+    private Map<TStorageMedium, Double> avgHotnessMap = Maps.newHashMap();
+    private Map<TStorageMedium, Double> avgIoUtilMap = Maps.newHashMap();
     private Map<TStorageMedium, Double> avgLoadScoreMap = Maps.newHashMap();
     // storage medium -> number of backend which has this kind of medium
     private Map<TStorageMedium, Integer> backendNumMap = Maps.newHashMap();
@@ -90,14 +95,27 @@ public class ClusterLoadStatistic {
 
             beLoadStatistics.add(beStatistic);
         }
+
+        initHotness();
         
         for (TStorageMedium medium : TStorageMedium.values()) {
             avgUsedCapacityPercentMap.put(medium, totalUsedCapacityMap.getOrDefault(medium, 0L) / (double) totalCapacityMap.getOrDefault(medium, 1L));
             avgReplicaNumPercentMap.put(medium, totalReplicaNumMap.getOrDefault(medium, 0L) / (double) backendNumMap.getOrDefault(medium, 1));
+
+            double totalHotness = 0.0;
+            double totalIoUtil = 0.0;
+            for (BackendLoadStatistic beStatistic : beLoadStatistics) {
+                if (beStatistic.hasMedium(medium)) {
+                    totalHotness += beStatistic.getHotness(medium);
+                    totalIoUtil += beStatistic.getIoUtil(medium);
+                }
+            }
+            avgHotnessMap.put(medium, totalHotness / backendNumMap.getOrDefault(medium, 1));
+            avgIoUtilMap.put(medium, totalIoUtil / backendNumMap.getOrDefault(medium, 1));
         }
 
         for (BackendLoadStatistic beStatistic : beLoadStatistics) {
-            beStatistic.calcScore(avgUsedCapacityPercentMap, avgReplicaNumPercentMap);
+            beStatistic.calcScore(avgUsedCapacityPercentMap, avgReplicaNumPercentMap, avgHotnessMap, avgIoUtilMap);
         }
 
         // classify all backends
@@ -109,6 +127,45 @@ public class ClusterLoadStatistic {
         Collections.sort(beLoadStatistics, BackendLoadStatistic.MIX_COMPARATOR);
     }
 
+    /*
+     * Add the hotness of recently scanned tablets to the backends which have their replicas.
+     * A scan is served by one of the replicas, so each replica takes an equal part of the tablet's hotness.
+     */
+    private void initHotness() {
+        Map<Long, BackendLoadStatistic> beIdToStatistic = Maps.newHashMap();
+        for (BackendLoadStatistic beStatistic : beLoadStatistics) {
+            beIdToStatistic.put(beStatistic.getBeId(), beStatistic);
+        }
+
+        for (Map.Entry<Long, Double> entry : TabletScanStat.getInstance().getAllHotness().entrySet()) {
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(entry.getKey());
+            if (tabletMeta == null) {
+                continue;
+            }
+            List<Replica> replicas = invertedIndex.getReplicasByTabletId(entry.getKey());
+            if (replicas.isEmpty()) {
+                continue;
+            }
+            double replicaHotness = entry.getValue() / replicas.size();
+            for (Replica replica : replicas) {
+                BackendLoadStatistic beStatistic = beIdToStatistic.get(replica.getBackendId());
+                if (beStatistic != null && beStatistic.hasMedium(tabletMeta.getStorageMedium())) {
+                    beStatistic.addHotness(tabletMeta.getStorageMedium(), replicaHotness);
+                }
+            }
+        }
+    }
+
+    // the hotness of a replica of the tablet
+    private double getReplicaHotness(long tabletId) {
+        double hotness = TabletScanStat.getInstance().getHotness(tabletId);
+        if (hotness <= 0) {
+            return 0.0;
+        }
+        int replicaNum = invertedIndex.getReplicasByTabletId(tabletId).size();
+        return replicaNum == 0 ? 0.0 : hotness / replicaNum;
+    }
+
     /*
      * classify backends into 'low', 'mid' and 'high', by load
      */
@@ -196,13 +253,19 @@ public class ClusterLoadStatistic {
         currentSrcBeScore = srcBeStat.getLoadScore(medium);
         currentDestBeScore = destBeStat.getLoadScore(medium);
 
+        // the io util of backends is not predictable, assume it is unchanged
+        double replicaHotness = getReplicaHotness(tabletId);
         LoadScore newSrcBeScore = BackendLoadStatistic.calcSore(srcBeStat.getTotalUsedCapacityB(medium) - tabletSize,
                 srcBeStat.getTotalCapacityB(medium), srcBeStat.getReplicaNum(medium) - 1,
-                avgUsedCapacityPercentMap.get(medium), avgReplicaNumPercentMap.get(medium));
+                Math.max(0.0, srcBeStat.getHotness(medium) - replicaHotness), srcBeStat.getIoUtil(medium),
+                avgUsedCapacityPercentMap.get(medium), avgReplicaNumPercentMap.get(medium),
+                avgHotnessMap.get(medium), avgIoUtilMap.get(medium));
 
         LoadScore newDestBeScore = BackendLoadStatistic.calcSore(destBeStat.getTotalUsedCapacityB(medium) + tabletSize,
                 destBeStat.getTotalCapacityB(medium), destBeStat.getReplicaNum(medium) + 1,
-                avgUsedCapacityPercentMap.get(medium), avgReplicaNumPercentMap.get(medium));
+                destBeStat.getHotness(medium) + replicaHotness, destBeStat.getIoUtil(medium),
+                avgUsedCapacityPercentMap.get(medium), avgReplicaNumPercentMap.get(medium),
+                avgHotnessMap.get(medium), avgIoUtilMap.get(medium));
 
         double currentDiff = Math.abs(currentSrcBeScore - avgLoadScoreMap.get(medium)) + Math.abs(currentDestBeScore - avgLoadScoreMap.get(medium));
         double newDiff = Math.abs(newSrcBeScore.score - avgLoadScoreMap.get(medium)) + Math.abs(newDestBeScore.score - avgLoadScoreMap.get(medium));
@@ -22,9 +22,11 @@ import org.apache.doris.catalog.ColocateTableIndex;
 import org.apache.doris.catalog.Replica;
 import org.apache.doris.catalog.TabletInvertedIndex;
 import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.catalog.TabletScanStat;
 import org.apache.doris.clone.SchedException.Status;
 import org.apache.doris.clone.TabletSchedCtx.Priority;
 import org.apache.doris.clone.TabletScheduler.PathSlot;
+import org.apache.doris.common.Config;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.SystemInfoService;
 import org.apache.doris.task.AgentBatchTask;
@@ -138,6 +140,13 @@ public class LoadBalancer {
             // get all tablets on this backend, and shuffle them for random selection
             List<Long> tabletIds = invertedIndex.getTabletIdsByBackendIdAndStorageMedium(beStat.getBeId(), medium);
             Collections.shuffle(tabletIds);
+            if (Config.balance_hotness_score_weight > 0 && beStat.getHotness(medium) > 0) {
+                // select hot tablets first, so that hot tablets are spread out instead of only bytes.
+                // the sort is stable, so tablets with same hotness are still in random order.
+                TabletScanStat scanStat = TabletScanStat.getInstance();
+                Collections.sort(tabletIds, (t1, t2) -> Double.compare(scanStat.getHotness(t2),
+                        scanStat.getHotness(t1)));
+            }
 
             // for each path, we try to select at most BALANCE_SLOT_NUM_FOR_PATH tablets
             Map<Long, Integer> remainingPaths = Maps.newHashMap();
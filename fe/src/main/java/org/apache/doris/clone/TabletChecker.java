@@ -30,7 +30,10 @@ import org.apache.doris.catalog.Table;
 import org.apache.doris.catalog.Table.TableType;
 import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.Tablet.TabletStatus;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
 import org.apache.doris.clone.TabletScheduler.AddResult;
+import org.apache.doris.common.Config;
 import org.apache.doris.common.DdlException;
 import org.apache.doris.common.Pair;
 import org.apache.doris.common.util.MasterDaemon;
@@ -39,12 +42,14 @@ import org.apache.doris.system.SystemInfoService;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table.Cell;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -58,7 +63,7 @@ import java.util.stream.Collectors;
 public class TabletChecker extends MasterDaemon {
     private static final Logger LOG = LogManager.getLogger(TabletChecker.class);
 
-    private static final long CHECK_INTERVAL_MS = 20 * 1000L; // 20 second
+    private static final long CHECK_INTERVAL_MS = 5 * 1000L; // 5 second
 
     private Catalog catalog;
     private SystemInfoService infoService;
@@ -68,6 +73,40 @@ public class TabletChecker extends MasterDaemon {
     // db id -> (tbl id -> PrioPart)
     // priority of replicas of partitions in this table will be set to VERY_HIGH if not healthy
     private com.google.common.collect.Table<Long, Long, Set<PrioPart>> prios = HashBasedTable.create();
+
+    // tablets whose health may be changed, and need to be checked in next round
+    private Set<Long> dirtyTablets = Sets.newConcurrentHashSet();
+    // backends whose state is changed, all tablets on them need to be checked in next round
+    private Set<Long> dirtyBackends = Sets.newConcurrentHashSet();
+    // the last time of checking all tablets, 0 means a full check is needed in next round
+    private volatile long lastFullCheckTime = 0;
+
+    private enum CheckResult {
+        HEALTHY,
+        IN_SCHEDULER,
+        NOT_READY, // unhealthy, but not ready to be repaired
+        ADDED, // unhealthy, and added to tablet scheduler, or already in it
+        LIMIT_EXCEED; // unhealthy, but tablet scheduler is full
+
+        public boolean isUnhealthy() {
+            return this == NOT_READY || this == ADDED || this == LIMIT_EXCEED;
+        }
+    }
+
+    private static class CheckStat {
+        public long totalTabletNum = 0;
+        public long unhealthyTabletNum = 0;
+        public long addToSchedulerTabletNum = 0;
+        public long tabletInScheduler = 0;
+        public long tabletNotReady = 0;
+
+        public void report(TabletSchedulerStat stat, long costMs) {
+            stat.counterTabletCheckCostMs.addAndGet(costMs);
+            stat.counterTabletChecked.addAndGet(totalTabletNum);
+            stat.counterUnhealthyTabletNum.addAndGet(unhealthyTabletNum);
+            stat.counterTabletAddToBeScheduled.addAndGet(addToSchedulerTabletNum);
+        }
+    }
     
     // represent a partition which need to be repaired preferentially
     public static class PrioPart {
@@ -126,6 +165,38 @@ public class TabletChecker extends MasterDaemon {
 
         // we also need to change the priority of tablets which are already in
         tabletScheduler.changePriorityOfTablets(dbId, tblId, partitionIds);
+        // the tablets of these partitions are checked in full check
+        lastFullCheckTime = 0;
+    }
+
+    /*
+     * Mark the tablet as dirty, so that it will be checked in next round.
+     * Should be called when the state of any replica of the tablet is changed.
+     */
+    public void markTabletDirty(long tabletId) {
+        if (catalog.isMaster()) {
+            dirtyTablets.add(tabletId);
+        }
+    }
+
+    public void markTabletsDirty(Collection<Long> tabletIds) {
+        if (catalog.isMaster()) {
+            dirtyTablets.addAll(tabletIds);
+        }
+    }
+
+    /*
+     * Mark all tablets on the backend as dirty, eg: backend is down or decommissioned.
+     * The tablets are looked up in next round, to avoid blocking the caller.
+     */
+    public void markBackendDirty(long backendId) {
+        if (catalog.isMaster()) {
+            dirtyBackends.add(backendId);
+        }
+    }
+
+    public int getDirtyTabletNum() {
+        return dirtyTablets.size();
     }
 
     private void removePrios(long dbId, long tblId, List<Long> partitionIds) {
@@ -150,7 +221,10 @@ public class TabletChecker extends MasterDaemon {
     }
 
     /*
-     * For each cycle, TabletChecker will check all OlapTable's tablet.
+     * For each cycle, TabletChecker only checks the dirty tablets, which are marked when replica state is changed
+     * by tablet report, backend is down or decommissioned, or tablet is removed from TabletScheduler.
+     * All OlapTable's tablets are checked every 'tablet_checker_full_check_interval_second' as a safety net,
+     * for changes which are not tracked, eg: visible version of partition or replication num is changed.
      * If a tablet is not healthy, a TabletInfo will be created and sent to TabletScheduler for repairing.
      */
     @Override
@@ -164,7 +238,16 @@ public class TabletChecker extends MasterDaemon {
             return;
         }
         
-        checkTablets();
+        if (System.currentTimeMillis() - lastFullCheckTime > Config.tablet_checker_full_check_interval_second * 1000L) {
+            // tablets marked dirty before full check are all checked in full check.
+            // clear them before checking, so that the tablets marked during checking are not lost.
+            dirtyTablets.clear();
+            dirtyBackends.clear();
+            lastFullCheckTime = System.currentTimeMillis();
+            checkAllTablets();
+        } else {
+            checkDirtyTablets();
+        }
 
         removePriosIfNecessary();
 
@@ -172,13 +255,12 @@ public class TabletChecker extends MasterDaemon {
         LOG.info(stat.incrementalBrief());
     }
 
-    private void checkTablets() {
+    /*
+     * Check all tablets of all OlapTables.
+     */
+    private void checkAllTablets() {
         long start = System.currentTimeMillis();
-        long totalTabletNum = 0;
-        long unhealthyTabletNum = 0;
-        long addToSchedulerTabletNum = 0;
-        long tabletInScheduler = 0;
-        long tabletNotReady = 0;
+        CheckStat checkStat = new CheckStat();
 
         List<Long> dbIds = catalog.getDbIds();
         OUT: for (Long dbId : dbIds) {
@@ -213,54 +295,17 @@ public class TabletChecker extends MasterDaemon {
                          */
                         for (MaterializedIndex idx : partition.getMaterializedIndices(IndexExtState.VISIBLE)) {
                             for (Tablet tablet : idx.getTablets()) {
-                                totalTabletNum++;
-                                
-                                if (tabletScheduler.containsTablet(tablet.getId())) {
-                                    tabletInScheduler++;
-                                    continue;
-                                }
-                                
-                                Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio = tablet.getHealthStatusWithPriority(
-                                        infoService,
-                                        db.getClusterName(),
-                                        partition.getVisibleVersion(),
-                                        partition.getVisibleVersionHash(),
-                                        olapTbl.getPartitionInfo().getReplicationNum(partition.getId()),
-                                        availableBackendsNum);
-
-                                if (statusWithPrio.first == TabletStatus.HEALTHY) {
-                                    // Only set last status check time when status is healthy.
-                                    tablet.setLastStatusCheckTime(start);
-                                    continue;
-                                } else if (isInPrios) {
-                                    statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
+                                CheckResult res = checkTablet(db, olapTbl, partition, idx, tablet,
+                                        availableBackendsNum, isInPrios, start, checkStat);
+                                if (res.isUnhealthy()) {
                                     prioPartIsHealthy = false;
                                 }
-
-                                unhealthyTabletNum++;
-
-                                if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
-                                    tabletNotReady++;
-                                    continue;
-                                }
-
-                                TabletSchedCtx tabletCtx = new TabletSchedCtx(
-                                        TabletSchedCtx.Type.REPAIR,
-                                        db.getClusterName(),
-                                        db.getId(), olapTbl.getId(),
-                                        partition.getId(), idx.getId(), tablet.getId(),
-                                        System.currentTimeMillis());
-                                // the tablet status will be set again when being scheduled
-                                tabletCtx.setTabletStatus(statusWithPrio.first);
-                                tabletCtx.setOrigPriority(statusWithPrio.second);
-
-                                AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
-                                if (res == AddResult.LIMIT_EXCEED) {
+                                if (res == CheckResult.LIMIT_EXCEED) {
                                     LOG.info("number of scheduling tablets in tablet scheduler"
                                             + " exceed to limit. stop tablet checker");
+                                    // the remaining tablets are not checked, do full check again in next round
+                                    lastFullCheckTime = 0;
                                     break OUT;
-                                } else if (res == AddResult.ADDED) {
-                                    addToSchedulerTabletNum++;
                                 }
                             }
                         } // indices
@@ -280,14 +325,176 @@ public class TabletChecker extends MasterDaemon {
         } // end for dbs
 
         long cost = System.currentTimeMillis() - start;
+        checkStat.report(stat, cost);
+        LOG.info("finished to check all tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{}, cost: {} ms",
+                checkStat.unhealthyTabletNum, checkStat.totalTabletNum, checkStat.addToSchedulerTabletNum,
+                checkStat.tabletInScheduler, checkStat.tabletNotReady, cost);
+    }
+
+    /*
+     * Only check the dirty tablets.
+     * A dirty tablet is removed from dirty set once it is healthy or is added to tablet scheduler,
+     * otherwise it will be checked again in next round.
+     */
+    private void checkDirtyTablets() {
+        long start = System.currentTimeMillis();
+        Set<Long> tabletIds = Sets.newHashSet(dirtyTablets);
+        dirtyTablets.removeAll(tabletIds);
+        List<Long> backendIds = Lists.newArrayList(dirtyBackends);
+        dirtyBackends.removeAll(backendIds);
+        TabletInvertedIndex invertedIndex = Catalog.getCurrentInvertedIndex();
+        for (long backendId : backendIds) {
+            tabletIds.addAll(invertedIndex.getTabletIdsByBackendId(backendId));
+        }
+        if (tabletIds.isEmpty()) {
+            return;
+        }
+
+        // db id -> tablet metas, to lock each db only once
+        Map<Long, List<Pair<Long, TabletMeta>>> dbToTablets = Maps.newHashMap();
+        for (long tabletId : tabletIds) {
+            TabletMeta tabletMeta = invertedIndex.getTabletMeta(tabletId);
+            if (tabletMeta == null) {
+                // tablet is dropped
+                continue;
+            }
+            List<Pair<Long, TabletMeta>> tablets = dbToTablets.get(tabletMeta.getDbId());
+            if (tablets == null) {
+                tablets = Lists.newArrayList();
+                dbToTablets.put(tabletMeta.getDbId(), tablets);
+            }
+            tablets.add(Pair.create(tabletId, tabletMeta));
+        }
+
+        CheckStat checkStat = new CheckStat();
+        boolean limitExceed = false;
+        for (Map.Entry<Long, List<Pair<Long, TabletMeta>>> entry : dbToTablets.entrySet()) {
+            if (limitExceed) {
+                // check them in next round
+                for (Pair<Long, TabletMeta> pair : entry.getValue()) {
+                    dirtyTablets.add(pair.first);
+                }
+                continue;
+            }
+            Database db = catalog.getDb(entry.getKey());
+            if (db == null) {
+                continue;
+            }
+
+            db.readLock();
+            try {
+                int availableBackendsNum = infoService.getClusterBackendIds(db.getClusterName(), true).size();
+                for (Pair<Long, TabletMeta> pair : entry.getValue()) {
+                    long tabletId = pair.first;
+                    TabletMeta tabletMeta = pair.second;
+                    if (limitExceed) {
+                        dirtyTablets.add(tabletId);
+                        continue;
+                    }
+                    Table table = db.getTable(tabletMeta.getTableId());
+                    if (table == null || !table.needSchedule()) {
+                        continue;
+                    }
+                    OlapTable olapTbl = (OlapTable) table;
+                    Partition partition = olapTbl.getPartition(tabletMeta.getPartitionId());
+                    if (partition == null) {
+                        continue;
+                    }
+                    if (partition.getState() != PartitionState.NORMAL) {
+                        // the partition may be NORMAL later, check it again in next round
+                        dirtyTablets.add(tabletId);
+                        continue;
+                    }
+                    MaterializedIndex idx = partition.getIndex(tabletMeta.getIndexId());
+                    if (idx == null || !idx.getState().isVisible()) {
+                        // tablet in SHADOW index will be checked by full check after it is visible
+                        continue;
+                    }
+                    Tablet tablet = idx.getTablet(tabletId);
+                    if (tablet == null) {
+                        continue;
+                    }
+
+                    boolean isInPrios = isInPrios(db.getId(), olapTbl.getId(), partition.getId());
+                    CheckResult res = checkTablet(db, olapTbl, partition, idx, tablet,
+                            availableBackendsNum, isInPrios, start, checkStat);
+                    // a tablet IN_SCHEDULER is marked dirty again by tablet scheduler when it is removed
+                    // from scheduler, so it need not be checked in every round until then
+                    if (res == CheckResult.NOT_READY || res == CheckResult.LIMIT_EXCEED) {
+                        dirtyTablets.add(tabletId);
+                    }
+                    if (res == CheckResult.LIMIT_EXCEED) {
+                        LOG.info("number of scheduling tablets in tablet scheduler"
+                                + " exceed to limit. stop checking dirty tablets");
+                        limitExceed = true;
+                    }
+                }
+            } finally {
+                db.readUnlock();
+            }
+        }
+
+        long cost = System.currentTimeMillis() - start;
+        checkStat.report(stat, cost);
+        LOG.info("finished to check dirty tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{},"
+                + " dirty backends: {}, cost: {} ms",
+                checkStat.unhealthyTabletNum, checkStat.totalTabletNum, checkStat.addToSchedulerTabletNum,
+                checkStat.tabletInScheduler, checkStat.tabletNotReady, backendIds, cost);
+    }
+
+    /*
+     * Check the health of a tablet, and add it to tablet scheduler if it is not healthy.
+     * Should be called with db read lock held.
+     */
+    private CheckResult checkTablet(Database db, OlapTable olapTbl, Partition partition, MaterializedIndex idx,
+            Tablet tablet, int availableBackendsNum, boolean isInPrios, long checkTime, CheckStat checkStat) {
+        checkStat.totalTabletNum++;
 
-        stat.counterTabletCheckCostMs.addAndGet(cost);
-        stat.counterTabletChecked.addAndGet(totalTabletNum);
-        stat.counterUnhealthyTabletNum.addAndGet(unhealthyTabletNum);
-        stat.counterTabletAddToBeScheduled.addAndGet(addToSchedulerTabletNum);
+        if (tabletScheduler.containsTablet(tablet.getId())) {
+            checkStat.tabletInScheduler++;
+            return CheckResult.IN_SCHEDULER;
+        }
 
-        LOG.info("finished to check tablets. unhealth/total/added/in_sched/not_ready: {}/{}/{}/{}/{}, cost: {} ms",
-                unhealthyTabletNum, totalTabletNum, addToSchedulerTabletNum, tabletInScheduler, tabletNotReady, cost);
+        Pair<TabletStatus, TabletSchedCtx.Priority> statusWithPrio = tablet.getHealthStatusWithPriority(
+                infoService,
+                db.getClusterName(),
+                partition.getVisibleVersion(),
+                partition.getVisibleVersionHash(),
+                olapTbl.getPartitionInfo().getReplicationNum(partition.getId()),
+                availableBackendsNum);
+
+        if (statusWithPrio.first == TabletStatus.HEALTHY) {
+            // Only set last status check time when status is healthy.
+            tablet.setLastStatusCheckTime(checkTime);
+            return CheckResult.HEALTHY;
+        } else if (isInPrios) {
+            statusWithPrio.second = TabletSchedCtx.Priority.VERY_HIGH;
+        }
+
+        checkStat.unhealthyTabletNum++;
+
+        if (!tablet.readyToBeRepaired(statusWithPrio.second)) {
+            checkStat.tabletNotReady++;
+            return CheckResult.NOT_READY;
+        }
+
+        TabletSchedCtx tabletCtx = new TabletSchedCtx(
+                TabletSchedCtx.Type.REPAIR,
+                db.getClusterName(),
+                db.getId(), olapTbl.getId(),
+                partition.getId(), idx.getId(), tablet.getId(),
+                System.currentTimeMillis());
+        // the tablet status will be set again when being scheduled
+        tabletCtx.setTabletStatus(statusWithPrio.first);
+        tabletCtx.setOrigPriority(statusWithPrio.second);
+
+        AddResult res = tabletScheduler.addTablet(tabletCtx, false /* not force */);
+        if (res == AddResult.LIMIT_EXCEED) {
+            return CheckResult.LIMIT_EXCEED;
+        } else if (res == AddResult.ADDED) {
+            checkStat.addToSchedulerTabletNum++;
+        }
+        return CheckResult.ADDED;
     }
 
     private boolean isInPrios(long dbId, long tblId, long partId) {
@@ -32,6 +32,7 @@ import org.apache.doris.catalog.Replica.ReplicaState;
 import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.Tablet.TabletStatus;
 import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletScanStat;
 import org.apache.doris.clone.SchedException.Status;
 import org.apache.doris.clone.TabletSchedCtx.Priority;
 import org.apache.doris.clone.TabletSchedCtx.Type;
@@ -55,6 +56,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -66,6 +68,10 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /*
@@ -134,6 +140,9 @@ public class TabletScheduler extends MasterDaemon {
     private TabletInvertedIndex invertedIndex;
     private ColocateTableIndex colocateTableIndex;
     private TabletSchedulerStat stat;
+
+    // threads to schedule pending tablets in parallel
+    private ExecutorService schedulePool;
     
     // result of adding a tablet to pendingTablets
     public enum AddResult {
@@ -150,6 +159,8 @@ public class TabletScheduler extends MasterDaemon {
         this.invertedIndex = invertedIndex;
         this.colocateTableIndex = catalog.getColocateTableIndex();
         this.stat = stat;
+        this.schedulePool = Executors.newFixedThreadPool(Math.max(1, Config.tablet_scheduler_thread_num),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("tablet-scheduler-pool-%d").build());
     }
 
     public TabletSchedulerStat getStat() {
@@ -278,6 +289,8 @@ public class TabletScheduler extends MasterDaemon {
 
         selectTabletsForBalance();
 
+        stat.updateRepairProgress(getRepairTabletNum());
+
         stat.counterTabletScheduleRound.incrementAndGet();
     }
 
@@ -300,6 +313,8 @@ public class TabletScheduler extends MasterDaemon {
      * because we already limit the total number of running clone jobs in cluster by 'backend slots'
      */
     private void updateClusterLoadStatistic() {
+        // aggregate the scans of tablets since last update into hotness
+        TabletScanStat.getInstance().roll();
         Map<String, ClusterLoadStatistic> newStatisticMap = Maps.newConcurrentMap();
         Set<String> clusterNames = infoService.getClusterNames();
         for (String clusterName : clusterNames) {
@@ -354,61 +369,7 @@ public class TabletScheduler extends MasterDaemon {
         LOG.debug("get {} tablets to schedule", currentBatch.size());
 
         AgentBatchTask batchTask = new AgentBatchTask();
-        for (TabletSchedCtx tabletCtx : currentBatch) {
-            try {
-                scheduleTablet(tabletCtx, batchTask);
-            } catch (SchedException e) {
-                tabletCtx.increaseFailedSchedCounter();
-                tabletCtx.setErrMsg(e.getMessage());
-
-                if (e.getStatus() == Status.SCHEDULE_FAILED) {
-                    if (tabletCtx.getType() == Type.BALANCE) {
-                        // if balance is disabled, remove this tablet
-                        if (Config.disable_balance) {
-                            finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED,
-                                    "disable balance and " + e.getMessage());
-                        } else {
-                            // remove the balance task if it fails to be scheduled many times
-                            if (tabletCtx.getFailedSchedCounter() > 10) {
-                                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED,
-                                        "schedule failed too many times and " + e.getMessage());
-                            } else {
-                                // we must release resource it current hold, and be scheduled again
-                                tabletCtx.releaseResource(this);
-                                // adjust priority to avoid some higher priority always be the first in pendingTablets
-                                stat.counterTabletScheduledFailed.incrementAndGet();
-                                dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
-                            }
-                        }
-                    } else {
-                        // we must release resource it current hold, and be scheduled again
-                        tabletCtx.releaseResource(this);
-                        // adjust priority to avoid some higher priority always be the first in pendingTablets
-                        stat.counterTabletScheduledFailed.incrementAndGet();
-                        dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
-                    }
-                } else if (e.getStatus() == Status.FINISHED) {
-                    // schedule redundant tablet will throw this exception
-                    stat.counterTabletScheduledSucceeded.incrementAndGet();
-                    finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.FINISHED, e.getMessage());
-                } else {
-                    Preconditions.checkState(e.getStatus() == Status.UNRECOVERABLE, e.getStatus());
-                    // discard
-                    stat.counterTabletScheduledDiscard.incrementAndGet();
-                    finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getMessage());
-                }
-                continue;
-            } catch (Exception e) {
-                LOG.warn("got unexpected exception, discard this schedule. tablet: {}",
-                        tabletCtx.getTabletId(), e);
-                stat.counterTabletScheduledFailed.incrementAndGet();
-                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, e.getMessage());
-            }
-
-            Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.RUNNING);
-            stat.counterTabletScheduledSucceeded.incrementAndGet();
-            addToRunningTablets(tabletCtx);
-        }
+        scheduleTablets(currentBatch, batchTask);
 
         // must send task after adding tablet info to runningTablets.
         for (AgentTask task : batchTask.getAllTasks()) {
@@ -425,6 +386,133 @@ public class TabletScheduler extends MasterDaemon {
         stat.counterTabletScheduleCostMs.addAndGet(cost);
     }
 
+    /*
+     * Schedule the tablets, which are sorted by priority, and add the agent tasks to 'batchTask'.
+     * Tablets are scheduled by 'tablet_scheduler_thread_num' threads in parallel. To keep the priority
+     * semantics, the tablets are split into groups of the same priority, and a group is scheduled only after
+     * all groups of higher priority are done, so that tablets with higher priority always take slots first.
+     */
+    void scheduleTablets(List<TabletSchedCtx> tabletCtxs, AgentBatchTask batchTask) {
+        List<Pair<Integer, Integer>> groups = Lists.newArrayList();
+        int groupStart = 0;
+        for (int i = 1; i <= tabletCtxs.size(); i++) {
+            if (i == tabletCtxs.size()
+                    || tabletCtxs.get(i).getDynamicPriority() != tabletCtxs.get(groupStart).getDynamicPriority()) {
+                groups.add(Pair.create(groupStart, i));
+                groupStart = i;
+            }
+        }
+
+        for (Pair<Integer, Integer> group : groups) {
+            scheduleTabletsInParallel(tabletCtxs.subList(group.first, group.second), batchTask);
+        }
+    }
+
+    /*
+     * Schedule the tablets in parallel, and wait for all of them to be done.
+     * The agent tasks of scheduled tablets are added to 'batchTask'.
+     */
+    private void scheduleTabletsInParallel(List<TabletSchedCtx> tabletCtxs, AgentBatchTask batchTask) {
+        if (tabletCtxs.size() == 1) {
+            scheduleTabletAndHandleResult(tabletCtxs.get(0), batchTask);
+            return;
+        }
+
+        List<Future<AgentBatchTask>> futures = Lists.newArrayListWithCapacity(tabletCtxs.size());
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
+            futures.add(schedulePool.submit(() -> {
+                AgentBatchTask tasks = new AgentBatchTask();
+                scheduleTabletAndHandleResult(tabletCtx, tasks);
+                return tasks;
+            }));
+        }
+        for (Future<AgentBatchTask> future : futures) {
+            try {
+                for (AgentTask task : future.get().getAllTasks()) {
+                    batchTask.addTask(task);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                LOG.warn("failed to wait for scheduling tablet", e);
+            }
+        }
+    }
+
+    /*
+     * Schedule the tablet, and handle the result. Thread safe.
+     */
+    private void scheduleTabletAndHandleResult(TabletSchedCtx tabletCtx, AgentBatchTask batchTask) {
+        try {
+            scheduleTablet(tabletCtx, batchTask);
+        } catch (SchedException e) {
+            tabletCtx.increaseFailedSchedCounter();
+            tabletCtx.setErrMsg(e.getMessage());
+
+            if (e.getStatus() == Status.SCHEDULE_FAILED) {
+                if (tabletCtx.getType() == Type.BALANCE) {
+                    // if balance is disabled, remove this tablet
+                    if (Config.disable_balance) {
+                        finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED,
+                                "disable balance and " + e.getMessage());
+                    } else {
+                        // remove the balance task if it fails to be scheduled many times
+                        if (tabletCtx.getFailedSchedCounter() > 10) {
+                            finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED,
+                                    "schedule failed too many times and " + e.getMessage());
+                        } else {
+                            // we must release resource it current hold, and be scheduled again
+                            tabletCtx.releaseResource(this);
+                            // adjust priority to avoid some higher priority always be the first in pendingTablets
+                            stat.counterTabletScheduledFailed.incrementAndGet();
+                            dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
+                        }
+                    }
+                } else {
+                    // we must release resource it current hold, and be scheduled again
+                    tabletCtx.releaseResource(this);
+                    // adjust priority to avoid some higher priority always be the first in pendingTablets
+                    stat.counterTabletScheduledFailed.incrementAndGet();
+                    dynamicAdjustPrioAndAddBackToPendingTablets(tabletCtx, e.getMessage());
+                }
+            } else if (e.getStatus() == Status.FINISHED) {
+                // schedule redundant tablet will throw this exception
+                stat.counterTabletScheduledSucceeded.incrementAndGet();
+                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.FINISHED, e.getMessage());
+            } else {
+                Preconditions.checkState(e.getStatus() == Status.UNRECOVERABLE, e.getStatus());
+                // discard
+                stat.counterTabletScheduledDiscard.incrementAndGet();
+                finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.CANCELLED, e.getMessage());
+            }
+            return;
+        } catch (Exception e) {
+            LOG.warn("got unexpected exception, discard this schedule. tablet: {}",
+                    tabletCtx.getTabletId(), e);
+            stat.counterTabletScheduledFailed.incrementAndGet();
+            finalizeTabletCtx(tabletCtx, TabletSchedCtx.State.UNEXPECTED, e.getMessage());
+            return;
+        }
+
+        Preconditions.checkState(tabletCtx.getState() == TabletSchedCtx.State.RUNNING);
+        stat.counterTabletScheduledSucceeded.incrementAndGet();
+        addToRunningTablets(tabletCtx);
+    }
+
+    // number of REPAIR tablets which are pending or running
+    private synchronized long getRepairTabletNum() {
+        long num = 0;
+        for (TabletSchedCtx tabletCtx : pendingTablets) {
+            if (tabletCtx.getType() == Type.REPAIR) {
+                num++;
+            }
+        }
+        for (TabletSchedCtx tabletCtx : runningTablets.values()) {
+            if (tabletCtx.getType() == Type.REPAIR) {
+                num++;
+            }
+        }
+        return num;
+    }
+
     private synchronized void addToRunningTablets(TabletSchedCtx tabletCtx) {
         runningTablets.put(tabletCtx.getTabletId(), tabletCtx);
     }
@@ -441,7 +529,7 @@ public class TabletScheduler extends MasterDaemon {
     /*
      * Try to schedule a single tablet.
      */
-    private void scheduleTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask) throws SchedException {
+    void scheduleTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask) throws SchedException {
         LOG.debug("schedule tablet: {}, type: {}, status: {}", tabletCtx.getTabletId(), tabletCtx.getType(), tabletCtx.getTabletStatus());
         long currentTime = System.currentTimeMillis();
         tabletCtx.setLastSchedTime(currentTime);
@@ -1085,6 +1173,9 @@ public class TabletScheduler extends MasterDaemon {
     }
 
     private void finalizeTabletCtx(TabletSchedCtx tabletCtx, TabletSchedCtx.State state, String reason) {
+        if (state == TabletSchedCtx.State.FINISHED && tabletCtx.getType() == Type.REPAIR) {
+            stat.counterRepairTabletFinished.incrementAndGet();
+        }
         // use 2 steps to avoid nested database lock and synchronized.(releaseTabletCtx() may hold db lock)
         // remove the tablet ctx, so that no other process can see it
         removeTabletCtx(tabletCtx, reason);
@@ -1102,6 +1193,8 @@ public class TabletScheduler extends MasterDaemon {
         runningTablets.remove(tabletCtx.getTabletId());
         allTabletIds.remove(tabletCtx.getTabletId());
         schedHistory.add(tabletCtx);
+        // the tablet may still be unhealthy, eg: scheduling failed, or only one of the missing replicas is repaired
+        Catalog.getCurrentCatalog().getTabletChecker().markTabletDirty(tabletCtx.getTabletId());
         LOG.info("remove the tablet {}. because: {}", tabletCtx.getTabletId(), reason);
     }
 
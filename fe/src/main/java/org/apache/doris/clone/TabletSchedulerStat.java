@@ -41,6 +41,18 @@ public class TabletSchedulerStat {
         String prefix() default "TStat";
     }
 
+    /*
+     * A gauge is a current value instead of an accumulated count, so it is not included in
+     * snapshot(), and incrementalBrief() prints it without the increment.
+     */
+    @Target({ ElementType.FIELD })
+    @Retention(RetentionPolicy.RUNTIME)
+    public static @interface GaugeField {
+        String value() default "";
+
+        String prefix() default "TStat";
+    }
+
     /*
      * TabletChecker related
      */
@@ -71,6 +83,18 @@ public class TabletSchedulerStat {
     @StatField("num of tablet being scheduled discard")
     public AtomicLong counterTabletScheduledDiscard = new AtomicLong(0L);
 
+    /*
+     * Repair progress related
+     */
+    @StatField("num of repair tablet finished")
+    public AtomicLong counterRepairTabletFinished = new AtomicLong(0L);
+    @GaugeField("num of repair tablet remaining")
+    public AtomicLong repairTabletRemaining = new AtomicLong(0L);
+    @GaugeField("repair throughput(tablets per minute)")
+    public AtomicLong repairThroughputPerMinute = new AtomicLong(0L);
+    @GaugeField("estimated time to finish repair(s), -1 if unknown")
+    public AtomicLong repairEtaSecond = new AtomicLong(0L);
+
     /*
      * Tablet priority related
      */
@@ -113,6 +137,45 @@ public class TabletSchedulerStat {
 
     private TabletSchedulerStat lastSnapshot = null;
 
+    // the repair throughput is sampled at this interval, and smoothed by moving average
+    private static final long REPAIR_SAMPLE_INTERVAL_MS = 10 * 1000L;
+    private static final double REPAIR_RATE_SMOOTH_FACTOR = 0.3;
+    private long lastRepairSampleTime = -1;
+    private long lastRepairFinishedNum = 0;
+    // tablets per ms
+    private double repairRate = 0;
+
+    /*
+     * Update the repair throughput and the estimated time to repair the remaining tablets.
+     * Called by tablet scheduler in each round.
+     */
+    public void updateRepairProgress(long remainingNum) {
+        updateRepairProgress(remainingNum, System.currentTimeMillis());
+    }
+
+    synchronized void updateRepairProgress(long remainingNum, long now) {
+        repairTabletRemaining.set(remainingNum);
+        long finishedNum = counterRepairTabletFinished.get();
+        if (lastRepairSampleTime < 0) {
+            lastRepairSampleTime = now;
+            lastRepairFinishedNum = finishedNum;
+        } else if (now - lastRepairSampleTime >= REPAIR_SAMPLE_INTERVAL_MS) {
+            double rate = (finishedNum - lastRepairFinishedNum) / (double) (now - lastRepairSampleTime);
+            repairRate = REPAIR_RATE_SMOOTH_FACTOR * rate + (1 - REPAIR_RATE_SMOOTH_FACTOR) * repairRate;
+            lastRepairSampleTime = now;
+            lastRepairFinishedNum = finishedNum;
+            repairThroughputPerMinute.set(Math.round(repairRate * 60 * 1000));
+        }
+
+        if (remainingNum == 0) {
+            repairEtaSecond.set(0);
+        } else if (repairRate <= 0) {
+            repairEtaSecond.set(-1);
+        } else {
+            repairEtaSecond.set(Math.round(remainingNum / repairRate / 1000));
+        }
+    }
+
     /*
      * make a snapshot of current stat,
      * in order to calculate the incremental stat when next call of incrementalBrief()
@@ -145,12 +208,17 @@ public class TabletSchedulerStat {
             Class<?> clazz = Class.forName(this.getClass().getName());
             Field[] fields = clazz.getDeclaredFields();
             for (Field field : fields) {
-                if (!field.isAnnotationPresent(StatField.class)) {
+                String name;
+                if (field.isAnnotationPresent(StatField.class)) {
+                    name = field.getAnnotation(StatField.class).value();
+                } else if (field.isAnnotationPresent(GaugeField.class)) {
+                    name = field.getAnnotation(GaugeField.class).value();
+                } else {
                     continue;
                 }
                 
                 List<String> info = Lists.newArrayList();
-                info.add(field.getAnnotation(StatField.class).value());
+                info.add(name);
                 info.add(String.valueOf(((AtomicLong) field.get(this)).get()));
                 result.add(info);
             }
@@ -170,6 +238,12 @@ public class TabletSchedulerStat {
             Class<?> clazz = Class.forName(this.getClass().getName());
             Field[] fields = clazz.getDeclaredFields();
             for (Field field : fields) {
+                if (field.isAnnotationPresent(GaugeField.class)) {
+                    sb.append(field.getAnnotation(GaugeField.class).prefix()).append(" ");
+                    sb.append(field.getAnnotation(GaugeField.class).value()).append(": ");
+                    sb.append(((AtomicLong) field.get(this)).get()).append("\n");
+                    continue;
+                }
                 if (!field.isAnnotationPresent(StatField.class)) {
                     continue;
                 }
@@ -154,6 +154,22 @@ public class Config extends ConfigBase {
      */
     @ConfField(mutable = true, masterOnly = true)
     public static int edit_log_roll_num = 50000;
+    /*
+     * If true, concurrent edit log writes on Master FE are grouped, and a whole group of journals
+     * is written to bdbje in one transaction, which costs only one sync.
+     * Writers are released only after the group they belong to is durable.
+     */
+    @ConfField public static boolean edit_log_group_commit = false;
+    /*
+     * Max number of journals written in one group when *edit_log_group_commit* is true.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int edit_log_group_commit_max_num = 1000;
+    /*
+     * Number of threads used to deserialize databases when loading image.
+     * If set to 1, databases are deserialized one by one in the loading thread.
+     */
+    @ConfField public static int image_load_thread_num = 4;
     /*
      * Non-master FE will stop offering service
      * if meta data delay gap exceeds *meta_delay_toleration_second*
@@ -307,6 +323,20 @@ public class Config extends ConfigBase {
      */
     @ConfField public static int publish_version_interval_ms = 10;
 
+    /*
+     * Publish version tasks of all ready transactions to the same backend are always sent in one rpc.
+     * If set to true, different backends are published concurrently by 'publish_version_thread_num' threads,
+     * otherwise they are published one after another.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_batch_publish_version = false;
+
+    /*
+     * Number of threads to send publish version tasks to backends, if enable_batch_publish_version is true.
+     */
+    @ConfField
+    public static int publish_version_thread_num = 8;
+
     /*
      * Maximal wait seconds for straggler node in load
      * eg.
@@ -602,6 +632,55 @@ public class Config extends ConfigBase {
      */
     @ConfField public static int max_conn_per_user = 100;
 
+    /*
+     * If set to true, mysql service uses non-blocking io: connections waiting for the next command
+     * are watched by mysql_service_io_threads_num io threads, and commands are executed by a worker pool
+     * of at most max_mysql_service_task_threads_num threads, instead of one thread per connection.
+     */
+    @ConfField public static boolean mysql_service_nio_enabled = false;
+
+    /*
+     * Number of io threads of mysql service, only used when mysql_service_nio_enabled is true.
+     */
+    @ConfField public static int mysql_service_io_threads_num = 4;
+
+    /*
+     * Maximal number of threads executing commands of mysql service,
+     * only used when mysql_service_nio_enabled is true. If not greater than 0, it is 2 * number of cores.
+     * Commands ready when all threads are busy wait in a queue and are executed in the order they arrive.
+     * A thread is occupied until its command finishes, including waiting for the result of a query,
+     * so increase it if there are many concurrent long queries.
+     */
+    @ConfField public static int max_mysql_service_task_threads_num = 0;
+
+    /*
+     * Timeout of waiting for client in mysql service, only used when mysql_service_nio_enabled is true.
+     * A connection is closed if the client does not finish the handshake within this time after connected,
+     * or if reading or writing one packet makes no progress within this time.
+     */
+    @ConfField(mutable = true) public static int mysql_service_nio_timeout_second = 30;
+
+    /*
+     * If set to true, the next result batch of a query is fetched from backend
+     * while the current batch is being sent to client.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_result_prefetch = false;
+
+    /*
+     * Maximal number of statements prepared by COM_STMT_PREPARE in one connection.
+     */
+    @ConfField(mutable = true)
+    public static int max_prepared_stmt_num_per_connection = 1024;
+
+    /*
+     * Maximal number of parsed select statements cached in FE, which are reused by
+     * following statements with the same sql. Set to 0 to disable the cache, and the reuse of
+     * parsed templates of prepared statements.
+     */
+    @ConfField
+    public static int parsed_stmt_cache_size = 1000;
+
     /*
     * The memory_limit for colocote join PlanFragment instance =
     * exec_mem_limit / min (query_colocate_join_memory_limit_penalty_factor, instance_num)
@@ -934,5 +1013,207 @@ public class Config extends ConfigBase {
      */
     @ConfField(mutable = true, masterOnly = true)
     public static boolean force_do_metadata_checkpoint = false;
-}
 
+    /*
+     * If set to true, checkpoint only deserializes the databases which are accessed or modified by the journals
+     * since the last image, and copies the serialized bytes of other databases from the last image.
+     * All databases are deserialized if any journal may modify all of them.
+     * It falls back to a full checkpoint if the incremental checkpoint fails.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static boolean enable_incremental_checkpoint = false;
+
+    /*
+     * The interval of statistics collector, which runs the ANALYZE TABLE jobs submitted by users.
+     */
+    @ConfField(masterOnly = true)
+    public static long statistics_collector_interval_ms = 5 * 1000L; // 5 seconds
+
+    /*
+     * Expected number of rows sampled from a table to collect its column statistics.
+     * Rows of a larger table are sampled randomly, and the number of distinct values and null values
+     * of the whole table are estimated from the sample.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long statistics_sample_row_num = 1000000;
+
+    /*
+     * Timeout of the query which collects column statistics of one table.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static int statistics_collect_timeout_second = 600;
+
+    /*
+     * Maximal total size of query results cached in FE. The results of select statements on olap tables
+     * are cached with the versions of all scanned partitions, and are returned directly if the same
+     * statement is executed again before any of these partitions is changed. Set to 0 to disable the cache.
+     * The cache is also disabled by session variable 'enable_query_result_cache', which is false by default.
+     * All cached results are dropped if this is changed.
+     */
+    @ConfField(mutable = true)
+    public static long query_result_cache_max_size_bytes = 128 * 1024 * 1024L; // 128MB
+
+    /*
+     * The result of a query is not cached if it is larger than this.
+     */
+    @ConfField(mutable = true)
+    public static long query_result_cache_max_entry_size_bytes = 1024 * 1024L; // 1MB
+
+    /*
+     * If set to true, the tablets whose column min/max values reported by backends can not match
+     * the predicates of a query are not scanned.
+     * It is disabled by default, because nothing can be pruned before backends report the zone maps.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_tablet_zone_map_prune = false;
+
+    /*
+     * Max number of running queries of all workload groups on each frontend. When it is reached,
+     * queries wait in the queues of their workload groups, and are admitted in the order of
+     * group priority. 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static int qe_max_running_queries = 0;
+
+    /*
+     * Max number of running queries of workload group high, normal and low on each frontend.
+     * The workload group of a query is set by session variable 'resource_group'. 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static int[] workload_group_max_concurrency = {0, 0, 0};
+
+    /*
+     * Max sum of exec_mem_limit of running queries of workload group high, normal and low on each frontend.
+     * A query is always admitted if no other query of its group is running. 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static long[] workload_group_max_mem_bytes = {0, 0, 0};
+
+    /*
+     * Max number of queries waiting in the queue of each workload group, more queries are rejected.
+     */
+    @ConfField(mutable = true)
+    public static int workload_group_max_queue_size = 100;
+
+    /*
+     * Max time a query waits in the queue of its workload group. It is also limited by the query timeout.
+     */
+    @ConfField(mutable = true)
+    public static int workload_group_queue_timeout_second = 300;
+
+    /*
+     * If set to true, backends report the runtime profiles of running queries periodically
+     * (by backend config 'status_report_interval'), so that the memory, scan and cpu usage of queries
+     * can be seen in 'show proc "/current_queries"' and '/api/current_queries' during execution.
+     * It is also enabled if any of the query_max_* limits is set.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_query_resource_tracking = false;
+
+    /*
+     * A query is cancelled if the sum of memory of its running fragment instances exceeds this limit.
+     * 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static long query_max_mem_bytes = 0;
+
+    /*
+     * A query is cancelled if the bytes scanned by it exceed this limit. 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static long query_max_scan_bytes = 0;
+
+    /*
+     * A query is cancelled if the cpu time used by it on all backends exceeds this limit. 0 means no limit.
+     */
+    @ConfField(mutable = true)
+    public static long query_max_cpu_time_second = 0;
+
+    /*
+     * Max number of audit events waiting to be written to the audit sinks, more events are dropped.
+     */
+    @ConfField(mutable = true)
+    public static int audit_event_queue_size = 100000;
+
+    /*
+     * Interval and max batch size of writing audit events to the audit sinks.
+     */
+    @ConfField(mutable = true)
+    public static long audit_flush_interval_ms = 1000;
+    @ConfField(mutable = true)
+    public static int audit_flush_batch_size = 5000;
+
+    /*
+     * If set to true, audit events are also loaded into table 'audit_load_db.audit_load_table' by stream load,
+     * with the user 'audit_load_user'. The table should be created before, see StreamLoadAuditSink.
+     * 'audit_load_password' can only be set in fe.conf, and is masked when the configs are shown.
+     */
+    @ConfField(mutable = true)
+    public static boolean enable_audit_load = false;
+    @ConfField(mutable = true)
+    public static String audit_load_db = "doris_audit_db";
+    @ConfField(mutable = true)
+    public static String audit_load_table = "audit_log";
+    @ConfField(mutable = true)
+    public static String audit_load_user = "root";
+    @ConfField(sensitive = true)
+    public static String audit_load_password = "";
+
+    /*
+     * Max total size of the compressed query profiles kept in memory. When it is exceeded,
+     * the oldest profiles are moved to disk under 'meta_dir/profile'.
+     */
+    @ConfField(mutable = true)
+    public static long max_profile_memory_bytes = 64 * 1024 * 1024L;
+
+    /*
+     * Max total size of the query profiles saved on disk, the oldest ones are deleted when it is exceeded.
+     * 0 means the profiles are not saved to disk.
+     */
+    @ConfField(mutable = true)
+    public static long max_profile_disk_bytes = 1024 * 1024 * 1024L;
+
+    /*
+     * Number of threads to handle the reports of backends. The reports of a backend are handled
+     * by the same thread in order.
+     */
+    @ConfField(masterOnly = true)
+    public static int report_handler_thread_num = 4;
+
+    /*
+     * Backends which send delta tablet reports are asked to send a full tablet report at this interval,
+     * so that any divergence between the delta reports and meta is corrected.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long tablet_full_report_interval_second = 3600;
+
+    /*
+     * TabletChecker only checks the tablets whose replicas are changed, and checks all tablets
+     * at this interval, for the changes which are not tracked.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static long tablet_checker_full_check_interval_second = 300;
+
+    /*
+     * Number of threads to schedule the pending tablets in tablet scheduler in parallel.
+     */
+    @ConfField(masterOnly = true)
+    public static int tablet_scheduler_thread_num = 4;
+
+    /*
+     * The hotness of a tablet is the scan count of it, decayed by this factor each time the cluster load
+     * statistic is updated (every 20 seconds). Smaller value makes the hotness follow recent scans faster.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static double tablet_hotness_decay_factor = 0.5;
+
+    /*
+     * Weight of tablet hotness and disk io util in the load score of backend when balancing the cluster,
+     * the remaining weight is for used capacity and replica number. Set to 0 to balance by capacity
+     * and replica number only.
+     */
+    @ConfField(mutable = true, masterOnly = true)
+    public static double balance_hotness_score_weight = 0.2;
+    @ConfField(mutable = true, masterOnly = true)
+    public static double balance_io_util_score_weight = 0.1;
+}
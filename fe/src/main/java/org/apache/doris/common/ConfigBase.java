@@ -45,7 +45,11 @@ public class ConfigBase {
         boolean mutable() default false;
         boolean masterOnly() default false;
         String comment() default "";
+        // the value is masked when the configs are shown, eg. a password
+        boolean sensitive() default false;
     }   
+
+    public static final String MASKED_VALUE = "******";
     
     public static Properties props;
     public static Class<? extends ConfigBase> confClass;
@@ -62,10 +66,13 @@ public class ConfigBase {
         HashMap<String, String> map = new HashMap<String, String>();
         Field[] fields = confClass.getFields();     
         for (Field f : fields) {
-            if (f.getAnnotation(ConfField.class) == null) {
+            ConfField anno = f.getAnnotation(ConfField.class);
+            if (anno == null) {
                 continue;
             }
-            if (f.getType().isArray()) {
+            if (anno.sensitive()) {
+                map.put(f.getName(), MASKED_VALUE);
+            } else if (f.getType().isArray()) {
                 switch (f.getType().getSimpleName()) {
                     case "short[]":
                         map.put(f.getName(), Arrays.toString((short[]) f.get(null)));
@@ -250,7 +257,7 @@ public class ConfigBase {
             String confKey = anno.value().equals("") ? f.getName() : anno.value();
             String confVal;
             try {
-                confVal = String.valueOf(f.get(null));
+                confVal = anno.sensitive() ? MASKED_VALUE : String.valueOf(f.get(null));
             } catch (IllegalArgumentException | IllegalAccessException e) {
                 throw new DdlException("Failed to get config '" + confKey + "'. err: " + e.getMessage());
             }
@@ -149,6 +149,10 @@ public final class FeMetaVersion {
     public static final int VERSION_68 = 68;
     // modofy password checking logic
     public static final int VERSION_69 = 69;
+    // each db in image is prefixed with its id and serialized length, so dbs can be loaded in parallel
+    public static final int VERSION_70 = 70;
+    // materialized views, olap table persists keys type of indices
+    public static final int VERSION_71 = 71;
     // note: when increment meta version, should assign the latest version to VERSION_CURRENT
-    public static final int VERSION_CURRENT = VERSION_69;
+    public static final int VERSION_CURRENT = VERSION_71;
 }
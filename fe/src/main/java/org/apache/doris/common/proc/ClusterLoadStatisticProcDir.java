@@ -32,7 +32,7 @@ import java.util.Map;
 public class ClusterLoadStatisticProcDir implements ProcDirInterface {
     public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
             .add("BeId").add("Cluster").add("Available").add("UsedCapacity").add("Capacity")
-            .add("UsedPercent").add("ReplicaNum").add("CapCoeff").add("ReplCoeff").add("Score")
+            .add("UsedPercent").add("ReplicaNum").add("CapCoeff").add("ReplCoeff").add("Hotness").add("IoUtil").add("Score")
             .add("Class")
             .build();
 
@@ -20,6 +20,7 @@ package org.apache.doris.common.proc;
 import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.util.QueryStatisticsFormatter;
 import org.apache.doris.qe.QeProcessorImpl;
+import org.apache.doris.qe.QueryResourceTracker;
 import org.apache.doris.qe.QueryStatisticsItem;
 
 import com.google.common.base.Strings;
@@ -39,7 +40,8 @@ public class CurrentQueryStatisticsProcDir implements ProcDirInterface {
     private static final Logger LOG = LogManager.getLogger(CurrentQueryStatisticsProcDir.class);
     public static final ImmutableList<String> TITLE_NAMES = new ImmutableList.Builder<String>()
             .add("QueryId").add("ConnectionId").add("Database").add("User")
-            .add("ScanBytes").add("ProcessRows").add("ExecTime").build();
+            .add("ScanBytes").add("ProcessRows").add("ExecTime")
+            .add("CpuTimeMs").add("MemoryUsage").add("PeakMemoryUsage").build();
 
     private static final int EXEC_TIME_INDEX = 6;
 
@@ -85,6 +87,10 @@ public class CurrentQueryStatisticsProcDir implements ProcDirInterface {
             values.add(QueryStatisticsFormatter.getRowsReturned(
                     statistics.getRowsReturned()));
             values.add(item.getQueryExecTime());
+            final QueryResourceTracker tracker = item.getResourceTracker();
+            values.add(String.valueOf(tracker.getCpuTimeMs()));
+            values.add(QueryStatisticsFormatter.getScanBytes(tracker.getMemBytes()));
+            values.add(QueryStatisticsFormatter.getScanBytes(tracker.getPeakMemBytes()));
             sortedRowData.add(values);
         }
         // sort according to ExecTime
@@ -79,7 +79,7 @@ public class IndexInfoProcDir implements ProcDirInterface {
                     TStorageType storageType = olapTable.getStorageTypeByIndexId(indexId);
                     String indexName = olapTable.getIndexNameById(indexId);
 
-                    String type = olapTable.getKeysType().name();
+                    String type = olapTable.getKeysTypeByIndexId(indexId).name();
                     StringBuilder builder = new StringBuilder();
                     builder.append(type).append("(");
                     List<String> columnNames = Lists.newArrayList();
@@ -17,6 +17,10 @@
 
 package org.apache.doris.common.util;
 
+import org.apache.doris.common.Config;
+import org.apache.doris.common.io.Text;
+
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -24,17 +28,28 @@ import com.google.common.collect.Maps;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /*
  * if you want to visit the atrribute(such as queryID,defaultDb) 
@@ -43,13 +58,24 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * 
  * why the element in the finished profile arary is not RuntimeProfile,
  * the purpose is let coordinator can destruct earlier(the fragment profile is in Coordinator) 
- * 
+ *
+ * The content of a profile is kept gzip compressed. The profiles in memory are limited by the sum
+ * of their sizes, by config 'max_profile_memory_bytes'. When it is exceeded, the oldest profiles are
+ * moved to files under 'meta_dir/profile', which are limited by config 'max_profile_disk_bytes' and
+ * deleted from the oldest. Only the info strings of the profiles on disk are kept in memory, so that
+ * the profiles can still be listed by finish time and user.
  */
 public class ProfileManager {
     private static final Logger LOG = LogManager.getLogger(ProfileManager.class);
     private static ProfileManager INSTANCE = null;
+    // the number of queries returned by getAllQueries()
     private static final int ARRAY_SIZE = 100;
-    // private static final int TOTAL_LEN = 1000 * ARRAY_SIZE ;
+    private static final String PROFILE_DIR = "profile";
+    private static final String FILE_SUFFIX = ".profile";
+    // the sql statement kept in memory for profiles on disk is truncated
+    private static final int MAX_INDEX_SQL_LENGTH = 256;
+    // estimated memory of an element besides its content
+    private static final int ELEMENT_OVERHEAD_BYTES = 256;
     public static final String QUERY_ID = "Query ID";
     public static final String START_TIME = "Start Time";
     public static final String END_TIME = "End Time";
@@ -64,41 +90,73 @@ public class ProfileManager {
             Arrays.asList(QUERY_ID, USER, DEFAULT_DB, SQL_STATEMENT, QUERY_TYPE,
                     START_TIME, END_TIME, TOTAL_TIME, QUERY_STATE));
     
-    private class ProfileElement {
-        public Map<String, String> infoStrings = Maps.newHashMap();  
-        public String profileContent;
+    private static class ProfileElement {
+        public Map<String, String> infoStrings = Maps.newHashMap();
+        public long finishTime;
+        // gzip compressed content, null if the profile is on disk
+        public byte[] compressedContent;
+        // not null if the profile is on disk
+        public File file;
+        public long fileSize;
+
+        public String getQueryId() {
+            return infoStrings.get(QUERY_ID);
+        }
+
+        public long getMemorySize() {
+            long size = ELEMENT_OVERHEAD_BYTES;
+            for (String value : infoStrings.values()) {
+                size += value.length() * 2;
+            }
+            return compressedContent == null ? size : size + compressedContent.length;
+        }
     }
-    
-    // only protect profileDeque; profileMap is concurrent, no need to protect
+
+    // protect all fields below
     private ReentrantReadWriteLock lock; 
     private ReadLock readLock;
     private WriteLock writeLock;
 
-    private Deque<ProfileElement> profileDeque;
+    // in the order of finish time, the profiles on disk are older than the profiles in memory
+    private LinkedList<ProfileElement> memoryDeque;
+    private LinkedList<ProfileElement> diskDeque;
     private Map<String, ProfileElement> profileMap; // from QueryId to RuntimeProfile
+    private long memoryBytes = 0;
+    private long diskBytes = 0;
+
+    // null if the profiles are not saved to disk
+    private File profileDir;
     
-    public static ProfileManager getInstance() {
+    public static synchronized ProfileManager getInstance() {
         if (INSTANCE == null) {
-            INSTANCE = new ProfileManager();
+            INSTANCE = new ProfileManager(new File(Config.meta_dir, PROFILE_DIR));
         }
         return INSTANCE;
     }
     
-    private ProfileManager() {
+    ProfileManager(File profileDir) {
         lock = new ReentrantReadWriteLock(true); 
         readLock = lock.readLock();
         writeLock = lock.writeLock();
-        profileDeque = new LinkedList<ProfileElement>();
-        profileMap = new ConcurrentHashMap<String, ProfileElement>();
+        memoryDeque = Lists.newLinkedList();
+        diskDeque = Lists.newLinkedList();
+        profileMap = Maps.newHashMap();
+        if (profileDir != null && (profileDir.isDirectory() || profileDir.mkdirs())) {
+            this.profileDir = profileDir;
+            loadProfileFiles();
+        } else if (profileDir != null) {
+            LOG.warn("failed to create profile dir {}, profiles will not be saved to disk", profileDir);
+        }
     }
-    
-    public ProfileElement createElement(RuntimeProfile profile) {
+
+    private ProfileElement createElement(RuntimeProfile profile) {
         ProfileElement element = new ProfileElement();
         RuntimeProfile summaryProfile = profile.getChildList().get(0).first;
         for (String header : PROFILE_HEADERS) {
-            element.infoStrings.put(header, summaryProfile.getInfoString(header));
+            element.infoStrings.put(header, Strings.nullToEmpty(summaryProfile.getInfoString(header)));
         }
-        element.profileContent = profile.toString();
+        element.finishTime = System.currentTimeMillis();
+        element.compressedContent = compress(profile.toString());
         return element;
     }
     
@@ -108,41 +166,242 @@ public class ProfileManager {
         }
         
         ProfileElement element = createElement(profile);
-        String queryId = element.infoStrings.get(ProfileManager.QUERY_ID);
+        String queryId = element.getQueryId();
         // check when push in, which can ensure every element in the list has QUERY_ID column,
         // so there is no need to check when remove element from list.
         if (Strings.isNullOrEmpty(queryId)) {
             LOG.warn("the key or value of Map is null, "
                     + "may be forget to insert 'QUERY_ID' column into infoStrings");
         }
-        
-        profileMap.put(queryId, element);
+
+        List<ProfileElement> spilledElements = Lists.newArrayList();
         writeLock.lock();
         try { 
-            if (profileDeque.size() >= ARRAY_SIZE) {
-                profileMap.remove(profileDeque.getFirst().infoStrings.get(QUERY_ID));
-                profileDeque.removeFirst();
+            ProfileElement oldElement = profileMap.put(queryId, element);
+            if (oldElement != null) {
+                removeElement(oldElement);
+            }
+            memoryDeque.addLast(element);
+            memoryBytes += element.getMemorySize();
+            while (memoryBytes > Config.max_profile_memory_bytes && memoryDeque.size() > 1) {
+                ProfileElement oldest = memoryDeque.removeFirst();
+                memoryBytes -= oldest.getMemorySize();
+                spilledElements.add(oldest);
             }
-            profileDeque.addLast(element);
         } finally {
             writeLock.unlock();
         }
+
+        // the spilled elements can still be read from memory until they are written to disk
+        for (ProfileElement spilledElement : spilledElements) {
+            spill(spilledElement);
+        }
     }
-    
+
+    private void spill(ProfileElement element) {
+        File file = null;
+        if (profileDir != null && Config.max_profile_disk_bytes > 0) {
+            file = new File(profileDir, element.finishTime + "_" + element.getQueryId() + FILE_SUFFIX);
+            try {
+                writeProfileFile(file, element);
+            } catch (IOException e) {
+                LOG.warn("failed to write profile file {}", file, e);
+                file.delete();
+                file = null;
+            }
+        }
+
+        List<File> deletedFiles = Lists.newArrayList();
+        writeLock.lock();
+        try {
+            if (profileMap.get(element.getQueryId()) != element) {
+                // replaced by a new profile of the same query id
+                if (file != null) {
+                    deletedFiles.add(file);
+                }
+                return;
+            }
+            if (file == null) {
+                profileMap.remove(element.getQueryId());
+                return;
+            }
+            element.file = file;
+            element.fileSize = file.length();
+            element.compressedContent = null;
+            String sql = element.infoStrings.get(SQL_STATEMENT);
+            if (sql.length() > MAX_INDEX_SQL_LENGTH) {
+                element.infoStrings.put(SQL_STATEMENT, sql.substring(0, MAX_INDEX_SQL_LENGTH));
+            }
+            diskDeque.addLast(element);
+            diskBytes += element.fileSize;
+            evictDiskElements(deletedFiles);
+        } finally {
+            writeLock.unlock();
+            for (File deletedFile : deletedFiles) {
+                deletedFile.delete();
+            }
+        }
+    }
+
+    // remove the oldest profiles on disk until they are within the limit, must be called with write lock.
+    // the files of them are added to deletedFiles, to be deleted without lock.
+    private void evictDiskElements(List<File> deletedFiles) {
+        while (diskBytes > Config.max_profile_disk_bytes && !diskDeque.isEmpty()) {
+            ProfileElement oldest = diskDeque.removeFirst();
+            diskBytes -= oldest.fileSize;
+            profileMap.remove(oldest.getQueryId());
+            deletedFiles.add(oldest.file);
+        }
+    }
+
+    // remove the element from deques, must be called with write lock
+    private void removeElement(ProfileElement element) {
+        if (element.file != null) {
+            if (diskDeque.remove(element)) {
+                diskBytes -= element.fileSize;
+                element.file.delete();
+            }
+        } else if (memoryDeque.remove(element)) {
+            memoryBytes -= element.getMemorySize();
+        }
+    }
+
+    private void loadProfileFiles() {
+        File[] files = profileDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<ProfileElement> elements = Lists.newArrayList();
+        for (File file : files) {
+            if (!file.getName().endsWith(FILE_SUFFIX)) {
+                continue;
+            }
+            try {
+                elements.add(readProfileFileHeader(file));
+            } catch (IOException e) {
+                LOG.warn("failed to read profile file {}, delete it", file, e);
+                file.delete();
+            }
+        }
+        elements.sort((e1, e2) -> Long.compare(e1.finishTime, e2.finishTime));
+        for (ProfileElement element : elements) {
+            profileMap.put(element.getQueryId(), element);
+            diskDeque.addLast(element);
+            diskBytes += element.fileSize;
+        }
+        // the limit may be lowered before restart
+        List<File> deletedFiles = Lists.newArrayList();
+        evictDiskElements(deletedFiles);
+        for (File deletedFile : deletedFiles) {
+            deletedFile.delete();
+        }
+        LOG.info("load {} profiles from {}, total {} bytes, {} of them are deleted because of exceeding limit",
+                elements.size(), profileDir, diskBytes, deletedFiles.size());
+    }
+
+    /*
+     * The profile file is:
+     *      finish time, number of info strings, [key, value] of info strings,
+     *      length of compressed content, compressed content
+     */
+    private static void writeProfileFile(File file, ProfileElement element) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeLong(element.finishTime);
+            out.writeInt(element.infoStrings.size());
+            for (Map.Entry<String, String> entry : element.infoStrings.entrySet()) {
+                Text.writeString(out, entry.getKey());
+                Text.writeString(out, entry.getValue());
+            }
+            out.writeInt(element.compressedContent.length);
+            out.write(element.compressedContent);
+        }
+    }
+
+    private static ProfileElement readProfileFileHeader(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            ProfileElement element = new ProfileElement();
+            element.finishTime = in.readLong();
+            int num = in.readInt();
+            for (int i = 0; i < num; i++) {
+                String key = Text.readString(in);
+                String value = Text.readString(in);
+                if (key.equals(SQL_STATEMENT) && value.length() > MAX_INDEX_SQL_LENGTH) {
+                    value = value.substring(0, MAX_INDEX_SQL_LENGTH);
+                }
+                element.infoStrings.put(key, value);
+            }
+            element.file = file;
+            element.fileSize = file.length();
+            return element;
+        }
+    }
+
+    private static byte[] readProfileFileContent(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            in.readLong();
+            int num = in.readInt();
+            for (int i = 0; i < num * 2; i++) {
+                Text.readString(in);
+            }
+            byte[] content = new byte[in.readInt()];
+            in.readFully(content);
+            return content;
+        }
+    }
+
+    private static byte[] compress(String content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content.getBytes(Charsets.UTF_8));
+        } catch (IOException e) {
+            // impossible for memory stream
+            LOG.warn("failed to compress profile", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String decompress(byte[] compressedContent) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressedContent))) {
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+            }
+        }
+        return new String(out.toByteArray(), Charsets.UTF_8);
+    }
+
+    // the latest queries
     public List<List<String>> getAllQueries() {
+        return getQueries(null, 0, Long.MAX_VALUE, ARRAY_SIZE);
+    }
+
+    /*
+     * Return the info strings of the queries finished in [startTimeMs, endTimeMs] and executed by user,
+     * from the latest to the oldest. user is not checked if it is null.
+     */
+    public List<List<String>> getQueries(String user, long startTimeMs, long endTimeMs, int limit) {
         List<List<String>> result = Lists.newArrayList();
         readLock.lock();
         try {
-            Iterator reverse = profileDeque.descendingIterator();
-            while (reverse.hasNext()) {
-                ProfileElement element = (ProfileElement) reverse.next();
-                Map<String, String> infoStrings = element.infoStrings;
-                
-                List<String> row = Lists.newArrayList();
-                for (String str : PROFILE_HEADERS ) {
-                    row.add(infoStrings.get(str));
+            for (LinkedList<ProfileElement> deque : Arrays.asList(memoryDeque, diskDeque)) {
+                Iterator<ProfileElement> reverse = deque.descendingIterator();
+                while (reverse.hasNext() && result.size() < limit) {
+                    ProfileElement element = reverse.next();
+                    if (element.finishTime < startTimeMs || element.finishTime > endTimeMs) {
+                        continue;
+                    }
+                    Map<String, String> infoStrings = element.infoStrings;
+                    if (user != null && !user.equals(infoStrings.get(USER))) {
+                        continue;
+                    }
+                    List<String> row = Lists.newArrayList();
+                    for (String str : PROFILE_HEADERS) {
+                        row.add(infoStrings.get(str));
+                    }
+                    result.add(row);
                 }
-                result.add(row);
             }
         } finally {
             readLock.unlock();
@@ -151,16 +410,29 @@ public class ProfileManager {
     }
     
     public String getProfile(String queryID) {
+        byte[] compressedContent;
+        File file;
         readLock.lock();
         try {
             ProfileElement element = profileMap.get(queryID);
             if (element == null) {
                 return new String("query id " + queryID + " not found." );
             }
-            
-            return element.profileContent;
+            compressedContent = element.compressedContent;
+            file = element.file;
         } finally {
             readLock.unlock();
         }
+
+        // decompress and read file without lock
+        try {
+            if (compressedContent == null) {
+                compressedContent = readProfileFileContent(file);
+            }
+            return decompress(compressedContent);
+        } catch (IOException e) {
+            LOG.warn("failed to read profile of query {}", queryID, e);
+            return "failed to read profile of query " + queryID + ": " + e.getMessage();
+        }
     }
 }
@@ -42,6 +42,7 @@ import org.apache.doris.http.meta.MetaService.VersionAction;
 import org.apache.doris.http.rest.BootstrapFinishAction;
 import org.apache.doris.http.rest.CancelStreamLoad;
 import org.apache.doris.http.rest.CheckDecommissionAction;
+import org.apache.doris.http.rest.CurrentQueriesAction;
 import org.apache.doris.http.rest.GetDdlStmtAction;
 import org.apache.doris.http.rest.GetLoadInfoAction;
 import org.apache.doris.http.rest.GetLogFileAction;
@@ -58,6 +59,7 @@ import org.apache.doris.http.rest.MultiDesc;
 import org.apache.doris.http.rest.MultiList;
 import org.apache.doris.http.rest.MultiStart;
 import org.apache.doris.http.rest.MultiUnload;
+import org.apache.doris.http.rest.QueryProfilesAction;
 import org.apache.doris.http.rest.RowCountAction;
 import org.apache.doris.http.rest.SetConfigAction;
 import org.apache.doris.http.rest.ShowMetaInfoAction;
@@ -144,6 +146,8 @@ public class HttpServer {
         ShowMetaInfoAction.registerAction(controller);
         ShowProcAction.registerAction(controller);
         ShowRuntimeInfoAction.registerAction(controller);
+        CurrentQueriesAction.registerAction(controller);
+        QueryProfilesAction.registerAction(controller);
         GetLogFileAction.registerAction(controller);
         GetSmallFileAction.registerAction(controller);
         RowCountAction.registerAction(controller);
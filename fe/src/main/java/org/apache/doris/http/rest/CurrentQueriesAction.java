@@ -0,0 +1,81 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.http.rest;
+
+import org.apache.doris.common.DdlException;
+import org.apache.doris.http.ActionController;
+import org.apache.doris.http.BaseRequest;
+import org.apache.doris.http.BaseResponse;
+import org.apache.doris.http.IllegalArgException;
+import org.apache.doris.mysql.privilege.PrivPredicate;
+import org.apache.doris.qe.ConnectContext;
+import org.apache.doris.qe.QeProcessorImpl;
+import org.apache.doris.qe.QueryResourceTracker;
+import org.apache.doris.qe.QueryStatisticsItem;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.List;
+import java.util.Map;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/*
+ * Show the resource usage of the running queries on this frontend.
+ * eg:
+ *  fe_host:http_port/api/current_queries
+ */
+public class CurrentQueriesAction extends RestBaseAction {
+
+    public CurrentQueriesAction(ActionController controller) {
+        super(controller);
+    }
+
+    public static void registerAction(ActionController controller) throws IllegalArgException {
+        controller.registerHandler(HttpMethod.GET, "/api/current_queries", new CurrentQueriesAction(controller));
+    }
+
+    @Override
+    protected void executeWithoutPassword(BaseRequest request, BaseResponse response) throws DdlException {
+        checkGlobalAuth(ConnectContext.get().getCurrentUserIdentity(), PrivPredicate.ADMIN);
+
+        List<Map<String, Object>> queries = Lists.newArrayList();
+        for (QueryStatisticsItem item : QeProcessorImpl.INSTANCE.getQueryStatistics().values()) {
+            QueryResourceTracker tracker = item.getResourceTracker();
+            Map<String, Object> query = Maps.newLinkedHashMap();
+            query.put("query_id", item.getQueryId());
+            query.put("connection_id", item.getConnId());
+            query.put("database", item.getDb());
+            query.put("user", item.getUser());
+            query.put("exec_time_ms", Long.valueOf(item.getQueryExecTime()));
+            query.put("cpu_time_ms", tracker.getCpuTimeMs());
+            query.put("mem_bytes", tracker.getMemBytes());
+            query.put("peak_mem_bytes", tracker.getPeakMemBytes());
+            query.put("scan_rows", tracker.getScanRows());
+            query.put("scan_bytes", tracker.getScanBytes());
+            query.put("sql", item.getSql());
+            queries.add(query);
+        }
+
+        response.setContentType("application/json");
+        response.getContent().append(new Gson().toJson(queries));
+        sendResult(request, response);
+    }
+}
@@ -0,0 +1,91 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.http.rest;
+
+import org.apache.doris.common.DdlException;
+import org.apache.doris.common.util.ProfileManager;
+import org.apache.doris.http.ActionController;
+import org.apache.doris.http.BaseRequest;
+import org.apache.doris.http.BaseResponse;
+import org.apache.doris.http.IllegalArgException;
+import org.apache.doris.mysql.privilege.PrivPredicate;
+import org.apache.doris.qe.ConnectContext;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.Gson;
+
+import java.util.List;
+import java.util.Map;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/*
+ * List the profiles of finished queries, including the ones saved on disk.
+ * eg:
+ *  fe_host:http_port/api/query_profiles?user=root&start_time=1577808000000&end_time=1577894400000&limit=100
+ *  start_time and end_time are the range of finish time of queries in milliseconds.
+ * The profile content can be fetched by fe_host:http_port/query_profile?query_id=xxx
+ */
+public class QueryProfilesAction extends RestBaseAction {
+    private static final int DEFAULT_LIMIT = 100;
+
+    public QueryProfilesAction(ActionController controller) {
+        super(controller);
+    }
+
+    public static void registerAction(ActionController controller) throws IllegalArgException {
+        controller.registerHandler(HttpMethod.GET, "/api/query_profiles", new QueryProfilesAction(controller));
+    }
+
+    @Override
+    protected void executeWithoutPassword(BaseRequest request, BaseResponse response) throws DdlException {
+        checkGlobalAuth(ConnectContext.get().getCurrentUserIdentity(), PrivPredicate.ADMIN);
+
+        String user = Strings.emptyToNull(request.getSingleParameter("user"));
+        long startTime = parseLong(request, "start_time", 0);
+        long endTime = parseLong(request, "end_time", Long.MAX_VALUE);
+        int limit = (int) parseLong(request, "limit", DEFAULT_LIMIT);
+
+        List<Map<String, String>> profiles = Lists.newArrayList();
+        for (List<String> row : ProfileManager.getInstance().getQueries(user, startTime, endTime, limit)) {
+            Map<String, String> profile = Maps.newLinkedHashMap();
+            for (int i = 0; i < ProfileManager.PROFILE_HEADERS.size(); i++) {
+                profile.put(ProfileManager.PROFILE_HEADERS.get(i), row.get(i));
+            }
+            profiles.add(profile);
+        }
+
+        response.setContentType("application/json");
+        response.getContent().append(new Gson().toJson(profiles));
+        sendResult(request, response);
+    }
+
+    private static long parseLong(BaseRequest request, String name, long defaultValue) throws DdlException {
+        String value = request.getSingleParameter(name);
+        if (Strings.isNullOrEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new DdlException("invalid " + name + ": " + value);
+        }
+    }
+}
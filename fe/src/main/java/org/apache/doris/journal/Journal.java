@@ -47,6 +47,9 @@ public interface Journal {
     
     // Write a journal and sync to disk
     public void write(short op, Writable writable);
+
+    // Write a batch of journals in one durable transaction, and sync to disk
+    public void writeBatch(List<JournalEntity> entities);
     
     // Delete journals whose max id is less than deleteToJournalId
     public void deleteJournals(long deleteJournalToId);
@@ -34,6 +34,7 @@ import com.sleepycat.je.DatabaseEntry;
 import com.sleepycat.je.DatabaseException;
 import com.sleepycat.je.LockMode;
 import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
 import com.sleepycat.je.rep.InsufficientLogException;
 import com.sleepycat.je.rep.NetworkRestore;
 import com.sleepycat.je.rep.NetworkRestoreConfig;
@@ -48,6 +49,7 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -142,19 +144,22 @@ public class BDBJEJournal implements Journal {
         
         // entity is the value
         DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+        boolean serialized = true;
         try {
             entity.write(buffer);
         } catch (IOException e) {
-            e.printStackTrace();
+            // a broken journal must not be written, it is handled as a write failure
+            LOG.error("failed to serialize journal {}, op code {}", id, op, e);
+            serialized = false;
         }
         DatabaseEntry theData = new DatabaseEntry(buffer.getData());
-        if (MetricRepo.isInit.get()) {
+        if (serialized && MetricRepo.isInit.get()) {
             MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase((long) theData.getSize());
         }
         LOG.debug("opCode = {}, journal size = {}", op, theData.getSize()); 
         // Write the key value pair to bdb.
         boolean writeSuccessed = false;
-        for (int i = 0; i < RETRY_TIME; i++) {
+        for (int i = 0; serialized && i < RETRY_TIME; i++) {
             try {
                 // Parameter null means auto commit
                 if (currentJournalDB.put(null, theKey, theData) == OperationStatus.SUCCESS) {
@@ -168,7 +173,7 @@ public class BDBJEJournal implements Journal {
                 try {
                     Thread.sleep(5 * 1000);
                 } catch (InterruptedException e1) {
-                    e1.printStackTrace();
+                    LOG.warn("interrupted when waiting to retry writing journal {}", id, e1);
                 }
                 continue;
             }
@@ -193,6 +198,111 @@ public class BDBJEJournal implements Journal {
         }
     }
 
+    /*
+     * Write all the entities in one bdb transaction, so that a batch of journals only
+     * costs one sync (and one round of replica acks) instead of one per journal.
+     * The journal ids of the batch are consecutive, start from the current next journal id.
+     */
+    @Override
+    public synchronized void writeBatch(List<JournalEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        long firstId = nextJournalId.get();
+        TupleBinding<Long> idBinding = TupleBinding.getPrimitiveBinding(Long.class);
+        List<DatabaseEntry> keys = new ArrayList<>(entities.size());
+        List<DatabaseEntry> datas = new ArrayList<>(entities.size());
+        boolean onlyTimestamp = true;
+        for (JournalEntity entity : entities) {
+            if (entity.getOpCode() != OperationType.OP_TIMESTAMP) {
+                onlyTimestamp = false;
+                break;
+            }
+        }
+        boolean serialized = true;
+        long batchSize = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            JournalEntity entity = entities.get(i);
+            DatabaseEntry theKey = new DatabaseEntry();
+            idBinding.objectToEntry(firstId + i, theKey);
+
+            DataOutputBuffer buffer = new DataOutputBuffer(OUTPUT_BUFFER_INIT_SIZE);
+            try {
+                entity.write(buffer);
+            } catch (IOException e) {
+                // none of the batch is written if one journal is broken, same as a write failure
+                LOG.error("failed to serialize journal {}, op code {}. fail the batch of first journal id {}",
+                          firstId + i, entity.getOpCode(), firstId, e);
+                serialized = false;
+                break;
+            }
+            DatabaseEntry theData = new DatabaseEntry(buffer.getData());
+            keys.add(theKey);
+            datas.add(theData);
+            batchSize += theData.getSize();
+        }
+        if (serialized && MetricRepo.isInit.get()) {
+            MetricRepo.COUNTER_EDIT_LOG_SIZE_BYTES.increase(batchSize);
+        }
+        LOG.debug("write journal batch. first id = {}, num = {}, size = {}", firstId, entities.size(), batchSize);
+
+        boolean writeSuccessed = false;
+        for (int i = 0; serialized && i < RETRY_TIME; i++) {
+            Transaction txn = null;
+            try {
+                txn = bdbEnvironment.getReplicatedEnvironment().beginTransaction(null, null);
+                boolean allPut = true;
+                for (int j = 0; j < keys.size(); j++) {
+                    if (currentJournalDB.put(txn, keys.get(j), datas.get(j)) != OperationStatus.SUCCESS) {
+                        allPut = false;
+                        break;
+                    }
+                }
+                if (!allPut) {
+                    txn.abort();
+                    continue;
+                }
+                txn.commit();
+                writeSuccessed = true;
+                LOG.debug("master write journal batch [{}, {}] finished. db name {}, current time {}",
+                          firstId, firstId + entities.size() - 1, currentJournalDB.getDatabaseName(),
+                          System.currentTimeMillis());
+                break;
+            } catch (DatabaseException e) {
+                LOG.error("catch an exception when writing batch to database. sleep and retry. first journal id {}",
+                          firstId, e);
+                if (txn != null) {
+                    try {
+                        txn.abort();
+                    } catch (DatabaseException e1) {
+                        LOG.warn("failed to abort bdb transaction of journal batch {}", firstId, e1);
+                    }
+                }
+                try {
+                    Thread.sleep(5 * 1000);
+                } catch (InterruptedException e1) {
+                    LOG.warn("interrupted when waiting to retry writing journal batch {}", firstId, e1);
+                }
+                continue;
+            }
+        }
+
+        if (!writeSuccessed) {
+            if (onlyTimestamp) {
+                // same as write(), do not exit if the batch only contains OP_TIMESTAMP.
+                LOG.warn("master can not achieve quorum. write timestamp batch fail. but will not exit.");
+                return;
+            }
+            String msg = "write bdb batch failed. will exit. first journalId: " + firstId + ", bdb database Name: "
+                    + currentJournalDB.getDatabaseName();
+            LOG.error(msg);
+            Util.stdoutWithTime(msg);
+            System.exit(-1);
+        }
+        nextJournalId.addAndGet(entities.size());
+    }
+
     @Override
     public JournalEntity read(long journalId) {
         List<Long> dbNames = bdbEnvironment.getDatabaseNames();
@@ -136,6 +136,22 @@ public class LocalJournal implements Journal {
         }
     }
 
+    @Override
+    public synchronized void writeBatch(List<JournalEntity> entities) {
+        try {
+            for (JournalEntity entity : entities) {
+                outputStream.write(entity.getOpCode(), entity.getData());
+            }
+            outputStream.setReadyToFlush();
+            outputStream.flush();
+            journalId.addAndGet(entities.size());
+        } catch (IOException e) {
+            // the batch must not be treated as written by the caller
+            LOG.error("failed to write journal batch, first journal id: {}", journalId.get(), e);
+            throw new RuntimeException("failed to write journal batch", e);
+        }
+    }
+
     @Override
     public void deleteJournals(long deleteJournalToId) {
         try {
@@ -91,37 +91,22 @@ public class Checkpoint extends MasterDaemon {
             return;
         }
        
-        long replayedJournalId = -1;
         // generate new image file
         LOG.info("begin to generate new image: image.{}", checkPointVersion);
-        catalog = Catalog.getCheckpoint();
-        catalog.setEditLog(editLog);
-        try {
-            catalog.loadImage(imageDir);
-            catalog.replayJournal(checkPointVersion);
-            if (catalog.getReplayedJournalId() != checkPointVersion) {
-                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
-                          checkPointVersion, catalog.getReplayedJournalId());
-                return;
-            }
-            catalog.fixBugAfterMetadataReplayed(false);
-
-            catalog.saveImage();
-            replayedJournalId = catalog.getReplayedJournalId();
-            if (MetricRepo.isInit.get()) {
-                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+        long replayedJournalId = -1;
+        if (Config.enable_incremental_checkpoint) {
+            replayedJournalId = doCheckpoint(checkPointVersion, true);
+            if (replayedJournalId == -1) {
+                LOG.warn("incremental checkpoint failed, try full checkpoint");
             }
-            LOG.info("checkpoint finished save image.{}", replayedJournalId);
-        } catch (Exception e) {
-            e.printStackTrace();
-            LOG.error("Exception when generate new image file", e);
+        }
+        if (replayedJournalId == -1) {
+            replayedJournalId = doCheckpoint(checkPointVersion, false);
+        }
+        if (replayedJournalId == -1) {
             return;
-        } finally {
-            // destroy checkpoint catalog, reclaim memory
-            catalog = null;
-            Catalog.destroyCheckpoint(); 
         }
-        
+
         // push image file to all the other non master nodes
         // DO NOT get other nodes from HaProtocol, because node may not in bdbje replication group yet.
         List<Frontend> allFrontends = Catalog.getInstance().getFrontends(null);
@@ -215,6 +200,43 @@ public class Checkpoint extends MasterDaemon {
     
     }
     
+    /*
+     * Load image, replay journals to checkPointVersion and save a new image.
+     * If isIncremental is true, only dbs which are accessed or modified are deserialized, see Catalog.loadReusedDb().
+     * Return the replayed journal id of new image, or -1 if failed.
+     */
+    private long doCheckpoint(long checkPointVersion, boolean isIncremental) {
+        catalog = Catalog.getCheckpoint();
+        catalog.setEditLog(editLog);
+        catalog.setIncrementalCheckpoint(isIncremental);
+        try {
+            catalog.loadImage(imageDir);
+            catalog.replayJournal(checkPointVersion);
+            if (catalog.getReplayedJournalId() != checkPointVersion) {
+                LOG.error("checkpoint version should be {}, actual replayed journal id is {}",
+                          checkPointVersion, catalog.getReplayedJournalId());
+                return -1;
+            }
+            catalog.fixBugAfterMetadataReplayed(false);
+
+            catalog.saveImage();
+            long replayedJournalId = catalog.getReplayedJournalId();
+            if (MetricRepo.isInit.get()) {
+                MetricRepo.COUNTER_IMAGE_WRITE.increase(1L);
+            }
+            LOG.info("checkpoint finished save image.{}", replayedJournalId);
+            return replayedJournalId;
+        } catch (Exception e) {
+            e.printStackTrace();
+            LOG.error("Exception when generate new image file", e);
+            return -1;
+        } finally {
+            // destroy checkpoint catalog, reclaim memory
+            catalog = null;
+            Catalog.destroyCheckpoint();
+        }
+    }
+
     /*
      * Check whether can we do the checkpoint due to the memory used percent.
      */
@@ -0,0 +1,145 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.master;
+
+import org.apache.doris.alter.AlterJob;
+import org.apache.doris.alter.AlterJobV2;
+import org.apache.doris.catalog.Database;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.load.AsyncDeleteJob;
+import org.apache.doris.load.DeleteInfo;
+import org.apache.doris.load.LoadJob;
+import org.apache.doris.persist.ConsistencyCheckInfo;
+import org.apache.doris.persist.DropInfo;
+import org.apache.doris.persist.DropPartitionInfo;
+import org.apache.doris.persist.ModifyPartitionInfo;
+import org.apache.doris.persist.OperationType;
+import org.apache.doris.persist.PartitionPersistInfo;
+import org.apache.doris.persist.RecoverInfo;
+import org.apache.doris.persist.ReplicaPersistInfo;
+import org.apache.doris.persist.TableInfo;
+import org.apache.doris.persist.TruncateTableInfo;
+import org.apache.doris.transaction.TransactionState;
+
+/*
+ * Tell which database is modified by a journal. It is used by incremental checkpoint: databases in the
+ * last image are kept serialized, and each one is deserialized before replaying the first journal which
+ * modifies it. The serialized bytes of the databases which are not modified are written to the new image as is.
+ *
+ * Only the journals listed here are recognized. Any other journal may modify any database
+ * (or modify a database in a way we can not tell by its id), so that all databases should be deserialized.
+ */
+public class DirtyDbCollector {
+    // the journal does not modify any database
+    public static final long NO_DB = -1L;
+    // the journal may modify any database
+    public static final long ALL_DB = -2L;
+
+    public static long getModifiedDbId(JournalEntity entity) {
+        switch (entity.getOpCode()) {
+            case OperationType.OP_SAVE_NEXTID:
+            case OperationType.OP_SAVE_TRANSACTION_ID:
+            case OperationType.OP_TIMESTAMP:
+            case OperationType.OP_MASTER_INFO_CHANGE:
+            case OperationType.OP_ADD_FIRST_FRONTEND:
+            case OperationType.OP_ADD_FRONTEND:
+            case OperationType.OP_REMOVE_FRONTEND:
+            case OperationType.OP_CREATE_USER:
+            case OperationType.OP_NEW_DROP_USER:
+            case OperationType.OP_GRANT_PRIV:
+            case OperationType.OP_REVOKE_PRIV:
+            case OperationType.OP_SET_PASSWORD:
+            case OperationType.OP_CREATE_ROLE:
+            case OperationType.OP_DROP_ROLE:
+            case OperationType.OP_UPDATE_USER_PROPERTY:
+            case OperationType.OP_GLOBAL_VARIABLE:
+            case OperationType.OP_ADD_BROKER:
+            case OperationType.OP_DROP_BROKER:
+            case OperationType.OP_DROP_ALL_BROKER:
+            case OperationType.OP_SET_LOAD_ERROR_HUB:
+            case OperationType.OP_CREATE_REPOSITORY:
+            case OperationType.OP_DROP_REPOSITORY:
+            case OperationType.OP_EXPORT_CREATE:
+            case OperationType.OP_EXPORT_UPDATE_STATE:
+            case OperationType.OP_HEARTBEAT:
+            case OperationType.OP_CREATE_ROUTINE_LOAD_JOB:
+            case OperationType.OP_CHANGE_ROUTINE_LOAD_JOB:
+            case OperationType.OP_REMOVE_ROUTINE_LOAD_JOB:
+            case OperationType.OP_CREATE_LOAD_JOB:
+            case OperationType.OP_END_LOAD_JOB:
+            case OperationType.OP_CREATE_SMALL_FILE:
+            case OperationType.OP_DROP_SMALL_FILE:
+            case OperationType.OP_DELETE_TRANSACTION_STATE:
+                return NO_DB;
+            case OperationType.OP_CREATE_DB:
+                return ((Database) entity.getData()).getId();
+            case OperationType.OP_DROP_TABLE:
+            case OperationType.OP_DROP_ROLLUP:
+                return ((DropInfo) entity.getData()).getDbId();
+            case OperationType.OP_ADD_PARTITION:
+                return ((PartitionPersistInfo) entity.getData()).getDbId();
+            case OperationType.OP_DROP_PARTITION:
+                return ((DropPartitionInfo) entity.getData()).getDbId();
+            case OperationType.OP_MODIFY_PARTITION:
+                return ((ModifyPartitionInfo) entity.getData()).getDbId();
+            case OperationType.OP_RECOVER_TABLE:
+            case OperationType.OP_RECOVER_PARTITION:
+                return ((RecoverInfo) entity.getData()).getDbId();
+            case OperationType.OP_RENAME_TABLE:
+            case OperationType.OP_RENAME_PARTITION:
+            case OperationType.OP_RENAME_ROLLUP:
+            case OperationType.OP_MODIFY_DISTRIBUTION_TYPE:
+                return ((TableInfo) entity.getData()).getDbId();
+            case OperationType.OP_START_ROLLUP:
+            case OperationType.OP_FINISHING_ROLLUP:
+            case OperationType.OP_FINISH_ROLLUP:
+            case OperationType.OP_CANCEL_ROLLUP:
+            case OperationType.OP_START_SCHEMA_CHANGE:
+            case OperationType.OP_FINISHING_SCHEMA_CHANGE:
+            case OperationType.OP_FINISH_SCHEMA_CHANGE:
+            case OperationType.OP_CANCEL_SCHEMA_CHANGE:
+                return ((AlterJob) entity.getData()).getDbId();
+            case OperationType.OP_ALTER_JOB_V2:
+                return ((AlterJobV2) entity.getData()).getDbId();
+            case OperationType.OP_FINISH_CONSISTENCY_CHECK:
+                return ((ConsistencyCheckInfo) entity.getData()).getDbId();
+            case OperationType.OP_CLEAR_ROLLUP_INFO:
+            case OperationType.OP_ADD_REPLICA:
+            case OperationType.OP_UPDATE_REPLICA:
+            case OperationType.OP_DELETE_REPLICA:
+                return ((ReplicaPersistInfo) entity.getData()).getDbId();
+            case OperationType.OP_LOAD_START:
+            case OperationType.OP_LOAD_ETL:
+            case OperationType.OP_LOAD_LOADING:
+            case OperationType.OP_LOAD_QUORUM:
+            case OperationType.OP_LOAD_DONE:
+            case OperationType.OP_LOAD_CANCEL:
+                return ((LoadJob) entity.getData()).getDbId();
+            case OperationType.OP_FINISH_SYNC_DELETE:
+                return ((DeleteInfo) entity.getData()).getDbId();
+            case OperationType.OP_FINISH_ASYNC_DELETE:
+                return ((AsyncDeleteJob) entity.getData()).getDbId();
+            case OperationType.OP_UPSERT_TRANSACTION_STATE:
+                return ((TransactionState) entity.getData()).getDbId();
+            case OperationType.OP_TRUNCATE_TABLE:
+                return ((TruncateTableInfo) entity.getData()).getDbId();
+            default:
+                return ALL_DB;
+        }
+    }
+}
@@ -30,6 +30,8 @@ import org.apache.doris.catalog.Replica.ReplicaState;
 import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.Tablet.TabletStatus;
 import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletScanStat;
+import org.apache.doris.clone.TabletChecker;
 import org.apache.doris.clone.TabletSchedCtx;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.MetaNotFoundException;
@@ -88,24 +90,121 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 
+/*
+ * Reports are handled by a pool of workers, by config 'report_handler_thread_num'. The reports of
+ * a backend are always handled by the same worker in order, and the reports of different backends
+ * are handled in parallel.
+ *
+ * A backend may send a delta tablet report, which only contains the tablets changed since the generation
+ * of its last tablet report accepted by master. The delta report is rejected, and the backend is asked
+ * to send a full report by TMasterResult.need_full_tablet_report, if:
+ * 1. the base generation of delta report is not the generation of last accepted report, eg: a report
+ *    is lost, or master is changed;
+ * 2. the last accepted report of the backend is discarded without being handled;
+ * 3. the last full report is older than 'tablet_full_report_interval_second'.
+ */
 public class ReportHandler extends Daemon {
     private static final Logger LOG = LogManager.getLogger(ReportHandler.class);
 
-    private BlockingQueue<ReportTask> reportQueue = Queues.newLinkedBlockingQueue();
+    private final List<BlockingQueue<ReportTask>> reportQueues = Lists.newArrayList();
+    private final List<ReportWorker> workers = Lists.newArrayList();
+
+    // backend id -> state of tablet reports
+    private final Map<Long, TabletReportState> tabletReportStates = Maps.newConcurrentMap();
 
     private GaugeMetric<Long> gaugeQueueSize;
 
+    private static class TabletReportState {
+        // generation of the last tablet report accepted, -1 if unknown
+        private long generation = -1;
+        private long lastFullReportTime = 0;
+        private boolean needFullReport = true;
+
+        public synchronized boolean canAcceptDelta(long baseGeneration) {
+            return !needFullReport && generation != -1 && generation == baseGeneration;
+        }
+
+        public synchronized void accept(long generation, boolean isDelta) {
+            this.generation = generation;
+            if (!isDelta) {
+                lastFullReportTime = System.currentTimeMillis();
+                needFullReport = false;
+            }
+        }
+
+        public synchronized void setNeedFullReport() {
+            needFullReport = true;
+        }
+
+        public synchronized boolean isNeedFullReport() {
+            return needFullReport || System.currentTimeMillis() - lastFullReportTime
+                    > Config.tablet_full_report_interval_second * 1000L;
+        }
+    }
+
+    private class ReportWorker extends Daemon {
+        private final BlockingQueue<ReportTask> queue;
+
+        public ReportWorker(int index, BlockingQueue<ReportTask> queue) {
+            super("report worker " + index);
+            this.queue = queue;
+        }
+
+        @Override
+        protected void runOneCycle() {
+            while (true) {
+                ReportTask task = null;
+                try {
+                    task = queue.take();
+                    task.exec();
+                } catch (InterruptedException e) {
+                    LOG.warn("got interupted exception when executing report", e);
+                    continue;
+                } catch (Exception e) {
+                    LOG.warn("failed to handle report of backend {}", task.beId, e);
+                    if (task.tablets != null) {
+                        getTabletReportState(task.beId).setNeedFullReport();
+                    }
+                }
+            }
+        }
+    }
+
     public ReportHandler() {
+        super("report handler");
+        int workerNum = Math.max(1, Config.report_handler_thread_num);
+        for (int i = 0; i < workerNum; i++) {
+            BlockingQueue<ReportTask> queue = Queues.newLinkedBlockingQueue();
+            reportQueues.add(queue);
+            workers.add(new ReportWorker(i, queue));
+        }
         gaugeQueueSize = (GaugeMetric<Long>) new GaugeMetric<Long>(
                 "report_queue_size", "report queue size") {
             @Override
             public Long getValue() {
-                return (long) reportQueue.size();
+                return (long) getQueueSize();
             }
         };
         MetricRepo.addMetric(gaugeQueueSize);
     }
 
+    private int getQueueSize() {
+        int size = 0;
+        for (BlockingQueue<ReportTask> queue : reportQueues) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    private TabletReportState getTabletReportState(long beId) {
+        TabletReportState state = tabletReportStates.get(beId);
+        if (state == null) {
+            tabletReportStates.putIfAbsent(beId, new TabletReportState());
+            state = tabletReportStates.get(beId);
+        }
+        return state;
+    }
+
     public TMasterResult handleReport(TReportRequest request) throws TException {
         TMasterResult result = new TMasterResult();
         TStatus tStatus = new TStatus(TStatusCode.OK);
@@ -128,6 +227,7 @@ public class ReportHandler extends Daemon {
         Map<TTaskType, Set<Long>> tasks = null;
         Map<String, TDisk> disks = null;
         Map<Long, TTablet> tablets = null;
+        List<Long> deletedTablets = null;
         boolean forceRecovery = false;
         long reportVersion = -1;
 
@@ -152,6 +252,30 @@ public class ReportHandler extends Daemon {
             reportVersion = request.getReport_version();
             reportType += "tablet";
         }
+
+        TabletReportState tabletReportState = getTabletReportState(beId);
+        if (tablets != null) {
+            long generation = request.isSetTablet_report_generation() ? request.getTablet_report_generation() : -1;
+            if (request.isSetBase_tablet_report_generation()) {
+                if (tabletReportState.canAcceptDelta(request.getBase_tablet_report_generation())) {
+                    deletedTablets = request.isSetDeleted_tablets()
+                            ? request.getDeleted_tablets() : Lists.<Long>newArrayList();
+                    tabletReportState.accept(generation, true /* is delta */);
+                    reportType += "(delta)";
+                } else {
+                    LOG.info("reject delta tablet report from backend {}, base generation: {}",
+                            beId, request.getBase_tablet_report_generation());
+                    tabletReportState.setNeedFullReport();
+                    tablets = null;
+                    reportType += "(rejected)";
+                }
+            } else {
+                tabletReportState.accept(generation, false /* is delta */);
+            }
+        }
+        if (tabletReportState.isNeedFullReport()) {
+            result.setNeed_full_tablet_report(true);
+        }
         
         if (request.isSetForce_recovery()) {
             forceRecovery = request.isForce_recovery();
@@ -161,31 +285,44 @@ public class ReportHandler extends Daemon {
             backend.setTabletMaxCompactionScore(request.getTablet_max_compaction_score());
         }
 
-        ReportTask reportTask = new ReportTask(beId, tasks, disks, tablets, reportVersion, forceRecovery);
+        if (request.isSetTablet_scan_counts()) {
+            // the scan counts are only used as the hotness of tablets, so they are not put into the report task
+            TabletScanStat scanStat = TabletScanStat.getInstance();
+            for (Map.Entry<Long, Long> entry : request.getTablet_scan_counts().entrySet()) {
+                scanStat.addScans(entry.getKey(), entry.getValue());
+            }
+        }
+
+        ReportTask reportTask = new ReportTask(beId, tasks, disks, tablets, deletedTablets,
+                reportVersion, forceRecovery);
         try {
             putToQueue(reportTask);
         } catch (Exception e) {
+            if (tablets != null) {
+                tabletReportState.setNeedFullReport();
+            }
             tStatus.setStatus_code(TStatusCode.INTERNAL_ERROR);
             List<String> errorMsgs = Lists.newArrayList();
-            errorMsgs.add("failed to put report task to queue. queue size: " + reportQueue.size());
+            errorMsgs.add("failed to put report task to queue. queue size: " + getQueueSize());
             errorMsgs.add("err: " + e.getMessage());
             tStatus.setError_msgs(errorMsgs);
             return result;
         }
         
         LOG.info("receive report from be {}. type: {}, current queue size: {}",
-                backend.getId(), reportType, reportQueue.size());
+                backend.getId(), reportType, getQueueSize());
         return result;
     }
 
     private void putToQueue(ReportTask reportTask) throws Exception {
-        int currentSize = reportQueue.size();
+        int currentSize = getQueueSize();
         if (currentSize > Config.report_queue_size) {
             LOG.warn("the report queue size exceeds the limit: {}. current: {}",  Config.report_queue_size, currentSize);
             throw new Exception(
                     "the report queue size exceeds the limit: " +  Config.report_queue_size + ". current: " + currentSize);
         }
-        reportQueue.put(reportTask);
+        // the reports of a backend are handled by the same worker in order
+        reportQueues.get((int) (reportTask.beId % reportQueues.size())).put(reportTask);
     }
 
     private Map<Long, TTablet> buildTabletMap(List<TTablet> tabletList) {
@@ -206,17 +343,20 @@ public class ReportHandler extends Daemon {
         private Map<TTaskType, Set<Long>> tasks;
         private Map<String, TDisk> disks;
         private Map<Long, TTablet> tablets;
+        // not null if tablets is a delta report
+        private List<Long> deletedTablets;
         private long reportVersion;
         private boolean forceRecovery = false;
 
         public ReportTask(long beId, Map<TTaskType, Set<Long>> tasks,
                 Map<String, TDisk> disks,
-                Map<Long, TTablet> tablets, long reportVersion, 
+                Map<Long, TTablet> tablets, List<Long> deletedTablets, long reportVersion,
                 boolean forceRecovery) {
             this.beId = beId;
             this.tasks = tasks;
             this.disks = disks;
             this.tablets = tablets;
+            this.deletedTablets = deletedTablets;
             this.reportVersion = reportVersion;
             this.forceRecovery = forceRecovery;
         }
@@ -234,18 +374,21 @@ public class ReportHandler extends Daemon {
                 if (reportVersion < backendReportVersion) {
                     LOG.warn("out of date report version {} from backend[{}]. current report version[{}]",
                              reportVersion, beId, backendReportVersion);
+                    // the changes in a discarded delta report are lost
+                    getTabletReportState(beId).setNeedFullReport();
                 } else {
-                    ReportHandler.tabletReport(beId, tablets, reportVersion, forceRecovery);
+                    ReportHandler.tabletReport(beId, tablets, deletedTablets, reportVersion, forceRecovery);
                 }
             }
         }
     }
 
-    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, long backendReportVersion, 
-            boolean forceRecovery) {
+    private static void tabletReport(long backendId, Map<Long, TTablet> backendTablets, List<Long> deletedTablets,
+            long backendReportVersion, boolean forceRecovery) {
         long start = System.currentTimeMillis();
-        LOG.info("backend[{}] reports {} tablet(s). report version: {}",
-                 backendId, backendTablets.size(), backendReportVersion);
+        LOG.info("backend[{}] reports {} tablet(s), {} deleted tablet(s). report version: {}",
+                 backendId, backendTablets.size(), deletedTablets == null ? "unknown" : deletedTablets.size(),
+                 backendReportVersion);
 
         // storage medium map
         HashMap<Long, TStorageMedium> storageMediumMap = Catalog.getInstance().getPartitionIdToStorageMediumMap();
@@ -271,7 +414,7 @@ public class ReportHandler extends Daemon {
         SetMultimap<Long, Integer> tabletWithoutPartitionId = HashMultimap.create();
 
         // 1. do the diff. find out (intersection) / (be - meta) / (meta - be)
-        Catalog.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, storageMediumMap,
+        Catalog.getCurrentInvertedIndex().tabletReport(backendId, backendTablets, deletedTablets, storageMediumMap,
                                                        tabletSyncMap,
                                                        tabletDeleteFromMeta,
                                                        foundTabletsWithValidSchema,
@@ -310,6 +453,17 @@ public class ReportHandler extends Daemon {
         
         // 10. send set tablet partition info to backend
         handleSetTabletMetaInfo(backendId, tabletWithoutPartitionId);
+
+        // 11. the health of tablets whose replicas are changed should be checked again
+        TabletChecker tabletChecker = Catalog.getCurrentCatalog().getTabletChecker();
+        tabletChecker.markTabletsDirty(tabletSyncMap.values());
+        tabletChecker.markTabletsDirty(tabletDeleteFromMeta.values());
+        tabletChecker.markTabletsDirty(tabletRecoveryMap.values());
+        if (deletedTablets != null) {
+            // all tablets in delta report are changed
+            tabletChecker.markTabletsDirty(backendTablets.keySet());
+            tabletChecker.markTabletsDirty(deletedTablets);
+        }
         
         long end = System.currentTimeMillis();
         LOG.info("tablet report from backend[{}] cost: {} ms", backendId, (end - start));
@@ -567,7 +721,7 @@ public class ReportHandler extends Daemon {
                                             tabletId, replica.getId(), backendId);
                                     short shortKeyColumnCount = olapTable.getShortKeyColumnCountByIndexId(indexId);
                                     int schemaHash = olapTable.getSchemaHashByIndexId(indexId);
-                                    KeysType keysType = olapTable.getKeysType();
+                                    KeysType keysType = olapTable.getKeysTypeByIndexId(indexId);
                                     List<Column> columns = olapTable.getSchemaByIndexId(indexId);
                                     Set<String> bfColumns = olapTable.getCopiedBfColumns();
                                     double bfFpp = olapTable.getBfFpp();
@@ -584,6 +738,7 @@ public class ReportHandler extends Daemon {
                                         LOG.warn("tablet {} has only one replica {} on backend {}"
                                                 + "and it is lost, set it as bad",
                                                 tabletId, replica.getId(), backendId);
+                                        Catalog.getCurrentCatalog().getTabletChecker().markTabletDirty(tabletId);
                                         BackendTabletsInfo tabletsInfo = new BackendTabletsInfo(backendId);
                                         tabletsInfo.setBad(true);
                                         tabletsInfo.addTabletWithSchemaHash(tabletId,
@@ -792,6 +947,7 @@ public class ReportHandler extends Daemon {
                                     if (replica.setBad(true)) {
                                         LOG.warn("set bad for replica {} of tablet {} on backend {}",
                                                 replica.getId(), tabletId, backendId);
+                                        Catalog.getCurrentCatalog().getTabletChecker().markTabletDirty(tabletId);
                                         backendTabletsInfo.addTabletWithSchemaHash(tabletId, schemaHash);
                                     }
                                     break;
@@ -1020,16 +1176,15 @@ public class ReportHandler extends Daemon {
     }
 
     @Override
-    protected void runOneCycle() {
-        while (true) {
-            ReportTask task = null;
-            try {
-                task = reportQueue.take();
-                task.exec();
-            } catch (InterruptedException e) {
-                LOG.warn("got interupted exception when executing report", e);
-                continue;
-            }
+    public synchronized void start() {
+        super.start();
+        for (ReportWorker worker : workers) {
+            worker.start();
         }
     }
+
+    @Override
+    protected void runOneCycle() {
+        // reports are handled by workers, nothing to do
+    }
 }
@@ -28,12 +28,15 @@ import org.apache.doris.load.loadv2.LoadManager;
 import org.apache.doris.monitor.jvm.JvmService;
 import org.apache.doris.monitor.jvm.JvmStats;
 import org.apache.doris.persist.EditLog;
+import org.apache.doris.qe.WorkloadGroup;
+import org.apache.doris.qe.WorkloadGroupMgr;
 import org.apache.doris.service.ExecuteEnv;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.SystemInfoService;
 
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Maps;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -72,9 +75,16 @@ public final class MetricRepo {
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ROWS;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_RECEIVED_BYTES;
     public static LongCounterMetric COUNTER_ROUTINE_LOAD_ERROR_ROWS;
+    public static LongCounterMetric COUNTER_QUERY_RESULT_CACHE_HIT;
+    public static LongCounterMetric COUNTER_QUERY_RESULT_CACHE_MISS;
 
     public static Histogram HISTO_QUERY_LATENCY;
     public static Histogram HISTO_EDIT_LOG_WRITE_LATENCY;
+    public static Histogram HISTO_EDIT_LOG_BATCH_NUM;
+    public static Histogram HISTO_TXN_PUBLISH_LATENCY;
+    public static Histogram HISTO_TXN_PUBLISH_BATCH_NUM;
+    // workload group name -> queue time of admitted queries
+    public static Map<String, Histogram> HISTO_QUERY_QUEUE_TIME = Maps.newHashMap();
 
     // following metrics will be updated by metric calculator
     public static GaugeMetricImpl<Double> GAUGE_QUERY_PER_SECOND;
@@ -179,6 +189,40 @@ public final class MetricRepo {
         };
         PALO_METRIC_REGISTER.addPaloMetrics(scheduledTabletNum);
 
+        // workload groups
+        WorkloadGroupMgr workloadGroupMgr = WorkloadGroupMgr.getInstance();
+        for (WorkloadGroup group : workloadGroupMgr.getGroups()) {
+            GaugeMetric<Long> running = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "workload_group_running", "number of running queries of workload group") {
+                @Override
+                public Long getValue() {
+                    return (long) workloadGroupMgr.getRunningNum(group);
+                }
+            };
+            running.addLabel(new MetricLabel("group", group.getName()));
+            PALO_METRIC_REGISTER.addPaloMetrics(running);
+
+            GaugeMetric<Long> waiting = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "workload_group_waiting", "number of queries waiting in workload group") {
+                @Override
+                public Long getValue() {
+                    return (long) workloadGroupMgr.getQueueSize(group);
+                }
+            };
+            waiting.addLabel(new MetricLabel("group", group.getName()));
+            PALO_METRIC_REGISTER.addPaloMetrics(waiting);
+
+            GaugeMetric<Long> rejected = (GaugeMetric<Long>) new GaugeMetric<Long>(
+                    "workload_group_rejected", "number of queries rejected or timeout in workload group") {
+                @Override
+                public Long getValue() {
+                    return group.getRejectedNum();
+                }
+            };
+            rejected.addLabel(new MetricLabel("group", group.getName()));
+            PALO_METRIC_REGISTER.addPaloMetrics(rejected);
+        }
+
         // qps, rps and error rate
         // these metrics should be set an init value, in case that metric calculator is not running
         GAUGE_QUERY_PER_SECOND = new GaugeMetricImpl<>("qps", "query per second");
@@ -235,10 +279,23 @@ public final class MetricRepo {
         COUNTER_ROUTINE_LOAD_ERROR_ROWS = new LongCounterMetric("routine_load_error_rows",
                 "total error rows of routine load");
         PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_ROUTINE_LOAD_ERROR_ROWS);
+        COUNTER_QUERY_RESULT_CACHE_HIT = new LongCounterMetric("query_result_cache_hit",
+                "counter of queries whose result is returned from cache");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_QUERY_RESULT_CACHE_HIT);
+        COUNTER_QUERY_RESULT_CACHE_MISS = new LongCounterMetric("query_result_cache_miss",
+                "counter of cacheable queries whose result is not found in cache");
+        PALO_METRIC_REGISTER.addPaloMetrics(COUNTER_QUERY_RESULT_CACHE_MISS);
 
         // 3. histogram
         HISTO_QUERY_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("query", "latency", "ms"));
         HISTO_EDIT_LOG_WRITE_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "latency", "ms"));
+        HISTO_EDIT_LOG_BATCH_NUM = METRIC_REGISTER.histogram(MetricRegistry.name("editlog", "write", "batch", "num"));
+        HISTO_TXN_PUBLISH_LATENCY = METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "latency", "ms"));
+        HISTO_TXN_PUBLISH_BATCH_NUM = METRIC_REGISTER.histogram(MetricRegistry.name("txn", "publish", "batch", "num"));
+        for (WorkloadGroup group : WorkloadGroupMgr.getInstance().getGroups()) {
+            HISTO_QUERY_QUEUE_TIME.put(group.getName(), METRIC_REGISTER.histogram(
+                    MetricRegistry.name("query", "queue_time", group.getName(), "ms")));
+        }
 
         isInit.set(true);
 
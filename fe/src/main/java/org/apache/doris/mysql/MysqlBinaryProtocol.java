@@ -0,0 +1,225 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import org.apache.doris.common.AnalysisException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Helpers for MySQL binary protocol used by prepared statements.
+// http://dev.mysql.com/doc/internals/en/binary-protocol-value.html
+public class MysqlBinaryProtocol {
+    // mask of unsigned flag in parameter type
+    public static final int UNSIGNED_FLAG = 0x8000;
+
+    // read one parameter value of COM_STMT_EXECUTE, and convert it to a sql literal
+    public static String readParamAsLiteral(ByteBuffer buffer, int paramType) throws AnalysisException {
+        int typeCode = paramType & 0xFF;
+        boolean unsigned = (paramType & UNSIGNED_FLAG) != 0;
+        if (typeCode == MysqlColType.MYSQL_TYPE_NULL.getCode()) {
+            return "NULL";
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_TINY.getCode()) {
+            byte value = MysqlProto.readByte(buffer);
+            return unsigned ? String.valueOf(value & 0xFF) : String.valueOf(value);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_SHORT.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_YEAR.getCode()) {
+            int value = MysqlProto.readInt2(buffer);
+            return unsigned ? String.valueOf(value) : String.valueOf((short) value);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_LONG.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_INT24.getCode()) {
+            int value = MysqlProto.readInt4(buffer);
+            return unsigned ? String.valueOf(value & 0xFFFFFFFFL) : String.valueOf(value);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_LONGLONG.getCode()) {
+            long value = MysqlProto.readInt8(buffer);
+            return unsigned ? Long.toUnsignedString(value) : String.valueOf(value);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_FLOAT.getCode()) {
+            return toDecimalLiteral(Float.intBitsToFloat(MysqlProto.readInt4(buffer)));
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DOUBLE.getCode()) {
+            return toDecimalLiteral(Double.longBitsToDouble(MysqlProto.readInt8(buffer)));
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DATE.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_DATETIME.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_TIMESTAMP.getCode()) {
+            return readDateTime(buffer);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_TIME.getCode()) {
+            return readTime(buffer);
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_DECIMAL.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_NEWDECIMAL.getCode()) {
+            String value = new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8);
+            try {
+                return new BigDecimal(value).toPlainString();
+            } catch (NumberFormatException e) {
+                throw new AnalysisException("Invalid decimal parameter: " + value);
+            }
+        } else if (typeCode == MysqlColType.MYSQL_TYPE_VARCHAR.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_VARSTRING.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_STRING.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_ENUM.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_SET.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_TINY_BLOB.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_MEDIUM_BLOB.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_LONG_BLOB.getCode()
+                || typeCode == MysqlColType.MYSQL_TYPE_BLOB.getCode()) {
+            return toStringLiteral(new String(MysqlProto.readLenEncodedString(buffer), StandardCharsets.UTF_8));
+        }
+        throw new AnalysisException("Unsupported parameter type: " + typeCode);
+    }
+
+    private static String toDecimalLiteral(double value) throws AnalysisException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new AnalysisException("Invalid float parameter: " + value);
+        }
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    private static String readDateTime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int microsecond = 0;
+        if (length >= 4) {
+            year = MysqlProto.readInt2(buffer);
+            month = MysqlProto.readInt1(buffer);
+            day = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 7) {
+            hour = MysqlProto.readInt1(buffer);
+            minute = MysqlProto.readInt1(buffer);
+            second = MysqlProto.readInt1(buffer);
+        }
+        if (length >= 11) {
+            microsecond = MysqlProto.readInt4(buffer);
+        }
+        if (length == 4) {
+            return String.format("'%04d-%02d-%02d'", year, month, day);
+        } else if (microsecond == 0) {
+            return String.format("'%04d-%02d-%02d %02d:%02d:%02d'", year, month, day, hour, minute, second);
+        }
+        return String.format("'%04d-%02d-%02d %02d:%02d:%02d.%06d'",
+                year, month, day, hour, minute, second, microsecond);
+    }
+
+    private static String readTime(ByteBuffer buffer) {
+        int length = MysqlProto.readInt1(buffer);
+        if (length == 0) {
+            return "'00:00:00'";
+        }
+        boolean negative = MysqlProto.readInt1(buffer) == 1;
+        long days = MysqlProto.readInt4(buffer) & 0xFFFFFFFFL;
+        int hour = MysqlProto.readInt1(buffer);
+        int minute = MysqlProto.readInt1(buffer);
+        int second = MysqlProto.readInt1(buffer);
+        int microsecond = length >= 12 ? MysqlProto.readInt4(buffer) : 0;
+        String value = String.format("%s%02d:%02d:%02d", negative ? "-" : "", days * 24 + hour, minute, second);
+        if (microsecond != 0) {
+            value += String.format(".%06d", microsecond);
+        }
+        return "'" + value + "'";
+    }
+
+    // quote the string and escape the special characters, see escapeBackSlash() in sql_scanner.flex
+    public static String toStringLiteral(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\'':
+                    sb.append("\\'");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\0':
+                    sb.append("\\0");
+                    break;
+                case '\032':
+                    sb.append("\\Z");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        sb.append('\'');
+        return sb.toString();
+    }
+
+    // Convert one row of text protocol to binary protocol.
+    // Every column of text row is a length encoded string or NULL(0xFB), and is sent as a string in
+    // binary row, so the column definitions of the result set should have string types.
+    public static ByteBuffer textRowToBinaryRow(ByteBuffer textRow, int columnNum) {
+        // the first 2 bits of null bitmap are reserved in result set row
+        int nullBitmapLen = (columnNum + 7 + 2) / 8;
+        byte[] result = new byte[1 + nullBitmapLen + textRow.remaining()];
+        // packet header
+        result[0] = 0x00;
+        int resultPos = 1 + nullBitmapLen;
+        int pos = textRow.position();
+        for (int i = 0; i < columnNum; i++) {
+            int first = textRow.get(pos) & 0xFF;
+            if (first == 0xFB) {
+                int bit = i + 2;
+                result[1 + bit / 8] |= (byte) (1 << (bit % 8));
+                pos++;
+                continue;
+            }
+            int headerLen;
+            long valueLen;
+            if (first < 0xFB) {
+                headerLen = 1;
+                valueLen = first;
+            } else if (first == 0xFC) {
+                headerLen = 3;
+                valueLen = readLittleEndian(textRow, pos + 1, 2);
+            } else if (first == 0xFD) {
+                headerLen = 4;
+                valueLen = readLittleEndian(textRow, pos + 1, 3);
+            } else {
+                headerLen = 9;
+                valueLen = readLittleEndian(textRow, pos + 1, 8);
+            }
+            int copyLen = (int) (headerLen + valueLen);
+            ByteBuffer src = textRow.duplicate();
+            src.position(pos);
+            src.get(result, resultPos, copyLen);
+            resultPos += copyLen;
+            pos += copyLen;
+        }
+        return ByteBuffer.wrap(result, 0, resultPos);
+    }
+
+    private static long readLittleEndian(ByteBuffer buffer, int pos, int len) {
+        long value = 0;
+        for (int i = 0; i < len; i++) {
+            value |= ((long) (buffer.get(pos + i) & 0xFF)) << (8 * i);
+        }
+        return value;
+    }
+}
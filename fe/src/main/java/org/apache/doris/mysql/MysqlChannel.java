@@ -17,13 +17,22 @@
 
 package org.apache.doris.mysql;
 
+import org.apache.doris.common.Config;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * This class used to read/write MySQL logical packet.
@@ -38,6 +47,19 @@ public class MysqlChannel {
     private static final int PACKET_HEADER_LEN = 4;
     // logger for this class
     private static final Logger LOG = LogManager.getLogger(MysqlChannel.class);
+    // max time to wait for a non-blocking channel to be readable or writable in one round
+    private static final long WAIT_READY_TIMEOUT_MS = 1000;
+    // selector used by current thread to wait for non-blocking channels
+    private static final ThreadLocal<Selector> waitSelector = new ThreadLocal<>();
+    // size of buffer used to send packets
+    private static final int SEND_BUFFER_SIZE = 2 * 1024 * 1024;
+    // max number of free send buffers kept in pool
+    private static final int MAX_POOLED_SEND_BUFFER_NUM = 64;
+    // direct send buffers shared by all channels. A channel holds one only when it has data to send,
+    // so idle connections hold no send buffer, and socket write need not copy a heap buffer to direct memory.
+    // The buffer is acquired and released with the lock of channel held, because close() may be called
+    // by other threads, eg. when the connection is killed.
+    private static final Queue<ByteBuffer> sendBufferPool = new ConcurrentLinkedQueue<>();
     // next sequence id to receive or send
     private int sequenceId;
     // channel connected with client
@@ -51,11 +73,15 @@ public class MysqlChannel {
     private String remoteHostPortString;
     private String remoteIp;
     private boolean isSend;
+    private volatile boolean isClosed;
+    // bytes already read from a non-blocking channel by network io thread, but not consumed by packet reading.
+    // in write mode, position is the length of these bytes
+    private ByteBuffer readAheadBuffer;
 
     public MysqlChannel(SocketChannel channel) {
         this.sequenceId = 0;
         this.channel = channel;
-        this.sendBuffer = ByteBuffer.allocate(2 * 1024 * 1024);
+        this.sendBuffer = null;
         this.isSend = false;
         this.remoteHostPortString = "";
         this.remoteIp = "";
@@ -105,30 +131,150 @@ public class MysqlChannel {
 
     // Close channel
     public void close() {
+        isClosed = true;
         try {
             channel.close();
         } catch (IOException e) {
             LOG.warn("Close channel exception, ignore.");
         }
+        // release the send buffer after the channel is closed, so that a thread blocked in sending
+        // fails and releases the lock of channel
+        releaseSendBuffer();
     }
 
     private int readAll(ByteBuffer dstBuf) throws IOException {
-        int readLen = 0;
+        int readLen = drainReadAhead(dstBuf);
+        long lastProgressTimeMs = System.currentTimeMillis();
         while (dstBuf.remaining() != 0) {
             int ret = channel.read(dstBuf);
             // return -1 when remote peer close the channel
             if (ret == -1) {
                 return readLen;
             }
+            if (ret == 0 && !channel.isBlocking()) {
+                checkTimeout(lastProgressTimeMs, "read from");
+                waitForReady(SelectionKey.OP_READ);
+                continue;
+            }
             readLen += ret;
+            lastProgressTimeMs = System.currentTimeMillis();
         }
         return readLen;
     }
 
+    // a silent client must not hold the worker thread of a non-blocking channel forever
+    private void checkTimeout(long lastProgressTimeMs, String op) throws SocketTimeoutException {
+        long timeoutMs = Config.mysql_service_nio_timeout_second * 1000L;
+        if (System.currentTimeMillis() - lastProgressTimeMs > timeoutMs) {
+            throw new SocketTimeoutException("Timeout to " + op + " client " + remoteHostPortString
+                    + " after " + timeoutMs + " ms");
+        }
+    }
+
+    // move the read ahead bytes to dstBuf, return the number of bytes moved
+    private int drainReadAhead(ByteBuffer dstBuf) {
+        if (readAheadBuffer == null || readAheadBuffer.position() == 0) {
+            return 0;
+        }
+        readAheadBuffer.flip();
+        int len = Math.min(readAheadBuffer.remaining(), dstBuf.remaining());
+        int oldLimit = readAheadBuffer.limit();
+        readAheadBuffer.limit(readAheadBuffer.position() + len);
+        dstBuf.put(readAheadBuffer);
+        readAheadBuffer.limit(oldLimit);
+        readAheadBuffer.compact();
+        if (readAheadBuffer.position() == 0 && readAheadBuffer.capacity() > defaultBuffer.capacity()) {
+            // release the large buffer of a big packet
+            readAheadBuffer = null;
+        }
+        return len;
+    }
+
+    // wait until the non-blocking channel is ready for the operation, or timeout.
+    private void waitForReady(int op) throws IOException {
+        Selector selector = waitSelector.get();
+        if (selector == null) {
+            selector = Selector.open();
+            waitSelector.set(selector);
+        }
+        // throw ClosedChannelException if the channel is closed
+        SelectionKey key = channel.register(selector, op);
+        try {
+            selector.select(WAIT_READY_TIMEOUT_MS);
+        } finally {
+            key.cancel();
+            // deregister the cancelled key, so that the channel can be registered again
+            selector.selectNow();
+        }
+    }
+
+    /**
+     * Read all available bytes of a non-blocking channel without blocking.
+     * The bytes are kept and will be consumed by the following fetchOnePacket().
+     * Return true if at least one whole logical packet has been read.
+     * Throw EOFException if remote peer has closed the channel.
+     */
+    public boolean readAhead() throws IOException {
+        if (readAheadBuffer == null) {
+            readAheadBuffer = ByteBuffer.allocate(defaultBuffer.capacity());
+        }
+        while (true) {
+            if (!readAheadBuffer.hasRemaining()) {
+                ByteBuffer tmp = ByteBuffer.allocate(readAheadBuffer.capacity() * 2);
+                readAheadBuffer.flip();
+                tmp.put(readAheadBuffer);
+                readAheadBuffer = tmp;
+            }
+            int ret = channel.read(readAheadBuffer);
+            if (ret == -1) {
+                throw new EOFException("remote has closed the channel");
+            }
+            if (ret == 0) {
+                break;
+            }
+        }
+        return hasReadAheadPacket();
+    }
+
+    // return true if there is a whole logical packet in read ahead bytes
+    public boolean hasReadAheadPacket() {
+        if (readAheadBuffer == null) {
+            return false;
+        }
+        byte[] bytes = readAheadBuffer.array();
+        int end = readAheadBuffer.position();
+        int pos = 0;
+        while (end - pos >= PACKET_HEADER_LEN) {
+            int packetLen = (bytes[pos] & 0xFF) | ((bytes[pos + 1] & 0XFF) << 8) | ((bytes[pos + 2] & 0XFF) << 16);
+            pos += PACKET_HEADER_LEN + packetLen;
+            if (pos > end) {
+                return false;
+            }
+            if (packetLen != MAX_PHYSICAL_PACKET_LENGTH) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // read one logical mysql protocol packet
     // null for channel is closed.
-    // NOTE: all of the following code is assumed that the channel is in block mode.
+    // NOTE: if the channel is in non-blocking mode, current thread waits until the whole packet is read.
     public ByteBuffer fetchOnePacket() throws IOException {
+        try {
+            ByteBuffer packet = readOnePacket();
+            if (packet == null) {
+                releaseSendBuffer();
+            }
+            return packet;
+        } catch (IOException e) {
+            // the connection is broken, the data not sent yet is useless
+            releaseSendBuffer();
+            throw e;
+        }
+    }
+
+    private ByteBuffer readOnePacket() throws IOException {
         int readLen;
         ByteBuffer result = defaultBuffer;
         result.clear();
@@ -181,32 +327,45 @@ public class MysqlChannel {
     private void realNetSend(ByteBuffer buffer) throws IOException {
         long bufLen = buffer.remaining();
         long writeLen = channel.write(buffer);
+        // non-blocking channel may write part of the buffer when socket send buffer is full
+        long lastProgressTimeMs = System.currentTimeMillis();
+        while (buffer.hasRemaining() && !channel.isBlocking()) {
+            checkTimeout(lastProgressTimeMs, "write to");
+            waitForReady(SelectionKey.OP_WRITE);
+            int ret = channel.write(buffer);
+            if (ret > 0) {
+                writeLen += ret;
+                lastProgressTimeMs = System.currentTimeMillis();
+            }
+        }
         if (bufLen != writeLen) {
             throw new IOException("Write mysql packet failed.[write=" + writeLen
                     + ", needToWrite=" + bufLen + "]");
         }
-        channel.write(buffer);
         isSend = true;
     }
 
-    public void flush() throws IOException {
+    public synchronized void flush() throws IOException {
         if (null == sendBuffer || sendBuffer.position() == 0) {
             // Nothing to send
             return;
         }
-        sendBuffer.flip();
-        realNetSend(sendBuffer);
-        sendBuffer.clear();
+        try {
+            sendBuffer.flip();
+            realNetSend(sendBuffer);
+        } finally {
+            // if failed, the data is discarded because the connection is broken
+            releaseSendBuffer();
+        }
         isSend = true;
     }
 
     private void writeHeader(int length) throws IOException {
-        if (null == sendBuffer) {
-            return;
-        }
+        acquireSendBuffer();
         long leftLength = sendBuffer.capacity() - sendBuffer.position();
         if (leftLength < 4) {
             flush();
+            acquireSendBuffer();
         }
 
         long newLen = length;
@@ -218,9 +377,7 @@ public class MysqlChannel {
     }
 
     private void writeBuffer(ByteBuffer buffer) throws IOException {
-        if (null == sendBuffer) {
-            return;
-        }
+        acquireSendBuffer();
         long leftLength = sendBuffer.capacity() - sendBuffer.position();
         // If too long for buffer, send buffered data.
         if (leftLength < buffer.remaining()) {
@@ -228,31 +385,63 @@ public class MysqlChannel {
             flush();
         }
         // Send this buffer if large enough
-        if (buffer.remaining() > sendBuffer.capacity()) {
+        if (buffer.remaining() > SEND_BUFFER_SIZE) {
             realNetSend(buffer);
             return;
         }
         // Put it to
+        acquireSendBuffer();
         sendBuffer.put(buffer);
     }
 
-    public void sendOnePacket(ByteBuffer packet) throws IOException {
-        int bufLen;
-        int oldLimit = packet.limit();
-        while (oldLimit - packet.position() >= MAX_PHYSICAL_PACKET_LENGTH) {
-            bufLen = MAX_PHYSICAL_PACKET_LENGTH;
-            packet.limit(packet.position() + bufLen);
-            writeHeader(bufLen);
+    private void acquireSendBuffer() throws ClosedChannelException {
+        if (sendBuffer != null) {
+            return;
+        }
+        if (isClosed) {
+            // the buffer would never be released
+            throw new ClosedChannelException();
+        }
+        sendBuffer = sendBufferPool.poll();
+        if (sendBuffer == null) {
+            sendBuffer = ByteBuffer.allocateDirect(SEND_BUFFER_SIZE);
+        }
+    }
+
+    private synchronized void releaseSendBuffer() {
+        if (sendBuffer == null) {
+            return;
+        }
+        sendBuffer.clear();
+        if (sendBufferPool.size() < MAX_POOLED_SEND_BUFFER_NUM) {
+            sendBufferPool.offer(sendBuffer);
+        }
+        sendBuffer = null;
+    }
+
+    public synchronized void sendOnePacket(ByteBuffer packet) throws IOException {
+        try {
+            int bufLen;
+            int oldLimit = packet.limit();
+            while (oldLimit - packet.position() >= MAX_PHYSICAL_PACKET_LENGTH) {
+                bufLen = MAX_PHYSICAL_PACKET_LENGTH;
+                packet.limit(packet.position() + bufLen);
+                writeHeader(bufLen);
+                writeBuffer(packet);
+                accSequenceId();
+            }
+            writeHeader(oldLimit - packet.position());
+            packet.limit(oldLimit);
             writeBuffer(packet);
             accSequenceId();
+        } catch (IOException e) {
+            // the connection is broken, the data not sent yet is useless
+            releaseSendBuffer();
+            throw e;
         }
-        writeHeader(oldLimit - packet.position());
-        packet.limit(oldLimit);
-        writeBuffer(packet);
-        accSequenceId();
     }
 
-    public void sendAndFlush(ByteBuffer packet) throws IOException {
+    public synchronized void sendAndFlush(ByteBuffer packet) throws IOException {
         sendOnePacket(packet);
         flush();
     }
@@ -260,9 +449,7 @@ public class MysqlChannel {
     // Call this function before send query before
     public void reset() {
         isSend = false;
-        if (null != sendBuffer) {
-            sendBuffer.clear();
-        }
+        releaseSendBuffer();
     }
 
     public boolean isSend() {
@@ -272,4 +459,8 @@ public class MysqlChannel {
     public String getRemoteHostPortString() {
         return remoteHostPortString;
     }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
 }
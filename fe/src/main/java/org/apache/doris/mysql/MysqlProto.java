@@ -129,15 +129,27 @@ public class MysqlProto {
      * IOException:
      */
     public static boolean negotiate(ConnectContext context) throws IOException {
+        MysqlHandshakePacket handshakePacket = sendHandshake(context);
+        return negotiate(context, handshakePacket);
+    }
+
+    // Server send handshake packet to client, the first step of negotiation.
+    public static MysqlHandshakePacket sendHandshake(ConnectContext context) throws IOException {
         MysqlSerializer serializer = context.getSerializer();
-        MysqlChannel channel = context.getMysqlChannel();
         context.getState().setOk();
 
-        // Server send handshake packet to client.
         serializer.reset();
         MysqlHandshakePacket handshakePacket = new MysqlHandshakePacket(context.getConnectionId());
         handshakePacket.writeTo(serializer);
-        channel.sendAndFlush(serializer.toByteBuffer());
+        context.getMysqlChannel().sendAndFlush(serializer.toByteBuffer());
+        return handshakePacket;
+    }
+
+    // Finish negotiation after the handshake packet has been sent to client.
+    public static boolean negotiate(ConnectContext context, MysqlHandshakePacket handshakePacket)
+            throws IOException {
+        MysqlSerializer serializer = context.getSerializer();
+        MysqlChannel channel = context.getMysqlChannel();
 
         // Server receive authenticate packet from client.
         ByteBuffer handshakeResponse = channel.fetchOnePacket();
@@ -33,9 +33,9 @@ import java.nio.channels.SocketChannel;
 public class MysqlServer {
     private static final Logger LOG = LogManager.getLogger(MysqlServer.class);
 
-    private int port;
+    protected int port;
     private ServerSocketChannel serverChannel = null;
-    private ConnectScheduler scheduler = null;
+    protected ConnectScheduler scheduler = null;
     // used to accept connect request from client
     private Thread listener;
     private volatile boolean running;
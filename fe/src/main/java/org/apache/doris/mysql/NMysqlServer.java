@@ -0,0 +1,400 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Config;
+import org.apache.doris.qe.ConnectContext;
+import org.apache.doris.qe.ConnectProcessor;
+import org.apache.doris.qe.ConnectScheduler;
+
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * MySQL protocol network service based on non-blocking channels.
+ *
+ * Connections waiting for the next command are watched by a few io threads with selectors, instead of
+ * holding one thread per connection. The io thread reads the bytes of a connection until a whole command
+ * packet arrives, and then hands the connection to a bounded worker pool, which executes the command and
+ * sends the result. After that, the connection is handed back to its io thread to wait for the next command.
+ *
+ * The handshake is split in the same way: a worker sends the handshake packet, and the io thread waits for the
+ * authenticate packet, so that clients which connect and send nothing do not hold worker threads. Such clients
+ * are closed after mysql_service_nio_timeout_second.
+ */
+public class NMysqlServer extends MysqlServer {
+    private static final Logger LOG = LogManager.getLogger(NMysqlServer.class);
+
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    private ServerSocketChannel serverChannel = null;
+    // used to accept connect request from client
+    private Thread acceptor;
+    private IoThread[] ioThreads;
+    private AtomicInteger nextIoThreadIdx = new AtomicInteger(0);
+    // used to negotiate with client and execute commands
+    private ExecutorService taskService;
+    private volatile boolean running;
+
+    public NMysqlServer(int port, ConnectScheduler scheduler) {
+        super(port, scheduler);
+    }
+
+    @Override
+    public boolean start() {
+        if (scheduler == null) {
+            LOG.warn("scheduler is NULL.");
+            return false;
+        }
+
+        // open server socket and selectors
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().bind(new InetSocketAddress("0.0.0.0", port), 2048);
+            serverChannel.configureBlocking(true);
+
+            ioThreads = new IoThread[Math.max(1, Config.mysql_service_io_threads_num)];
+            for (int i = 0; i < ioThreads.length; i++) {
+                ioThreads[i] = new IoThread(i);
+            }
+        } catch (IOException e) {
+            LOG.warn("Open MySQL network service failed.", e);
+            return false;
+        }
+
+        int taskThreadNum = Config.max_mysql_service_task_threads_num > 0
+                ? Config.max_mysql_service_task_threads_num : 2 * Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(taskThreadNum, taskThreadNum, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("mysql-nio-task-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        taskService = executor;
+
+        running = true;
+        for (IoThread ioThread : ioThreads) {
+            ioThread.start();
+        }
+        acceptor = new Thread(new Acceptor(), "MySQL Protocol Acceptor");
+        acceptor.start();
+
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        if (running) {
+            running = false;
+            // close server channel, make accept throw exception
+            try {
+                serverChannel.close();
+            } catch (IOException e) {
+                LOG.warn("close server channel failed.", e);
+            }
+            for (IoThread ioThread : ioThreads) {
+                ioThread.wakeup();
+            }
+            taskService.shutdown();
+        }
+    }
+
+    @Override
+    public void join() {
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            // just return
+            LOG.warn("Join MySQL server exception.", e);
+        }
+    }
+
+    private class Acceptor implements Runnable {
+        @Override
+        public void run() {
+            while (running && serverChannel.isOpen()) {
+                SocketChannel clientChannel = null;
+                try {
+                    clientChannel = serverChannel.accept();
+                    if (clientChannel == null) {
+                        continue;
+                    }
+                    clientChannel.configureBlocking(false);
+                    ConnectContext context = new ConnectContext(clientChannel);
+                    // Set catalog here.
+                    context.setCatalog(Catalog.getInstance());
+                    context.setConnectionId(scheduler.nextConnectionId());
+                    IoThread ioThread = ioThreads[Math.abs(nextIoThreadIdx.getAndIncrement() % ioThreads.length)];
+                    NConnection connection = new NConnection(context, ioThread);
+                    taskService.submit(connection::sendHandshake);
+                } catch (IOException e) {
+                    // ClosedChannelException
+                    // AsynchronousCloseException
+                    // ClosedByInterruptException
+                    // Other IOException, for example "to many open files" ...
+                    LOG.warn("Query server encounter exception.", e);
+                    if (clientChannel != null) {
+                        try {
+                            clientChannel.close();
+                        } catch (IOException e1) {
+                            // Do nothing
+                        }
+                    }
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException e1) {
+                        // Do nothing
+                    }
+                } catch (Throwable e) {
+                    // NotYetBoundException
+                    // SecurityException
+                    // RejectedExecutionException
+                    LOG.warn("Query server failed when calling accept.", e);
+                }
+            }
+        }
+    }
+
+    // One client connection. At any time it is owned either by its io thread, which waits for the authenticate
+    // packet or the next command, or by one worker thread, which negotiates with client or executes a command.
+    private class NConnection {
+        private final ConnectContext context;
+        private final IoThread ioThread;
+        // handshake packet sent to client, null after negotiation
+        private MysqlHandshakePacket handshakePacket;
+        // the connection is closed if the authenticate packet has not arrived at this time
+        private long handshakeDeadlineMs;
+        // null before negotiation is done
+        private ConnectProcessor processor;
+        // only accessed by io thread
+        private SelectionKey key;
+        private AtomicBoolean closed = new AtomicBoolean(false);
+
+        NConnection(ConnectContext context, IoThread ioThread) {
+            this.context = context;
+            this.ioThread = ioThread;
+        }
+
+        SocketChannel getChannel() {
+            return context.getMysqlChannel().getChannel();
+        }
+
+        // run in worker thread, the handshake packet is small enough to be sent without waiting for client
+        void sendHandshake() {
+            try {
+                handshakePacket = MysqlProto.sendHandshake(context);
+            } catch (Throwable e) {
+                LOG.debug("send handshake packet failed, remote: {}",
+                        context.getMysqlChannel().getRemoteHostPortString(), e);
+                close();
+                return;
+            }
+            handshakeDeadlineMs = System.currentTimeMillis() + Config.mysql_service_nio_timeout_second * 1000L;
+            ioThread.watch(this);
+        }
+
+        // run in worker thread, after the authenticate packet has been read by io thread
+        private void open() {
+            boolean ok = false;
+            try {
+                ok = scheduler.openConnection(context, handshakePacket);
+            } catch (Throwable e) {
+                LOG.warn("connect processor exception because ", e);
+            } finally {
+                ConnectContext.remove();
+            }
+            handshakePacket = null;
+            if (!ok) {
+                close();
+                return;
+            }
+            processor = new ConnectProcessor(context);
+            ioThread.watch(this);
+        }
+
+        boolean isHandshakeTimeout(long nowMs) {
+            return processor == null && nowMs > handshakeDeadlineMs;
+        }
+
+        // run in worker thread, after the whole packet has been read by io thread
+        void processCommand() {
+            if (processor == null) {
+                open();
+                return;
+            }
+            try {
+                context.setThreadLocalInfo();
+                processor.processOnce();
+            } catch (Throwable e) {
+                LOG.warn("Exception happened in one session(" + context + ").", e);
+                context.setKilled();
+            } finally {
+                ConnectContext.remove();
+            }
+
+            if (context.isKilled()) {
+                close();
+            } else if (context.getMysqlChannel().hasReadAheadPacket()) {
+                // client has already sent the next command
+                taskService.submit(this::processCommand);
+            } else {
+                ioThread.watch(this);
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                scheduler.unregisterConnection(context);
+                context.cleanup();
+            }
+        }
+    }
+
+    private class IoThread extends Thread {
+        private final Selector selector;
+        // connections handed to this thread by worker threads, waiting to be registered
+        private final Queue<NConnection> pendingConnections = new ConcurrentLinkedQueue<>();
+        // connections waiting for the next command, only accessed by this thread
+        private final Set<NConnection> idleConnections = Sets.newHashSet();
+        private long lastCheckTimeMs = 0;
+
+        IoThread(int idx) throws IOException {
+            super("MySQL Protocol IO-" + idx);
+            setDaemon(true);
+            selector = Selector.open();
+        }
+
+        // called by worker threads to make this thread wait for the next command of the connection
+        void watch(NConnection connection) {
+            pendingConnections.add(connection);
+            selector.wakeup();
+        }
+
+        void wakeup() {
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select(SELECT_TIMEOUT_MS);
+                    registerPendingConnections();
+                    Iterator<SelectionKey> iter = selector.selectedKeys().iterator();
+                    while (iter.hasNext()) {
+                        SelectionKey key = iter.next();
+                        iter.remove();
+                        if (key.isValid() && key.isReadable()) {
+                            onReadable((NConnection) key.attachment());
+                        }
+                    }
+                    removeClosedConnections();
+                } catch (Throwable e) {
+                    LOG.warn("MySQL protocol io thread encounter exception.", e);
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.warn("close selector failed.", e);
+            }
+        }
+
+        private void registerPendingConnections() {
+            NConnection connection;
+            while ((connection = pendingConnections.poll()) != null) {
+                try {
+                    if (connection.key == null) {
+                        connection.key = connection.getChannel().register(selector, SelectionKey.OP_READ, connection);
+                    } else {
+                        connection.key.interestOps(SelectionKey.OP_READ);
+                    }
+                    idleConnections.add(connection);
+                } catch (ClosedChannelException | CancelledKeyException e) {
+                    // the connection is killed
+                    connection.close();
+                }
+            }
+        }
+
+        private void onReadable(NConnection connection) {
+            boolean hasPacket;
+            try {
+                hasPacket = connection.context.getMysqlChannel().readAhead();
+            } catch (IOException e) {
+                LOG.debug("read from client failed, remote: {}",
+                        connection.context.getMysqlChannel().getRemoteHostPortString(), e);
+                idleConnections.remove(connection);
+                connection.close();
+                return;
+            }
+            if (!hasPacket) {
+                // wait for the rest of the command
+                return;
+            }
+            // stop watching until the command is done
+            connection.key.interestOps(0);
+            idleConnections.remove(connection);
+            taskService.submit(connection::processCommand);
+        }
+
+        // connections killed by timeout checker are closed without notifying the selector, clean them here,
+        // as well as connections which do not send the authenticate packet in time
+        private void removeClosedConnections() {
+            long now = System.currentTimeMillis();
+            if (now - lastCheckTimeMs < SELECT_TIMEOUT_MS) {
+                return;
+            }
+            lastCheckTimeMs = now;
+            Iterator<NConnection> iter = idleConnections.iterator();
+            while (iter.hasNext()) {
+                NConnection connection = iter.next();
+                if (!connection.key.isValid() || !connection.getChannel().isOpen()) {
+                    iter.remove();
+                    connection.close();
+                } else if (connection.isHandshakeTimeout(now)) {
+                    LOG.info("close connection which does not finish handshake in time, remote: {}",
+                            connection.context.getMysqlChannel().getRemoteHostPortString());
+                    iter.remove();
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -57,6 +57,7 @@ import org.apache.doris.load.routineload.RoutineLoadJob;
 import org.apache.doris.meta.MetaContext;
 import org.apache.doris.metric.MetricRepo;
 import org.apache.doris.mysql.privilege.UserPropertyInfo;
+import org.apache.doris.qe.ParsedStmtCache;
 import org.apache.doris.qe.SessionVariable;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.Frontend;
@@ -67,6 +68,7 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -85,6 +87,22 @@ public class EditLog {
 
     private Journal journal;
 
+    // for group commit. all following fields are protected by groupCommitLock
+    private final Object groupCommitLock = new Object();
+    private List<GroupCommitRequest> pendingRequests = new ArrayList<>();
+    private boolean isGroupFlushing = false;
+
+    private static class GroupCommitRequest {
+        private final JournalEntity entity;
+        private boolean done = false;
+
+        public GroupCommitRequest(short op, Writable writable) {
+            this.entity = new JournalEntity();
+            this.entity.setOpCode(op);
+            this.entity.setData(writable);
+        }
+    }
+
     public EditLog(String nodeName) {
         journal = new BDBJEJournal(nodeName);
     }
@@ -122,6 +140,7 @@ public class EditLog {
         if (opCode != OperationType.OP_SAVE_NEXTID && opCode != OperationType.OP_TIMESTAMP) {
             LOG.debug("replay journal op code: {}", opCode);
         }
+        ParsedStmtCache.getInstance().invalidateIfSchemaChanged(opCode);
         try {
             switch (opCode) {
                 case OperationType.OP_SAVE_NEXTID: {
@@ -587,6 +606,11 @@ public class EditLog {
                     catalog.replayTruncateTable(info);
                     break;
                 }
+                case OperationType.OP_SET_TABLE_STATS: {
+                    TableStatsInfo info = (TableStatsInfo) journal.getData();
+                    catalog.getStatisticsCollector().replaySetTableStats(info);
+                    break;
+                }
                 case OperationType.OP_COLOCATE_ADD_TABLE: {
                     final ColocatePersistInfo info = (ColocatePersistInfo) journal.getData();
                     catalog.getColocateTableIndex().replayAddTableToGroup(info);
@@ -728,9 +752,17 @@ public class EditLog {
     }
 
     /**
-     * Write an operation to the edit log. Do not sync to persistent store yet.
+     * Write an operation to the edit log, and return after it is synced to persistent store.
      */
-    private synchronized void logEdit(short op, Writable writable) {
+    private void logEdit(short op, Writable writable) {
+        if (Config.edit_log_group_commit) {
+            logEditGroupCommit(op, writable);
+        } else {
+            logEditSync(op, writable);
+        }
+    }
+
+    private synchronized void logEditSync(short op, Writable writable) {
         if (this.getNumEditStreams() == 0) {
             LOG.error("Fatal Error : no editLog stream", new Exception());
             throw new Error("Fatal Error : no editLog stream");
@@ -745,20 +777,120 @@ public class EditLog {
             System.exit(-1);
         }
 
-        // get a new transactionId
-        txId++;
+        long end = System.currentTimeMillis();
+        afterWrite(1, end - start);
 
-        // update statistics
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, op = {}",
+                    txId, numTransactions, totalTimeTransactions, op);
+        }
+    }
+
+    /*
+     * Group commit.
+     * The request is appended to the pending list. If no other thread is flushing, the current thread
+     * takes all pending requests (at most edit_log_group_commit_max_num) and writes them to the journal
+     * in one batch. Otherwise it waits until the flushing thread finishes, and then either finds its
+     * request done, or becomes the next flushing thread.
+     * The order of journals is the order in which requests are appended to the pending list.
+     */
+    private void logEditGroupCommit(short op, Writable writable) {
+        if (this.getNumEditStreams() == 0) {
+            LOG.error("Fatal Error : no editLog stream", new Exception());
+            throw new Error("Fatal Error : no editLog stream");
+        }
+
+        GroupCommitRequest request = new GroupCommitRequest(op, writable);
+        boolean interrupted = false;
+        synchronized (groupCommitLock) {
+            pendingRequests.add(request);
+        }
+
+        while (true) {
+            List<GroupCommitRequest> batch;
+            synchronized (groupCommitLock) {
+                while (!request.done && isGroupFlushing) {
+                    try {
+                        groupCommitLock.wait();
+                    } catch (InterruptedException e) {
+                        // the request is already in the pending list, we must wait until it is written.
+                        interrupted = true;
+                    }
+                }
+                if (request.done) {
+                    break;
+                }
+
+                isGroupFlushing = true;
+                int maxNum = Math.max(1, Config.edit_log_group_commit_max_num);
+                if (pendingRequests.size() <= maxNum) {
+                    batch = pendingRequests;
+                    pendingRequests = new ArrayList<>();
+                } else {
+                    batch = new ArrayList<>(pendingRequests.subList(0, maxNum));
+                    pendingRequests = new ArrayList<>(pendingRequests.subList(maxNum, pendingRequests.size()));
+                }
+            }
+
+            try {
+                flushBatch(batch);
+            } finally {
+                synchronized (groupCommitLock) {
+                    for (GroupCommitRequest req : batch) {
+                        req.done = true;
+                    }
+                    isGroupFlushing = false;
+                    groupCommitLock.notifyAll();
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushBatch(List<GroupCommitRequest> batch) {
+        List<JournalEntity> entities = new ArrayList<>(batch.size());
+        for (GroupCommitRequest req : batch) {
+            entities.add(req.entity);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            journal.writeBatch(entities);
+        } catch (Exception e) {
+            LOG.error("Fatal Error : write stream Exception", e);
+            System.exit(-1);
+        }
         long end = System.currentTimeMillis();
-        numTransactions++;
-        totalTimeTransactions += (end - start);
+
+        synchronized (this) {
+            afterWrite(batch.size(), end - start);
+        }
         if (MetricRepo.isInit.get()) {
-            MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update((end - start));
+            MetricRepo.HISTO_EDIT_LOG_BATCH_NUM.update(batch.size());
         }
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, op = {}",
-                    txId, numTransactions, totalTimeTransactions, op);
+            LOG.debug("nextId = {}, numTransactions = {}, totalTimeTransactions = {}, batch num = {}",
+                    txId, numTransactions, totalTimeTransactions, batch.size());
+        }
+    }
+
+    /*
+     * Update statistics and roll the edit log if necessary.
+     * Must be called with the EditLog monitor held.
+     */
+    private void afterWrite(int num, long costMs) {
+        // get new transactionIds
+        txId += num;
+
+        // update statistics
+        numTransactions += num;
+        totalTimeTransactions += costMs;
+        if (MetricRepo.isInit.get()) {
+            MetricRepo.HISTO_EDIT_LOG_WRITE_LATENCY.update(costMs);
         }
 
         if (txId >= Config.edit_log_roll_num) {
@@ -769,7 +901,7 @@ public class EditLog {
         }
 
         if (MetricRepo.isInit.get()) {
-            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase(1L);
+            MetricRepo.COUNTER_EDIT_LOG_WRITE.increase((long) num);
         }
     }
 
@@ -1114,6 +1246,10 @@ public class EditLog {
         logEdit(OperationType.OP_TRUNCATE_TABLE, info);
     }
 
+    public void logSetTableStats(TableStatsInfo info) {
+        logEdit(OperationType.OP_SET_TABLE_STATS, info);
+    }
+
     public void logColocateAddTable(ColocatePersistInfo info) {
         logEdit(OperationType.OP_COLOCATE_ADD_TABLE, info);
     }
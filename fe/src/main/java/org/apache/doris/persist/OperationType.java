@@ -152,4 +152,7 @@ public class OperationType {
     // small files 251~260
     public static final short OP_CREATE_SMALL_FILE = 251;
     public static final short OP_DROP_SMALL_FILE = 252;
+
+    // statistics 270~280
+    public static final short OP_SET_TABLE_STATS = 270;
 }
@@ -0,0 +1,87 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.persist;
+
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.io.Writable;
+
+import com.google.common.collect.Maps;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+// column statistics of a table collected by ANALYZE TABLE
+public class TableStatsInfo implements Writable {
+
+    private long dbId;
+    private long tblId;
+    // column name -> stats
+    private Map<String, ColumnStats> columnStats = Maps.newHashMap();
+
+    private TableStatsInfo() {
+
+    }
+
+    public TableStatsInfo(long dbId, long tblId, Map<String, ColumnStats> columnStats) {
+        this.dbId = dbId;
+        this.tblId = tblId;
+        this.columnStats = columnStats;
+    }
+
+    public long getDbId() {
+        return dbId;
+    }
+
+    public long getTblId() {
+        return tblId;
+    }
+
+    public Map<String, ColumnStats> getColumnStats() {
+        return columnStats;
+    }
+
+    public static TableStatsInfo read(DataInput in) throws IOException {
+        TableStatsInfo info = new TableStatsInfo();
+        info.readFields(in);
+        return info;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(dbId);
+        out.writeLong(tblId);
+        out.writeInt(columnStats.size());
+        for (Map.Entry<String, ColumnStats> entry : columnStats.entrySet()) {
+            Text.writeString(out, entry.getKey());
+            entry.getValue().write(out);
+        }
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        dbId = in.readLong();
+        tblId = in.readLong();
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String columnName = Text.readString(in);
+            columnStats.put(columnName, ColumnStats.read(in));
+        }
+    }
+}
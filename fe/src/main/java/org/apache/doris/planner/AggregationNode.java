@@ -200,6 +200,10 @@ public class AggregationNode extends PlanNode {
         if (cardinality < 0) {
             cardinality = -1;
         }
+        // there can't be more groups than input rows
+        if (cardinality > 0 && getChild(0).cardinality >= 0) {
+            cardinality = Math.min(cardinality, getChild(0).cardinality);
+        }
         LOG.debug("stats Agg: cardinality=" + Long.toString(cardinality));
     }
 
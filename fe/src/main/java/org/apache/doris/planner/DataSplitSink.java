@@ -198,7 +198,8 @@ public class DataSplitSink extends DataSink {
             for (Map.Entry<Long, Integer> entry : tbl.getIndexIdToSchemaHash().entrySet()) {
                 long indexId = entry.getKey();
                 rollups.put(String.valueOf(indexId),
-                        createRollupSchema(tbl.getKeysType(), tbl.getSchemaByIndexId(indexId), exprByCol));
+                        createRollupSchema(tbl.getKeysTypeByIndexId(indexId), tbl.getSchemaByIndexId(indexId),
+                                exprByCol));
             }
             return rollups;
         }
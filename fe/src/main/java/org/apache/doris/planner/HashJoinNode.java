@@ -27,6 +27,8 @@ import org.apache.doris.analysis.SlotId;
 import org.apache.doris.analysis.SlotRef;
 import org.apache.doris.analysis.TableRef;
 import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Table;
 import org.apache.doris.common.UserException;
 import org.apache.doris.thrift.TEqJoinCondition;
 import org.apache.doris.thrift.TExplainLevel;
@@ -192,15 +194,12 @@ public class HashJoinNode extends PlanNode {
                 continue;
             }
             long numDistinct = stats.getNumDistinctValues();
-            // TODO rownum
-            //Table rhsTbl = slotDesc.getParent().getTableFamilyGroup().getBaseTable();
-            // if (rhsTbl != null && rhsTbl.getNumRows() != -1) {
+            Table rhsTbl = slotDesc.getParent().getTable();
+            if (rhsTbl instanceof OlapTable && ((OlapTable) rhsTbl).getRowCount() > 0) {
                 // we can't have more distinct values than rows in the table, even though
-                // the metastore stats may think so
-                // LOG.info(
-                //   "#distinct=" + numDistinct + " #rows=" + Long.toString(rhsTbl.getNumRows()));
-                // numDistinct = Math.min(numDistinct, rhsTbl.getNumRows());
-            // }
+                // the column stats may think so
+                numDistinct = Math.min(numDistinct, ((OlapTable) rhsTbl).getRowCount());
+            }
             maxNumDistinct = Math.max(maxNumDistinct, numDistinct);
             LOG.info(
               "min slotref=" + rhsSlotRef.toSql() + " #distinct=" + Long.toString(numDistinct));
@@ -291,6 +290,10 @@ public class HashJoinNode extends PlanNode {
             output.append(detailPrefix + "other predicates: ").append(
               getExplainString(conjuncts) + "\n");
         }
+        if (!runtimeFilters.isEmpty()) {
+            output.append(detailPrefix + "runtime filters: ").append(
+              getRuntimeFilterExplainString(true) + "\n");
+        }
         return output.toString();
     }
 
@@ -0,0 +1,154 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.AggregateInfo;
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.CastExpr;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.FunctionCallExpr;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.SlotDescriptor;
+import org.apache.doris.analysis.SlotId;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.analysis.TupleDescriptor;
+import org.apache.doris.catalog.AggregateType;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.KeysType;
+import org.apache.doris.catalog.OlapTable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the materialized views of a duplicate keys table which can answer an aggregation query.
+ *
+ * A materialized view stores the rows of the table aggregated by its key columns, so it returns
+ * the same result as the table for an aggregation if:
+ * 1. all columns used by the query are in the materialized view;
+ * 2. the grouping exprs and the predicates only reference key columns of the materialized view;
+ * 3. every aggregate function is SUM, MIN or MAX on a value column aggregated by the same function,
+ *    or is MIN, MAX or a distinct aggregation on a key column.
+ * The matched materialized views are candidates of RollupSelector together with the base index and
+ * the ordinary rollups, and the one with the fewest rows is scanned.
+ */
+public final class MaterializedViewSelector {
+    private static final Logger LOG = LogManager.getLogger(MaterializedViewSelector.class);
+
+    private MaterializedViewSelector() {
+    }
+
+    /*
+     * Returns ids of the materialized views which can answer the aggregation of selectStmt on the table
+     * scanned by scanNode, which should be the only table ref of selectStmt.
+     */
+    public static Set<Long> selectMatchedViews(SelectStmt selectStmt, Analyzer analyzer, OlapScanNode scanNode) {
+        Set<Long> matchedViewIds = Sets.newHashSet();
+        OlapTable table = scanNode.getOlapTable();
+        AggregateInfo aggInfo = selectStmt.getAggInfo();
+        if (table.getKeysType() != KeysType.DUP_KEYS || !table.hasMaterializedView()
+                || aggInfo == null || selectStmt.getTableRefs().size() != 1) {
+            return matchedViewIds;
+        }
+
+        TupleDescriptor tupleDesc = selectStmt.getTableRefs().get(0).getDesc();
+        List<SlotId> keySlotIds = Lists.newArrayList();
+        Expr.getIds(aggInfo.getGroupingExprs(), null, keySlotIds);
+        List<Expr> conjuncts = analyzer.getAllConjunt(tupleDesc.getId());
+        if (conjuncts != null) {
+            Expr.getIds(conjuncts, null, keySlotIds);
+        }
+
+        for (Long indexId : table.getIndexIdToSchema().keySet()) {
+            if (!table.isMaterializedView(indexId)) {
+                continue;
+            }
+            Map<String, Column> viewColumns = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
+            for (Column column : table.getSchemaByIndexId(indexId)) {
+                viewColumns.put(column.getName(), column);
+            }
+            if (isMatched(tupleDesc, viewColumns, keySlotIds, aggInfo.getAggregateExprs())) {
+                matchedViewIds.add(indexId);
+            }
+        }
+        LOG.debug("matched materialized views of table {}: {}", table.getName(), matchedViewIds);
+        return matchedViewIds;
+    }
+
+    static boolean isMatched(TupleDescriptor tupleDesc, Map<String, Column> viewColumns,
+                             List<SlotId> keySlotIds, List<FunctionCallExpr> aggExprs) {
+        for (SlotDescriptor slot : tupleDesc.getMaterializedSlots()) {
+            if (slot.getColumn() == null || !viewColumns.containsKey(slot.getColumn().getName())) {
+                return false;
+            }
+            Column viewColumn = viewColumns.get(slot.getColumn().getName());
+            if (!viewColumn.isKey() && keySlotIds.contains(slot.getId())) {
+                // group by or filter on aggregated value
+                return false;
+            }
+        }
+        for (FunctionCallExpr aggExpr : aggExprs) {
+            if (!isAggregateMatched(aggExpr, viewColumns)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isAggregateMatched(FunctionCallExpr aggExpr, Map<String, Column> viewColumns) {
+        if (aggExpr.getChildren().size() != 1) {
+            // eg. count(*)
+            return false;
+        }
+        SlotRef slotRef = unwrapNumericCast(aggExpr.getChild(0));
+        if (slotRef == null || slotRef.getDesc() == null || slotRef.getDesc().getColumn() == null) {
+            return false;
+        }
+        Column viewColumn = viewColumns.get(slotRef.getDesc().getColumn().getName());
+        if (viewColumn == null) {
+            return false;
+        }
+        String fnName = aggExpr.getFnName().getFunction().toLowerCase();
+        if (viewColumn.isKey()) {
+            // the values of key columns are kept in materialized view, but the number of rows is not
+            return fnName.equals("min") || fnName.equals("max") || fnName.equals("ndv")
+                    || fnName.equals("multi_distinct_count") || fnName.equals("multi_distinct_sum")
+                    || (aggExpr.isDistinct() && (fnName.equals("count") || fnName.equals("sum")));
+        }
+        AggregateType aggregateType = viewColumn.getAggregationType();
+        return (fnName.equals("sum") && aggregateType == AggregateType.SUM)
+                || (fnName.equals("min") && aggregateType == AggregateType.MIN)
+                || (fnName.equals("max") && aggregateType == AggregateType.MAX);
+    }
+
+    private static SlotRef unwrapNumericCast(Expr expr) {
+        if (expr instanceof CastExpr && expr.getType().isNumericType()
+                && expr.getChild(0).getType().isNumericType()) {
+            expr = expr.getChild(0);
+        }
+        return expr instanceof SlotRef ? (SlotRef) expr : null;
+    }
+}
@@ -25,9 +25,11 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
 
 import org.apache.doris.analysis.Analyzer;
 import org.apache.doris.analysis.BaseTableRef;
+import org.apache.doris.analysis.Expr;
 import org.apache.doris.analysis.TupleDescriptor;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.Column;
@@ -68,6 +70,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 // Full scan of an Olap table.
@@ -87,6 +90,12 @@ public class OlapScanNode extends ScanNode {
     private long selectedIndexId = -1;
     private int selectedPartitionNum = 0;
     private long totalBytes = 0;
+    // number of rows in selected tablets
+    private long totalRows = 0;
+    // partition id -> visible version of the partition to be scanned
+    private Map<Long, Long> selectedPartitionVersions = Maps.newTreeMap();
+    // ids of materialized views which can answer the query, other materialized views are never selected
+    private Set<Long> matchedMaterializedViewIds = Sets.newHashSet();
 
     // List of tablets will be scanned by current olap_scan_node
     private ArrayList<Long> scanTabletIds = Lists.newArrayList();
@@ -128,6 +137,18 @@ public class OlapScanNode extends ScanNode {
         this.forceOpenPreAgg = forceOpenPreAgg;
     }
 
+    public long getSelectedIndexId() {
+        return selectedIndexId;
+    }
+
+    public void setMatchedMaterializedViewIds(Set<Long> matchedMaterializedViewIds) {
+        this.matchedMaterializedViewIds = matchedMaterializedViewIds;
+    }
+
+    public Map<Long, Long> getSelectedPartitionVersions() {
+        return selectedPartitionVersions;
+    }
+
     public OlapTable getOlapTable() {
         return olapTable;
     }
@@ -159,8 +180,10 @@ public class OlapScanNode extends ScanNode {
 
     @Override
     public void computeStats(Analyzer analyzer) {
-        if (cardinality > 0) {
-            avgRowSize = totalBytes / (float) cardinality;
+        if (totalRows > 0) {
+            avgRowSize = totalBytes / (float) totalRows;
+            // estimated number of rows after filtering, which decides the distribution of joins
+            cardinality = Math.max(1, Math.round(totalRows * Expr.getCombinedSelectivity(conjuncts)));
             if (hasLimit()) {
                 cardinality = Math.min(cardinality, limit);
             }
@@ -174,9 +197,8 @@ public class OlapScanNode extends ScanNode {
             case RANGE: {
                 BaseTableRef ref = (BaseTableRef) desc.getRef();
                 RangePartitionInfo rangePartitionInfo = (RangePartitionInfo) partitionInfo;
-                Map<Long, Range<PartitionKey>> keyRangeById = null;
                 if (ref.getPartitions() != null) {
-                    keyRangeById = Maps.newHashMap();
+                    Map<Long, Range<PartitionKey>> keyRangeById = Maps.newHashMap();
                     for (String partName : ref.getPartitions()) {
                         Partition part = olapTable.getPartition(partName);
                         if (part == null) {
@@ -184,12 +206,14 @@ public class OlapScanNode extends ScanNode {
                         }
                         keyRangeById.put(part.getId(), rangePartitionInfo.getRange(part.getId()));
                     }
+                    partitionPruner = new RangePartitionPruner(keyRangeById,
+                                                               rangePartitionInfo.getPartitionColumns(),
+                                                               columnFilters);
                 } else {
-                    keyRangeById = rangePartitionInfo.getIdToRange();
+                    partitionPruner = new RangePartitionPruner(rangePartitionInfo.getRangeIndex(),
+                                                               rangePartitionInfo.getPartitionColumns(),
+                                                               columnFilters);
                 }
-                partitionPruner = new RangePartitionPruner(keyRangeById,
-                                                           rangePartitionInfo.getPartitionColumns(),
-                                                           columnFilters);
                 return partitionPruner.prune();
             }
             case UNPARTITIONED: {
@@ -236,6 +260,7 @@ public class OlapScanNode extends ScanNode {
         long visibleVersionHash = partition.getVisibleVersionHash();
         String visibleVersionStr = String.valueOf(visibleVersion);
         String visibleVersionHashStr = String.valueOf(partition.getVisibleVersionHash());
+        selectedPartitionVersions.put(partition.getId(), visibleVersion);
 
         for (Tablet tablet : tablets) {
             long tabletId = tablet.getId();
@@ -292,7 +317,7 @@ public class OlapScanNode extends ScanNode {
 
                 //for CBO
                 if (!collectedStat && replica.getRowCount() != -1) {
-                    cardinality += replica.getRowCount();
+                    totalRows += replica.getRowCount();
                     totalBytes += replica.getDataSize();
                     collectedStat = true;
                 }
@@ -341,7 +366,8 @@ public class OlapScanNode extends ScanNode {
             return;
         }
 
-        final RollupSelector rollupSelector = new RollupSelector(analyzer, desc, olapTable);
+        final RollupSelector rollupSelector = new RollupSelector(analyzer, desc, olapTable,
+                matchedMaterializedViewIds);
         selectedIndexId = rollupSelector.selectBestRollup(partitionIds, conjuncts, isPreAggregation);
 
         long localBeId = -1;
@@ -349,10 +375,17 @@ public class OlapScanNode extends ScanNode {
             localBeId = Catalog.getCurrentSystemInfo().getBackendIdByHost(FrontendOptions.getLocalHostAddress());
         }
 
+        TabletZoneMapPruner zoneMapPruner = null;
+        if (Config.enable_tablet_zone_map_prune && columnFilters != null) {
+            zoneMapPruner = new TabletZoneMapPruner(Catalog.getCurrentInvertedIndex(),
+                    olapTable.getKeysTypeByIndexId(selectedIndexId),
+                    olapTable.getSchemaByIndexId(selectedIndexId), columnFilters);
+        }
+
         for (Long partitionId : partitionIds) {
             final Partition partition = olapTable.getPartition(partitionId);
             final MaterializedIndex selectedTable = partition.getIndex(selectedIndexId);
-            final List<Tablet> tablets = Lists.newArrayList();
+            List<Tablet> tablets = Lists.newArrayList();
             final Collection<Long> tabletIds = distributionPrune(selectedTable, partition.getDistributionInfo());
             LOG.debug("distribution prune tablets: {}", tabletIds);
 
@@ -361,10 +394,14 @@ public class OlapScanNode extends ScanNode {
                 for (Long id : tabletIds) {
                     tablets.add(selectedTable.getTablet(id));
                 }
-                scanTabletIds.addAll(tabletIds);
             } else {
                 tablets.addAll(selectedTable.getTablets());
-                scanTabletIds.addAll(allTabletIds);
+            }
+            if (zoneMapPruner != null && !zoneMapPruner.isEmpty()) {
+                tablets = zoneMapPruner.prune(tablets, partition.getVisibleVersion());
+            }
+            for (Tablet tablet : tablets) {
+                scanTabletIds.add(tablet.getId());
             }
 
             for (int i = 0; i < allTabletIds.size(); i++) {
@@ -405,6 +442,10 @@ public class OlapScanNode extends ScanNode {
             output.append(prefix).append("PREDICATES: ").append(
                     getExplainString(conjuncts)).append("\n");
         }
+        if (!runtimeFilters.isEmpty()) {
+            output.append(prefix).append("runtime filters: ").append(
+                    getRuntimeFilterExplainString(false)).append("\n");
+        }
 
         output.append(prefix).append(String.format(
                     "partitions=%s/%s",
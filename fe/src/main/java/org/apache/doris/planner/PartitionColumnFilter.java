@@ -41,6 +41,8 @@ public class PartitionColumnFilter {
     public boolean     upperBoundInclusive;
     // InPredicate
     private InPredicate inPredicate;
+    // filters of the disjuncts of an OR predicate, the partitions matching any of them are selected
+    private List<PartitionColumnFilter> disjunctFilters;
 
     public InPredicate getInPredicate() {
         return inPredicate;
@@ -50,6 +52,14 @@ public class PartitionColumnFilter {
         this.inPredicate = inPredicate;
     }
 
+    public List<PartitionColumnFilter> getDisjunctFilters() {
+        return disjunctFilters;
+    }
+
+    public void setDisjunctFilters(List<PartitionColumnFilter> disjunctFilters) {
+        this.disjunctFilters = disjunctFilters;
+    }
+
     // select the bigger bound
     public void setLowerBound(LiteralExpr newLowerBound, boolean newLowerBoundInclusive) {
         if (null == lowerBound) {
@@ -132,6 +142,9 @@ public class PartitionColumnFilter {
         } else {
             str += "\ninPredicate is " + inPredicate;
         }
+        if (null != disjunctFilters) {
+            str += "\ndisjunctFilters are " + disjunctFilters;
+        }
         return str;
     }
 };
@@ -30,6 +30,7 @@ import org.apache.doris.thrift.TExplainLevel;
 import org.apache.doris.thrift.TPlan;
 import org.apache.doris.thrift.TPlanNode;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -96,6 +97,10 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
     // sum of tupleIds' avgSerializedSizes; set in computeStats()
     protected float avgRowSize;
 
+    // runtime filters built by this node if it is a hash join node,
+    // or applied by this node if it is a scan node
+    protected List<RuntimeFilter> runtimeFilters = Lists.newArrayList();
+
     //  Node should compact data.
     protected boolean compactData;
     protected int numInstances;
@@ -358,6 +363,25 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
         return "";
     }
 
+    public void addRuntimeFilter(RuntimeFilter filter) {
+        runtimeFilters.add(filter);
+    }
+
+    public List<RuntimeFilter> getRuntimeFilters() {
+        return runtimeFilters;
+    }
+
+    protected String getRuntimeFilterExplainString(boolean isBuildNode) {
+        if (runtimeFilters.isEmpty()) {
+            return "";
+        }
+        List<String> filterStrs = Lists.newArrayList();
+        for (RuntimeFilter filter : runtimeFilters) {
+            filterStrs.add(filter.getExplainString(isBuildNode, isBuildNode ? null : (ScanNode) this));
+        }
+        return Joiner.on(", ").join(filterStrs);
+    }
+
     // Convert this plan node, including all children, to its Thrift representation.
     public TPlan treeToThrift() {
         TPlan result = new TPlan();
@@ -379,6 +403,9 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
             msg.addToConjuncts(e.treeToThrift());
         }
         msg.compact_data = compactData;
+        for (RuntimeFilter filter : runtimeFilters) {
+            msg.addToRuntime_filters(filter.toThrift());
+        }
         toThrift(msg);
         container.addToNodes(msg);
         if (this instanceof ExchangeNode) {
@@ -427,11 +454,7 @@ abstract public class PlanNode extends TreeNode<PlanNode> {
      * Compute the product of the selectivies of all conjuncts.
      */
     protected double computeSelectivity() {
-        double prod = 1.0;
-        for (Expr e : conjuncts) {
-            prod *= e.getSelectivity();
-        }
-        return prod;
+        return Expr.getCombinedSelectivity(conjuncts);
     }
 
     protected ExprSubstitutionMap outputSmap;
@@ -171,8 +171,14 @@ public class Planner {
             fragments = distributedPlanner.createPlanFragments(singleNodePlan);
         }
 
-        // Optimize the transfer of query statistic when query does't contain limit.
         PlanFragment rootFragment = fragments.get(fragments.size() - 1);
+        // runtime filters are generated after fragmentation, to know whether a target is local
+        if (analyzer.getContext() != null) {
+            RuntimeFilterGenerator.generateRuntimeFilters(rootFragment.getPlanRoot(),
+                    analyzer.getContext().getSessionVariable());
+        }
+
+        // Optimize the transfer of query statistic when query does't contain limit.
         QueryStatisticsTransferOptimizer queryStatisticTransferOptimizer = new QueryStatisticsTransferOptimizer(rootFragment);
         queryStatisticTransferOptimizer.optimizeQueryStatisticsTransfer();
 
@@ -43,18 +43,37 @@ import java.util.Set;
 public class RangePartitionPruner implements PartitionPruner {
     private static final Logger LOG = LogManager.getLogger(RangePartitionPruner.class);
 
-    private Map<Long, Range<PartitionKey>> partitionRangeMap;
+    // the max number of key ranges to look up in the range map
+    private static final int MAX_COMPLEX = 100;
+
+    // partition range -> partition id
+    private RangeMap<PartitionKey, Long> partitionRangeMap;
     private List<Column> partitionColumns;
     private Map<String, PartitionColumnFilter> partitionColumnFilters;
 
     public RangePartitionPruner(Map<Long, Range<PartitionKey>> rangeMap,
                                 List<Column> columns,
                                 Map<String, PartitionColumnFilter> filters) {
+        this(createRangeMap(rangeMap), columns, filters);
+    }
+
+    // rangeMap is usually the range index cached in RangePartitionInfo, so that it is not built for every query
+    public RangePartitionPruner(RangeMap<PartitionKey, Long> rangeMap,
+                                List<Column> columns,
+                                Map<String, PartitionColumnFilter> filters) {
         partitionRangeMap = rangeMap;
         partitionColumns = columns;
         partitionColumnFilters = filters;
     }
 
+    private static RangeMap<PartitionKey, Long> createRangeMap(Map<Long, Range<PartitionKey>> idToRange) {
+        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
+        for (Map.Entry<Long, Range<PartitionKey>> entry : idToRange.entrySet()) {
+            rangeMap.put(entry.getValue(), entry.getKey());
+        }
+        return rangeMap;
+    }
+
     private Collection<Long> prune(RangeMap<PartitionKey, Long> rangeMap,
                                    int columnIdx,
                                    PartitionKey minKey,
@@ -89,8 +108,30 @@ public class RangePartitionPruner implements PartitionPruner {
             maxKey.popColumn();
             return result;
         }
+        List<PartitionColumnFilter> disjunctFilters = filter.getDisjunctFilters();
+        if (null == filter.getInPredicate() && null != disjunctFilters
+                && disjunctFilters.size() * complex <= MAX_COMPLEX) {
+            // eg: k1 < 10 or k1 in (20, 30), union the partitions matching each disjunct
+            Set<Long> resultSet = Sets.newHashSet();
+            int newComplex = disjunctFilters.size() * complex;
+            for (PartitionColumnFilter disjunctFilter : disjunctFilters) {
+                resultSet.addAll(pruneByFilter(rangeMap, columnIdx, minKey, maxKey, newComplex, disjunctFilter));
+            }
+            return resultSet;
+        }
+        return pruneByFilter(rangeMap, columnIdx, minKey, maxKey, complex, filter);
+    }
+
+    private Collection<Long> pruneByFilter(RangeMap<PartitionKey, Long> rangeMap,
+                                           int columnIdx,
+                                           PartitionKey minKey,
+                                           PartitionKey maxKey,
+                                           int complex,
+                                           PartitionColumnFilter filter)
+            throws AnalysisException {
+        Column keyColumn = partitionColumns.get(columnIdx);
         InPredicate inPredicate = filter.getInPredicate();
-        if (null == inPredicate || inPredicate.getChildren().size() * complex > 100) {
+        if (null == inPredicate || inPredicate.getChildren().size() * complex > MAX_COMPLEX) {
             if (filter.lowerBoundInclusive && filter.upperBoundInclusive
                     && filter.lowerBound != null && filter.upperBound != null
                     && 0 == filter.lowerBound.compareLiteral(filter.upperBound)) {
@@ -184,11 +225,6 @@ public class RangePartitionPruner implements PartitionPruner {
     public Collection<Long> prune() throws AnalysisException {
         PartitionKey minKey = new PartitionKey();
         PartitionKey maxKey = new PartitionKey();
-        // Map to RangeMapTree
-        RangeMap<PartitionKey, Long> rangeMap = TreeRangeMap.create();
-        for (Map.Entry<Long, Range<PartitionKey>> entry : partitionRangeMap.entrySet()) {
-            rangeMap.put(entry.getValue(), entry.getKey());
-        }
-        return prune(rangeMap, 0, minKey, maxKey, 1);
+        return prune(partitionRangeMap, 0, minKey, maxKey, 1);
     }
 }
@@ -53,11 +53,15 @@ public final class RollupSelector {
     private final TupleDescriptor tupleDesc;
     private final OlapTable table;
     private final Analyzer analyzer;
+    // materialized views which can answer the query
+    private final Set<Long> matchedMaterializedViewIds;
 
-    public RollupSelector(Analyzer analyzer, TupleDescriptor tupleDesc, OlapTable table) {
+    public RollupSelector(Analyzer analyzer, TupleDescriptor tupleDesc, OlapTable table,
+                          Set<Long> matchedMaterializedViewIds) {
         this.analyzer = analyzer;
         this.tupleDesc = tupleDesc;
         this.table = table;
+        this.matchedMaterializedViewIds = matchedMaterializedViewIds;
     }
 
     public long selectBestRollup(
@@ -114,6 +118,11 @@ public final class RollupSelector {
         final List<MaterializedIndex> rollupsContainsOutput = Lists.newArrayList();
         final List<Column> baseTableColumns = table.getKeyColumnsByIndexId(partition.getBaseIndex().getId());
         for (MaterializedIndex rollup : rollups) {
+            if (table.isMaterializedView(rollup.getId()) && !matchedMaterializedViewIds.contains(rollup.getId())) {
+                // rows of materialized view are aggregated, which can only answer the matched aggregation
+                LOG.debug("exclude materialized view {} which does not match the query", rollup.getId());
+                continue;
+            }
             final Set<String> rollupColumns = Sets.newHashSet();
             table.getSchemaByIndexId(rollup.getId())
                     .stream().forEach(column -> rollupColumns.add(column.getName()));
@@ -0,0 +1,199 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.thrift.TRuntimeFilterDesc;
+import org.apache.doris.thrift.TRuntimeFilterType;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+/**
+ * A runtime filter is built from the values of the build side expr of an equal join predicate
+ * when the hash table of the join is built, and is applied to the probe side expr in the scan
+ * nodes below the join, so that rows which can not be joined are filtered before they are read.
+ */
+public class RuntimeFilter {
+
+    public enum RuntimeFilterType {
+        IN("in", 1, TRuntimeFilterType.IN),
+        MIN_MAX("min_max", 2, TRuntimeFilterType.MIN_MAX),
+        BLOOM("bloom", 4, TRuntimeFilterType.BLOOM);
+
+        private final String description;
+        // bit of the type in session variable runtime_filter_type
+        private final int mask;
+        private final TRuntimeFilterType thriftType;
+
+        RuntimeFilterType(String description, int mask, TRuntimeFilterType thriftType) {
+            this.description = description;
+            this.mask = mask;
+            this.thriftType = thriftType;
+        }
+
+        public boolean isEnabled(int typeMask) {
+            return (typeMask & mask) != 0;
+        }
+
+        public TRuntimeFilterType toThrift() {
+            return thriftType;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    public static class RuntimeFilterTarget {
+        private final ScanNode node;
+        // bound by the tuple of node
+        private final Expr expr;
+        // whether the target is in the same fragment as the join node
+        private final boolean isLocal;
+
+        public RuntimeFilterTarget(ScanNode node, Expr expr, boolean isLocal) {
+            this.node = node;
+            this.expr = expr;
+            this.isLocal = isLocal;
+        }
+
+        public ScanNode getNode() {
+            return node;
+        }
+
+        public Expr getExpr() {
+            return expr;
+        }
+
+        public boolean isLocal() {
+            return isLocal;
+        }
+    }
+
+    private int id;
+    private final HashJoinNode builderNode;
+    private final Expr srcExpr;
+    private final RuntimeFilterType type;
+    private final List<RuntimeFilterTarget> targets = Lists.newArrayList();
+    // estimated number of distinct values of srcExpr, -1 if unknown
+    private final long buildNdv;
+    // only valid for bloom filter
+    private long bloomFilterSizeBytes = -1;
+    // only valid for in filter
+    private int maxInNum = -1;
+
+    public RuntimeFilter(int id, HashJoinNode builderNode, Expr srcExpr, RuntimeFilterType type, long buildNdv) {
+        this.id = id;
+        this.builderNode = builderNode;
+        this.srcExpr = srcExpr;
+        this.type = type;
+        this.buildNdv = buildNdv;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    public HashJoinNode getBuilderNode() {
+        return builderNode;
+    }
+
+    public Expr getSrcExpr() {
+        return srcExpr;
+    }
+
+    public RuntimeFilterType getType() {
+        return type;
+    }
+
+    public List<RuntimeFilterTarget> getTargets() {
+        return targets;
+    }
+
+    public void addTarget(RuntimeFilterTarget target) {
+        targets.add(target);
+    }
+
+    public long getBuildNdv() {
+        return buildNdv;
+    }
+
+    public long getBloomFilterSizeBytes() {
+        return bloomFilterSizeBytes;
+    }
+
+    public void setBloomFilterSizeBytes(long bloomFilterSizeBytes) {
+        this.bloomFilterSizeBytes = bloomFilterSizeBytes;
+    }
+
+    public void setMaxInNum(int maxInNum) {
+        this.maxInNum = maxInNum;
+    }
+
+    public boolean hasLocalTargets() {
+        return targets.stream().anyMatch(RuntimeFilterTarget::isLocal);
+    }
+
+    public boolean hasRemoteTargets() {
+        return targets.stream().anyMatch(target -> !target.isLocal());
+    }
+
+    public TRuntimeFilterDesc toThrift() {
+        TRuntimeFilterDesc desc = new TRuntimeFilterDesc();
+        desc.setFilter_id(id);
+        desc.setType(type.toThrift());
+        desc.setSrc_expr(srcExpr.treeToThrift());
+        desc.setSrc_node_id(builderNode.getId().asInt());
+        for (RuntimeFilterTarget target : targets) {
+            desc.putToPlanId_to_target_expr(target.getNode().getId().asInt(), target.getExpr().treeToThrift());
+        }
+        desc.setHas_local_targets(hasLocalTargets());
+        desc.setHas_remote_targets(hasRemoteTargets());
+        desc.setIs_broadcast_join(
+                builderNode.getDistributionMode() == HashJoinNode.DistributionMode.BROADCAST);
+        if (type == RuntimeFilterType.BLOOM) {
+            desc.setBloom_filter_size_bytes(bloomFilterSizeBytes);
+        } else if (type == RuntimeFilterType.IN) {
+            desc.setMax_in_num(maxInNum);
+        }
+        return desc;
+    }
+
+    // eg. RF000[bloom] <- `t2`.`k1`
+    public String getExplainString(boolean isBuildNode, ScanNode targetNode) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("RF%03d[%s]", id, type));
+        if (isBuildNode) {
+            sb.append(" <- ").append(srcExpr.toSql());
+        } else {
+            for (RuntimeFilterTarget target : targets) {
+                if (target.getNode() == targetNode) {
+                    sb.append(" -> ").append(target.getExpr().toSql());
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
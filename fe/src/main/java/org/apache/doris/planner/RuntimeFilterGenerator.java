@@ -0,0 +1,246 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.BinaryPredicate;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.JoinOperator;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.analysis.TupleId;
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.planner.RuntimeFilter.RuntimeFilterTarget;
+import org.apache.doris.planner.RuntimeFilter.RuntimeFilterType;
+import org.apache.doris.qe.SessionVariable;
+
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Generates runtime filters for the hash joins of a distributed plan.
+ *
+ * For an equal join predicate 'probe_expr = build_expr' of a hash join whose unmatched probe rows
+ * are discarded, a filter is built from the values of build_expr, and applied to the olap scan node
+ * below the probe side which materializes probe_expr. The filter is pushed through inner joins,
+ * outer joins, select nodes and exchanges, but not through nodes with limit, or to the nullable side of outer joins.
+ *
+ * The type of a filter is chosen by the estimated number of distinct values of the build side:
+ * - an IN filter if there are only a few values, which the scan node can use like a normal IN predicate;
+ * - otherwise a MIN_MAX filter for numeric and date types, which is used to skip data by zone maps,
+ *   and a BLOOM filter sized for the number of values.
+ * At most runtime_filters_max_num filters are kept, the ones with fewer build values first.
+ */
+public final class RuntimeFilterGenerator {
+    private static final Logger LOG = LogManager.getLogger(RuntimeFilterGenerator.class);
+
+    // expected false positive probability of bloom filters
+    private static final double BLOOM_FILTER_FPP = 0.05;
+
+    private final SessionVariable sessionVariable;
+    private final boolean allowRemoteTargets;
+    private final List<RuntimeFilter> filters = Lists.newArrayList();
+
+    private RuntimeFilterGenerator(SessionVariable sessionVariable, boolean allowRemoteTargets) {
+        this.sessionVariable = sessionVariable;
+        this.allowRemoteTargets = allowRemoteTargets;
+    }
+
+    /*
+     * Generate runtime filters for the plan tree rooted at root, whose nodes must have been
+     * assigned to fragments. The filters are registered to the join nodes and the scan nodes.
+     */
+    public static void generateRuntimeFilters(PlanNode root, SessionVariable sessionVariable) {
+        String mode = sessionVariable.getRuntimeFilterMode();
+        if ("OFF".equalsIgnoreCase(mode) || sessionVariable.getRuntimeFiltersMaxNum() <= 0) {
+            return;
+        }
+        RuntimeFilterGenerator generator = new RuntimeFilterGenerator(sessionVariable,
+                !"LOCAL".equalsIgnoreCase(mode));
+        generator.visit(root);
+        generator.assignFilters();
+    }
+
+    private void visit(PlanNode node) {
+        for (PlanNode child : node.getChildren()) {
+            visit(child);
+        }
+        if (node instanceof HashJoinNode) {
+            generateFilters((HashJoinNode) node);
+        }
+    }
+
+    private void generateFilters(HashJoinNode joinNode) {
+        JoinOperator joinOp = joinNode.getJoinOp();
+        // only if the probe rows which can not be joined are discarded
+        if (!joinOp.isInnerJoin() && joinOp != JoinOperator.LEFT_SEMI_JOIN
+                && joinOp != JoinOperator.RIGHT_SEMI_JOIN && joinOp != JoinOperator.RIGHT_OUTER_JOIN) {
+            return;
+        }
+        PlanNode buildNode = joinNode.getChild(1);
+        for (BinaryPredicate eqJoinPredicate : joinNode.getEqJoinConjuncts()) {
+            if (eqJoinPredicate.getOp() == BinaryPredicate.Operator.EQ_FOR_NULL) {
+                continue;
+            }
+            Expr probeExpr = eqJoinPredicate.getChild(0);
+            Expr buildExpr = eqJoinPredicate.getChild(1);
+            SlotRef probeSlotRef = probeExpr.unwrapSlotRef();
+            if (probeSlotRef == null || probeSlotRef.getDesc() == null
+                    || !probeExpr.getType().equals(buildExpr.getType())) {
+                continue;
+            }
+            TupleId tupleId = probeSlotRef.getDesc().getParent().getId();
+            OlapScanNode targetNode = findTargetNode(joinNode.getChild(0), tupleId);
+            if (targetNode == null || !probeExpr.isBoundByTupleIds(targetNode.getTupleIds())) {
+                continue;
+            }
+            boolean isLocal = targetNode.getFragment() == joinNode.getFragment();
+            if (!isLocal && !allowRemoteTargets) {
+                continue;
+            }
+            long buildNdv = estimateNdv(buildExpr, buildNode.getCardinality());
+            if (buildNode.getCardinality() > 0 && targetNode.getCardinality() > 0
+                    && buildNode.getCardinality() >= targetNode.getCardinality()) {
+                // the build side is not smaller than the probe side, few rows could be filtered
+                continue;
+            }
+            RuntimeFilterTarget target = new RuntimeFilterTarget(targetNode, probeExpr, isLocal);
+            for (RuntimeFilterType type : chooseTypes(probeExpr.getType(), buildNdv)) {
+                RuntimeFilter filter = new RuntimeFilter(-1, joinNode, buildExpr, type, buildNdv);
+                filter.addTarget(target);
+                if (type == RuntimeFilterType.BLOOM) {
+                    filter.setBloomFilterSizeBytes(computeBloomFilterSize(buildNdv,
+                            sessionVariable.getRuntimeBloomFilterMinSize(),
+                            sessionVariable.getRuntimeBloomFilterMaxSize()));
+                } else if (type == RuntimeFilterType.IN) {
+                    filter.setMaxInNum(sessionVariable.getRuntimeFilterMaxInNum());
+                }
+                filters.add(filter);
+            }
+        }
+    }
+
+    /*
+     * Returns the olap scan node which materializes the tuple in the tree rooted at node,
+     * or null if a filter on the tuple can not be pushed down to it.
+     */
+    private static OlapScanNode findTargetNode(PlanNode node, TupleId tupleId) {
+        if (!node.getTupleIds().contains(tupleId) || node.getNullableTupleIds().contains(tupleId)
+                || node.hasLimit()) {
+            return null;
+        }
+        if (node instanceof OlapScanNode) {
+            return (OlapScanNode) node;
+        }
+        if (node instanceof HashJoinNode) {
+            // the nullable side of outer joins is excluded above, the rows of the other side
+            // which are filtered out can not be joined by the upper join either
+            JoinOperator joinOp = ((HashJoinNode) node).getJoinOp();
+            if (!joinOp.isInnerJoin() && !joinOp.isOuterJoin()) {
+                return null;
+            }
+        } else if (!(node instanceof CrossJoinNode) && !(node instanceof SelectNode)
+                && !(node instanceof ExchangeNode)) {
+            return null;
+        }
+        for (PlanNode child : node.getChildren()) {
+            OlapScanNode target = findTargetNode(child, tupleId);
+            if (target != null) {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    // returns -1 if unknown
+    private static long estimateNdv(Expr buildExpr, long buildCardinality) {
+        long ndv = buildCardinality;
+        SlotRef slotRef = buildExpr.unwrapSlotRef();
+        if (slotRef != null && slotRef.getDesc() != null) {
+            ColumnStats stats = slotRef.getDesc().getStats();
+            if (stats.hasNumDistinctValues()) {
+                ndv = ndv < 0 ? stats.getNumDistinctValues() : Math.min(ndv, stats.getNumDistinctValues());
+            }
+        }
+        return ndv;
+    }
+
+    private List<RuntimeFilterType> chooseTypes(Type type, long buildNdv) {
+        int typeMask = sessionVariable.getRuntimeFilterType();
+        List<RuntimeFilterType> types = Lists.newArrayList();
+        if (RuntimeFilterType.IN.isEnabled(typeMask)
+                && buildNdv >= 0 && buildNdv <= sessionVariable.getRuntimeFilterMaxInNum()) {
+            types.add(RuntimeFilterType.IN);
+            return types;
+        }
+        if (RuntimeFilterType.MIN_MAX.isEnabled(typeMask) && (type.isNumericType() || type.isDateType())) {
+            types.add(RuntimeFilterType.MIN_MAX);
+        }
+        if (RuntimeFilterType.BLOOM.isEnabled(typeMask)) {
+            types.add(RuntimeFilterType.BLOOM);
+        }
+        return types;
+    }
+
+    /*
+     * Returns the number of bytes of a bloom filter for ndv values with the expected fpp,
+     * which is rounded up to a power of 2, and limited in [minSize, maxSize].
+     * If ndv is unknown, the max size is used, so that the filter is still effective for a large build side.
+     */
+    static long computeBloomFilterSize(long ndv, long minSize, long maxSize) {
+        if (ndv < 0) {
+            return maxSize;
+        }
+        double bits = -ndv * Math.log(BLOOM_FILTER_FPP) / (Math.log(2) * Math.log(2));
+        long bytes = Math.max(1L, (long) Math.ceil(bits / 8));
+        long size = Long.highestOneBit(bytes);
+        if (size < bytes) {
+            size <<= 1;
+        }
+        return Math.max(minSize, Math.min(maxSize, size));
+    }
+
+    private void assignFilters() {
+        List<RuntimeFilter> selected = Lists.newArrayList(filters);
+        if (selected.size() > sessionVariable.getRuntimeFiltersMaxNum()) {
+            // the fewer values the build side has, the more selective the filter is likely to be
+            selected.sort(Comparator.comparingLong(
+                    filter -> filter.getBuildNdv() < 0 ? Long.MAX_VALUE : filter.getBuildNdv()));
+            selected = selected.subList(0, sessionVariable.getRuntimeFiltersMaxNum());
+        }
+        int nextId = 0;
+        for (RuntimeFilter filter : filters) {
+            if (!selected.contains(filter)) {
+                continue;
+            }
+            filter.setId(nextId++);
+            filter.getBuilderNode().addRuntimeFilter(filter);
+            for (RuntimeFilterTarget target : filter.getTargets()) {
+                target.getNode().addRuntimeFilter(filter);
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("runtime filter {}, build ndv: {}", filter.getExplainString(true, null),
+                        filter.getBuildNdv());
+            }
+        }
+    }
+}
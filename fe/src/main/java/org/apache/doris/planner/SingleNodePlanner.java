@@ -25,6 +25,7 @@ import org.apache.doris.analysis.BaseTableRef;
 import org.apache.doris.analysis.BinaryPredicate;
 import org.apache.doris.analysis.CaseExpr;
 import org.apache.doris.analysis.CastExpr;
+import org.apache.doris.analysis.CompoundPredicate;
 import org.apache.doris.analysis.DescriptorTable;
 import org.apache.doris.analysis.Expr;
 import org.apache.doris.analysis.ExprSubstitutionMap;
@@ -681,6 +682,9 @@ public class SingleNodePlanner {
             if (!olapNode.isPreAggregation()) {
                 olapNode.setCanTurnOnPreAggr(false);
             }
+            // materialized views can only be selected by the aggregation they can answer
+            olapNode.setMatchedMaterializedViewIds(
+                    MaterializedViewSelector.selectMatchedViews(selectStmt, analyzer, olapNode));
         }
 
         for (int i = 1; i < selectStmt.getTableRefs().size(); ++i) {
@@ -804,6 +808,7 @@ public class SingleNodePlanner {
     // no need to remove?
     private PartitionColumnFilter createPartitionFilter(SlotDescriptor desc, List<Expr> conjuncts) {
         PartitionColumnFilter partitionColumnFilter = null;
+        CompoundPredicate orPredicate = null;
         for (Expr expr : conjuncts) {
             if (!expr.isBound(desc.getId())) {
                 continue;
@@ -858,6 +863,12 @@ public class SingleNodePlanner {
                     partitionColumnFilter = new PartitionColumnFilter();
                 }
                 partitionColumnFilter.setInPredicate(inPredicate);
+            } else if (expr instanceof CompoundPredicate
+                    && ((CompoundPredicate) expr).getOp() == CompoundPredicate.Operator.OR) {
+                // only the first one is used, to limit the number of ranges to look up
+                if (orPredicate == null) {
+                    orPredicate = (CompoundPredicate) expr;
+                }
             } else if (expr instanceof IsNullPredicate) {
                 IsNullPredicate isNullPredicate = (IsNullPredicate) expr;
                 if (!isNullPredicate.isSlotRefChildren() || isNullPredicate.isNotNull()) {
@@ -870,13 +881,58 @@ public class SingleNodePlanner {
                 NullLiteral nullLiteral = new NullLiteral();
                 partitionColumnFilter.setLowerBound(nullLiteral, true);
                 partitionColumnFilter.setUpperBound(nullLiteral, true);
+                orPredicate = null;
                 break;
             }
         }
+        if (orPredicate != null) {
+            // eg: k1 < 10 or k1 > 100, each disjunct is a filter, and the other conjuncts are applied to them
+            List<Expr> otherConjuncts = Lists.newArrayList();
+            for (Expr expr : conjuncts) {
+                if (!(expr instanceof CompoundPredicate)
+                        || ((CompoundPredicate) expr).getOp() != CompoundPredicate.Operator.OR) {
+                    otherConjuncts.add(expr);
+                }
+            }
+            List<PartitionColumnFilter> disjunctFilters = createDisjunctFilters(desc, orPredicate, otherConjuncts);
+            if (disjunctFilters != null) {
+                if (null == partitionColumnFilter) {
+                    partitionColumnFilter = new PartitionColumnFilter();
+                }
+                partitionColumnFilter.setDisjunctFilters(disjunctFilters);
+            }
+        }
         LOG.debug("partitionColumnFilter: {}", partitionColumnFilter);
         return partitionColumnFilter;
     }
 
+    // return null if any disjunct of orPredicate can not be used to prune partitions
+    private List<PartitionColumnFilter> createDisjunctFilters(SlotDescriptor desc, CompoundPredicate orPredicate,
+                                                              List<Expr> otherConjuncts) {
+        List<Expr> disjuncts = Lists.newArrayList();
+        collectDisjuncts(orPredicate, disjuncts);
+        List<PartitionColumnFilter> disjunctFilters = Lists.newArrayList();
+        for (Expr disjunct : disjuncts) {
+            List<Expr> disjunctConjuncts = Lists.newArrayList(otherConjuncts);
+            disjunctConjuncts.addAll(disjunct.getConjuncts());
+            PartitionColumnFilter disjunctFilter = createPartitionFilter(desc, disjunctConjuncts);
+            if (disjunctFilter == null) {
+                return null;
+            }
+            disjunctFilters.add(disjunctFilter);
+        }
+        return disjunctFilters;
+    }
+
+    private void collectDisjuncts(Expr expr, List<Expr> disjuncts) {
+        if (expr instanceof CompoundPredicate && ((CompoundPredicate) expr).getOp() == CompoundPredicate.Operator.OR) {
+            collectDisjuncts(expr.getChild(0), disjuncts);
+            collectDisjuncts(expr.getChild(1), disjuncts);
+        } else {
+            disjuncts.add(expr);
+        }
+    }
+
     /**
      * Returns plan tree for an inline view ref:
      * - predicates from the enclosing scope that can be evaluated directly within
@@ -0,0 +1,191 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.DateLiteral;
+import org.apache.doris.analysis.InPredicate;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.LargeIntLiteral;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.KeysType;
+import org.apache.doris.catalog.Tablet;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletZoneMap;
+import org.apache.doris.catalog.Type;
+
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Prune the tablets by column predicates and the zone maps (min/max values) of tablets reported by backends.
+ * For example:
+ *      where dt >= '2020-01-01' and k1 in (1, 2)
+ * a tablet is not scanned if the max value of dt is less than '2020-01-01', or neither 1 nor 2 is in
+ * the range of its min and max values of k1.
+ *
+ * Only the columns of integer and date types are used, whose values reported by backends are exact.
+ * A zone map is used only if it is collected from a version not smaller than the version to be scanned,
+ * otherwise rows loaded after it was collected may be missed.
+ *
+ * On indexes of AGG_KEYS and UNIQUE_KEYS, only key columns are used. The min/max values of a value
+ * column are collected from the rows before they are merged, which do not bound the merged value.
+ * eg: rows with v = 3 and v = 8 of the same key are merged to v = 11 by SUM, so 'v > 10' can not prune it.
+ *
+ * The min/max values of a zone map are parsed only once, and cached in the zone map for the following
+ * queries, see TabletZoneMap.getBounds().
+ *
+ * The zone maps are collected by TabletStatMgr, which runs on every FE, so followers and observers
+ * prune tablets too. But nothing is pruned by a FE before its first round of tablet stat collection.
+ */
+public class TabletZoneMapPruner {
+    private static final Logger LOG = LogManager.getLogger(TabletZoneMapPruner.class);
+
+    private final TabletInvertedIndex invertedIndex;
+    // columns of the scanned index which have filters
+    private final List<Column> filterColumns = Lists.newArrayList();
+    private final List<Type> filterTypes = Lists.newArrayList();
+    private final List<PartitionColumnFilter> filters = Lists.newArrayList();
+
+    public TabletZoneMapPruner(TabletInvertedIndex invertedIndex, KeysType keysType, List<Column> columns,
+                               Map<String, PartitionColumnFilter> columnFilters) {
+        this.invertedIndex = invertedIndex;
+        for (Column column : columns) {
+            PartitionColumnFilter filter = columnFilters.get(column.getName());
+            if (filter == null) {
+                continue;
+            }
+            if (keysType != KeysType.DUP_KEYS && !column.isKey()) {
+                // values of the column are merged
+                continue;
+            }
+            if (!column.getDataType().isFixedPointType() && !column.getDataType().isDateType()) {
+                continue;
+            }
+            filterColumns.add(column);
+            filterTypes.add(Type.fromPrimitiveType(column.getDataType()));
+            filters.add(filter);
+        }
+    }
+
+    public boolean isEmpty() {
+        return filters.isEmpty();
+    }
+
+    // return the tablets which may have rows matching the filters
+    public List<Tablet> prune(List<Tablet> tablets, long visibleVersion) {
+        List<Tablet> result = Lists.newArrayListWithCapacity(tablets.size());
+        for (Tablet tablet : tablets) {
+            TabletZoneMap zoneMap = invertedIndex.getTabletZoneMap(tablet.getId());
+            if (zoneMap == null || zoneMap.getVersion() < visibleVersion || mayMatch(zoneMap)) {
+                result.add(tablet);
+            }
+        }
+        LOG.debug("zone map prune tablets: {}/{}", result.size(), tablets.size());
+        return result;
+    }
+
+    private boolean mayMatch(TabletZoneMap zoneMap) {
+        for (int i = 0; i < filters.size(); i++) {
+            Column column = filterColumns.get(i);
+            int columnIndex = zoneMap.getColumnIndex(column.getName());
+            if (columnIndex == -1) {
+                continue;
+            }
+            Type type = filterTypes.get(i);
+            TabletZoneMap.ColumnBounds bounds = zoneMap.getBounds(columnIndex, type);
+            if (!mayMatch(filters.get(i), type, bounds.getMinValue(), bounds.getMaxValue(),
+                    zoneMap.hasNull(columnIndex))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mayMatch(PartitionColumnFilter filter, Type type,
+                                    LiteralExpr minValue, LiteralExpr maxValue, boolean hasNull) {
+        if (filter.lowerBound instanceof NullLiteral) {
+            // eg: k1 is null
+            return hasNull;
+        }
+        if (minValue == null || maxValue == null) {
+            return true;
+        }
+        if (isComparable(filter.lowerBound, type)) {
+            int ret = maxValue.compareLiteral(filter.lowerBound);
+            if (ret < 0 || (ret == 0 && !filter.lowerBoundInclusive)) {
+                return false;
+            }
+        }
+        if (isComparable(filter.upperBound, type)) {
+            int ret = minValue.compareLiteral(filter.upperBound);
+            if (ret > 0 || (ret == 0 && !filter.upperBoundInclusive)) {
+                return false;
+            }
+        }
+        InPredicate inPredicate = filter.getInPredicate();
+        if (inPredicate != null && !mayMatchInList(inPredicate, type, minValue, maxValue)) {
+            return false;
+        }
+        List<PartitionColumnFilter> disjunctFilters = filter.getDisjunctFilters();
+        if (disjunctFilters != null) {
+            for (PartitionColumnFilter disjunctFilter : disjunctFilters) {
+                if (mayMatch(disjunctFilter, type, minValue, maxValue, hasNull)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean mayMatchInList(InPredicate inPredicate, Type type,
+                                          LiteralExpr minValue, LiteralExpr maxValue) {
+        for (int i = 1; i < inPredicate.getChildren().size(); i++) {
+            if (!(inPredicate.getChild(i) instanceof LiteralExpr)) {
+                return true;
+            }
+            LiteralExpr value = (LiteralExpr) inPredicate.getChild(i);
+            if (!isComparable(value, type)
+                    || (minValue.compareLiteral(value) <= 0 && maxValue.compareLiteral(value) >= 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // only compare literals of the same kind as the column, eg: not a string literal with a date column
+    private static boolean isComparable(LiteralExpr literal, Type type) {
+        if (literal == null) {
+            return false;
+        }
+        if (type.isLargeIntType()) {
+            return literal instanceof IntLiteral || literal instanceof LargeIntLiteral;
+        }
+        if (type.isFixedPointType()) {
+            return literal instanceof IntLiteral;
+        }
+        return literal instanceof DateLiteral;
+    }
+}
@@ -0,0 +1,214 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+/*
+ * The audit event of a statement, which is submitted to AuditEventProcessor after the statement is executed
+ * and sent to the audit sinks asynchronously.
+ */
+public class AuditEvent {
+    private long timestamp;
+    private String client = "";
+    private String user = "";
+    private String db = "";
+    private String state = "";
+    private long queryTime = 0;
+    private long scanBytes = 0;
+    private long scanRows = 0;
+    private long cpuTimeMs = 0;
+    private long peakMemoryBytes = 0;
+    private long returnRows = 0;
+    private long stmtId = 0;
+    private String queryId = "NaN";
+    private boolean isQuery = false;
+    private String stmt = "";
+
+    private AuditEvent() {
+        timestamp = System.currentTimeMillis();
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getDb() {
+        return db;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public long getQueryTime() {
+        return queryTime;
+    }
+
+    public long getScanBytes() {
+        return scanBytes;
+    }
+
+    public long getScanRows() {
+        return scanRows;
+    }
+
+    public long getCpuTimeMs() {
+        return cpuTimeMs;
+    }
+
+    public long getPeakMemoryBytes() {
+        return peakMemoryBytes;
+    }
+
+    public long getReturnRows() {
+        return returnRows;
+    }
+
+    public long getStmtId() {
+        return stmtId;
+    }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public boolean isQuery() {
+        return isQuery;
+    }
+
+    public String getStmt() {
+        return stmt;
+    }
+
+    // the format of audit log file
+    public String toLogString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("|Client=").append(client);
+        sb.append("|User=").append(user);
+        sb.append("|Db=").append(db);
+        sb.append("|State=").append(state);
+        sb.append("|Time=").append(queryTime);
+        sb.append("|ScanBytes=").append(scanBytes);
+        sb.append("|ScanRows=").append(scanRows);
+        sb.append("|CpuTimeMs=").append(cpuTimeMs);
+        sb.append("|PeakMemoryBytes=").append(peakMemoryBytes);
+        sb.append("|ReturnRows=").append(returnRows);
+        sb.append("|StmtId=").append(stmtId);
+        sb.append("|QueryId=").append(queryId);
+        sb.append("|IsQuery=").append(isQuery ? 1 : 0);
+        // We put origin query stmt at the end of audit log, for parsing the log more convenient.
+        sb.append("|Stmt=").append(stmt);
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toLogString();
+    }
+
+    public static class Builder {
+        private AuditEvent event = new AuditEvent();
+
+        public Builder reset() {
+            event = new AuditEvent();
+            return this;
+        }
+
+        public Builder client(String client) {
+            event.client = String.valueOf(client);
+            return this;
+        }
+
+        public Builder user(String user) {
+            event.user = String.valueOf(user);
+            return this;
+        }
+
+        public Builder db(String db) {
+            event.db = String.valueOf(db);
+            return this;
+        }
+
+        public Builder state(String state) {
+            event.state = String.valueOf(state);
+            return this;
+        }
+
+        public Builder queryTime(long queryTime) {
+            event.queryTime = queryTime;
+            return this;
+        }
+
+        public Builder scanBytes(long scanBytes) {
+            event.scanBytes = scanBytes;
+            return this;
+        }
+
+        public Builder scanRows(long scanRows) {
+            event.scanRows = scanRows;
+            return this;
+        }
+
+        public Builder cpuTimeMs(long cpuTimeMs) {
+            event.cpuTimeMs = cpuTimeMs;
+            return this;
+        }
+
+        public Builder peakMemoryBytes(long peakMemoryBytes) {
+            event.peakMemoryBytes = peakMemoryBytes;
+            return this;
+        }
+
+        public Builder returnRows(long returnRows) {
+            event.returnRows = returnRows;
+            return this;
+        }
+
+        public Builder stmtId(long stmtId) {
+            event.stmtId = stmtId;
+            return this;
+        }
+
+        public Builder queryId(String queryId) {
+            event.queryId = String.valueOf(queryId);
+            return this;
+        }
+
+        public Builder isQuery(boolean isQuery) {
+            event.isQuery = isQuery;
+            return this;
+        }
+
+        public Builder stmt(String stmt) {
+            event.stmt = String.valueOf(stmt);
+            return this;
+        }
+
+        // the builder should be reset before building the next event
+        public AuditEvent build() {
+            return event;
+        }
+    }
+}
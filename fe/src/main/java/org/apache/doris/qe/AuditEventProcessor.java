@@ -0,0 +1,149 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.util.Daemon;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Send the audit events to the audit sinks asynchronously.
+ *
+ * Each sink has its own bounded lock-free queue and its own thread. The connection threads only put the
+ * events into the queues of the enabled sinks, and the events are dropped if a queue is full, so that a slow
+ * sink never blocks the execution of queries. The thread of a sink takes the events from its queue every
+ * 'audit_flush_interval_ms', and sends them in batches of at most 'audit_flush_batch_size' events.
+ * A hung sink, eg. a stream load waiting for its timeout, only delays and drops its own events.
+ */
+public class AuditEventProcessor {
+    private static final Logger LOG = LogManager.getLogger(AuditEventProcessor.class);
+
+    private static final AuditEventProcessor INSTANCE = new AuditEventProcessor(
+            ImmutableList.of(new LogAuditSink(), new StreamLoadAuditSink()));
+
+    private final List<SinkWorker> workers = Lists.newArrayList();
+
+    AuditEventProcessor(List<AuditSink> sinks) {
+        for (AuditSink sink : sinks) {
+            workers.add(new SinkWorker(sink));
+        }
+    }
+
+    public static AuditEventProcessor getInstance() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        for (SinkWorker worker : workers) {
+            worker.start();
+        }
+    }
+
+    // return false if the event is dropped by any enabled sink because its queue is full
+    public boolean submit(AuditEvent event) {
+        boolean accepted = true;
+        for (SinkWorker worker : workers) {
+            if (worker.sink.isEnabled() && !worker.offer(event)) {
+                accepted = false;
+            }
+        }
+        return accepted;
+    }
+
+    public int getQueueSize() {
+        int size = 0;
+        for (SinkWorker worker : workers) {
+            size += worker.queueSize.get();
+        }
+        return size;
+    }
+
+    public long getDroppedNum() {
+        long num = 0;
+        for (SinkWorker worker : workers) {
+            num += worker.droppedNum.get();
+        }
+        return num;
+    }
+
+    List<SinkWorker> getWorkers() {
+        return workers;
+    }
+
+    // sends the events of one sink in its own thread
+    static class SinkWorker extends Daemon {
+        private final AuditSink sink;
+        private final ConcurrentLinkedQueue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+        // the size of queue, because ConcurrentLinkedQueue.size() is not constant time
+        private final AtomicInteger queueSize = new AtomicInteger(0);
+        private final AtomicLong droppedNum = new AtomicLong(0);
+
+        SinkWorker(AuditSink sink) {
+            super("audit sink " + sink.getName(), Config.audit_flush_interval_ms);
+            this.sink = sink;
+        }
+
+        boolean offer(AuditEvent event) {
+            if (queueSize.incrementAndGet() > Config.audit_event_queue_size) {
+                queueSize.decrementAndGet();
+                if (droppedNum.incrementAndGet() % 1000 == 1) {
+                    LOG.warn("audit event queue of sink {} is full, {} events are dropped",
+                            sink.getName(), droppedNum.get());
+                }
+                return false;
+            }
+            queue.offer(event);
+            return true;
+        }
+
+        @Override
+        protected void runOneCycle() {
+            setInterval(Config.audit_flush_interval_ms);
+            int batchSize = Math.max(1, Config.audit_flush_batch_size);
+            while (true) {
+                List<AuditEvent> batch = Lists.newArrayList();
+                AuditEvent event;
+                while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                    batch.add(event);
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+                queueSize.addAndGet(-batch.size());
+                if (!sink.isEnabled()) {
+                    continue;
+                }
+                try {
+                    sink.send(batch);
+                } catch (Exception e) {
+                    LOG.warn("failed to send {} audit events to sink {}", batch.size(), sink.getName(), e);
+                }
+            }
+        }
+    }
+}
@@ -17,25 +17,15 @@
 
 package org.apache.doris.qe;
 
-// Helper class used to build audit log.
-// Now, implemented with StringBuilder
-public class AuditBuilder {
-    private StringBuilder sb;
+import java.util.List;
 
-    public AuditBuilder() {
-        sb = new StringBuilder();
-    }
+// The destination of audit events, which are sent in batches by AuditEventProcessor
+public interface AuditSink {
+    String getName();
 
-    public void reset() {
-        sb = new StringBuilder();
-    }
+    // the events are not sent to a disabled sink
+    boolean isEnabled();
 
-    public void put(String key, Object value) {
-        sb.append("|").append(key).append("=").append(value.toString());
-    }
-
-    @Override
-    public String toString() {
-        return sb.toString();
-    }
+    // the events of a failed batch are dropped
+    void send(List<AuditEvent> events) throws Exception;
 }
@@ -28,12 +28,14 @@ import org.apache.doris.thrift.TResourceInfo;
 import org.apache.doris.thrift.TUniqueId;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.nio.channels.SocketChannel;
 import java.util.List;
+import java.util.Map;
 
 // When one client connect in, we create a connect context for it.
 // We store session information here. Meanwhile ConnectScheduler all
@@ -92,7 +94,13 @@ public class ConnectContext {
     private Catalog catalog;
     private boolean isSend;
 
-    private AuditBuilder auditBuilder;
+    private AuditEvent.Builder auditEventBuilder;
+
+    // statements prepared by COM_STMT_PREPARE in this connection
+    private Map<Integer, ServerPreparedStmt> preparedStmts = Maps.newHashMap();
+    private int nextPreparedStmtId = 1;
+    // true when executing a prepared statement, whose result rows should be sent in binary protocol
+    private boolean isBinaryRowFormat = false;
 
     private String remoteIP;
 
@@ -120,7 +128,7 @@ public class ConnectContext {
         mysqlChannel = new MysqlChannel(channel);
         serializer = MysqlSerializer.newInstance();
         sessionVariable = VariableMgr.newSessionVariable();
-        auditBuilder = new AuditBuilder();
+        auditEventBuilder = new AuditEvent.Builder();
         command = MysqlCommand.COM_SLEEP;
         if (channel != null) {
             remoteIP = mysqlChannel.getRemoteIp();
@@ -151,8 +159,8 @@ public class ConnectContext {
         this.remoteIP = remoteIP;
     }
 
-    public AuditBuilder getAuditBuilder() {
-        return auditBuilder;
+    public AuditEvent.Builder getAuditEventBuilder() {
+        return auditEventBuilder;
     }
 
     public void setThreadLocalInfo() {
@@ -273,6 +281,32 @@ public class ConnectContext {
         this.executor = executor;
     }
 
+    public ServerPreparedStmt addPreparedStmt(String sql) {
+        ServerPreparedStmt stmt = new ServerPreparedStmt(nextPreparedStmtId++, sql);
+        preparedStmts.put(stmt.getId(), stmt);
+        return stmt;
+    }
+
+    public ServerPreparedStmt getPreparedStmt(int stmtId) {
+        return preparedStmts.get(stmtId);
+    }
+
+    public void removePreparedStmt(int stmtId) {
+        preparedStmts.remove(stmtId);
+    }
+
+    public int getPreparedStmtNum() {
+        return preparedStmts.size();
+    }
+
+    public boolean isBinaryRowFormat() {
+        return isBinaryRowFormat;
+    }
+
+    public void setBinaryRowFormat(boolean isBinaryRowFormat) {
+        this.isBinaryRowFormat = isBinaryRowFormat;
+    }
+
     public void cleanup() {
         mysqlChannel.close();
         threadLocalInfo.remove();
@@ -17,22 +17,26 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.analysis.LiteralExpr;
 import org.apache.doris.analysis.StatementBase;
 import org.apache.doris.analysis.UserIdentity;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.Column;
 import org.apache.doris.catalog.Database;
+import org.apache.doris.catalog.PrimitiveType;
 import org.apache.doris.catalog.Table;
 import org.apache.doris.cluster.ClusterNamespace;
-import org.apache.doris.common.AuditLog;
+import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.DdlException;
 import org.apache.doris.common.ErrorCode;
 import org.apache.doris.common.ErrorReport;
 import org.apache.doris.common.util.DebugUtil;
 import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.mysql.MysqlBinaryProtocol;
 import org.apache.doris.mysql.MysqlChannel;
 import org.apache.doris.mysql.MysqlCommand;
+import org.apache.doris.mysql.MysqlEofPacket;
 import org.apache.doris.mysql.MysqlPacket;
 import org.apache.doris.mysql.MysqlProto;
 import org.apache.doris.mysql.MysqlSerializer;
@@ -42,12 +46,14 @@ import org.apache.doris.thrift.TMasterOpResult;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousCloseException;
 import java.util.List;
@@ -96,18 +102,22 @@ public class ConnectProcessor {
         ctx.getState().setOk();
     }
 
-    private void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics) {
+    private void auditAfterExec(String origStmt, StatementBase parsedStmt, PQueryStatistics statistics,
+                                QueryResourceTracker resourceTracker) {
         // slow query
         long elapseMs = System.currentTimeMillis() - ctx.getStartTime();
         // query state log
-        ctx.getAuditBuilder().put("State", ctx.getState());
-        ctx.getAuditBuilder().put("Time", elapseMs);
+        AuditEvent.Builder auditEventBuilder = ctx.getAuditEventBuilder();
+        auditEventBuilder.state(String.valueOf(ctx.getState()));
+        auditEventBuilder.queryTime(elapseMs);
         Preconditions.checkNotNull(statistics); 
-        ctx.getAuditBuilder().put("ScanBytes", statistics.scan_bytes);
-        ctx.getAuditBuilder().put("ScanRows", statistics.scan_rows);
-        ctx.getAuditBuilder().put("ReturnRows", ctx.getReturnRows());
-        ctx.getAuditBuilder().put("StmtId", ctx.getStmtId());
-        ctx.getAuditBuilder().put("QueryId", ctx.queryId() == null ? "NaN" : DebugUtil.printId(ctx.queryId()));
+        auditEventBuilder.scanBytes(statistics.scan_bytes);
+        auditEventBuilder.scanRows(statistics.scan_rows);
+        auditEventBuilder.cpuTimeMs(resourceTracker == null ? 0 : resourceTracker.getCpuTimeMs());
+        auditEventBuilder.peakMemoryBytes(resourceTracker == null ? 0 : resourceTracker.getPeakMemBytes());
+        auditEventBuilder.returnRows(ctx.getReturnRows());
+        auditEventBuilder.stmtId(ctx.getStmtId());
+        auditEventBuilder.queryId(ctx.queryId() == null ? "NaN" : DebugUtil.printId(ctx.queryId()));
 
         if (ctx.getState().isQuery()) {
             MetricRepo.COUNTER_QUERY_ALL.increase(1L);
@@ -119,23 +129,18 @@ public class ConnectProcessor {
                 // ok query
                 MetricRepo.HISTO_QUERY_LATENCY.update(elapseMs);
             }
-            ctx.getAuditBuilder().put("IsQuery", 1);
+            auditEventBuilder.isQuery(true);
         } else {
-            ctx.getAuditBuilder().put("IsQuery", 0);
+            auditEventBuilder.isQuery(false);
         }
-        // We put origin query stmt at the end of audit log, for parsing the log more convenient.
         if (!ctx.getState().isQuery() && (parsedStmt != null && parsedStmt.needAuditEncryption())) {
-            ctx.getAuditBuilder().put("Stmt", parsedStmt.toSql());
+            auditEventBuilder.stmt(parsedStmt.toSql());
         } else {
-            ctx.getAuditBuilder().put("Stmt", origStmt);
+            auditEventBuilder.stmt(origStmt);
         }
 
-        AuditLog.getQueryAudit().log(ctx.getAuditBuilder().toString());
-
-        // slow query
-        if (elapseMs > Config.qe_slow_log_ms) {
-            AuditLog.getSlowAudit().log(ctx.getAuditBuilder().toString());
-        }
+        // written to audit log and slow query log asynchronously
+        AuditEventProcessor.getInstance().submit(auditEventBuilder.build());
     }
 
     // process COM_QUERY statement,
@@ -157,14 +162,19 @@ public class ConnectProcessor {
             ctx.getState().setError("Unsupported character set(UTF-8)");
             return;
         }
-        ctx.getAuditBuilder().reset();
-        ctx.getAuditBuilder().put("Client", ctx.getMysqlChannel().getRemoteHostPortString());
-        ctx.getAuditBuilder().put("User", ctx.getQualifiedUser());
-        ctx.getAuditBuilder().put("Db", ctx.getDatabase());
+        executeStmt(stmt, null);
+    }
+
+    // 'parsedStmt' is the parsed 'stmt' if not null
+    private void executeStmt(String stmt, StatementBase parsedStmt) {
+        ctx.getAuditEventBuilder().reset()
+                .client(ctx.getMysqlChannel().getRemoteHostPortString())
+                .user(ctx.getQualifiedUser())
+                .db(ctx.getDatabase());
 
         // execute this query.
         try {
-            executor = new StmtExecutor(ctx, stmt);
+            executor = parsedStmt == null ? new StmtExecutor(ctx, stmt) : new StmtExecutor(ctx, stmt, parsedStmt);
             ctx.setExecutor(executor);
             executor.execute();
             // set if this is a QueryStmt
@@ -186,7 +196,114 @@ public class ConnectProcessor {
         // audit after exec
         // replace '\n' to '\\n' to make string in one line
         auditAfterExec(stmt.replace("\n", " \\n"), executor.getParsedStmt(), 
-                executor.getQueryStatisticsForAuditLog());
+                executor.getQueryStatisticsForAuditLog(), executor.getQueryResourceTracker());
+    }
+
+    // process COM_STMT_PREPARE, reply the statement id and the number of parameters.
+    // column definitions of result set are sent when the statement is executed.
+    private void handleStmtPrepare() throws IOException {
+        MetricRepo.COUNTER_REQUEST_ALL.increase(1L);
+        String sql = new String(MysqlProto.readEofString(packetBuf), "UTF-8");
+        if (ctx.getPreparedStmtNum() >= Config.max_prepared_stmt_num_per_connection) {
+            ctx.getState().setError("Reach limit of prepared statements: "
+                    + Config.max_prepared_stmt_num_per_connection);
+            return;
+        }
+        ServerPreparedStmt preparedStmt = ctx.addPreparedStmt(sql);
+
+        MysqlChannel channel = ctx.getMysqlChannel();
+        MysqlSerializer serializer = ctx.getSerializer();
+        serializer.reset();
+        // status
+        serializer.writeInt1(0);
+        serializer.writeInt4(preparedStmt.getId());
+        // number of columns
+        serializer.writeInt2(0);
+        serializer.writeInt2(preparedStmt.getParamNum());
+        // reserved
+        serializer.writeInt1(0);
+        // warning count
+        serializer.writeInt2(0);
+        channel.sendOnePacket(serializer.toByteBuffer());
+        if (preparedStmt.getParamNum() > 0) {
+            for (int i = 0; i < preparedStmt.getParamNum(); i++) {
+                serializer.reset();
+                serializer.writeField("?", PrimitiveType.VARCHAR);
+                channel.sendOnePacket(serializer.toByteBuffer());
+            }
+            serializer.reset();
+            MysqlEofPacket eofPacket = new MysqlEofPacket(ctx.getState());
+            eofPacket.writeTo(serializer);
+            channel.sendOnePacket(serializer.toByteBuffer());
+        }
+        channel.flush();
+        ctx.getState().setNoop();
+    }
+
+    // process COM_STMT_EXECUTE, bind the parameters to prepared statement and execute it.
+    private void handleStmtExecute() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ServerPreparedStmt preparedStmt = ctx.getPreparedStmt(stmtId);
+        if (preparedStmt == null) {
+            ctx.getState().setError("Unknown prepared statement handler (" + stmtId + ") given to execute");
+            return;
+        }
+        // flags and iteration count are not used
+        MysqlProto.readInt1(packetBuf);
+        MysqlProto.readInt4(packetBuf);
+
+        String stmt;
+        StatementBase parsedStmt = null;
+        try {
+            int paramNum = preparedStmt.getParamNum();
+            List<String> literals = Lists.newArrayListWithCapacity(paramNum);
+            if (paramNum > 0) {
+                byte[] nullBitmap = MysqlProto.readFixedString(packetBuf, (paramNum + 7) / 8);
+                boolean newParamsBound = MysqlProto.readInt1(packetBuf) == 1;
+                if (newParamsBound) {
+                    int[] paramTypes = new int[paramNum];
+                    for (int i = 0; i < paramNum; i++) {
+                        paramTypes[i] = MysqlProto.readInt2(packetBuf);
+                    }
+                    preparedStmt.setParamTypes(paramTypes);
+                }
+                if (preparedStmt.getParamTypes() == null) {
+                    ctx.getState().setError("Types of parameters are not sent");
+                    return;
+                }
+                for (int i = 0; i < paramNum; i++) {
+                    if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+                        literals.add("NULL");
+                    } else {
+                        literals.add(MysqlBinaryProtocol.readParamAsLiteral(packetBuf,
+                                preparedStmt.getParamTypes()[i]));
+                    }
+                }
+            }
+            stmt = preparedStmt.bind(literals);
+            if (Config.parsed_stmt_cache_size > 0) {
+                List<LiteralExpr> params = Lists.newArrayListWithCapacity(paramNum);
+                for (String literal : literals) {
+                    params.add(ServerPreparedStmt.toLiteralExpr(literal));
+                }
+                parsedStmt = preparedStmt.bindTemplate(ctx.getSessionVariable().getSqlMode(), params);
+            }
+        } catch (AnalysisException | BufferUnderflowException e) {
+            LOG.warn("Failed to read parameters of prepared statement {}", stmtId, e);
+            ctx.getState().setError("Invalid parameters: " + e.getMessage());
+            return;
+        }
+
+        // reset after the result is sent in finalizeCommand(), which sends the result forwarded from master
+        ctx.setBinaryRowFormat(true);
+        executeStmt(stmt, parsedStmt);
+    }
+
+    private void handleStmtClose() {
+        int stmtId = MysqlProto.readInt4(packetBuf);
+        ctx.removePreparedStmt(stmtId);
+        // no response for COM_STMT_CLOSE
+        ctx.getState().setNoop();
     }
 
     // Get the column definitions of a table
@@ -266,6 +383,20 @@ public class ConnectProcessor {
             case COM_PING:
                 handlePing();
                 break;
+            case COM_STMT_PREPARE:
+                handleStmtPrepare();
+                break;
+            case COM_STMT_EXECUTE:
+                handleStmtExecute();
+                ctx.setStartTime();
+                break;
+            case COM_STMT_CLOSE:
+                handleStmtClose();
+                break;
+            case COM_STMT_RESET:
+                // long data is not supported, so there is nothing to reset
+                ctx.getState().setOk();
+                break;
             default:
                 ctx.getState().setError("Unsupported command(" + command + ")");
                 LOG.warn("Unsupported command(" + command + ")");
@@ -416,10 +547,14 @@ public class ConnectProcessor {
             return;
         }
 
-        // dispatch
-        dispatch();
-        // finalize
-        finalizeCommand();
+        try {
+            // dispatch
+            dispatch();
+            // finalize
+            finalizeCommand();
+        } finally {
+            ctx.setBinaryRowFormat(false);
+        }
 
         ctx.setCommand(MysqlCommand.COM_SLEEP);
     }
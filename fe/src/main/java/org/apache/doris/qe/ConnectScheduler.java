@@ -18,6 +18,7 @@
 package org.apache.doris.qe;
 
 import org.apache.doris.catalog.Catalog;
+import org.apache.doris.mysql.MysqlHandshakePacket;
 import org.apache.doris.mysql.MysqlProto;
 import org.apache.doris.mysql.privilege.PrivPredicate;
 
@@ -27,6 +28,7 @@ import com.google.common.collect.Maps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Timer;
@@ -80,7 +82,7 @@ public class ConnectScheduler {
         if (context == null) {
             return false;
         }
-        context.setConnectionId(nextConnectionId.getAndAdd(1));
+        context.setConnectionId(nextConnectionId());
         if (executor.submit(new LoopHandler(context)) == null) {
             LOG.warn("Submit one thread failed.");
             return false;
@@ -88,6 +90,42 @@ public class ConnectScheduler {
         return true;
     }
 
+    public int nextConnectionId() {
+        return nextConnectionId.getAndAdd(1);
+    }
+
+    // Negotiate with client and register this connection.
+    // return true if the connection is ready to process commands.
+    // Caller should unregister and close ConnectContext if return false.
+    public boolean openConnection(ConnectContext context) throws IOException {
+        return openConnection(context, null);
+    }
+
+    // handshakePacket is the handshake packet already sent to client, or null to send it here
+    public boolean openConnection(ConnectContext context, MysqlHandshakePacket handshakePacket) throws IOException {
+        // Set thread local info
+        context.setThreadLocalInfo();
+        context.setConnectScheduler(this);
+        if (handshakePacket == null) {
+            handshakePacket = MysqlProto.sendHandshake(context);
+        }
+        // authenticate check failed.
+        if (!MysqlProto.negotiate(context, handshakePacket)) {
+            return false;
+        }
+
+        if (registerConnection(context)) {
+            MysqlProto.sendResponsePacket(context);
+        } else {
+            context.getState().setError("Reach limit of connections");
+            MysqlProto.sendResponsePacket(context);
+            return false;
+        }
+
+        context.setStartTime();
+        return true;
+    }
+
     // Register one connection with its connection id.
     public synchronized boolean registerConnection(ConnectContext ctx) {
         if (numberConnection >= maxConnections) {
@@ -151,23 +189,10 @@ public class ConnectScheduler {
         @Override
         public void run() {
             try {
-                // Set thread local info
-                context.setThreadLocalInfo();
-                context.setConnectScheduler(ConnectScheduler.this);
-                // authenticate check failed.
-                if (!MysqlProto.negotiate(context)) {
-                    return;
-                }
-
-                if (registerConnection(context)) {
-                    MysqlProto.sendResponsePacket(context);
-                } else {
-                    context.getState().setError("Reach limit of connections");
-                    MysqlProto.sendResponsePacket(context);
+                if (!openConnection(context)) {
                     return;
                 }
 
-                context.setStartTime();
                 ConnectProcessor processor = new ConnectProcessor(context);
                 processor.loop();
             } catch (Exception e) {
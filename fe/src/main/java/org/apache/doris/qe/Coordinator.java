@@ -187,6 +187,10 @@ public class Coordinator {
     private boolean needReport;
 
     private String clusterName;
+    // resource usage aggregated from the profiles reported by instances
+    private final QueryResourceTracker resourceTracker = new QueryResourceTracker();
+    // whether to cancel the query if its resource usage exceeds the limits in configs
+    private boolean checkResourceLimit = false;
     // parallel execute
     private final TUniqueId nextInstanceId;
 
@@ -256,6 +260,10 @@ public class Coordinator {
         return queryStatus;
     }
 
+    public QueryResourceTracker getResourceTracker() {
+        return resourceTracker;
+    }
+
     public RuntimeProfile getQueryProfile() {
         return queryProfile;
     }
@@ -402,6 +410,11 @@ public class Coordinator {
                     addressToBackendID.get(topParams.instanceExecParams.get(0).host),
                     toBrpcHost(topParams.instanceExecParams.get(0).host),
                     queryOptions.query_timeout * 1000);
+            if (QueryResourceTracker.isEnabled()) {
+                // let backends report the profiles of running instances periodically
+                this.queryOptions.setIs_report_success(true);
+                checkResourceLimit = true;
+            }
         } else {
             // This is a load process.
             this.queryOptions.setIs_report_success(true);
@@ -1133,6 +1146,17 @@ public class Coordinator {
                     builder.toString());
         }
 
+        if (params.isSetProfile()) {
+            resourceTracker.update(params.getFragment_instance_id(), params.getProfile(), execState.done);
+            if (checkResourceLimit) {
+                String reason = resourceTracker.checkLimit();
+                if (reason != null) {
+                    LOG.warn("cancel query {}, {}", DebugUtil.printId(queryId), reason);
+                    updateStatus(new Status(TStatusCode.CANCELLED, reason), params.getFragment_instance_id());
+                }
+            }
+        }
+
         Status status = new Status(params.status);
         // for now, abort the query if we see any error except if the error is cancelled
         // and returned_all_results_ is true.
@@ -0,0 +1,48 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.AuditLog;
+import org.apache.doris.common.Config;
+
+import java.util.List;
+
+// Write audit events to the audit log files, and the slow queries to the slow query log
+public class LogAuditSink implements AuditSink {
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void send(List<AuditEvent> events) {
+        for (AuditEvent event : events) {
+            String log = event.toLogString();
+            AuditLog.getQueryAudit().log(log);
+            if (event.getQueryTime() > Config.qe_slow_log_ms) {
+                AuditLog.getSlowAudit().log(log);
+            }
+        }
+    }
+}
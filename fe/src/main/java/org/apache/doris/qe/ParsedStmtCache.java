@@ -0,0 +1,103 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.common.Config;
+import org.apache.doris.persist.OperationType;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Cache of parsed select statements, keyed by sql and sql mode.
+ *
+ * The cached statements are not analyzed. Every hit returns a clone, which is analyzed and planned
+ * by the caller as a newly parsed statement. All cached statements, including the templates of
+ * prepared statements (see ServerPreparedStmt), are invalidated by bumping the version whenever
+ * a DDL is executed on this FE or a schema change is replayed from journal.
+ */
+public class ParsedStmtCache {
+    private static final ParsedStmtCache INSTANCE = new ParsedStmtCache();
+
+    // journals which change the schema of databases, tables or functions
+    private static final ImmutableSet<Short> SCHEMA_CHANGE_OPS = ImmutableSet.of(
+            OperationType.OP_CREATE_DB, OperationType.OP_DROP_DB, OperationType.OP_RENAME_DB,
+            OperationType.OP_CREATE_TABLE, OperationType.OP_DROP_TABLE, OperationType.OP_RENAME_TABLE,
+            OperationType.OP_RECOVER_TABLE, OperationType.OP_TRUNCATE_TABLE,
+            OperationType.OP_ADD_PARTITION, OperationType.OP_DROP_PARTITION, OperationType.OP_RENAME_PARTITION,
+            OperationType.OP_DROP_ROLLUP, OperationType.OP_RENAME_ROLLUP, OperationType.OP_ALTER_JOB_V2,
+            OperationType.OP_ADD_FUNCTION, OperationType.OP_DROP_FUNCTION);
+
+    private final Cache<String, SelectStmt> cache;
+    private final AtomicLong version = new AtomicLong(0);
+
+    private ParsedStmtCache() {
+        cache = CacheBuilder.newBuilder().maximumSize(Math.max(0, Config.parsed_stmt_cache_size)).build();
+    }
+
+    public static ParsedStmtCache getInstance() {
+        return INSTANCE;
+    }
+
+    private static String getKey(String sql, long sqlMode) {
+        return sqlMode + "|" + sql.trim();
+    }
+
+    // return a clone of the cached statement, or null if not cached
+    public StatementBase get(String sql, long sqlMode) {
+        if (Config.parsed_stmt_cache_size <= 0) {
+            return null;
+        }
+        SelectStmt stmt = cache.getIfPresent(getKey(sql, sqlMode));
+        return stmt == null ? null : stmt.clone();
+    }
+
+    // should be called before the statement is analyzed
+    public void put(String sql, long sqlMode, StatementBase stmt) {
+        if (Config.parsed_stmt_cache_size <= 0 || !isCacheable(stmt)) {
+            return;
+        }
+        cache.put(getKey(sql, sqlMode), (SelectStmt) ((SelectStmt) stmt).clone());
+    }
+
+    // the statements parsed before the version is changed should not be used
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void invalidateAll() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public void invalidateIfSchemaChanged(short opCode) {
+        if (SCHEMA_CHANGE_OPS.contains(opCode)) {
+            invalidateAll();
+        }
+    }
+
+    // only plain select statements are cloned completely
+    static boolean isCacheable(StatementBase stmt) {
+        return stmt instanceof SelectStmt && ((SelectStmt) stmt).getValueList() == null;
+    }
+}
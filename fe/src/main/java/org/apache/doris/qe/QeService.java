@@ -17,7 +17,9 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.common.Config;
 import org.apache.doris.mysql.MysqlServer;
+import org.apache.doris.mysql.NMysqlServer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -45,7 +47,11 @@ public class QeService {
             LOG.error("Help module failed, because:", e);
         }
         this.port = port;
-        mysqlServer = new MysqlServer(port, scheduler);
+        if (Config.mysql_service_nio_enabled) {
+            mysqlServer = new NMysqlServer(port, scheduler);
+        } else {
+            mysqlServer = new MysqlServer(port, scheduler);
+        }
     }
 
     public void start() throws IOException {
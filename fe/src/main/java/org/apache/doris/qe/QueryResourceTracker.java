@@ -0,0 +1,157 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.thrift.TCounter;
+import org.apache.doris.thrift.TRuntimeProfileNode;
+import org.apache.doris.thrift.TRuntimeProfileTree;
+import org.apache.doris.thrift.TUniqueId;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+
+/*
+ * Track the resource usage of a query, which is aggregated from the runtime profiles reported by
+ * its fragment instances.
+ *
+ * The profile of an instance is cumulative, so only the latest one of each instance is kept:
+ * 1. memory: the max 'PeakMemoryUsage' of the profile nodes of an instance. The memory of the query
+ *    is the sum of its running instances, and the peak memory is the max of it ever seen.
+ * 2. scan rows and bytes: the sum of 'RawRowsRead' and 'CompressedBytesRead' of scan nodes.
+ * 3. cpu time: the sum of the user and system time of the threads measured by backends.
+ *
+ * The backends report the profiles of running instances periodically only if 'is_report_success'
+ * is set, see Config.enable_query_resource_tracking.
+ */
+public class QueryResourceTracker {
+    private static final String PEAK_MEMORY_USAGE = "PeakMemoryUsage";
+    private static final String RAW_ROWS_READ = "RawRowsRead";
+    private static final String COMPRESSED_BYTES_READ = "CompressedBytesRead";
+    private static final String USER_TIME_SUFFIX = "UserTime";
+    private static final String SYS_TIME_SUFFIX = "SysTime";
+
+    private static class InstanceUsage {
+        long memBytes = 0;
+        long scanRows = 0;
+        long scanBytes = 0;
+        long cpuTimeNs = 0;
+        boolean done = false;
+    }
+
+    private final Map<TUniqueId, InstanceUsage> instanceUsages = Maps.newHashMap();
+
+    // sum of the instances, protected by this
+    private long memBytes = 0;
+    private long peakMemBytes = 0;
+    private long scanRows = 0;
+    private long scanBytes = 0;
+    private long cpuTimeNs = 0;
+
+    public static boolean isEnabled() {
+        return Config.enable_query_resource_tracking || Config.query_max_mem_bytes > 0
+                || Config.query_max_scan_bytes > 0 || Config.query_max_cpu_time_second > 0;
+    }
+
+    public synchronized void update(TUniqueId instanceId, TRuntimeProfileTree profile, boolean done) {
+        InstanceUsage oldUsage = instanceUsages.get(instanceId);
+        if (oldUsage != null && oldUsage.done) {
+            return;
+        }
+        InstanceUsage usage = parseProfile(profile);
+        if (oldUsage != null) {
+            memBytes -= oldUsage.memBytes;
+            scanRows -= oldUsage.scanRows;
+            scanBytes -= oldUsage.scanBytes;
+            cpuTimeNs -= oldUsage.cpuTimeNs;
+        }
+        memBytes += usage.memBytes;
+        scanRows += usage.scanRows;
+        scanBytes += usage.scanBytes;
+        cpuTimeNs += usage.cpuTimeNs;
+        peakMemBytes = Math.max(peakMemBytes, memBytes);
+        if (done) {
+            // the memory of a finished instance is released
+            memBytes -= usage.memBytes;
+            usage.memBytes = 0;
+            usage.done = true;
+        }
+        instanceUsages.put(instanceId, usage);
+    }
+
+    private static InstanceUsage parseProfile(TRuntimeProfileTree profile) {
+        InstanceUsage usage = new InstanceUsage();
+        if (profile == null || profile.getNodes() == null) {
+            return usage;
+        }
+        for (TRuntimeProfileNode node : profile.getNodes()) {
+            if (node.getCounters() == null) {
+                continue;
+            }
+            for (TCounter counter : node.getCounters()) {
+                String name = counter.getName();
+                if (name.equals(PEAK_MEMORY_USAGE)) {
+                    usage.memBytes = Math.max(usage.memBytes, counter.getValue());
+                } else if (name.equals(RAW_ROWS_READ)) {
+                    usage.scanRows += counter.getValue();
+                } else if (name.equals(COMPRESSED_BYTES_READ)) {
+                    usage.scanBytes += counter.getValue();
+                } else if (name.endsWith(USER_TIME_SUFFIX) || name.endsWith(SYS_TIME_SUFFIX)) {
+                    usage.cpuTimeNs += counter.getValue();
+                }
+            }
+        }
+        return usage;
+    }
+
+    // return the reason if the query exceeds any limit in configs, otherwise return null
+    public synchronized String checkLimit() {
+        if (Config.query_max_mem_bytes > 0 && memBytes > Config.query_max_mem_bytes) {
+            return "memory of query " + memBytes + " bytes exceeds limit " + Config.query_max_mem_bytes;
+        }
+        if (Config.query_max_scan_bytes > 0 && scanBytes > Config.query_max_scan_bytes) {
+            return "scan bytes of query " + scanBytes + " exceeds limit " + Config.query_max_scan_bytes;
+        }
+        if (Config.query_max_cpu_time_second > 0 && getCpuTimeMs() > Config.query_max_cpu_time_second * 1000) {
+            return "cpu time of query " + getCpuTimeMs() + " ms exceeds limit "
+                    + Config.query_max_cpu_time_second + " seconds";
+        }
+        return null;
+    }
+
+    public synchronized long getMemBytes() {
+        return memBytes;
+    }
+
+    public synchronized long getPeakMemBytes() {
+        return peakMemBytes;
+    }
+
+    public synchronized long getScanRows() {
+        return scanRows;
+    }
+
+    public synchronized long getScanBytes() {
+        return scanBytes;
+    }
+
+    public synchronized long getCpuTimeMs() {
+        return cpuTimeNs / 1000000;
+    }
+}
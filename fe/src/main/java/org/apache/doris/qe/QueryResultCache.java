@@ -0,0 +1,312 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.FunctionCallExpr;
+import org.apache.doris.analysis.InformationFunction;
+import org.apache.doris.analysis.InlineViewRef;
+import org.apache.doris.analysis.OrderByElement;
+import org.apache.doris.analysis.QueryStmt;
+import org.apache.doris.analysis.SelectListItem;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.Subquery;
+import org.apache.doris.analysis.TableRef;
+import org.apache.doris.analysis.UnionStmt;
+import org.apache.doris.analysis.UnionStmt.UnionOperand;
+import org.apache.doris.catalog.Function;
+import org.apache.doris.common.Config;
+import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.planner.OlapScanNode;
+import org.apache.doris.planner.ScanNode;
+import org.apache.doris.thrift.TFunctionBinaryType;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Cache of query results, keyed by sql and the versions of all partitions scanned by the query.
+ *
+ * The result of a select statement which only scans olap tables is put into the cache after it
+ * is sent to client completely. A following statement with the same sql gets the same plan, and
+ * if the visible versions of the scanned partitions are not changed, the cached rows are sent
+ * without executing the plan. Any load, delete or schema change creates new versions or indexes,
+ * so that stale entries are never hit, and are evicted as least recently used.
+ *
+ * Rows are cached in the text protocol format received from backends.
+ *
+ * A statement is cached only if all its expressions are deterministic, which are checked on the analyzed
+ * statement, including the definitions of views and subqueries. Any function which is not a builtin one,
+ * eg: an UDF, is regarded as non-deterministic.
+ */
+public class QueryResultCache {
+    private static final QueryResultCache INSTANCE = new QueryResultCache();
+
+    // builtin functions whose results depend on time, randomness or session
+    private static final ImmutableSet<String> NON_DETERMINISTIC_FUNCTIONS = ImmutableSet.of(
+            "now", "curdate", "curtime", "current_date", "current_time", "current_timestamp", "localtime",
+            "localtimestamp", "utc_timestamp", "rand", "random", "uuid", "sleep", "connection_id",
+            "database", "schema", "user", "current_user");
+
+    // extra bytes of every cached row
+    private static final int ROW_OVERHEAD_BYTES = 16;
+
+    private volatile Cache<String, List<byte[]>> cache;
+    // the max size of current cache, the cache is rebuilt if 'query_result_cache_max_size_bytes' is changed
+    private volatile long maxSizeBytes = -1;
+
+    private QueryResultCache() {
+        getCache();
+    }
+
+    private Cache<String, List<byte[]>> getCache() {
+        long newMaxSizeBytes = Math.max(0, Config.query_result_cache_max_size_bytes);
+        if (newMaxSizeBytes != maxSizeBytes) {
+            synchronized (this) {
+                if (newMaxSizeBytes != maxSizeBytes) {
+                    cache = CacheBuilder.newBuilder()
+                            .maximumWeight(newMaxSizeBytes)
+                            .weigher((String key, List<byte[]> rows) -> (int) Math.min(Integer.MAX_VALUE,
+                                    key.length() + getResultSize(rows)))
+                            .build();
+                    maxSizeBytes = newMaxSizeBytes;
+                }
+            }
+        }
+        return cache;
+    }
+
+    public static QueryResultCache getInstance() {
+        return INSTANCE;
+    }
+
+    /*
+     * Returns the cache key of the planned query, or null if its result can not be cached.
+     * The key consists of the session variables which affect the result, the normalized sql, and the
+     * selected index and partition versions of every scan node.
+     */
+    public String getCacheKey(ConnectContext context, String sql, QueryStmt stmt, List<ScanNode> scanNodes) {
+        if (Config.query_result_cache_max_size_bytes <= 0
+                || !context.getSessionVariable().isEnableQueryResultCache()
+                || scanNodes.isEmpty() || !isDeterministic(stmt)) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(context.getSessionVariable().getSqlMode()).append('|')
+                .append(context.getSessionVariable().getTimeZone()).append('|')
+                .append(normalizeSql(sql));
+        for (ScanNode scanNode : scanNodes) {
+            if (!(scanNode instanceof OlapScanNode)) {
+                return null;
+            }
+            OlapScanNode olapScanNode = (OlapScanNode) scanNode;
+            long indexId = olapScanNode.getSelectedIndexId();
+            sb.append('|').append(olapScanNode.getOlapTable().getId()).append(':').append(indexId);
+            if (indexId != -1) {
+                sb.append(':').append(olapScanNode.getOlapTable().getSchemaHashByIndexId(indexId));
+            }
+            for (Map.Entry<Long, Long> entry : olapScanNode.getSelectedPartitionVersions().entrySet()) {
+                sb.append(',').append(entry.getKey()).append('=').append(entry.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    // return the cached rows, or null if not cached
+    public List<byte[]> get(String key) {
+        List<byte[]> rows = getCache().getIfPresent(key);
+        if (MetricRepo.isInit.get()) {
+            if (rows != null) {
+                MetricRepo.COUNTER_QUERY_RESULT_CACHE_HIT.increase(1L);
+            } else {
+                MetricRepo.COUNTER_QUERY_RESULT_CACHE_MISS.increase(1L);
+            }
+        }
+        return rows;
+    }
+
+    public void put(String key, List<byte[]> rows) {
+        if (getResultSize(rows) > Config.query_result_cache_max_entry_size_bytes) {
+            return;
+        }
+        getCache().put(key, rows);
+    }
+
+    public long size() {
+        return getCache().size();
+    }
+
+    // copy the row without changing its position, the row is sent to client after copied
+    public static byte[] copyRow(ByteBuffer row) {
+        byte[] bytes = new byte[row.remaining()];
+        row.duplicate().get(bytes);
+        return bytes;
+    }
+
+    public static long getResultSize(List<byte[]> rows) {
+        long size = 0;
+        for (byte[] row : rows) {
+            size += row.length + ROW_OVERHEAD_BYTES;
+        }
+        return size;
+    }
+
+    /*
+     * Collapse the whitespaces out of quoted strings and remove the trailing semicolons, so that
+     * statements only different in formatting share the same entry.
+     */
+    static String normalizeSql(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == '\\' && i + 1 < sql.length()) {
+                    sb.append(sql.charAt(++i));
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                quote = c;
+            }
+            sb.append(c);
+        }
+        int end = sb.length();
+        while (end > 0 && (sb.charAt(end - 1) == ';' || sb.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    // return true if the result of the analyzed statement only depends on the scanned data
+    static boolean isDeterministic(QueryStmt stmt) {
+        if (stmt instanceof SelectStmt) {
+            SelectStmt selectStmt = (SelectStmt) stmt;
+            for (SelectListItem item : selectStmt.getSelectList().getItems()) {
+                if (!isDeterministic(item.getExpr())) {
+                    return false;
+                }
+            }
+            if (!isDeterministic(selectStmt.getWhereClause()) || !isDeterministic(selectStmt.getHavingPred())
+                    || !isDeterministic(selectStmt.getGroupingExprs())) {
+                return false;
+            }
+            if (selectStmt.getAggInfo() != null
+                    && (!isDeterministic(selectStmt.getAggInfo().getGroupingExprs())
+                    || !isDeterministic(selectStmt.getAggInfo().getAggregateExprs()))) {
+                return false;
+            }
+            // views are replaced by inline views when analyzed
+            for (TableRef tableRef : selectStmt.getTableRefs()) {
+                if (!isDeterministic(tableRef.getOnClause())) {
+                    return false;
+                }
+                if (tableRef instanceof InlineViewRef && !isDeterministic(((InlineViewRef) tableRef).getViewStmt())) {
+                    return false;
+                }
+            }
+        } else if (stmt instanceof UnionStmt) {
+            UnionStmt unionStmt = (UnionStmt) stmt;
+            for (UnionOperand operand : Iterables.concat(unionStmt.getOperands(),
+                    unionStmt.getDistinctOperands(), unionStmt.getAllOperands())) {
+                if (!isDeterministic(operand.getQueryStmt())) {
+                    return false;
+                }
+            }
+        } else {
+            return false;
+        }
+
+        if (!isDeterministic(stmt.getResultExprs())) {
+            return false;
+        }
+        if (stmt.getOrderByElements() != null) {
+            for (OrderByElement element : stmt.getOrderByElements()) {
+                if (!isDeterministic(element.getExpr())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDeterministic(List<? extends Expr> exprs) {
+        if (exprs == null) {
+            return true;
+        }
+        for (Expr expr : exprs) {
+            if (!isDeterministic(expr)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDeterministic(Expr expr) {
+        if (expr == null) {
+            return true;
+        }
+        if (expr instanceof InformationFunction) {
+            // eg: user(), database()
+            return false;
+        }
+        if (expr instanceof Subquery && !isDeterministic(((Subquery) expr).getStatement())) {
+            return false;
+        }
+        if (expr instanceof FunctionCallExpr && !isDeterministicFunction((FunctionCallExpr) expr)) {
+            return false;
+        }
+        return isDeterministic(expr.getChildren());
+    }
+
+    private static boolean isDeterministicFunction(FunctionCallExpr expr) {
+        String fnName = expr.getFnName().getFunction().toLowerCase();
+        if (NON_DETERMINISTIC_FUNCTIONS.contains(fnName)) {
+            return false;
+        }
+        if (fnName.equals("unix_timestamp") && expr.getChildren().isEmpty()) {
+            // the current time if no argument
+            return false;
+        }
+        // a function which is not resolved or not builtin is unknown, eg: an UDF
+        Function fn = expr.getFn();
+        if (fn == null) {
+            return false;
+        }
+        return fn.getBinaryType() == TFunctionBinaryType.BUILTIN;
+    }
+}
@@ -35,6 +35,7 @@ public final class QueryStatisticsItem {
     private final List<FragmentInstanceInfo> fragmentInstanceInfos;
     // root query profile
     private final RuntimeProfile queryProfile;
+    private final QueryResourceTracker resourceTracker;
 
     private QueryStatisticsItem(Builder builder) {
         this.queryId = builder.queryId;
@@ -45,6 +46,7 @@ public final class QueryStatisticsItem {
         this.queryStartTime = builder.queryStartTime;
         this.fragmentInstanceInfos = builder.fragmentInstanceInfos;
         this.queryProfile = builder.queryProfile;
+        this.resourceTracker = builder.resourceTracker;
     }
 
     public String getDb() {
@@ -80,6 +82,10 @@ public final class QueryStatisticsItem {
         return queryProfile;
     }
 
+    public QueryResourceTracker getResourceTracker() {
+        return resourceTracker;
+    }
+
     public static final class Builder {
         private String queryId;
         private String db;
@@ -89,6 +95,7 @@ public final class QueryStatisticsItem {
         private long queryStartTime;
         private List<FragmentInstanceInfo> fragmentInstanceInfos;
         private RuntimeProfile queryProfile;
+        private QueryResourceTracker resourceTracker;
 
         public Builder() {
             fragmentInstanceInfos = Lists.newArrayList();
@@ -134,6 +141,11 @@ public final class QueryStatisticsItem {
             return this;
         }
 
+        public Builder resourceTracker(QueryResourceTracker resourceTracker) {
+            this.resourceTracker = resourceTracker;
+            return this;
+        }
+
         public QueryStatisticsItem build() {
             initDefaultValue(this);
             return new QueryStatisticsItem(this);
@@ -163,6 +175,10 @@ public final class QueryStatisticsItem {
             if (queryProfile == null) {
                 queryProfile = new RuntimeProfile("");
             }
+
+            if (resourceTracker == null) {
+                resourceTracker = new QueryResourceTracker();
+            }
         }
     }
 
@@ -17,6 +17,7 @@
 
 package org.apache.doris.qe;
 
+import org.apache.doris.common.Config;
 import org.apache.doris.common.Status;
 import org.apache.doris.proto.PFetchDataResult;
 import org.apache.doris.proto.PUniqueId;
@@ -48,6 +49,11 @@ public class ResultReceiver {
     private PUniqueId finstId;
     private Long backendId;
     private Thread currentThread;
+    // the fetch request of next batch, sent before the current batch is returned to caller,
+    // so that fetching next batch is overlapped with sending current batch to client.
+    // protected by the lock of receiver, because it is cancelled by other thread in cancel().
+    private PFetchDataRequest prefetchRequest;
+    private Future<PFetchDataResult> prefetchFuture;
 
     public ResultReceiver(TUniqueId tid, Long backendId, TNetworkAddress address, int timeoutMs) {
         this.finstId = new PUniqueId();
@@ -63,12 +69,26 @@ public class ResultReceiver {
             return null;
         }
         final RowBatch rowBatch = new RowBatch();
+        // the prefetch is kept only if a batch is returned to caller, who will call getNext() again
+        boolean keepPrefetch = false;
         try {
             while (!isDone && !isCancel) {
-                PFetchDataRequest request = new PFetchDataRequest(finstId);
+                PFetchDataRequest request = null;
+                Future<PFetchDataResult> future = null;
+                synchronized (this) {
+                    if (prefetchFuture != null) {
+                        request = prefetchRequest;
+                        future = prefetchFuture;
+                        prefetchRequest = null;
+                        prefetchFuture = null;
+                    }
+                }
+                if (future == null) {
+                    request = new PFetchDataRequest(finstId);
+                    future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
+                }
 
                 currentThread = Thread.currentThread();
-                Future<PFetchDataResult> future = BackendServiceProxy.getInstance().fetchDataAsync(address, request);
                 PFetchDataResult pResult = null;
                 while (pResult == null) {
                     long currentTs = System.currentTimeMillis();
@@ -102,6 +122,15 @@ public class ResultReceiver {
     
                 packetIdx++;
                 isDone = pResult.eos;
+                if (!isDone && Config.enable_result_prefetch) {
+                    synchronized (this) {
+                        if (!isCancel) {
+                            prefetchRequest = new PFetchDataRequest(finstId);
+                            prefetchFuture = BackendServiceProxy.getInstance().fetchDataAsync(address,
+                                    prefetchRequest);
+                        }
+                    }
+                }
 
                 byte[] serialResult = request.getSerializedResult();
                 if (serialResult != null && serialResult.length > 0) {
@@ -110,6 +139,7 @@ public class ResultReceiver {
                     deserializer.deserialize(resultBatch, serialResult);
                     rowBatch.setBatch(resultBatch);
                     rowBatch.setEos(pResult.eos);
+                    keepPrefetch = true;
                     return rowBatch;
                 }
             }
@@ -132,6 +162,9 @@ public class ResultReceiver {
         } finally {
             synchronized (this) {
                 currentThread = null;
+                if (!keepPrefetch) {
+                    cancelPrefetch();
+                }
             }
         }
         
@@ -141,9 +174,20 @@ public class ResultReceiver {
         return rowBatch;
     }
 
+    // Must be called with the lock of receiver held.
+    // The result of backend is not needed any more, eg. the query is failed or cancelled.
+    private void cancelPrefetch() {
+        if (prefetchFuture != null) {
+            prefetchFuture.cancel(true);
+            prefetchFuture = null;
+            prefetchRequest = null;
+        }
+    }
+
     public void cancel() {
         isCancel = true;
         synchronized (this) {
+            cancelPrefetch();
             if (currentThread != null) {
                 // TODO(cmy): we cannot interrupt this thread, or we may throw
                 // java.nio.channels.ClosedByInterruptException when we call
@@ -0,0 +1,356 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.DecimalLiteral;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.InlineViewRef;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.LargeIntLiteral;
+import org.apache.doris.analysis.LiteralExpr;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.OrderByElement;
+import org.apache.doris.analysis.QueryStmt;
+import org.apache.doris.analysis.SelectListItem;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.SqlParser;
+import org.apache.doris.analysis.SqlScanner;
+import org.apache.doris.analysis.StatementBase;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.analysis.Subquery;
+import org.apache.doris.analysis.TableRef;
+import org.apache.doris.analysis.UnionStmt;
+import org.apache.doris.analysis.UnionStmt.UnionOperand;
+import org.apache.doris.common.AnalysisException;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+/*
+ * A statement prepared by COM_STMT_PREPARE.
+ * The sql is split by its '?' placeholders, which are not in quotes or comments.
+ * Each COM_STMT_EXECUTE binds the parameters as sql literals into the bound sql, which is used for
+ * audit and forwarding to master.
+ *
+ * The sql with a marker string literal at each placeholder is parsed only once as the template of the
+ * statement, and each execution binds the parameters into a clone of the template, instead of parsing
+ * the bound sql again. The template is parsed again if sql mode is changed or ParsedStmtCache is
+ * invalidated by schema change. If the template can not be parsed or bound, eg: a placeholder in
+ * limit clause or with clause, the bound sql is parsed as a normal statement.
+ */
+public class ServerPreparedStmt {
+    private static final Logger LOG = LogManager.getLogger(ServerPreparedStmt.class);
+
+    // the value of string literal at placeholder i in template is PARAM_MARKER + i
+    private static final String PARAM_MARKER = "__doris_stmt_param_";
+
+    private final int id;
+    private final String sql;
+    // sql split by placeholders, size is number of placeholders + 1
+    private final List<String> segments;
+    // mysql types of parameters sent by client in the latest COM_STMT_EXECUTE with types.
+    // the low byte is type code, and the high bit is unsigned flag
+    private int[] paramTypes;
+
+    // parsed template, and the sql mode and ParsedStmtCache version it is parsed with
+    private StatementBase template;
+    private long templateSqlMode;
+    private long templateVersion;
+    // true if the template can not be parsed or bound
+    private boolean isTemplateUnusable = false;
+
+    public ServerPreparedStmt(int id, String sql) {
+        this.id = id;
+        this.sql = sql;
+        this.segments = split(sql);
+        this.paramTypes = null;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getParamNum() {
+        return segments.size() - 1;
+    }
+
+    public int[] getParamTypes() {
+        return paramTypes;
+    }
+
+    public void setParamTypes(int[] paramTypes) {
+        this.paramTypes = paramTypes;
+    }
+
+    // replace placeholders with the literals
+    public String bind(List<String> literals) {
+        Preconditions.checkArgument(literals.size() == getParamNum());
+        StringBuilder sb = new StringBuilder(sql.length() + literals.size() * 8);
+        for (int i = 0; i < literals.size(); i++) {
+            sb.append(segments.get(i)).append(literals.get(i));
+        }
+        sb.append(segments.get(segments.size() - 1));
+        return sb.toString();
+    }
+
+    /*
+     * Returns a clone of the template with the parameters bound, or null if the template can not be used,
+     * and the bound sql should be parsed instead.
+     */
+    public StatementBase bindTemplate(long sqlMode, List<LiteralExpr> params) {
+        Preconditions.checkArgument(params.size() == getParamNum());
+        if (isTemplateUnusable || params.isEmpty()) {
+            return null;
+        }
+        long version = ParsedStmtCache.getInstance().getVersion();
+        if (template == null || templateSqlMode != sqlMode || templateVersion != version) {
+            template = parseTemplate(sqlMode);
+            if (template == null) {
+                isTemplateUnusable = true;
+                return null;
+            }
+            templateSqlMode = sqlMode;
+            templateVersion = version;
+        }
+
+        QueryStmt stmt = ((SelectStmt) template).clone();
+        ParamBinder binder = new ParamBinder(params);
+        if (!binder.bind(stmt)) {
+            LOG.debug("failed to bind parameters to template of prepared statement {}", id);
+            isTemplateUnusable = true;
+            return null;
+        }
+        return stmt;
+    }
+
+    private StatementBase parseTemplate(long sqlMode) {
+        if (sql.contains(PARAM_MARKER)) {
+            return null;
+        }
+        List<String> markers = Lists.newArrayListWithCapacity(getParamNum());
+        for (int i = 0; i < getParamNum(); i++) {
+            markers.add("'" + PARAM_MARKER + i + "'");
+        }
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(bind(markers)), sqlMode));
+        StatementBase stmt;
+        try {
+            stmt = (StatementBase) parser.parse().value;
+        } catch (Exception | Error e) {
+            LOG.debug("failed to parse template of prepared statement {}", id, e);
+            return null;
+        }
+        return ParsedStmtCache.isCacheable(stmt) ? stmt : null;
+    }
+
+    // convert a literal returned by MysqlBinaryProtocol.readParamAsLiteral() to expr
+    public static LiteralExpr toLiteralExpr(String literal) throws AnalysisException {
+        if (literal.equals("NULL")) {
+            return new NullLiteral();
+        }
+        if (literal.startsWith("'")) {
+            return new StringLiteral(unescape(literal.substring(1, literal.length() - 1)));
+        }
+        try {
+            if (literal.contains(".")) {
+                return new DecimalLiteral(new BigDecimal(literal));
+            }
+            BigInteger value = new BigInteger(literal);
+            if (value.bitLength() < Long.SIZE) {
+                return new IntLiteral(value.longValue());
+            }
+            return new LargeIntLiteral(literal);
+        } catch (NumberFormatException e) {
+            throw new AnalysisException("Invalid number parameter: " + literal);
+        }
+    }
+
+    // reverse of MysqlBinaryProtocol.toStringLiteral()
+    private static String unescape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case '0':
+                    sb.append('\0');
+                    break;
+                case 'Z':
+                    sb.append('\032');
+                    break;
+                default:
+                    sb.append(next);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    // replace the markers in a parsed template with parameters
+    private static class ParamBinder {
+        private final List<LiteralExpr> params;
+        private final boolean[] isBound;
+        private boolean isFailed = false;
+
+        public ParamBinder(List<LiteralExpr> params) {
+            this.params = params;
+            this.isBound = new boolean[params.size()];
+        }
+
+        // return true if every marker is replaced exactly once
+        public boolean bind(QueryStmt stmt) {
+            bindStmt(stmt);
+            if (isFailed) {
+                return false;
+            }
+            for (boolean bound : isBound) {
+                if (!bound) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void bindStmt(QueryStmt stmt) {
+            if (stmt instanceof SelectStmt) {
+                SelectStmt selectStmt = (SelectStmt) stmt;
+                for (SelectListItem item : selectStmt.getSelectList().getItems()) {
+                    if (!item.isStar()) {
+                        item.setExpr(bindExpr(item.getExpr()));
+                    }
+                }
+                for (TableRef tableRef : selectStmt.getTableRefs()) {
+                    tableRef.setOnClause(bindExpr(tableRef.getOnClause()));
+                    if (tableRef instanceof InlineViewRef) {
+                        bindStmt(((InlineViewRef) tableRef).getViewStmt());
+                    }
+                }
+                selectStmt.setWhereClause(bindExpr(selectStmt.getWhereClause()));
+                List<Expr> groupingExprs = selectStmt.getGroupingExprs();
+                if (groupingExprs != null) {
+                    for (int i = 0; i < groupingExprs.size(); i++) {
+                        groupingExprs.set(i, bindExpr(groupingExprs.get(i)));
+                    }
+                }
+                selectStmt.setHavingClause(bindExpr(selectStmt.getHavingClause()));
+            } else if (stmt instanceof UnionStmt) {
+                for (UnionOperand operand : ((UnionStmt) stmt).getOperands()) {
+                    bindStmt(operand.getQueryStmt());
+                }
+            } else {
+                isFailed = true;
+                return;
+            }
+            if (stmt.getOrderByElements() != null) {
+                for (OrderByElement element : stmt.getOrderByElements()) {
+                    element.setExpr(bindExpr(element.getExpr()));
+                }
+            }
+        }
+
+        private Expr bindExpr(Expr expr) {
+            if (expr == null) {
+                return null;
+            }
+            if (expr instanceof StringLiteral) {
+                String value = ((StringLiteral) expr).getStringValue();
+                if (!value.startsWith(PARAM_MARKER)) {
+                    return expr;
+                }
+                int index;
+                try {
+                    index = Integer.parseInt(value.substring(PARAM_MARKER.length()));
+                } catch (NumberFormatException e) {
+                    isFailed = true;
+                    return expr;
+                }
+                if (index < 0 || index >= params.size() || isBound[index]) {
+                    isFailed = true;
+                    return expr;
+                }
+                isBound[index] = true;
+                return params.get(index);
+            }
+            if (expr instanceof Subquery) {
+                bindStmt(((Subquery) expr).getStatement());
+            }
+            for (int i = 0; i < expr.getChildren().size(); i++) {
+                expr.setChild(i, bindExpr(expr.getChild(i)));
+            }
+            return expr;
+        }
+    }
+
+    private static List<String> split(String sql) {
+        List<String> segments = Lists.newArrayList();
+        int start = 0;
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                // skip quoted string or identifier
+                i++;
+                while (i < len && sql.charAt(i) != c) {
+                    if (sql.charAt(i) == '\\' && c != '`') {
+                        i++;
+                    }
+                    i++;
+                }
+                i++;
+            } else if (c == '#' || (c == '-' && sql.startsWith("-- ", i))) {
+                // skip end-of-line comment
+                while (i < len && sql.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 2;
+            } else if (c == '?') {
+                segments.add(sql.substring(start, i));
+                i++;
+                start = i;
+            } else {
+                i++;
+            }
+        }
+        segments.add(sql.substring(Math.min(start, len)));
+        return segments;
+    }
+}
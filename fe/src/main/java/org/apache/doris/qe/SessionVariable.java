@@ -89,6 +89,15 @@ public class SessionVariable implements Serializable, Writable {
      */
     public static final String LOAD_MEM_LIMIT = "load_mem_limit";
     public static final String DEFAULT_ROWSET_TYPE = "default_rowset_type";
+    public static final String ENABLE_COST_BASED_JOIN_REORDER = "enable_cost_based_join_reorder";
+    public static final String RUNTIME_FILTER_MODE = "runtime_filter_mode";
+    public static final String RUNTIME_FILTER_TYPE = "runtime_filter_type";
+    public static final String RUNTIME_FILTER_MAX_IN_NUM = "runtime_filter_max_in_num";
+    public static final String RUNTIME_BLOOM_FILTER_MIN_SIZE = "runtime_bloom_filter_min_size";
+    public static final String RUNTIME_BLOOM_FILTER_MAX_SIZE = "runtime_bloom_filter_max_size";
+    public static final String RUNTIME_FILTERS_MAX_NUM = "runtime_filters_max_num";
+    public static final String RUNTIME_FILTER_WAIT_TIME_MS = "runtime_filter_wait_time_ms";
+    public static final String ENABLE_QUERY_RESULT_CACHE = "enable_query_result_cache";
 
     // max memory used on every backend.
     @VariableMgr.VarAttr(name = EXEC_MEM_LIMIT)
@@ -214,6 +223,48 @@ public class SessionVariable implements Serializable, Writable {
     @VariableMgr.VarAttr(name = LOAD_MEM_LIMIT)
     private long loadMemLimit = 0L;
 
+    /*
+     * reorder inner joins of olap tables by the estimated cost, which is based on row counts of tables
+     * and column stats. if false, or any table is not analyzed, tables are only ordered by row counts.
+     */
+    @VariableMgr.VarAttr(name = ENABLE_COST_BASED_JOIN_REORDER)
+    private boolean enableCostBasedJoinReorder = false;
+
+    /*
+     * runtime filters are built from the build side of hash joins, and applied to the scan nodes of the probe side.
+     * OFF: no runtime filter.
+     * LOCAL: only apply filters to the scan nodes in the same fragment as the join node.
+     * GLOBAL: also send filters to the scan nodes in other fragments.
+     * OFF by default, because backends do not build or apply the filters yet.
+     */
+    @VariableMgr.VarAttr(name = RUNTIME_FILTER_MODE)
+    private String runtimeFilterMode = "OFF";
+
+    // bitmap of the allowed types of runtime filter, IN: 1, MIN_MAX: 2, BLOOM: 4
+    @VariableMgr.VarAttr(name = RUNTIME_FILTER_TYPE)
+    private int runtimeFilterType = 7;
+
+    // IN filter is used if the estimated number of distinct values of the build side is not greater than this
+    @VariableMgr.VarAttr(name = RUNTIME_FILTER_MAX_IN_NUM)
+    private int runtimeFilterMaxInNum = 1024;
+
+    @VariableMgr.VarAttr(name = RUNTIME_BLOOM_FILTER_MIN_SIZE)
+    private long runtimeBloomFilterMinSize = 1048576L;
+
+    @VariableMgr.VarAttr(name = RUNTIME_BLOOM_FILTER_MAX_SIZE)
+    private long runtimeBloomFilterMaxSize = 16777216L;
+
+    // max number of runtime filters of a query, the most selective ones are kept
+    @VariableMgr.VarAttr(name = RUNTIME_FILTERS_MAX_NUM)
+    private int runtimeFiltersMaxNum = 10;
+
+    @VariableMgr.VarAttr(name = RUNTIME_FILTER_WAIT_TIME_MS)
+    private int runtimeFilterWaitTimeMs = 1000;
+
+    // if false, results of queries in this session are neither read from nor put into the query result cache
+    @VariableMgr.VarAttr(name = ENABLE_QUERY_RESULT_CACHE)
+    private boolean enableQueryResultCache = false;
+
     // the default rowset type flag which will be passed to Backends througth heartbeat
     @VariableMgr.VarAttr(name = DEFAULT_ROWSET_TYPE)
     public static String defaultRowsetType = "alpha";
@@ -366,6 +417,10 @@ public class SessionVariable implements Serializable, Writable {
         return disableColocateJoin;
     }
 
+    public boolean isEnableCostBasedJoinReorder() {
+        return enableCostBasedJoinReorder;
+    }
+
     public int getParallelExecInstanceNum() {
         return parallelExecInstanceNum;
     }
@@ -380,6 +435,50 @@ public class SessionVariable implements Serializable, Writable {
         this.enableInsertStrict = enableInsertStrict;
     }
 
+    public String getRuntimeFilterMode() {
+        return runtimeFilterMode;
+    }
+
+    public void setRuntimeFilterMode(String runtimeFilterMode) {
+        this.runtimeFilterMode = runtimeFilterMode;
+    }
+
+    public int getRuntimeFilterType() {
+        return runtimeFilterType;
+    }
+
+    public void setRuntimeFilterType(int runtimeFilterType) {
+        this.runtimeFilterType = runtimeFilterType;
+    }
+
+    public int getRuntimeFilterMaxInNum() {
+        return runtimeFilterMaxInNum;
+    }
+
+    public long getRuntimeBloomFilterMinSize() {
+        return runtimeBloomFilterMinSize;
+    }
+
+    public long getRuntimeBloomFilterMaxSize() {
+        return runtimeBloomFilterMaxSize;
+    }
+
+    public int getRuntimeFiltersMaxNum() {
+        return runtimeFiltersMaxNum;
+    }
+
+    public void setRuntimeFiltersMaxNum(int runtimeFiltersMaxNum) {
+        this.runtimeFiltersMaxNum = runtimeFiltersMaxNum;
+    }
+
+    public boolean isEnableQueryResultCache() {
+        return enableQueryResultCache;
+    }
+
+    public void setEnableQueryResultCache(boolean enableQueryResultCache) {
+        this.enableQueryResultCache = enableQueryResultCache;
+    }
+
     public boolean getForwardToMaster() {
         return forwardToMaster;
     }
@@ -403,6 +502,7 @@ public class SessionVariable implements Serializable, Writable {
         tResult.setBatch_size(batchSize);
         tResult.setDisable_stream_preaggregations(disableStreamPreaggregations);
         tResult.setLoad_mem_limit(loadMemLimit);
+        tResult.setRuntime_filter_wait_time_ms(runtimeFilterWaitTimeMs);
         return tResult;
     }
 
@@ -39,6 +39,7 @@ import org.apache.doris.analysis.UseStmt;
 import org.apache.doris.catalog.Catalog;
 import org.apache.doris.catalog.Column;
 import org.apache.doris.catalog.Database;
+import org.apache.doris.catalog.PrimitiveType;
 import org.apache.doris.catalog.ScalarType;
 import org.apache.doris.catalog.Table.TableType;
 import org.apache.doris.catalog.Type;
@@ -56,8 +57,10 @@ import org.apache.doris.common.util.ProfileManager;
 import org.apache.doris.common.util.RuntimeProfile;
 import org.apache.doris.common.util.TimeUtils;
 import org.apache.doris.load.EtlJobType;
+import org.apache.doris.mysql.MysqlBinaryProtocol;
 import org.apache.doris.mysql.MysqlChannel;
 import org.apache.doris.mysql.MysqlEofPacket;
+import org.apache.doris.mysql.MysqlProto;
 import org.apache.doris.mysql.MysqlSerializer;
 import org.apache.doris.mysql.privilege.PrivPredicate;
 import org.apache.doris.planner.Planner;
@@ -100,10 +103,14 @@ public class StmtExecutor {
     private MysqlSerializer serializer;
     private String originStmt;
     private StatementBase parsedStmt;
+    // the statement parsed by caller, used instead of parsing 'originStmt'
+    private StatementBase preParsedStmt;
     private Analyzer analyzer;
     private RuntimeProfile profile;
     private RuntimeProfile summaryProfile;
     private volatile Coordinator coord = null;
+    // token of the query admitted by its workload group, released after the query finishes
+    private volatile WorkloadGroupMgr.QueueToken queueToken = null;
     private MasterOpExecutor masterOpExecutor = null;
     private RedirectStatus redirectStatus = null;
     private Planner planner;
@@ -122,6 +129,13 @@ public class StmtExecutor {
         this(context, stmt, false);
     }
 
+    // execute a statement which is already parsed, eg: a prepared statement with parameters bound.
+    // 'stmt' is the sql of the statement, which is used for audit and forwarding to master.
+    public StmtExecutor(ConnectContext context, String stmt, StatementBase parsedStmt) {
+        this(context, stmt, false);
+        this.preParsedStmt = parsedStmt;
+    }
+
     // At the end of query execution, we begin to add up profile
     public void initProfile(long beginTimeInNanoSecond) {
         profile = new RuntimeProfile("Query");
@@ -239,6 +253,7 @@ public class StmtExecutor {
                             throw e;
                         }
                     } finally {
+                        releaseQueueToken();
                         QeProcessorImpl.INSTANCE.unregisterQuery(context.queryId());
                     }
                 }
@@ -343,30 +358,17 @@ public class StmtExecutor {
                                                NotImplementedException {
         LOG.info("begin to analyze stmt: {}, forwarded stmt id: {}", context.getStmtId(), context.getForwardedStmtId());
 
-        // Parse statement with parser generated by CUP&FLEX
-        SqlScanner input = new SqlScanner(new StringReader(originStmt), context.getSessionVariable().getSqlMode());
-        SqlParser parser = new SqlParser(input);
-        try {
-            parsedStmt = (StatementBase) parser.parse().value;
+        long sqlMode = context.getSessionVariable().getSqlMode();
+        if (preParsedStmt != null) {
+            parsedStmt = preParsedStmt;
+            preParsedStmt = null;
+        } else {
+            parsedStmt = ParsedStmtCache.getInstance().get(originStmt, sqlMode);
+        }
+        if (parsedStmt != null) {
             redirectStatus = parsedStmt.getRedirectStatus();
-        } catch (Error e) {
-            LOG.info("error happened when parsing stmt {}, id: {}", originStmt, context.getStmtId(), e);
-            throw new AnalysisException("sql parsing error, please check your sql");
-        } catch (AnalysisException e) {
-            LOG.info("analysis exception happened when parsing stmt {}, id: {}, error: {}",
-                     originStmt, context.getStmtId(), parser.getErrorMsg(originStmt), e);
-            String errorMessage = parser.getErrorMsg(originStmt);
-            if (errorMessage == null) {
-                throw  e;
-            } else {
-                throw new AnalysisException(errorMessage, e);
-            }
-        } catch (Exception e) {
-            // TODO(lingbin): we catch 'Exception' to prevent unexpected error,
-            // should be removed this try-catch clause future.
-            LOG.info("unexpected exception happened when parsing stmt {}, id: {}, error: {}",
-                     originStmt, context.getStmtId(), parser.getErrorMsg(originStmt), e);
-            throw new AnalysisException("Unexpected exception: " + e.getMessage());
+        } else {
+            parse(sqlMode);
         }
 
         // yiguolei: insertstmt's grammer analysis will write editlog, so that we check if the stmt should be forward to master here
@@ -479,14 +481,118 @@ public class StmtExecutor {
         }
     }
 
+    private void parse(long sqlMode) throws AnalysisException {
+        // Parse statement with parser generated by CUP&FLEX
+        SqlScanner input = new SqlScanner(new StringReader(originStmt), sqlMode);
+        SqlParser parser = new SqlParser(input);
+        try {
+            parsedStmt = (StatementBase) parser.parse().value;
+            redirectStatus = parsedStmt.getRedirectStatus();
+        } catch (Error e) {
+            LOG.info("error happened when parsing stmt {}, id: {}", originStmt, context.getStmtId(), e);
+            throw new AnalysisException("sql parsing error, please check your sql");
+        } catch (AnalysisException e) {
+            LOG.info("analysis exception happened when parsing stmt {}, id: {}, error: {}",
+                     originStmt, context.getStmtId(), parser.getErrorMsg(originStmt), e);
+            String errorMessage = parser.getErrorMsg(originStmt);
+            if (errorMessage == null) {
+                throw  e;
+            } else {
+                throw new AnalysisException(errorMessage, e);
+            }
+        } catch (Exception e) {
+            // TODO(lingbin): we catch 'Exception' to prevent unexpected error,
+            // should be removed this try-catch clause future.
+            LOG.info("unexpected exception happened when parsing stmt {}, id: {}, error: {}",
+                     originStmt, context.getStmtId(), parser.getErrorMsg(originStmt), e);
+            throw new AnalysisException("Unexpected exception: " + e.getMessage());
+        }
+        ParsedStmtCache.getInstance().put(originStmt, sqlMode, parsedStmt);
+    }
+
+    // Execute a query statement issued by FE itself, such as collecting statistics, and return the result rows.
+    // Values are returned as strings, and NULL is returned as null.
+    public List<List<String>> executeInternalQuery() throws Exception {
+        analyze(context.getSessionVariable().toThrift());
+        if (!(parsedStmt instanceof QueryStmt)) {
+            throw new AnalysisException("Only query statement is supported: " + originStmt);
+        }
+        int columnNum = ((QueryStmt) parsedStmt).getColLabels().size();
+
+        UUID uuid = UUID.randomUUID();
+        context.setQueryId(new TUniqueId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        coord = new Coordinator(context, analyzer, planner);
+        QeProcessorImpl.INSTANCE.registerQuery(context.queryId(),
+                new QeProcessorImpl.QueryInfo(context, originStmt, coord));
+        try {
+            coord.exec();
+            List<List<String>> rows = Lists.newArrayList();
+            while (true) {
+                RowBatch batch = coord.getNext();
+                if (batch.getBatch() != null) {
+                    for (ByteBuffer row : batch.getBatch().getRows()) {
+                        rows.add(decodeTextRow(row, columnNum));
+                    }
+                }
+                if (batch.isEos()) {
+                    break;
+                }
+            }
+            return rows;
+        } finally {
+            QeProcessorImpl.INSTANCE.unregisterQuery(context.queryId());
+        }
+    }
+
+    // every column of a row in text protocol is a length encoded string, or 0xFB for NULL
+    private static List<String> decodeTextRow(ByteBuffer row, int columnNum) throws IOException {
+        List<String> values = Lists.newArrayListWithCapacity(columnNum);
+        for (int i = 0; i < columnNum; i++) {
+            if ((row.get(row.position()) & 0xFF) == 0xFB) {
+                row.get();
+                values.add(null);
+            } else {
+                values.add(new String(MysqlProto.readLenEncodedString(row), "UTF-8"));
+            }
+        }
+        return values;
+    }
+
     // Because this is called by other thread
     public void cancel() {
+        WorkloadGroupMgr.QueueToken tokenRef = queueToken;
+        if (tokenRef != null) {
+            WorkloadGroupMgr.getInstance().cancel(tokenRef);
+        }
         Coordinator coordRef = coord;
         if (coordRef != null) {
             coordRef.cancel();
         }
     }
 
+    // wait until the query is admitted by its workload group
+    private void admitQuery() throws UserException {
+        SessionVariable sessionVariable = context.getSessionVariable();
+        WorkloadGroupMgr workloadGroupMgr = WorkloadGroupMgr.getInstance();
+        queueToken = workloadGroupMgr.createToken(sessionVariable.getResourceGroup(),
+                sessionVariable.getMaxExecMemByte());
+        long timeoutMs = Math.min(Config.workload_group_queue_timeout_second, sessionVariable.getQueryTimeoutS())
+                * 1000L;
+        workloadGroupMgr.admit(queueToken, timeoutMs);
+        if (queueToken.getQueueTimeMs() > 0) {
+            LOG.info("query {} waits {} ms in workload group {}", DebugUtil.printId(context.queryId()),
+                    queueToken.getQueueTimeMs(), queueToken.getGroup().getName());
+        }
+    }
+
+    private void releaseQueueToken() {
+        WorkloadGroupMgr.QueueToken tokenRef = queueToken;
+        if (tokenRef != null) {
+            WorkloadGroupMgr.getInstance().release(tokenRef);
+            queueToken = null;
+        }
+    }
+
     // Handle kill statement.
     private void handleKill() throws DdlException {
         KillStmt killStmt = (KillStmt) parsedStmt;
@@ -541,11 +647,30 @@ public class StmtExecutor {
             handleExplainStmt(explainString);
             return;
         }
+
+        MysqlChannel channel = context.getMysqlChannel();
+        int columnNum = queryStmt.getColLabels().size();
+        QueryResultCache resultCache = QueryResultCache.getInstance();
+        String cacheKey = resultCache.getCacheKey(context, originStmt, queryStmt, planner.getScanNodes());
+        if (cacheKey != null) {
+            List<byte[]> cachedRows = resultCache.get(cacheKey);
+            if (cachedRows != null) {
+                sendFields(queryStmt.getColLabels(), queryStmt.getResultExprs());
+                for (byte[] row : cachedRows) {
+                    sendRow(channel, ByteBuffer.wrap(row), columnNum);
+                }
+                context.updateReturnRows(cachedRows.size());
+                context.getState().setEof();
+                return;
+            }
+        }
+
         coord = new Coordinator(context, analyzer, planner);
 
         QeProcessorImpl.INSTANCE.registerQuery(context.queryId(), 
                        new QeProcessorImpl.QueryInfo(context, originStmt, coord));
 
+        admitQuery();
         coord.exec();
 
         // if python's MysqlDb get error after sendfields, it can't catch the excpetion
@@ -553,19 +678,39 @@ public class StmtExecutor {
 
         // send result
         RowBatch batch;
-        MysqlChannel channel = context.getMysqlChannel();
         sendFields(queryStmt.getColLabels(), queryStmt.getResultExprs());
-        while (true) {
-            batch = coord.getNext();
-            if (batch.getBatch() != null) {
-                for (ByteBuffer row : batch.getBatch().getRows()) {
-                    channel.sendOnePacket(row);
-                }            
-                context.updateReturnRows(batch.getBatch().getRows().size());    
-            }
-            if (batch.isEos()) {
-                break;
+        // rows to be put into result cache, null if the result is too large
+        List<byte[]> rowsToCache = cacheKey == null ? null : Lists.newArrayList();
+        long cacheSize = 0;
+        try {
+            while (true) {
+                batch = coord.getNext();
+                if (batch.getBatch() != null) {
+                    for (ByteBuffer row : batch.getBatch().getRows()) {
+                        if (rowsToCache != null) {
+                            byte[] bytes = QueryResultCache.copyRow(row);
+                            cacheSize += bytes.length;
+                            if (cacheSize > Config.query_result_cache_max_entry_size_bytes) {
+                                rowsToCache = null;
+                            } else {
+                                rowsToCache.add(bytes);
+                            }
+                        }
+                        sendRow(channel, row, columnNum);
+                    }
+                    context.updateReturnRows(batch.getBatch().getRows().size());
+                }
+                if (batch.isEos()) {
+                    break;
+                }
             }
+        } catch (IOException e) {
+            // the client is gone, stop the query, including the result batch being prefetched
+            coord.cancel();
+            throw e;
+        }
+        if (rowsToCache != null) {
+            resultCache.put(cacheKey, rowsToCache);
         }
 
         statisticsForAuditLog = batch.getQueryStatistics();
@@ -755,7 +900,7 @@ public class StmtExecutor {
         for (Column col : metaData.getColumns()) {
             serializer.reset();
             // TODO(zhaochun): only support varchar type
-            serializer.writeField(col.getName(), col.getType().getPrimitiveType());
+            serializer.writeField(col.getName(), getFieldType(col.getType().getPrimitiveType()));
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
         // send EOF
@@ -773,7 +918,7 @@ public class StmtExecutor {
         // send field one by one
         for (int i = 0; i < colNames.size(); ++i) {
             serializer.reset();
-            serializer.writeField(colNames.get(i), exprs.get(i).getType().getPrimitiveType());
+            serializer.writeField(colNames.get(i), getFieldType(exprs.get(i).getType().getPrimitiveType()));
             context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
         }
         // send EOF
@@ -783,6 +928,20 @@ public class StmtExecutor {
         context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
     }
 
+    // all columns are sent as strings in binary row format, see MysqlBinaryProtocol.textRowToBinaryRow()
+    private PrimitiveType getFieldType(PrimitiveType type) {
+        return context.isBinaryRowFormat() ? PrimitiveType.VARCHAR : type;
+    }
+
+    // send one result row serialized in text protocol
+    private void sendRow(MysqlChannel channel, ByteBuffer row, int columnNum) throws IOException {
+        if (context.isBinaryRowFormat()) {
+            channel.sendOnePacket(MysqlBinaryProtocol.textRowToBinaryRow(row, columnNum));
+        } else {
+            channel.sendOnePacket(row);
+        }
+    }
+
     public void sendShowResult(ShowResultSet resultSet) throws IOException {
         context.updateReturnRows(resultSet.getResultRows().size());
         // Send meta data.
@@ -798,7 +957,7 @@ public class StmtExecutor {
                     serializer.writeLenEncodedString(item);
                 }
             }
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendRow(context.getMysqlChannel(), serializer.toByteBuffer(), row.size());
         }
 
         context.getState().setEof();
@@ -830,7 +989,7 @@ public class StmtExecutor {
         for (String item : result.split("\n")) {
             serializer.reset();
             serializer.writeLenEncodedString(item);
-            context.getMysqlChannel().sendOnePacket(serializer.toByteBuffer());
+            sendRow(context.getMysqlChannel(), serializer.toByteBuffer(), 1);
         }
         context.getState().setEof();
     }
@@ -867,6 +1026,12 @@ public class StmtExecutor {
         context.getCatalog().getExportMgr().addExportJob(exportStmt);
     }
 
+    // return null if the statement is not executed by a coordinator
+    public QueryResourceTracker getQueryResourceTracker() {
+        Coordinator coordRef = coord;
+        return coordRef == null ? null : coordRef.getResourceTracker();
+    }
+
     public PQueryStatistics getQueryStatisticsForAuditLog() {
         if (statisticsForAuditLog == null) {
             statisticsForAuditLog = new PQueryStatistics();
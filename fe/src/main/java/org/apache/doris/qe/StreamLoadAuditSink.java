@@ -0,0 +1,201 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.UserException;
+import org.apache.doris.common.util.TimeUtils;
+import org.apache.doris.service.FrontendOptions;
+import org.apache.doris.system.Backend;
+
+import com.google.common.base.Charsets;
+import com.google.gson.Gson;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Load audit events into a table by stream load, so that they can be analyzed by sql.
+ * The table is specified by config 'audit_load_db' and 'audit_load_table', which should be created as:
+ *
+ *  CREATE TABLE audit_log (
+ *      query_id varchar(48),
+ *      time datetime,
+ *      client varchar(64),
+ *      user varchar(64),
+ *      db varchar(128),
+ *      state varchar(16),
+ *      query_time bigint,
+ *      scan_bytes bigint,
+ *      scan_rows bigint,
+ *      cpu_time_ms bigint,
+ *      peak_memory_bytes bigint,
+ *      return_rows bigint,
+ *      stmt_id bigint,
+ *      is_query tinyint,
+ *      stmt varchar(4096)
+ *  ) DUPLICATE KEY(query_id, time)
+ *  PARTITION BY RANGE(time) (...)
+ *  DISTRIBUTED BY HASH(query_id) BUCKETS 8;
+ */
+public class StreamLoadAuditSink implements AuditSink {
+    private static final Logger LOG = LogManager.getLogger(StreamLoadAuditSink.class);
+
+    private static final String COLUMNS = "query_id,time,client,user,db,state,query_time,scan_bytes,scan_rows,"
+            + "cpu_time_ms,peak_memory_bytes,return_rows,stmt_id,is_query,stmt";
+    private static final int MAX_STMT_LENGTH = 4096;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 60000;
+
+    private final Random random = new Random();
+    private long batchId = 0;
+
+    @Override
+    public String getName() {
+        return "stream_load";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return Config.enable_audit_load;
+    }
+
+    @Override
+    public void send(List<AuditEvent> events) throws Exception {
+        byte[] content = toContent(events).getBytes(Charsets.UTF_8);
+        String label = "audit_" + FrontendOptions.getLocalHostAddress().replace('.', '_').replace(':', '_')
+                + "_" + System.currentTimeMillis() + "_" + (batchId++);
+        Backend backend = chooseBackend();
+        URL url = new URL("http://" + backend.getHost() + ":" + backend.getHttpPort() + "/api/"
+                + Config.audit_load_db + "/" + Config.audit_load_table + "/_stream_load");
+
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        try {
+            conn.setRequestMethod("PUT");
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            conn.setReadTimeout(READ_TIMEOUT_MS);
+            String auth = Config.audit_load_user + ":" + Config.audit_load_password;
+            conn.setRequestProperty("Authorization",
+                    "Basic " + Base64.getEncoder().encodeToString(auth.getBytes(Charsets.UTF_8)));
+            conn.setRequestProperty("label", label);
+            conn.setRequestProperty("columns", COLUMNS);
+            conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(content.length);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(content);
+            }
+
+            String response = readResponse(conn);
+            Map<?, ?> result = new Gson().fromJson(response, Map.class);
+            Object status = result == null ? null : result.get("Status");
+            if (!"Success".equals(status) && !"Publish Timeout".equals(status)) {
+                throw new UserException("failed to load audit events, label: " + label + ", response: " + response);
+            }
+            LOG.debug("load {} audit events, label: {}", events.size(), label);
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private Backend chooseBackend() throws UserException {
+        List<Long> backendIds = Catalog.getCurrentSystemInfo().getBackendIds(true /* need alive */);
+        if (backendIds.isEmpty()) {
+            throw new UserException("no alive backend to load audit events");
+        }
+        Backend backend = Catalog.getCurrentSystemInfo().getBackend(
+                backendIds.get(random.nextInt(backendIds.size())));
+        if (backend == null) {
+            throw new UserException("no alive backend to load audit events");
+        }
+        return backend;
+    }
+
+    private static String readResponse(HttpURLConnection conn) throws Exception {
+        InputStream in = conn.getResponseCode() < 400 ? conn.getInputStream() : conn.getErrorStream();
+        if (in == null) {
+            return "";
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            byte[] buf = new byte[4096];
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+            }
+        } finally {
+            in.close();
+        }
+        return new String(out.toByteArray(), Charsets.UTF_8);
+    }
+
+    // one line of tab separated columns for each event
+    static String toContent(List<AuditEvent> events) {
+        StringBuilder sb = new StringBuilder();
+        for (AuditEvent event : events) {
+            sb.append(escape(event.getQueryId())).append('\t');
+            sb.append(TimeUtils.longToTimeString(event.getTimestamp())).append('\t');
+            sb.append(escape(event.getClient())).append('\t');
+            sb.append(escape(event.getUser())).append('\t');
+            sb.append(escape(event.getDb())).append('\t');
+            sb.append(escape(event.getState())).append('\t');
+            sb.append(event.getQueryTime()).append('\t');
+            sb.append(event.getScanBytes()).append('\t');
+            sb.append(event.getScanRows()).append('\t');
+            sb.append(event.getCpuTimeMs()).append('\t');
+            sb.append(event.getPeakMemoryBytes()).append('\t');
+            sb.append(event.getReturnRows()).append('\t');
+            sb.append(event.getStmtId()).append('\t');
+            sb.append(event.isQuery() ? 1 : 0).append('\t');
+            sb.append(escape(truncateUtf8(event.getStmt(), MAX_STMT_LENGTH))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // the length of varchar column is in bytes, so truncate the value by the length of its UTF-8 encoding,
+    // and never in the middle of a character
+    static String truncateUtf8(String value, int maxBytes) {
+        int bytes = 0;
+        int i = 0;
+        while (i < value.length()) {
+            int codePoint = value.codePointAt(i);
+            int len = codePoint < 0x80 ? 1 : (codePoint < 0x800 ? 2 : (codePoint < 0x10000 ? 3 : 4));
+            if (bytes + len > maxBytes) {
+                return value.substring(0, i);
+            }
+            bytes += len;
+            i += Character.charCount(codePoint);
+        }
+        return value;
+    }
+
+    // the separators can not appear in values
+    private static String escape(String value) {
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
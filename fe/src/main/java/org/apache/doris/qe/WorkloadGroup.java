@@ -0,0 +1,124 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.Lists;
+
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * A workload group is the queries of the same resource group, which is set by session variable 'resource_group'.
+ * The running queries of a group on this frontend are limited by number and by the sum of their exec_mem_limit,
+ * and the other queries wait in the queue of the group in FIFO order.
+ *
+ * The limits are read from configs at each admission, so that they can be changed at runtime.
+ * All fields except statistics are protected by WorkloadGroupMgr.
+ */
+public class WorkloadGroup {
+    private final String name;
+    // the index of the limits in configs, which is also the priority of group, 0 is the highest
+    private final int index;
+
+    private int runningNum = 0;
+    private long runningMemBytes = 0;
+    private final LinkedList<WorkloadGroupMgr.QueueToken> queue = Lists.newLinkedList();
+
+    // statistics
+    private final AtomicLong admittedNum = new AtomicLong(0);
+    private final AtomicLong queuedNum = new AtomicLong(0);
+    private final AtomicLong rejectedNum = new AtomicLong(0);
+    private final AtomicLong totalQueueTimeMs = new AtomicLong(0);
+
+    public WorkloadGroup(String name, int index) {
+        this.name = name;
+        this.index = index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    // 0 means no limit
+    public int getMaxConcurrency() {
+        int[] values = Config.workload_group_max_concurrency;
+        return index < values.length ? values[index] : 0;
+    }
+
+    // 0 means no limit
+    public long getMaxMemBytes() {
+        long[] values = Config.workload_group_max_mem_bytes;
+        return index < values.length ? values[index] : 0;
+    }
+
+    int getRunningNum() {
+        return runningNum;
+    }
+
+    long getRunningMemBytes() {
+        return runningMemBytes;
+    }
+
+    LinkedList<WorkloadGroupMgr.QueueToken> getQueue() {
+        return queue;
+    }
+
+    void addRunning(long memBytes) {
+        runningNum++;
+        runningMemBytes += memBytes;
+    }
+
+    void removeRunning(long memBytes) {
+        runningNum--;
+        runningMemBytes -= memBytes;
+    }
+
+    void onAdmitted(long queueTimeMs) {
+        admittedNum.incrementAndGet();
+        if (queueTimeMs > 0) {
+            queuedNum.incrementAndGet();
+            totalQueueTimeMs.addAndGet(queueTimeMs);
+        }
+    }
+
+    void onRejected() {
+        rejectedNum.incrementAndGet();
+    }
+
+    public long getAdmittedNum() {
+        return admittedNum.get();
+    }
+
+    public long getQueuedNum() {
+        return queuedNum.get();
+    }
+
+    public long getRejectedNum() {
+        return rejectedNum.get();
+    }
+
+    public long getTotalQueueTimeMs() {
+        return totalQueueTimeMs.get();
+    }
+}
@@ -0,0 +1,221 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.UserException;
+import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.mysql.privilege.UserResource;
+
+import com.google.common.collect.ImmutableList;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+/*
+ * Admission control of queries by workload groups.
+ *
+ * A query is admitted to execute if none of the following limits is reached, otherwise it waits in
+ * the queue of its group until a running query finishes:
+ * 1. the number of running queries of all groups, by config 'qe_max_running_queries';
+ * 2. the number of running queries of its group, by config 'workload_group_max_concurrency';
+ * 3. the sum of exec_mem_limit of running queries of its group, by config 'workload_group_max_mem_bytes'.
+ *    A query is always admitted if no other query of its group is running, even if its memory limit
+ *    is larger than the budget.
+ *
+ * When a query finishes, the queued queries are admitted in the order of group priority (high, normal, low),
+ * and in FIFO order in each group. So that heavy ad-hoc queries in a low priority group can not
+ * take all running slots of the frontend from the queries in a high priority group.
+ *
+ * A query fails if its group queue is full, or it waits longer than the queue timeout.
+ */
+public class WorkloadGroupMgr {
+    private static final Logger LOG = LogManager.getLogger(WorkloadGroupMgr.class);
+
+    private static final WorkloadGroupMgr INSTANCE = new WorkloadGroupMgr();
+
+    public static class QueueToken {
+        private final WorkloadGroup group;
+        private final long memBytes;
+        private final long createTime;
+        // protected by WorkloadGroupMgr
+        private boolean admitted = false;
+        private boolean cancelled = false;
+        private boolean released = false;
+        private long queueTimeMs = 0;
+
+        private QueueToken(WorkloadGroup group, long memBytes) {
+            this.group = group;
+            this.memBytes = memBytes;
+            this.createTime = System.currentTimeMillis();
+        }
+
+        public WorkloadGroup getGroup() {
+            return group;
+        }
+
+        public long getQueueTimeMs() {
+            return queueTimeMs;
+        }
+    }
+
+    // in the order of priority, from high to low
+    private final List<WorkloadGroup> groups;
+
+    // protected by this
+    private int totalRunningNum = 0;
+
+    WorkloadGroupMgr() {
+        groups = ImmutableList.of(new WorkloadGroup(UserResource.HIGH, 0),
+                new WorkloadGroup(UserResource.NORMAL, 1),
+                new WorkloadGroup(UserResource.LOW, 2));
+    }
+
+    public static WorkloadGroupMgr getInstance() {
+        return INSTANCE;
+    }
+
+    public List<WorkloadGroup> getGroups() {
+        return groups;
+    }
+
+    // the queries of unknown resource group belong to the normal group
+    public WorkloadGroup getGroup(String name) {
+        for (WorkloadGroup group : groups) {
+            if (group.getName().equalsIgnoreCase(name)) {
+                return group;
+            }
+        }
+        return groups.get(1);
+    }
+
+    public QueueToken createToken(String groupName, long memBytes) {
+        return new QueueToken(getGroup(groupName), memBytes);
+    }
+
+    /*
+     * Wait until the query of token is admitted, which must be released after the query finishes.
+     * Throw exception if the queue is full, or the query is not admitted in timeoutMs, or it is cancelled.
+     */
+    public synchronized void admit(QueueToken token, long timeoutMs) throws UserException {
+        WorkloadGroup group = token.group;
+        if (token.cancelled) {
+            throw new UserException("Query is cancelled");
+        }
+        if (group.getQueue().isEmpty() && canRun(group, token.memBytes)) {
+            run(token);
+            return;
+        }
+        if (group.getQueue().size() >= Config.workload_group_max_queue_size) {
+            group.onRejected();
+            throw new UserException("Too many queries are waiting in workload group " + group.getName()
+                    + ", max queue size: " + Config.workload_group_max_queue_size);
+        }
+
+        group.getQueue().addLast(token);
+        long deadline = token.createTime + timeoutMs;
+        while (!token.admitted && !token.cancelled) {
+            long waitMs = deadline - System.currentTimeMillis();
+            if (waitMs <= 0) {
+                break;
+            }
+            try {
+                wait(waitMs);
+            } catch (InterruptedException e) {
+                LOG.warn("interrupted while waiting in workload group {}", group.getName());
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!token.admitted) {
+            group.getQueue().remove(token);
+            // the queries behind it may be able to run now
+            dispatch();
+            group.onRejected();
+            if (token.cancelled) {
+                throw new UserException("Query is cancelled while waiting in workload group " + group.getName());
+            }
+            throw new UserException("Query waits in workload group " + group.getName()
+                    + " for more than " + timeoutMs + " ms");
+        }
+    }
+
+    public synchronized void release(QueueToken token) {
+        if (!token.admitted || token.released) {
+            return;
+        }
+        token.released = true;
+        token.group.removeRunning(token.memBytes);
+        totalRunningNum--;
+        dispatch();
+    }
+
+    // wake up the query waiting for the token
+    public synchronized void cancel(QueueToken token) {
+        token.cancelled = true;
+        notifyAll();
+    }
+
+    private boolean canRun(WorkloadGroup group, long memBytes) {
+        if (Config.qe_max_running_queries > 0 && totalRunningNum >= Config.qe_max_running_queries) {
+            return false;
+        }
+        int maxConcurrency = group.getMaxConcurrency();
+        if (maxConcurrency > 0 && group.getRunningNum() >= maxConcurrency) {
+            return false;
+        }
+        long maxMemBytes = group.getMaxMemBytes();
+        return maxMemBytes <= 0 || group.getRunningNum() == 0
+                || group.getRunningMemBytes() + memBytes <= maxMemBytes;
+    }
+
+    private void run(QueueToken token) {
+        token.admitted = true;
+        token.queueTimeMs = System.currentTimeMillis() - token.createTime;
+        token.group.addRunning(token.memBytes);
+        totalRunningNum++;
+        token.group.onAdmitted(token.queueTimeMs);
+        if (MetricRepo.isInit.get()) {
+            MetricRepo.HISTO_QUERY_QUEUE_TIME.get(token.group.getName()).update(token.queueTimeMs);
+        }
+    }
+
+    // admit the queued queries in the order of priority
+    private void dispatch() {
+        boolean admitted = false;
+        for (WorkloadGroup group : groups) {
+            while (!group.getQueue().isEmpty() && canRun(group, group.getQueue().peekFirst().memBytes)) {
+                run(group.getQueue().pollFirst());
+                admitted = true;
+            }
+        }
+        if (admitted) {
+            notifyAll();
+        }
+    }
+
+    public synchronized int getRunningNum(WorkloadGroup group) {
+        return group.getRunningNum();
+    }
+
+    public synchronized int getQueueSize(WorkloadGroup group) {
+        return group.getQueue().size();
+    }
+}
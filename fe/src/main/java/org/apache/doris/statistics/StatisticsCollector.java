@@ -0,0 +1,350 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.statistics;
+
+import org.apache.doris.analysis.AnalyzeStmt;
+import org.apache.doris.analysis.UserIdentity;
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.Database;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Table;
+import org.apache.doris.catalog.Table.TableType;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.DdlException;
+import org.apache.doris.common.ErrorCode;
+import org.apache.doris.common.ErrorReport;
+import org.apache.doris.common.util.MasterDaemon;
+import org.apache.doris.mysql.privilege.PaloAuth;
+import org.apache.doris.persist.TableStatsInfo;
+import org.apache.doris.qe.ConnectContext;
+import org.apache.doris.qe.StmtExecutor;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * StatisticsCollector runs the jobs submitted by ANALYZE TABLE in background.
+ *
+ * For each job, it computes the number of distinct values, the number of nulls and the size of each column
+ * by one internal query, which scans the table only once. If the table has more than
+ * Config.statistics_sample_row_num rows, each row is sampled with the same probability by 'rand() < sample rate',
+ * and the number of distinct values of the whole table is estimated from the number of distinct values
+ * in the sample, see estimateNumDistinct().
+ * The result is set to the columns of the table, and persisted by edit log. The planner reads them
+ * from the slot descriptors to estimate the cardinality of joins, aggregations and predicates.
+ */
+public class StatisticsCollector extends MasterDaemon {
+    private static final Logger LOG = LogManager.getLogger(StatisticsCollector.class);
+
+    private static class AnalyzeJob {
+        private final long dbId;
+        private final long tblId;
+        // names of columns to be analyzed, empty means all columns
+        private final Set<String> columnNames = Sets.newHashSet();
+
+        AnalyzeJob(long dbId, long tblId) {
+            this.dbId = dbId;
+            this.tblId = tblId;
+        }
+    }
+
+    // table id -> pending job, jobs of the same table are merged
+    private final Map<Long, AnalyzeJob> pendingJobs = Maps.newLinkedHashMap();
+
+    public StatisticsCollector() {
+        super("statistics collector", Config.statistics_collector_interval_ms);
+    }
+
+    public void submit(AnalyzeStmt stmt) throws DdlException {
+        String dbName = stmt.getTableName().getDb();
+        String tblName = stmt.getTableName().getTbl();
+        Database db = Catalog.getCurrentCatalog().getDb(dbName);
+        if (db == null) {
+            ErrorReport.reportDdlException(ErrorCode.ERR_BAD_DB_ERROR, dbName);
+        }
+
+        List<String> columnNames = Lists.newArrayList();
+        long tblId;
+        db.readLock();
+        try {
+            Table table = db.getTable(tblName);
+            if (table == null) {
+                ErrorReport.reportDdlException(ErrorCode.ERR_BAD_TABLE_ERROR, tblName);
+            }
+            if (table.getType() != TableType.OLAP) {
+                throw new DdlException("Only olap table can be analyzed: " + tblName);
+            }
+            tblId = table.getId();
+            for (String columnName : stmt.getColumnNames()) {
+                Column column = table.getColumn(columnName);
+                if (column == null) {
+                    ErrorReport.reportDdlException(ErrorCode.ERR_BAD_FIELD_ERROR, columnName, tblName);
+                }
+                if (!isAnalyzable(column)) {
+                    throw new DdlException("Type of column " + columnName + " can not be analyzed");
+                }
+                columnNames.add(column.getName());
+            }
+        } finally {
+            db.readUnlock();
+        }
+
+        synchronized (pendingJobs) {
+            AnalyzeJob job = pendingJobs.get(tblId);
+            if (job == null) {
+                job = new AnalyzeJob(db.getId(), tblId);
+                job.columnNames.addAll(columnNames);
+                pendingJobs.put(tblId, job);
+            } else if (job.columnNames.isEmpty() || columnNames.isEmpty()) {
+                // analyze all columns
+                job.columnNames.clear();
+            } else {
+                job.columnNames.addAll(columnNames);
+            }
+        }
+        LOG.info("submit analyze job of table {}, columns: {}", tblName, columnNames);
+    }
+
+    @Override
+    protected void runAfterCatalogReady() {
+        List<AnalyzeJob> jobs;
+        synchronized (pendingJobs) {
+            jobs = Lists.newArrayList(pendingJobs.values());
+            pendingJobs.clear();
+        }
+        for (AnalyzeJob job : jobs) {
+            try {
+                analyze(job);
+            } catch (Exception e) {
+                LOG.warn("failed to analyze table {}", job.tblId, e);
+            }
+        }
+    }
+
+    private void analyze(AnalyzeJob job) throws Exception {
+        Database db = Catalog.getCurrentCatalog().getDb(job.dbId);
+        if (db == null) {
+            return;
+        }
+        List<Column> columns = Lists.newArrayList();
+        String tblName;
+        long rowCount;
+        db.readLock();
+        try {
+            Table table = db.getTable(job.tblId);
+            if (table == null || table.getType() != TableType.OLAP) {
+                return;
+            }
+            tblName = table.getName();
+            for (Column column : table.getBaseSchema()) {
+                if ((job.columnNames.isEmpty() || job.columnNames.contains(column.getName()))
+                        && isAnalyzable(column)) {
+                    columns.add(column);
+                }
+            }
+            rowCount = ((OlapTable) table).getRowCount();
+        } finally {
+            db.readUnlock();
+        }
+        if (columns.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        // row count is 0 if it is not reported yet
+        double sampleRate = rowCount > Config.statistics_sample_row_num
+                ? (double) Config.statistics_sample_row_num / rowCount : 1.0;
+        List<List<String>> rows = executeQuery(db, buildQuery(tblName, columns, sampleRate));
+        if (rows.size() != 1) {
+            LOG.warn("unexpected result of analyzing table {}, rows: {}", tblName, rows.size());
+            return;
+        }
+        Map<String, ColumnStats> columnStats = computeStats(columns, rows.get(0), rowCount);
+
+        TableStatsInfo info = new TableStatsInfo(job.dbId, job.tblId, columnStats);
+        db.writeLock();
+        try {
+            Table table = db.getTable(job.tblId);
+            if (table == null) {
+                return;
+            }
+            setTableStats(table, columnStats);
+            Catalog.getCurrentCatalog().getEditLog().logSetTableStats(info);
+        } finally {
+            db.writeUnlock();
+        }
+        LOG.info("finished analyzing table {}, columns: {}, cost: {} ms",
+                tblName, columnStats.keySet(), System.currentTimeMillis() - start);
+    }
+
+    public void replaySetTableStats(TableStatsInfo info) {
+        Database db = Catalog.getCurrentCatalog().getDb(info.getDbId());
+        if (db == null) {
+            return;
+        }
+        db.writeLock();
+        try {
+            Table table = db.getTable(info.getTblId());
+            if (table != null) {
+                setTableStats(table, info.getColumnStats());
+            }
+        } finally {
+            db.writeUnlock();
+        }
+    }
+
+    private static void setTableStats(Table table, Map<String, ColumnStats> columnStats) {
+        for (Map.Entry<String, ColumnStats> entry : columnStats.entrySet()) {
+            Column column = table.getColumn(entry.getKey());
+            if (column != null) {
+                column.setStats(entry.getValue());
+            }
+        }
+    }
+
+    private static boolean isAnalyzable(Column column) {
+        Type type = column.getType();
+        return type.isScalarType() && !type.isHllType() && !type.isBitmapType();
+    }
+
+    // SELECT count(*), ndv(c1), count(c1), [avg(length(c1)), max(length(c1))], ...
+    // FROM (SELECT c1, ... FROM tbl WHERE rand() < sample_rate) t
+    // the whole table is read if it is not sampled, limited by sample_row_num in case its row count is stale
+    static String buildQuery(String tblName, List<Column> columns, double sampleRate) {
+        List<String> aggExprs = Lists.newArrayList("count(*)");
+        List<String> columnNames = Lists.newArrayList();
+        for (Column column : columns) {
+            String name = "`" + column.getName() + "`";
+            columnNames.add(name);
+            aggExprs.add("ndv(" + name + ")");
+            aggExprs.add("count(" + name + ")");
+            if (column.getType().isStringType()) {
+                aggExprs.add("avg(length(" + name + "))");
+                aggExprs.add("max(length(" + name + "))");
+            }
+        }
+        String query = "SELECT " + Joiner.on(", ").join(aggExprs)
+                + " FROM (SELECT " + Joiner.on(", ").join(columnNames) + " FROM `" + tblName + "`";
+        if (sampleRate < 1.0) {
+            return query + " WHERE " + buildSamplePredicate(sampleRate) + ") t";
+        }
+        return query + " LIMIT " + Config.statistics_sample_row_num + ") t";
+    }
+
+    private static String buildSamplePredicate(double sampleRate) {
+        // avoid the scientific notation of small doubles
+        return "rand() < " + BigDecimal.valueOf(sampleRate).toPlainString();
+    }
+
+    // compute the stats of the whole table from the result of buildQuery()
+    static Map<String, ColumnStats> computeStats(List<Column> columns, List<String> values, long rowCount) {
+        Map<String, ColumnStats> result = Maps.newHashMap();
+        long sampleRowCount = parseLong(values.get(0));
+        // the row count reported by backends may be stale
+        long totalRowCount = Math.max(rowCount, sampleRowCount);
+        double scale = sampleRowCount > 0 ? (double) totalRowCount / sampleRowCount : 1.0;
+        int idx = 1;
+        for (Column column : columns) {
+            long numDistinct = parseLong(values.get(idx++));
+            long numNonNull = parseLong(values.get(idx++));
+            ColumnStats stats = new ColumnStats(column.getType().getPrimitiveType());
+            // hll may over estimate
+            numDistinct = Math.min(numDistinct, numNonNull);
+            if (scale > 1.0) {
+                numDistinct = estimateNumDistinct(numDistinct, numNonNull, Math.round(numNonNull * scale));
+            }
+            stats.setNumDistinctValues(numDistinct);
+            stats.setNumNulls(Math.round((sampleRowCount - numNonNull) * scale));
+            if (column.getType().isStringType()) {
+                String avgLength = values.get(idx++);
+                String maxLength = values.get(idx++);
+                if (avgLength != null) {
+                    stats.setAvgSerializedSize((float) Double.parseDouble(avgLength));
+                }
+                if (maxLength != null) {
+                    stats.setMaxSize(parseLong(maxLength));
+                }
+            }
+            result.put(column.getName(), stats);
+        }
+        return result;
+    }
+
+    /*
+     * Estimate the number of distinct values of all non null values by the sample, assuming every value
+     * appears in the same number of rows. If D values are in N rows, a sample of n rows, in which each row
+     * is sampled with probability n / N, is expected to have D * (1 - (1 - n / N) ^ (N / D)) distinct values.
+     * It increases with D, so D is solved by bisection between the number of distinct values in the sample and N.
+     * So a unique column is scaled up to N, and a column whose values are all seen in the sample is not scaled.
+     */
+    static long estimateNumDistinct(long sampleNumDistinct, long sampleNumNonNull, long totalNumNonNull) {
+        if (sampleNumDistinct <= 0 || sampleNumNonNull <= 0) {
+            return sampleNumDistinct;
+        }
+        totalNumNonNull = Math.max(totalNumNonNull, sampleNumNonNull);
+        if (sampleNumDistinct >= sampleNumNonNull) {
+            return totalNumNonNull;
+        }
+        double missRate = 1.0 - (double) sampleNumNonNull / totalNumNonNull;
+        long low = sampleNumDistinct;
+        long high = totalNumNonNull;
+        while (low < high) {
+            long mid = low + (high - low) / 2;
+            double expected = mid * (1.0 - Math.pow(missRate, (double) totalNumNonNull / mid));
+            if (expected < sampleNumDistinct) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long parseLong(String value) {
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    private static List<List<String>> executeQuery(Database db, String sql) throws Exception {
+        ConnectContext context = new ConnectContext(null);
+        context.setCatalog(Catalog.getCurrentCatalog());
+        context.setCluster(db.getClusterName());
+        context.setDatabase(db.getFullName());
+        context.setQualifiedUser(PaloAuth.ROOT_USER);
+        context.setCurrentUserIdentity(UserIdentity.ROOT);
+        context.getSessionVariable().setQueryTimeoutS(Config.statistics_collect_timeout_second);
+        context.setThreadLocalInfo();
+        try {
+            return new StmtExecutor(context, sql).executeInternalQuery();
+        } finally {
+            ConnectContext.remove();
+        }
+    }
+}
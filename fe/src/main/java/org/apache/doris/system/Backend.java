@@ -406,6 +406,10 @@ public class Backend implements Writable {
                 diskInfo.setStorageMedium(tDisk.getStorage_medium());
             }
 
+            if (tDisk.isSetIo_util()) {
+                diskInfo.setIoUtil(tDisk.getIo_util());
+            }
+
             if (isUsed) {
                 if (diskInfo.setState(DiskState.ONLINE)) {
                     isChanged = true;
@@ -173,6 +173,10 @@ public class HeartbeatMgr extends MasterDaemon {
                 Backend be = nodeMgr.getBackend(hbResponse.getBeId());
                 if (be != null) {
                     boolean isChanged = be.handleHbResponse(hbResponse);
+                    if (isChanged && !isReplay) {
+                        // eg: backend is down or alive again, the health of tablets on it should be checked
+                        Catalog.getCurrentCatalog().getTabletChecker().markBackendDirty(be.getId());
+                    }
                     if (hbResponse.getStatus() != HbStatus.OK) {
                         // invalid all connections cached in ClientPool
                         ClientPool.backendPool.clearPool(new TNetworkAddress(be.getHost(), be.getBePort()));
@@ -20,53 +20,70 @@ package org.apache.doris.task;
 import org.apache.doris.thrift.TPushType;
 import org.apache.doris.thrift.TTaskType;
 
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Table;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Task queue
+ *
+ * The tasks are sharded by backend, and saved in concurrent maps, so that the tasks of different
+ * backends can be added and removed without contention. A task is only counted when it is actually
+ * put into or removed from the map, so the counters are always consistent with the maps.
  */
 public class AgentTaskQueue {
     private static final Logger LOG = LogManager.getLogger(AgentTaskQueue.class);
 
     // backend id -> (task type -> (signature -> agent task))
-    private static Table<Long, TTaskType, Map<Long, AgentTask>> tasks = HashBasedTable.create();
-    private static int taskNum = 0;
+    private static final ConcurrentMap<Long, ConcurrentMap<TTaskType, ConcurrentMap<Long, AgentTask>>> tasks =
+            Maps.newConcurrentMap();
+    private static final AtomicInteger taskNum = new AtomicInteger(0);
+    // task type -> number of tasks of all backends
+    private static final Map<TTaskType, AtomicInteger> taskNumOfType = new EnumMap<>(TTaskType.class);
 
-    public static synchronized void addBatchTask(AgentBatchTask batchTask) {
+    static {
+        for (TTaskType type : TTaskType.values()) {
+            taskNumOfType.put(type, new AtomicInteger(0));
+        }
+    }
+
+    public static void addBatchTask(AgentBatchTask batchTask) {
         for (AgentTask task : batchTask.getAllTasks()) {
             addTask(task);
         }
     }
  
-    public static synchronized boolean addTask(AgentTask task) {
+    public static boolean addTask(AgentTask task) {
         long backendId = task.getBackendId();
         TTaskType type = task.getTaskType();
 
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
+        ConcurrentMap<TTaskType, ConcurrentMap<Long, AgentTask>> backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
+            tasks.putIfAbsent(backendId, Maps.<TTaskType, ConcurrentMap<Long, AgentTask>>newConcurrentMap());
+            backendTasks = tasks.get(backendId);
+        }
+        ConcurrentMap<Long, AgentTask> signatureMap = backendTasks.get(type);
         if (signatureMap == null) {
-            signatureMap = Maps.newHashMap();
-            tasks.put(backendId, type, signatureMap);
+            backendTasks.putIfAbsent(type, Maps.<Long, AgentTask>newConcurrentMap());
+            signatureMap = backendTasks.get(type);
         }
         
         long signature = task.getSignature();
-        if (signatureMap.containsKey(signature)) {
+        if (signatureMap.putIfAbsent(signature, task) != null) {
             return false;
         }
-        signatureMap.put(signature, task);
-        ++taskNum;
+        incTaskNum(type, 1);
         LOG.debug("add task: type[{}], backend[{}], signature[{}]", type, backendId, signature);
         if (type == TTaskType.PUSH) {
             PushTask pushTask = (PushTask) task;
@@ -78,37 +95,36 @@ public class AgentTaskQueue {
     
     // remove all task in AgentBatchTask.
     // the caller should make sure all tasks in AgentBatchTask is type of 'type'
-    public static synchronized void removeBatchTask(AgentBatchTask batchTask, TTaskType type) {
+    public static void removeBatchTask(AgentBatchTask batchTask, TTaskType type) {
         for (AgentTask task : batchTask.getAllTasks()) {
             removeTask(task.getBackendId(), type, task.getSignature());
         }
     }
 
-    public static synchronized void removeTask(long backendId, TTaskType type, long signature) {
-        if (!tasks.contains(backendId, type)) {
+    public static void removeTask(long backendId, TTaskType type, long signature) {
+        Map<Long, AgentTask> signatureMap = getSignatureMap(backendId, type);
+        if (signatureMap == null) {
             return;
         }
 
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
-        if (!signatureMap.containsKey(signature)) {
+        if (signatureMap.remove(signature) == null) {
             return;
         }
-        signatureMap.remove(signature);
         LOG.debug("remove task: type[{}], backend[{}], signature[{}]", type, backendId, signature);
-        --taskNum;
+        incTaskNum(type, -1);
     }
     
     /*
      * we cannot define a push task with only 'backendId', 'signature' and 'TTaskType'
      * add version, versionHash and TPushType to help
      */
-    public static synchronized void removePushTask(long backendId, long signature, long version, long versionHash,
-                                                   TPushType pushType, TTaskType taskType) {
-        if (!tasks.contains(backendId, taskType)) {
+    public static void removePushTask(long backendId, long signature, long version, long versionHash,
+                                      TPushType pushType, TTaskType taskType) {
+        Map<Long, AgentTask> signatureMap = getSignatureMap(backendId, taskType);
+        if (signatureMap == null) {
             return;
         }
 
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, taskType);
         AgentTask task = signatureMap.get(signature);
         if (task == null) {
             return;
@@ -119,45 +135,48 @@ public class AgentTaskQueue {
             return;
         }
 
-        signatureMap.remove(signature);
+        // the task may be removed or replaced concurrently
+        if (!signatureMap.remove(signature, task)) {
+            return;
+        }
         LOG.debug("remove task: type[{}], backend[{}], signature[{}]", taskType, backendId, signature);
-        --taskNum;
+        incTaskNum(taskType, -1);
     }
 
-    public static synchronized void removeTaskOfType(TTaskType type, long signature) {
-        // be id -> (signature -> task)
-        Map<Long, Map<Long, AgentTask>> map = tasks.column(type);
-        for (Map<Long, AgentTask> innerMap : map.values()) {
-            innerMap.remove(signature);
+    public static void removeTaskOfType(TTaskType type, long signature) {
+        for (long backendId : tasks.keySet()) {
+            removeTask(backendId, type, signature);
         }
     }
 
-    public static synchronized AgentTask getTask(long backendId, TTaskType type, long signature) {
-        if (!tasks.contains(backendId, type)) {
+    public static AgentTask getTask(long backendId, TTaskType type, long signature) {
+        Map<Long, AgentTask> signatureMap = getSignatureMap(backendId, type);
+        if (signatureMap == null) {
             return null;
         }
-
-        Map<Long, AgentTask> signatureMap = tasks.get(backendId, type);
         return signatureMap.get(signature);
     }
     
     // this is just for unit test
-    public static synchronized List<AgentTask> getTask(TTaskType type) {
+    public static List<AgentTask> getTask(TTaskType type) {
         List<AgentTask> res = Lists.newArrayList();
-        for (Map<Long, AgentTask> agentTasks : tasks.column(TTaskType.ALTER).values()) {
-            res.addAll(agentTasks.values());
+        for (Map<TTaskType, ConcurrentMap<Long, AgentTask>> backendTasks : tasks.values()) {
+            Map<Long, AgentTask> signatureMap = backendTasks.get(type);
+            if (signatureMap != null) {
+                res.addAll(signatureMap.values());
+            }
         }
         return res;
     }
 
-    public static synchronized List<AgentTask> getDiffTasks(long backendId, Map<TTaskType, Set<Long>> runningTasks) {
+    public static List<AgentTask> getDiffTasks(long backendId, Map<TTaskType, Set<Long>> runningTasks) {
         List<AgentTask> diffTasks = new ArrayList<AgentTask>();
-        if (!tasks.containsRow(backendId)) {
+        Map<TTaskType, ConcurrentMap<Long, AgentTask>> backendAllTasks = tasks.get(backendId);
+        if (backendAllTasks == null) {
             return diffTasks;
         }
         
-        Map<TTaskType, Map<Long, AgentTask>> backendAllTasks = tasks.row(backendId);
-        for (Map.Entry<TTaskType, Map<Long, AgentTask>> entry : backendAllTasks.entrySet()) {
+        for (Map.Entry<TTaskType, ConcurrentMap<Long, AgentTask>> entry : backendAllTasks.entrySet()) {
             TTaskType taskType = entry.getKey();
             Map<Long, AgentTask> tasks = entry.getValue();
             Set<Long> excludeSignatures = new HashSet<Long>();
@@ -177,48 +196,49 @@ public class AgentTaskQueue {
         return diffTasks;
     }
 
-    public static synchronized void removeReplicaRelatedTasks(long backendId, long tabletId) {
-        if (!tasks.containsRow(backendId)) {
+    public static void removeReplicaRelatedTasks(long backendId, long tabletId) {
+        Map<TTaskType, ConcurrentMap<Long, AgentTask>> backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
             return;
         }
 
-        Map<TTaskType, Map<Long, AgentTask>> backendTasks = tasks.row(backendId);
-        for (TTaskType type : TTaskType.values()) {
-            if (backendTasks.containsKey(type)) {
-                Map<Long, AgentTask> typeTasks = backendTasks.get(type);
-                if (type == TTaskType.REALTIME_PUSH) {
-                    Iterator<AgentTask> taskIterator = typeTasks.values().iterator();
-                    while (taskIterator.hasNext()) {
-                        PushTask realTimePushTask = (PushTask) taskIterator.next();
-                        if (tabletId == realTimePushTask.getTabletId()) {
-                            taskIterator.remove();
-                        }
-                    }
-                } else {
-                    if (typeTasks.containsKey(tabletId)) {
-                        typeTasks.remove(tabletId);
-                        LOG.debug("remove task: type[{}], backend[{}], signature[{}]", type, backendId, tabletId);
-                        --taskNum;
+        for (Map.Entry<TTaskType, ConcurrentMap<Long, AgentTask>> entry : backendTasks.entrySet()) {
+            TTaskType type = entry.getKey();
+            Map<Long, AgentTask> typeTasks = entry.getValue();
+            if (type == TTaskType.REALTIME_PUSH) {
+                for (Map.Entry<Long, AgentTask> taskEntry : typeTasks.entrySet()) {
+                    PushTask realTimePushTask = (PushTask) taskEntry.getValue();
+                    if (tabletId == realTimePushTask.getTabletId()
+                            && typeTasks.remove(taskEntry.getKey(), realTimePushTask)) {
+                        incTaskNum(type, -1);
                     }
                 }
+            } else {
+                if (typeTasks.remove(tabletId) != null) {
+                    LOG.debug("remove task: type[{}], backend[{}], signature[{}]", type, backendId, tabletId);
+                    incTaskNum(type, -1);
+                }
             }
         } // end for types
     }
 
     // only for test now
-    public static synchronized void clearAllTasks() {
+    public static void clearAllTasks() {
         tasks.clear();
-        taskNum = 0;
+        taskNum.set(0);
+        for (AtomicInteger num : taskNumOfType.values()) {
+            num.set(0);
+        }
     }
 
-    public static synchronized int getTaskNum() {
-        return taskNum;
+    public static int getTaskNum() {
+        return taskNum.get();
     }
 
-    public static synchronized int getTaskNum(long backendId, TTaskType type, boolean isFailed) {
+    public static int getTaskNum(long backendId, TTaskType type, boolean isFailed) {
         int taskNum = 0;
         if (backendId != -1) {
-            Map<Long, AgentTask> taskMap = tasks.get(backendId, type);
+            Map<Long, AgentTask> taskMap = getSignatureMap(backendId, type);
             if (taskMap != null) {
                 if (isFailed) {
                     for (AgentTask task : taskMap.values()) {
@@ -230,30 +250,29 @@ public class AgentTaskQueue {
                     taskNum += taskMap.size();
                 }
             }
-        } else {
-            Map<Long, Map<Long, AgentTask>> taskMap = tasks.column(type);
-            if (taskMap != null) {
-                for (Map<Long, AgentTask> signatureMap : taskMap.values()) {
-                    if (isFailed) {
-                        for (AgentTask task : signatureMap.values()) {
-                            if (task.getFailedTimes() > 0) {
-                                ++taskNum;
-                            }
-                        }
-                    } else {
-                        taskNum += signatureMap.size();
+        } else if (isFailed) {
+            for (Map<TTaskType, ConcurrentMap<Long, AgentTask>> backendTasks : tasks.values()) {
+                Map<Long, AgentTask> signatureMap = backendTasks.get(type);
+                if (signatureMap == null) {
+                    continue;
+                }
+                for (AgentTask task : signatureMap.values()) {
+                    if (task.getFailedTimes() > 0) {
+                        ++taskNum;
                     }
                 }
             }
+        } else {
+            taskNum = taskNumOfType.get(type).get();
         }
 
-        LOG.info("get task num with type[{}] in backend[{}]: {}. isFailed: {}",
+        LOG.debug("get task num with type[{}] in backend[{}]: {}. isFailed: {}",
                  type.name(), backendId, taskNum, isFailed);
         return taskNum;
     }
 
-    public static synchronized List<AgentTask> getFailedTask(long backendId, TTaskType type) {
-        Map<Long, AgentTask> taskMap = tasks.get(backendId, type);
+    public static List<AgentTask> getFailedTask(long backendId, TTaskType type) {
+        Map<Long, AgentTask> taskMap = getSignatureMap(backendId, type);
         List<AgentTask> tasks = Lists.newArrayList();
         if (taskMap != null) {
             for (AgentTask task : taskMap.values()) {
@@ -264,5 +283,17 @@ public class AgentTaskQueue {
         }
         return tasks;
     }
-}
 
+    private static Map<Long, AgentTask> getSignatureMap(long backendId, TTaskType type) {
+        Map<TTaskType, ConcurrentMap<Long, AgentTask>> backendTasks = tasks.get(backendId);
+        if (backendTasks == null) {
+            return null;
+        }
+        return backendTasks.get(type);
+    }
+
+    private static void incTaskNum(TTaskType type, int delta) {
+        taskNum.addAndGet(delta);
+        taskNumOfType.get(type).addAndGet(delta);
+    }
+}
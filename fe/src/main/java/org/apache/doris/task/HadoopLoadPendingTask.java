@@ -191,7 +191,8 @@ public class HadoopLoadPendingTask extends LoadPendingTask {
             }
 
             EtlIndex etlIndex = new EtlIndex();
-            etlIndex.setKeysType(table.getKeysType());
+            KeysType keysType = table.getKeysTypeByIndexId(indexId);
+            etlIndex.setKeysType(keysType);
             // index id
             etlIndex.setIndexId(indexId);
 
@@ -211,14 +212,14 @@ public class HadoopLoadPendingTask extends LoadPendingTask {
                 } else {
                     dppColumn.put("is_key", false);
                     String aggregation = "none";
-                    if ("AGG_KEYS" == table.getKeysType().name()) {
+                    if (keysType == KeysType.AGG_KEYS) {
                         AggregateType aggregateType = column.getAggregationType();
                         if (AggregateType.SUM == aggregateType) {
                             aggregation = "ADD";
                         } else {
                             aggregation = aggregateType.name();
                         }
-                    } else if (table.getKeysType().name().equalsIgnoreCase("UNIQUE_KEYS")) {
+                    } else if (keysType == KeysType.UNIQUE_KEYS) {
                         aggregation = "REPLACE";
                     }
                     dppColumn.put("aggregation_method", aggregation);
@@ -0,0 +1,141 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.transaction;
+
+import org.apache.doris.transaction.TransactionState.LoadJobSourceType;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Transaction states of one database.
+ * Each database has its own lock, label index and running txn counters, so that transactions
+ * of different databases do not block each other.
+ * All unprotected methods should be called with the lock of this database held.
+ */
+public class DatabaseTransactionMgr {
+    private final long dbId;
+
+    // the lock is used to control the access to transaction states of this db
+    // no other locks should be inside this lock
+    private final ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
+
+    // transactionId -> TransactionState
+    private final Map<Long, TransactionState> idToTransactionState = Maps.newHashMap();
+    // label -> txn ids
+    // this is used for checking if label already used. a label may correspond to multiple txns,
+    // and only one is success.
+    // this member should be consistent with idToTransactionState
+    private final Map<String, Set<Long>> labelToTxnIds = Maps.newHashMap();
+    // the number of running txns, except for the routine load txn
+    private int runningTxnNum = 0;
+    // the number of running routine load txns
+    private int runningRoutineLoadTxnNum = 0;
+
+    public DatabaseTransactionMgr(long dbId) {
+        this.dbId = dbId;
+    }
+
+    public long getDbId() {
+        return dbId;
+    }
+
+    public void readLock() {
+        this.transactionLock.readLock().lock();
+    }
+
+    public void readUnlock() {
+        this.transactionLock.readLock().unlock();
+    }
+
+    public void writeLock() {
+        this.transactionLock.writeLock().lock();
+    }
+
+    public void writeUnlock() {
+        this.transactionLock.writeLock().unlock();
+    }
+
+    public Set<Long> unprotectedGetTxnIdsByLabel(String label) {
+        return labelToTxnIds.get(label);
+    }
+
+    public TransactionState unprotectedGetTransactionState(long transactionId) {
+        return idToTransactionState.get(transactionId);
+    }
+
+    public Collection<TransactionState> unprotectedGetTransactionStates() {
+        return idToTransactionState.values();
+    }
+
+    public int unprotectedGetRunningTxnNum() {
+        return runningTxnNum;
+    }
+
+    public int unprotectedGetRunningRoutineLoadTxnNum() {
+        return runningRoutineLoadTxnNum;
+    }
+
+    public void unprotectedUpsertTransactionState(TransactionStatus preStatus, TransactionState transactionState) {
+        idToTransactionState.put(transactionState.getTransactionId(), transactionState);
+        Set<Long> txnIds = labelToTxnIds.get(transactionState.getLabel());
+        if (txnIds == null) {
+            txnIds = Sets.newHashSet();
+            labelToTxnIds.put(transactionState.getLabel(), txnIds);
+        }
+        txnIds.add(transactionState.getTransactionId());
+        updateRunningTxnNum(preStatus, transactionState);
+    }
+
+    public void unprotectedRemoveTransactionState(TransactionState transactionState) {
+        idToTransactionState.remove(transactionState.getTransactionId());
+        Set<Long> txnIds = labelToTxnIds.get(transactionState.getLabel());
+        if (txnIds != null) {
+            txnIds.remove(transactionState.getTransactionId());
+            if (txnIds.isEmpty()) {
+                labelToTxnIds.remove(transactionState.getLabel());
+            }
+        }
+    }
+
+    private void updateRunningTxnNum(TransactionStatus preStatus, TransactionState curTxnState) {
+        int delta = 0;
+        if (preStatus == null
+                && (curTxnState.getTransactionStatus() == TransactionStatus.PREPARE
+                || curTxnState.getTransactionStatus() == TransactionStatus.COMMITTED)) {
+            delta = 1;
+        } else if (preStatus != null
+                && (preStatus == TransactionStatus.PREPARE
+                || preStatus == TransactionStatus.COMMITTED)
+                && (curTxnState.getTransactionStatus() == TransactionStatus.VISIBLE
+                || curTxnState.getTransactionStatus() == TransactionStatus.ABORTED)) {
+            delta = -1;
+        }
+
+        if (curTxnState.getSourceType() == LoadJobSourceType.ROUTINE_LOAD_TASK) {
+            runningRoutineLoadTxnNum = Math.max(0, runningRoutineLoadTxnNum + delta);
+        } else {
+            runningTxnNum = Math.max(0, runningTxnNum + delta);
+        }
+    }
+}
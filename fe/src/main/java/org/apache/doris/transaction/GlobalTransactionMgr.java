@@ -28,6 +28,7 @@ import org.apache.doris.catalog.PartitionInfo;
 import org.apache.doris.catalog.Replica;
 import org.apache.doris.catalog.Tablet;
 import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.clone.TabletChecker;
 import org.apache.doris.common.AnalysisException;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.DuplicatedRequestException;
@@ -53,7 +54,6 @@ import org.apache.doris.transaction.TransactionState.LoadJobSourceType;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
@@ -71,7 +71,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
 /**
@@ -84,23 +83,14 @@ import java.util.stream.Collectors;
 public class GlobalTransactionMgr implements Writable {
     private static final Logger LOG = LogManager.getLogger(GlobalTransactionMgr.class);
     
-    // the lock is used to control the access to transaction states
-    // no other locks should be inside this lock
-    private ReentrantReadWriteLock transactionLock = new ReentrantReadWriteLock(true);
     private EditLog editLog;
-    
-    // transactionId -> TransactionState
+
+    // db id -> transaction states, labels and running txn nums of this db, with its own lock.
+    // callers get the db lock first, and then the lock of DatabaseTransactionMgr.
+    private Map<Long, DatabaseTransactionMgr> dbIdToDatabaseTransactionMgrs = Maps.newConcurrentMap();
+    // transactionId -> TransactionState, of all dbs.
+    // only modified with the lock of the txn's DatabaseTransactionMgr held
     private Map<Long, TransactionState> idToTransactionState = Maps.newConcurrentMap();
-    // db id -> (label -> txn ids)
-    // this is used for checking if label already used. a label may correspond to multiple txns,
-    // and only one is success.
-    // this member should be consistent with idToTransactionState, which means if a txn exist in idToTransactionState,
-    // it must exists in dbIdToTxnLabels, and vice versa
-    private com.google.common.collect.Table<Long, String, Set<Long>> dbIdToTxnLabels = HashBasedTable.create();
-    // count the number of running txns of each database, except for the routine load txn
-    private Map<Long, Integer> runningTxnNums = Maps.newHashMap();
-    // count only the number of running routine load txns of each database
-    private Map<Long, Integer> runningRoutineLoadTxnNums = Maps.newHashMap();
     private TransactionIdGenerator idGenerator = new TransactionIdGenerator();
     private TxnStateCallbackFactory callbackFactory = new TxnStateCallbackFactory();
     
@@ -116,6 +106,50 @@ public class GlobalTransactionMgr implements Writable {
         return callbackFactory;
     }
 
+    /*
+     * Return null if there is no transaction of the db.
+     * The manager of a db is only created when a transaction of it begins or is replayed, so that reading
+     * the transactions of a not existing db creates nothing. It is removed when the db is dropped and all
+     * its transactions are removed, so it exists as long as any transaction of the db exists.
+     */
+    public DatabaseTransactionMgr getDatabaseTransactionMgr(long dbId) {
+        return dbIdToDatabaseTransactionMgrs.get(dbId);
+    }
+
+    // Create the manager of the db if absent, and write lock it.
+    // The manager may be removed by removeDatabaseTransactionMgr() before it is locked, so check it after locking.
+    private DatabaseTransactionMgr getOrCreateAndWriteLock(long dbId) {
+        while (true) {
+            DatabaseTransactionMgr dbTransactionMgr = dbIdToDatabaseTransactionMgrs.computeIfAbsent(dbId,
+                    DatabaseTransactionMgr::new);
+            dbTransactionMgr.writeLock();
+            if (dbIdToDatabaseTransactionMgrs.get(dbId) == dbTransactionMgr) {
+                return dbTransactionMgr;
+            }
+            dbTransactionMgr.writeUnlock();
+        }
+    }
+
+    /*
+     * Remove the manager of a dropped db if it has no transaction.
+     * Otherwise it is removed after the remaining transactions are expired, see removeExpiredAndTimeoutTxns().
+     */
+    public void removeDatabaseTransactionMgr(long dbId) {
+        DatabaseTransactionMgr dbTransactionMgr = dbIdToDatabaseTransactionMgrs.get(dbId);
+        if (dbTransactionMgr == null) {
+            return;
+        }
+        dbTransactionMgr.writeLock();
+        try {
+            if (dbTransactionMgr.unprotectedGetTransactionStates().isEmpty()) {
+                dbIdToDatabaseTransactionMgrs.remove(dbId, dbTransactionMgr);
+                LOG.info("remove transaction manager of db {}", dbId);
+            }
+        } finally {
+            dbTransactionMgr.writeUnlock();
+        }
+    }
+
     public long beginTransaction(long dbId, String label, String coordinator, LoadJobSourceType sourceType,
             long timeoutSecond)
             throws AnalysisException, LabelAlreadyUsedException, BeginTransactionException, DuplicatedRequestException {
@@ -150,7 +184,7 @@ public class GlobalTransactionMgr implements Writable {
                     + " seconds");
         }
         
-        writeLock();
+        DatabaseTransactionMgr dbTransactionMgr = getOrCreateAndWriteLock(dbId);
         try {
             Preconditions.checkNotNull(coordinator);
             Preconditions.checkNotNull(label);
@@ -163,11 +197,11 @@ public class GlobalTransactionMgr implements Writable {
              *    existing txn id.
              * 3. if there is a non-aborted transaction, throw label already used exception.
              */
-            Set<Long> existingTxnIds = dbIdToTxnLabels.get(dbId, label);
+            Set<Long> existingTxnIds = dbTransactionMgr.unprotectedGetTxnIdsByLabel(label);
             if (existingTxnIds != null && !existingTxnIds.isEmpty()) {
                 List<TransactionState> notAbortedTxns = Lists.newArrayList();
                 for (long txnId : existingTxnIds) {
-                    TransactionState txn = idToTransactionState.get(txnId);
+                    TransactionState txn = dbTransactionMgr.unprotectedGetTransactionState(txnId);
                     Preconditions.checkNotNull(txn);
                     if (txn.getTransactionStatus() != TransactionStatus.ABORTED) {
                         notAbortedTxns.add(txn);
@@ -187,7 +221,7 @@ public class GlobalTransactionMgr implements Writable {
                 }
             }
 
-            checkRunningTxnExceedLimit(dbId, sourceType);
+            checkRunningTxnExceedLimit(dbTransactionMgr, sourceType);
           
             long tid = idGenerator.getNextTransactionId();
             LOG.info("begin transaction: txn id {} with label {} from coordinator {}", tid, label, coordinator);
@@ -209,11 +243,12 @@ public class GlobalTransactionMgr implements Writable {
             }
             throw e;
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
         }
     }
     
-    private void checkRunningTxnExceedLimit(long dbId, LoadJobSourceType sourceType) throws BeginTransactionException {
+    private void checkRunningTxnExceedLimit(DatabaseTransactionMgr dbTransactionMgr, LoadJobSourceType sourceType)
+            throws BeginTransactionException {
         switch (sourceType) {
             case ROUTINE_LOAD_TASK:
                 // no need to check limit for routine load task:
@@ -222,40 +257,54 @@ public class GlobalTransactionMgr implements Writable {
                 //    and other txn may not be able to submitted.
                 break;
             default:
-                if (runningTxnNums.getOrDefault(dbId, 0) >= Config.max_running_txn_num_per_db) {
-                    throw new BeginTransactionException("current running txns on db " + dbId + " is "
-                            + runningTxnNums.get(dbId) + ", larger than limit " + Config.max_running_txn_num_per_db);
+                int runningTxnNum = dbTransactionMgr.unprotectedGetRunningTxnNum();
+                if (runningTxnNum >= Config.max_running_txn_num_per_db) {
+                    throw new BeginTransactionException("current running txns on db " + dbTransactionMgr.getDbId()
+                            + " is " + runningTxnNum + ", larger than limit " + Config.max_running_txn_num_per_db);
                 }
                 break;
         }
     }
 
     public TransactionStatus getLabelState(long dbId, String label) {
-        readLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            return TransactionStatus.UNKNOWN;
+        }
+        dbTransactionMgr.readLock();
         try {
-            Set<Long> existingTxnIds = dbIdToTxnLabels.get(dbId, label);
+            Set<Long> existingTxnIds = dbTransactionMgr.unprotectedGetTxnIdsByLabel(label);
             if (existingTxnIds == null || existingTxnIds.isEmpty()) {
                 return TransactionStatus.UNKNOWN;
             }
             // find the latest txn (which id is largest)
             long maxTxnId = existingTxnIds.stream().max(Comparator.comparingLong(Long::valueOf)).get();
-            return idToTransactionState.get(maxTxnId).getTransactionStatus();
+            return dbTransactionMgr.unprotectedGetTransactionState(maxTxnId).getTransactionStatus();
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
     }
     
     public void deleteTransaction(long transactionId) {
-        writeLock();
+        TransactionState state = idToTransactionState.get(transactionId);
+        if (state == null) {
+            return;
+        }
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(state.getDbId());
+        if (dbTransactionMgr == null) {
+            // deleted concurrently
+            return;
+        }
+        dbTransactionMgr.writeLock();
         try {
-            TransactionState state = idToTransactionState.get(transactionId);
-            if (state == null) {
+            // may be deleted concurrently
+            if (dbTransactionMgr.unprotectedGetTransactionState(transactionId) == null) {
                 return;
             }
-            replayDeleteTransactionState(state);
+            unprotectedDeleteTransactionState(dbTransactionMgr, state);
             editLog.logDeleteTransactionState(state);
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
         }
     }
 
@@ -461,13 +510,17 @@ public class GlobalTransactionMgr implements Writable {
         transactionState.beforeStateTransform(TransactionStatus.COMMITTED);
         // transaction state transform
         boolean txnOperated = false;
-        writeLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            throw new TransactionCommitFailedException("transaction not found: " + transactionId);
+        }
+        dbTransactionMgr.writeLock();
         try {
             unprotectedCommitTransaction(transactionState, errorReplicaIds, tableToPartition, totalInvolvedBackends,
                                          db);
             txnOperated = true;
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
             // after state transform
             transactionState.afterStateTransform(TransactionStatus.COMMITTED, txnOperated);
         }
@@ -521,16 +574,20 @@ public class GlobalTransactionMgr implements Writable {
     public void abortTransaction(Long dbId, String label, String reason) throws UserException {
         Preconditions.checkNotNull(label);
         Long transactionId = null;
-        readLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            throw new UserException("transaction not found, label=" + label);
+        }
+        dbTransactionMgr.readLock();
         try {
-            Set<Long> existingTxns = dbIdToTxnLabels.get(dbId, label);
+            Set<Long> existingTxns = dbTransactionMgr.unprotectedGetTxnIdsByLabel(label);
             if (existingTxns == null || existingTxns.isEmpty()) {
                 throw new UserException("transaction not found, label=" + label);
             }
             // find PREPARE txn. For one load label, there should be only one PREPARE txn.
             TransactionState prepareTxn = null;
             for (Long txnId : existingTxns) {
-                TransactionState txn = idToTransactionState.get(txnId);
+                TransactionState txn = dbTransactionMgr.unprotectedGetTransactionState(txnId);
                 if (txn.getTransactionStatus() == TransactionStatus.PREPARE) {
                     prepareTxn = txn;
                     break;
@@ -543,7 +600,7 @@ public class GlobalTransactionMgr implements Writable {
 
             transactionId = prepareTxn.getTransactionId();
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         abortTransaction(transactionId, reason);
     }
@@ -570,11 +627,15 @@ public class GlobalTransactionMgr implements Writable {
         // before state transform
         transactionState.beforeStateTransform(TransactionStatus.ABORTED);
         boolean txnOperated = false;
-        writeLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(transactionState.getDbId());
+        if (dbTransactionMgr == null) {
+            throw new UserException("transaction not found");
+        }
+        dbTransactionMgr.writeLock();
         try {
             txnOperated = unprotectAbortTransaction(transactionId, reason);
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
             transactionState.afterStateTransform(TransactionStatus.ABORTED, txnOperated, reason);
         }
 
@@ -622,16 +683,22 @@ public class GlobalTransactionMgr implements Writable {
      * a ready-to-publish txn's partition's visible version should be ONE less than txn's commit version.
      */
     public List<TransactionState> getReadyToPublishTransactions() throws UserException {
-        readLock();
-        try {
-            // only send task to committed transaction
-            return idToTransactionState.values().stream()
-                    .filter(transactionState -> (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED))
-                    .sorted(Comparator.comparing(TransactionState::getCommitTime))
-                    .collect(Collectors.toList());
-        } finally {
-            readUnlock();
+        List<TransactionState> readyTxns = Lists.newArrayList();
+        for (DatabaseTransactionMgr dbTransactionMgr : dbIdToDatabaseTransactionMgrs.values()) {
+            dbTransactionMgr.readLock();
+            try {
+                // only send task to committed transaction
+                for (TransactionState transactionState : dbTransactionMgr.unprotectedGetTransactionStates()) {
+                    if (transactionState.getTransactionStatus() == TransactionStatus.COMMITTED) {
+                        readyTxns.add(transactionState);
+                    }
+                }
+            } finally {
+                dbTransactionMgr.readUnlock();
+            }
         }
+        readyTxns.sort(Comparator.comparing(TransactionState::getCommitTime));
+        return readyTxns;
     }
     
     /**
@@ -652,9 +719,13 @@ public class GlobalTransactionMgr implements Writable {
             errorReplicaIds.addAll(originalErrorReplicas);
         }
         
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(transactionState.getDbId());
+        if (dbTransactionMgr == null) {
+            throw new UserException("transaction not found: " + transactionId);
+        }
         Database db = catalog.getDb(transactionState.getDbId());
         if (db == null) {
-            writeLock();
+            dbTransactionMgr.writeLock();
             try {
                 transactionState.setTransactionStatus(TransactionStatus.ABORTED);
                 transactionState.setReason("db is dropped");
@@ -662,7 +733,7 @@ public class GlobalTransactionMgr implements Writable {
                 unprotectUpsertTransactionState(transactionState);
                 return;
             } finally {
-                writeUnlock();
+                dbTransactionMgr.writeUnlock();
             }
         }
         db.writeLock();
@@ -777,7 +848,7 @@ public class GlobalTransactionMgr implements Writable {
                 return;
             }
             boolean txnOperated = false;
-            writeLock();
+            dbTransactionMgr.writeLock();
             try {
                 transactionState.setErrorReplicas(errorReplicaIds);
                 transactionState.setFinishTime(System.currentTimeMillis());
@@ -785,7 +856,7 @@ public class GlobalTransactionMgr implements Writable {
                 unprotectUpsertTransactionState(transactionState);
                 txnOperated = true;
             } finally {
-                writeUnlock();
+                dbTransactionMgr.writeUnlock();
                 transactionState.afterStateTransform(TransactionStatus.VISIBLE, txnOperated);
             }
             updateCatalogAfterVisible(transactionState, db);
@@ -799,20 +870,25 @@ public class GlobalTransactionMgr implements Writable {
     // check if there exists a load job before the endTransactionId have all finished
     // load job maybe started but could not know the affected table id, so that we not check by table
     public boolean isPreviousTransactionsFinished(long endTransactionId, long dbId) {
-        readLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            // no transaction of the db
+            return true;
+        }
+        dbTransactionMgr.readLock();
         try {
-            for (Map.Entry<Long, TransactionState> entry : idToTransactionState.entrySet()) {
-                if (entry.getValue().getDbId() != dbId || !entry.getValue().isRunning()) {
+            for (TransactionState transactionState : dbTransactionMgr.unprotectedGetTransactionStates()) {
+                if (!transactionState.isRunning()) {
                     continue;
                 }
-                if (entry.getKey() <= endTransactionId) {
+                if (transactionState.getTransactionId() <= endTransactionId) {
                     LOG.debug("find a running txn with txn_id={} on db: {}, less than watermark txn_id {}",
-                            entry.getKey(), dbId, endTransactionId);
+                            transactionState.getTransactionId(), dbId, endTransactionId);
                     return false;
                 }
             }
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         return true;
     }
@@ -827,19 +903,21 @@ public class GlobalTransactionMgr implements Writable {
 
         List<Long> timeoutTxns = Lists.newArrayList();
         List<Long> expiredTxns = Lists.newArrayList();
-        readLock();
-        try {
-            for (TransactionState transactionState : idToTransactionState.values()) {
-                if (transactionState.isExpired(currentMillis)) {
-                    // remove the txn which labels are expired
-                    expiredTxns.add(transactionState.getTransactionId());
-                } else if (transactionState.isTimeout(currentMillis)) {
-                    // txn is running but timeout, abort it.
-                    timeoutTxns.add(transactionState.getTransactionId());
+        for (DatabaseTransactionMgr dbTransactionMgr : dbIdToDatabaseTransactionMgrs.values()) {
+            dbTransactionMgr.readLock();
+            try {
+                for (TransactionState transactionState : dbTransactionMgr.unprotectedGetTransactionStates()) {
+                    if (transactionState.isExpired(currentMillis)) {
+                        // remove the txn which labels are expired
+                        expiredTxns.add(transactionState.getTransactionId());
+                    } else if (transactionState.isTimeout(currentMillis)) {
+                        // txn is running but timeout, abort it.
+                        timeoutTxns.add(transactionState.getTransactionId());
+                    }
                 }
+            } finally {
+                dbTransactionMgr.readUnlock();
             }
-        } finally {
-            readUnlock();
         }
 
         // delete expired txns
@@ -848,6 +926,13 @@ public class GlobalTransactionMgr implements Writable {
             LOG.info("transaction [" + txnId + "] is expired, remove it from transaction manager");
         }
 
+        // remove the managers of dropped dbs whose transactions are all removed
+        for (Long dbId : Lists.newArrayList(dbIdToDatabaseTransactionMgrs.keySet())) {
+            if (catalog.getDb(dbId) == null) {
+                removeDatabaseTransactionMgr(dbId);
+            }
+        }
+
         // abort timeout txns
         for (Long txnId : timeoutTxns) {
             try {
@@ -861,12 +946,7 @@ public class GlobalTransactionMgr implements Writable {
     }
 
     public TransactionState getTransactionState(long transactionId) {
-        readLock();
-        try {
-            return idToTransactionState.get(transactionId);
-        } finally {
-            readUnlock();
-        }
+        return idToTransactionState.get(transactionId);
     }
     
     public void setEditLog(EditLog editLog) {
@@ -874,22 +954,6 @@ public class GlobalTransactionMgr implements Writable {
         this.idGenerator.setEditLog(editLog);
     }
     
-    private void readLock() {
-        this.transactionLock.readLock().lock();
-    }
-    
-    private void readUnlock() {
-        this.transactionLock.readLock().unlock();
-    }
-    
-    private void writeLock() {
-        this.transactionLock.writeLock().lock();
-    }
-    
-    private void writeUnlock() {
-        this.transactionLock.writeLock().unlock();
-    }
-    
     // for add/update/delete TransactionState
     private void unprotectUpsertTransactionState(TransactionState transactionState) {
         if (transactionState.getTransactionStatus() != TransactionStatus.PREPARE
@@ -901,8 +965,9 @@ public class GlobalTransactionMgr implements Writable {
             editLog.logInsertTransactionState(transactionState);
         }
         idToTransactionState.put(transactionState.getTransactionId(), transactionState);
-        updateTxnLabels(transactionState);
-        updateDBRunningTxnNum(transactionState.getPreStatus(), transactionState);
+        // the manager is locked by caller, so it exists
+        getDatabaseTransactionMgr(transactionState.getDbId()).unprotectedUpsertTransactionState(
+                transactionState.getPreStatus(), transactionState);
     }
 
     private void unprotectedCommitTransaction(TransactionState transactionState, Set<Long> errorReplicaIds,
@@ -965,7 +1030,7 @@ public class GlobalTransactionMgr implements Writable {
     // for replay idToTransactionState
     // check point also run transaction cleaner, the cleaner maybe concurrently modify id to 
     public void replayUpsertTransactionState(TransactionState transactionState) {
-        writeLock();
+        DatabaseTransactionMgr dbTransactionMgr = getOrCreateAndWriteLock(transactionState.getDbId());
         try {
             // set transaction status will call txn state change listener
             transactionState.replaySetTransactionStatus();
@@ -979,30 +1044,35 @@ public class GlobalTransactionMgr implements Writable {
             }
             TransactionState preTxnState = idToTransactionState.get(transactionState.getTransactionId());
             idToTransactionState.put(transactionState.getTransactionId(), transactionState);
-            updateTxnLabels(transactionState);
-            updateDBRunningTxnNum(preTxnState == null ? null : preTxnState.getTransactionStatus(),
-                                  transactionState);
+            dbTransactionMgr.unprotectedUpsertTransactionState(
+                    preTxnState == null ? null : preTxnState.getTransactionStatus(), transactionState);
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
         }
     }
     
     public void replayDeleteTransactionState(TransactionState transactionState) {
-        writeLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(transactionState.getDbId());
+        if (dbTransactionMgr == null) {
+            return;
+        }
+        dbTransactionMgr.writeLock();
         try {
-            idToTransactionState.remove(transactionState.getTransactionId());
-            Set<Long> txnIds = dbIdToTxnLabels.get(transactionState.getDbId(), transactionState.getLabel());
-            txnIds.remove(transactionState.getTransactionId());
-            if (txnIds.isEmpty()) {
-                dbIdToTxnLabels.remove(transactionState.getDbId(), transactionState.getLabel());
-            }
+            unprotectedDeleteTransactionState(dbTransactionMgr, transactionState);
         } finally {
-            writeUnlock();
+            dbTransactionMgr.writeUnlock();
         }
     }
+
+    private void unprotectedDeleteTransactionState(DatabaseTransactionMgr dbTransactionMgr,
+                                                   TransactionState transactionState) {
+        idToTransactionState.remove(transactionState.getTransactionId());
+        dbTransactionMgr.unprotectedRemoveTransactionState(transactionState);
+    }
     
     private void updateCatalogAfterCommitted(TransactionState transactionState, Database db) {
         Set<Long> errorReplicaIds = transactionState.getErrorReplicas();
+        TabletChecker tabletChecker = Catalog.getCurrentCatalog().getTabletChecker();
         for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
             long tableId = tableCommitInfo.getTableId();
             OlapTable table = (OlapTable) db.getTable(tableId);
@@ -1019,6 +1089,7 @@ public class GlobalTransactionMgr implements Writable {
                                 // should get from transaction state
                                 replica.updateLastFailedVersion(partitionCommitInfo.getVersion(),
                                                                 partitionCommitInfo.getVersionHash());
+                                tabletChecker.markTabletDirty(tablet.getId());
                             }
                         }
                     }
@@ -1038,6 +1109,7 @@ public class GlobalTransactionMgr implements Writable {
     
     private boolean updateCatalogAfterVisible(TransactionState transactionState, Database db) {
         Set<Long> errorReplicaIds = transactionState.getErrorReplicas();
+        TabletChecker tabletChecker = Catalog.getCurrentCatalog().getTabletChecker();
         for (TableCommitInfo tableCommitInfo : transactionState.getIdToTableCommitInfos().values()) {
             long tableId = tableCommitInfo.getTableId();
             OlapTable table = (OlapTable) db.getTable(tableId);
@@ -1072,6 +1144,7 @@ public class GlobalTransactionMgr implements Writable {
                                     lastFailedVersionHash = partition.getVisibleVersionHash();
                                     newVersion = replica.getVersion();
                                     newVersionHash = replica.getVersionHash();
+                                    tabletChecker.markTabletDirty(tablet.getId());
                                 }
 
                                 // success version always move forward
@@ -1089,6 +1162,8 @@ public class GlobalTransactionMgr implements Writable {
                                     lastFailedVersion = newCommitVersion;
                                     lastFailedVersionHash = newCommitVersionHash;
                                 }
+                                // the replica failed to publish, it may need to be repaired
+                                tabletChecker.markTabletDirty(tablet.getId());
                             }
                             replica.updateVersionInfo(newVersion, newVersionHash, lastFailedVersion, lastFailedVersionHash, lastSucessVersion, lastSuccessVersionHash);
                         }
@@ -1106,95 +1181,62 @@ public class GlobalTransactionMgr implements Writable {
         return true;
     }
     
-    private void updateTxnLabels(TransactionState transactionState) {
-        Set<Long> txnIds = dbIdToTxnLabels.get(transactionState.getDbId(), transactionState.getLabel());
-        if (txnIds == null) {
-            txnIds = Sets.newHashSet();
-            dbIdToTxnLabels.put(transactionState.getDbId(), transactionState.getLabel(), txnIds);
-        }
-        txnIds.add(transactionState.getTransactionId());
-    }
-    
-    private void updateDBRunningTxnNum(TransactionStatus preStatus, TransactionState curTxnState) {
-        Map<Long, Integer> txnNumMap = null;
-        if (curTxnState.getSourceType() == LoadJobSourceType.ROUTINE_LOAD_TASK) {
-            txnNumMap = runningRoutineLoadTxnNums;
-        } else {
-            txnNumMap = runningTxnNums;
-        }
-
-        int txnNum = txnNumMap.getOrDefault(curTxnState.getDbId(), 0);
-        if (preStatus == null
-                && (curTxnState.getTransactionStatus() == TransactionStatus.PREPARE
-                || curTxnState.getTransactionStatus() == TransactionStatus.COMMITTED)) {
-            ++txnNum;
-        } else if (preStatus != null
-                && (preStatus == TransactionStatus.PREPARE
-                || preStatus == TransactionStatus.COMMITTED)
-                && (curTxnState.getTransactionStatus() == TransactionStatus.VISIBLE
-                || curTxnState.getTransactionStatus() == TransactionStatus.ABORTED)) {
-            --txnNum;
-        }
-
-        if (txnNum < 1) {
-            txnNumMap.remove(curTxnState.getDbId());
-        } else {
-            txnNumMap.put(curTxnState.getDbId(), txnNum);
-        }
-    }
-    
     public List<List<Comparable>> getDbInfo() {
         List<List<Comparable>> infos = new ArrayList<List<Comparable>>();
-        readLock();
-        try {
-            Set<Long> dbIds = new HashSet<>();
-            for (TransactionState transactionState : idToTransactionState.values()) {
-                dbIds.add(transactionState.getDbId());
-            }
-            for (long dbId : dbIds) {
-                List<Comparable> info = new ArrayList<Comparable>();
-                info.add(dbId);
-                Database db = Catalog.getInstance().getDb(dbId);
-                if (db == null) {
-                    continue;
-                }
-                info.add(db.getFullName());
-                infos.add(info);
+        Set<Long> dbIds = new HashSet<>();
+        for (TransactionState transactionState : idToTransactionState.values()) {
+            dbIds.add(transactionState.getDbId());
+        }
+        for (long dbId : dbIds) {
+            List<Comparable> info = new ArrayList<Comparable>();
+            info.add(dbId);
+            Database db = Catalog.getInstance().getDb(dbId);
+            if (db == null) {
+                continue;
             }
-        } finally {
-            readUnlock();
+            info.add(db.getFullName());
+            infos.add(info);
         }
         return infos;
     }
     
     public List<List<String>> getDbTransStateInfo(long dbId) {
         List<List<String>> infos = Lists.newArrayList();
-        readLock();
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            infos.add(Lists.newArrayList("running", "0"));
+            infos.add(Lists.newArrayList("finished", "0"));
+            return infos;
+        }
+        dbTransactionMgr.readLock();
         try {
-            infos.add(Lists.newArrayList("running", String.valueOf(
-                    runningTxnNums.getOrDefault(dbId, 0) + runningRoutineLoadTxnNums.getOrDefault(dbId, 0))));
-            long finishedNum = idToTransactionState.values().stream().filter(
-                    t -> (t.getDbId() == dbId && t.getTransactionStatus().isFinalStatus())).count();
+            infos.add(Lists.newArrayList("running", String.valueOf(dbTransactionMgr.unprotectedGetRunningTxnNum()
+                    + dbTransactionMgr.unprotectedGetRunningRoutineLoadTxnNum())));
+            long finishedNum = dbTransactionMgr.unprotectedGetTransactionStates().stream().filter(
+                    t -> t.getTransactionStatus().isFinalStatus()).count();
             infos.add(Lists.newArrayList("finished", String.valueOf(finishedNum)));
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         return infos;
     }
 
     public List<List<String>> getDbTransInfo(long dbId, boolean running, int limit) throws AnalysisException {
         List<List<String>> infos = new ArrayList<List<String>>();
-        readLock();
+        Database db = Catalog.getInstance().getDb(dbId);
+        if (db == null) {
+            throw new AnalysisException("Database[" + dbId + "] does not exist");
+        }
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(dbId);
+        if (dbTransactionMgr == null) {
+            return infos;
+        }
+        dbTransactionMgr.readLock();
         try {
-            Database db = Catalog.getInstance().getDb(dbId);
-            if (db == null) {
-                throw new AnalysisException("Database[" + dbId + "] does not exist");
-            }
-
             // get transaction order by txn id desc limit 'limit'
-            idToTransactionState.values().stream()
-                    .filter(t -> (t.getDbId() == dbId && (running ? !t.getTransactionStatus().isFinalStatus()
-                            : t.getTransactionStatus().isFinalStatus()))).sorted(TransactionState.TXN_ID_COMPARATOR)
+            dbTransactionMgr.unprotectedGetTransactionStates().stream()
+                    .filter(t -> (running ? !t.getTransactionStatus().isFinalStatus()
+                            : t.getTransactionStatus().isFinalStatus())).sorted(TransactionState.TXN_ID_COMPARATOR)
                     .limit(limit)
                     .forEach(t -> {
                         List<String> info = new ArrayList<String>();
@@ -1213,19 +1255,23 @@ public class GlobalTransactionMgr implements Writable {
                         infos.add(info);
                     });
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         return infos;
     }
     
     public List<List<Comparable>> getTableTransInfo(long txnId) throws AnalysisException {
         List<List<Comparable>> tableInfos = new ArrayList<List<Comparable>>();
-        readLock();
+        TransactionState transactionState = idToTransactionState.get(txnId);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
+        }
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(transactionState.getDbId());
+        if (dbTransactionMgr == null) {
+            throw new AnalysisException("Transaction[" + transactionState.getTransactionId() + "] does not exist.");
+        }
+        dbTransactionMgr.readLock();
         try {
-            TransactionState transactionState = idToTransactionState.get(txnId);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + txnId + "] does not exist.");
-            }
 
             for (Map.Entry<Long, TableCommitInfo> entry : transactionState.getIdToTableCommitInfos().entrySet()) {
                 List<Comparable> tableInfo = new ArrayList<Comparable>();
@@ -1235,7 +1281,7 @@ public class GlobalTransactionMgr implements Writable {
                 tableInfos.add(tableInfo);
             }
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         return tableInfos;
     }
@@ -1243,12 +1289,16 @@ public class GlobalTransactionMgr implements Writable {
     public List<List<Comparable>> getPartitionTransInfo(long tid, long tableId)
             throws AnalysisException {
         List<List<Comparable>> partitionInfos = new ArrayList<List<Comparable>>();
-        readLock();
+        TransactionState transactionState = idToTransactionState.get(tid);
+        if (null == transactionState) {
+            throw new AnalysisException("Transaction[" + tid + "] does not exist.");
+        }
+        DatabaseTransactionMgr dbTransactionMgr = getDatabaseTransactionMgr(transactionState.getDbId());
+        if (dbTransactionMgr == null) {
+            throw new AnalysisException("Transaction[" + transactionState.getTransactionId() + "] does not exist.");
+        }
+        dbTransactionMgr.readLock();
         try {
-            TransactionState transactionState = idToTransactionState.get(tid);
-            if (null == transactionState) {
-                throw new AnalysisException("Transaction[" + tid + "] does not exist.");
-            }
             TableCommitInfo tableCommitInfo = transactionState.getIdToTableCommitInfos().get(tableId);
             Map<Long, PartitionCommitInfo> idToPartitionCommitInfo = tableCommitInfo.getIdToPartitionCommitInfo();
             for (Map.Entry<Long, PartitionCommitInfo> entry : idToPartitionCommitInfo.entrySet()) {
@@ -1259,7 +1309,7 @@ public class GlobalTransactionMgr implements Writable {
                 partitionInfos.add(partitionInfo);
             }
         } finally {
-            readUnlock();
+            dbTransactionMgr.readUnlock();
         }
         return partitionInfos;
     }
@@ -1289,37 +1339,27 @@ public class GlobalTransactionMgr implements Writable {
             transactionState.readFields(in);
             TransactionState preTxnState = idToTransactionState.get(transactionState.getTransactionId());
             idToTransactionState.put(transactionState.getTransactionId(), transactionState);
-            updateTxnLabels(transactionState);
-            updateDBRunningTxnNum(preTxnState == null ? null : preTxnState.getTransactionStatus(),
-                                  transactionState);
+            dbIdToDatabaseTransactionMgrs.computeIfAbsent(transactionState.getDbId(), DatabaseTransactionMgr::new)
+                    .unprotectedUpsertTransactionState(
+                            preTxnState == null ? null : preTxnState.getTransactionStatus(), transactionState);
         }
         idGenerator.readFields(in);
     }
 
     public TransactionState getTransactionStateByCallbackIdAndStatus(long callbackId, Set<TransactionStatus> status) {
-        readLock();
-        try {
-            for (TransactionState txn : idToTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
-                    return txn;
-                }
+        for (TransactionState txn : idToTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId && status.contains(txn.getTransactionStatus())) {
+                return txn;
             }
-        } finally {
-            readUnlock();
         }
         return null;
     }
 
     public TransactionState getTransactionStateByCallbackId(long callbackId) {
-        readLock();
-        try {
-            for (TransactionState txn : idToTransactionState.values()) {
-                if (txn.getCallbackId() == callbackId) {
-                    return txn;
-                }
+        for (TransactionState txn : idToTransactionState.values()) {
+            if (txn.getCallbackId() == callbackId) {
+                return txn;
             }
-        } finally {
-            readUnlock();
         }
         return null;
     }
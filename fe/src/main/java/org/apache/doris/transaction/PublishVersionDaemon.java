@@ -23,6 +23,7 @@ import org.apache.doris.catalog.TabletInvertedIndex;
 import org.apache.doris.common.Config;
 import org.apache.doris.common.UserException;
 import org.apache.doris.common.util.MasterDaemon;
+import org.apache.doris.metric.MetricRepo;
 import org.apache.doris.task.AgentBatchTask;
 import org.apache.doris.task.AgentTaskExecutor;
 import org.apache.doris.task.AgentTaskQueue;
@@ -31,7 +32,9 @@ import org.apache.doris.thrift.TPartitionVersionInfo;
 import org.apache.doris.thrift.TTaskType;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -40,11 +43,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class PublishVersionDaemon extends MasterDaemon {
     
     private static final Logger LOG = LogManager.getLogger(PublishVersionDaemon.class);
     
+    // send publish version tasks to backends concurrently.
+    // created when batch publish is used for the first time, and only accessed by the daemon thread.
+    private ExecutorService publishPool;
+
     public PublishVersionDaemon() {
         super("PUBLISH_VERSION", Config.publish_version_interval_ms);
     }
@@ -76,7 +85,8 @@ public class PublishVersionDaemon extends MasterDaemon {
             return;
         }
         // every backend-transaction identified a single task
-        AgentBatchTask batchTask = new AgentBatchTask();
+        // backend id -> publish version tasks of all ready transactions to this backend
+        Map<Long, List<PublishVersionTask>> backendToTasks = Maps.newHashMap();
         // traverse all ready transactions and dispatch the publish version task to all backends
         for (TransactionState transactionState : readyTransactionStates) {
             if (transactionState.hasSendTask()) {
@@ -116,14 +126,14 @@ public class PublishVersionDaemon extends MasterDaemon {
                 // add to AgentTaskQueue for handling finish report.
                 // not check return value, because the add will success
                 AgentTaskQueue.addTask(task);
-                batchTask.addTask(task);
+                backendToTasks.computeIfAbsent(backendId, k -> Lists.newArrayList()).add(task);
                 transactionState.addPublishVersionTask(backendId, task);
             }
             transactionState.setHasSendTask(true);
             LOG.info("send publish tasks for transaction: {}", transactionState.getTransactionId());
         }
-        if (!batchTask.getAllTasks().isEmpty()) {
-            AgentTaskExecutor.submit(batchTask);
+        if (!backendToTasks.isEmpty()) {
+            submitPublishVersionTasks(backendToTasks);
         }
         
         TabletInvertedIndex tabletInvertedIndex = Catalog.getCurrentInvertedIndex();
@@ -217,7 +227,56 @@ public class PublishVersionDaemon extends MasterDaemon {
                 for (PublishVersionTask task : transactionState.getPublishVersionTasks().values()) {
                     AgentTaskQueue.removeTask(task.getBackendId(), TTaskType.PUBLISH_VERSION, task.getSignature());
                 }
+                if (MetricRepo.isInit.get()) {
+                    MetricRepo.HISTO_TXN_PUBLISH_LATENCY.update(
+                            transactionState.getFinishTime() - transactionState.getCommitTime());
+                }
             }
         } // end for readyTransactionStates
     }
+
+    /*
+     * All publish version tasks of a round to the same backend are sent by one submit_tasks rpc.
+     * If batch publish is disabled, all tasks are put in one AgentBatchTask, which sends them to the backends
+     * one after another. Otherwise each backend has its own AgentBatchTask, and the backends are published
+     * concurrently by a bounded thread pool, so that a slow backend does not delay the others.
+     */
+    private void submitPublishVersionTasks(Map<Long, List<PublishVersionTask>> backendToTasks) {
+        if (!Config.enable_batch_publish_version) {
+            AgentBatchTask batchTask = new AgentBatchTask();
+            for (List<PublishVersionTask> tasks : backendToTasks.values()) {
+                for (PublishVersionTask task : tasks) {
+                    batchTask.addTask(task);
+                }
+            }
+            AgentTaskExecutor.submit(batchTask);
+            return;
+        }
+
+        if (publishPool == null) {
+            publishPool = Executors.newFixedThreadPool(Math.max(1, Config.publish_version_thread_num),
+                    new ThreadFactoryBuilder().setDaemon(true).setNameFormat("publish-version-pool-%d").build());
+        }
+        for (AgentBatchTask batchTask : createBatchTasks(backendToTasks)) {
+            publishPool.submit(batchTask);
+            if (MetricRepo.isInit.get()) {
+                MetricRepo.HISTO_TXN_PUBLISH_BATCH_NUM.update(batchTask.getTaskNum());
+            }
+        }
+    }
+
+    // one AgentBatchTask for each backend, which sends all tasks to the backend in one rpc
+    static List<AgentBatchTask> createBatchTasks(Map<Long, List<PublishVersionTask>> backendToTasks) {
+        List<AgentBatchTask> batchTasks = Lists.newArrayListWithCapacity(backendToTasks.size());
+        for (Map.Entry<Long, List<PublishVersionTask>> entry : backendToTasks.entrySet()) {
+            AgentBatchTask batchTask = new AgentBatchTask();
+            for (PublishVersionTask task : entry.getValue()) {
+                batchTask.addTask(task);
+            }
+            batchTasks.add(batchTask);
+            LOG.debug("send {} publish version tasks to backend {} in one batch",
+                    entry.getValue().size(), entry.getKey());
+        }
+        return batchTasks;
+    }
 }
@@ -0,0 +1,112 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.AggregateType;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.common.UserException;
+import org.apache.doris.mysql.privilege.MockedAuth;
+import org.apache.doris.mysql.privilege.PaloAuth;
+import org.apache.doris.qe.ConnectContext;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import mockit.Mocked;
+
+public class CreateMaterializedViewStmtTest {
+    private Analyzer analyzer;
+
+    @Mocked
+    private PaloAuth auth;
+    @Mocked
+    private ConnectContext ctx;
+
+    @Before
+    public void setUp() {
+        analyzer = AccessTestUtil.fetchAdminAnalyzer(true);
+        MockedAuth.mockedAuth(auth);
+        MockedAuth.mockedConnectContext(ctx, "root", "192.168.1.1");
+    }
+
+    private CreateMaterializedViewStmt parse(String sql) throws Exception {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql)));
+        return (CreateMaterializedViewStmt) parser.parse().value;
+    }
+
+    @Test
+    public void testNormal() throws Exception {
+        CreateMaterializedViewStmt stmt = parse("CREATE MATERIALIZED VIEW mv1 PROPERTIES (\"timeout\" = \"100\")"
+                + " AS SELECT k1, k2, SUM(v1), MAX(v2) FROM db1.tbl1 GROUP BY k2, k1");
+        stmt.analyze(analyzer);
+        Assert.assertEquals("mv1", stmt.getMVName());
+        Assert.assertEquals("testCluster:db1", stmt.getBaseTableName().getDb());
+        Assert.assertEquals("tbl1", stmt.getBaseTableName().getTbl());
+        Assert.assertEquals(100, stmt.getTimeoutSecond());
+
+        List<CreateMaterializedViewStmt.MVColumnItem> items = stmt.getMVColumnItems();
+        Assert.assertEquals(4, items.size());
+        Assert.assertTrue(items.get(0).isKey());
+        Assert.assertEquals("k2", items.get(1).getName());
+        Assert.assertTrue(items.get(1).isKey());
+        Assert.assertEquals("v1", items.get(2).getName());
+        Assert.assertEquals(AggregateType.SUM, items.get(2).getAggregateType());
+        Assert.assertEquals(AggregateType.MAX, items.get(3).getAggregateType());
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testNoGroupBy() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, v1 FROM db1.tbl1").analyze(analyzer);
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testGroupByNotKeys() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, k2, SUM(v1) FROM db1.tbl1 GROUP BY k1").analyze(analyzer);
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testUnsupportedAggregate() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, COUNT(v1) FROM db1.tbl1 GROUP BY k1").analyze(analyzer);
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testAggregateOnExpr() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, SUM(v1 + v2) FROM db1.tbl1 GROUP BY k1").analyze(analyzer);
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testKeyAfterValue() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, SUM(v1), k2 FROM db1.tbl1 GROUP BY k1, k2")
+                .analyze(analyzer);
+    }
+
+    @Test(expected = AnalysisException.class)
+    public void testWhere() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, SUM(v1) FROM db1.tbl1 WHERE k1 > 1 GROUP BY k1")
+                .analyze(analyzer);
+    }
+
+    @Test(expected = UserException.class)
+    public void testDuplicateColumn() throws Exception {
+        parse("CREATE MATERIALIZED VIEW mv1 AS SELECT k1, SUM(k1) FROM db1.tbl1 GROUP BY k1").analyze(analyzer);
+    }
+}
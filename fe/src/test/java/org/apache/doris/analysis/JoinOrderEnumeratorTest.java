@@ -0,0 +1,239 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.analysis;
+
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.qe.SessionVariable;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class JoinOrderEnumeratorTest {
+
+    @Mocked
+    private Analyzer analyzer;
+
+    private DescriptorTable descTbl;
+    private List<Expr> eqJoinConjuncts;
+
+    @Before
+    public void setUp() {
+        descTbl = new DescriptorTable();
+        eqJoinConjuncts = Lists.newArrayList();
+
+        new Expectations() {
+            {
+                analyzer.getUnassignedConjuncts((List<TupleId>) any);
+                minTimes = 0;
+                result = Lists.newArrayList();
+
+                analyzer.getEqJoinConjuncts((List<TupleId>) any, (List<TupleId>) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    List<Expr> getEqJoinConjuncts(List<TupleId> lhsIds, List<TupleId> rhsIds) {
+                        List<Expr> result = Lists.newArrayList();
+                        for (Expr conjunct : eqJoinConjuncts) {
+                            Expr lhs = conjunct.getChild(0);
+                            Expr rhs = conjunct.getChild(1);
+                            if ((lhs.isBoundByTupleIds(lhsIds) && rhs.isBoundByTupleIds(rhsIds))
+                                    || (lhs.isBoundByTupleIds(rhsIds) && rhs.isBoundByTupleIds(lhsIds))) {
+                                result.add(conjunct);
+                            }
+                        }
+                        return result;
+                    }
+                };
+
+                analyzer.getEqJoinConjunctsExcludeAuxPredicates((TupleId) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    List<Expr> getEqJoinConjunctsExcludeAuxPredicates(TupleId tupleId) {
+                        // same as Analyzer.registerConjunct(), registered to the tuple binding one side
+                        List<Expr> result = Lists.newArrayList();
+                        for (Expr conjunct : eqJoinConjuncts) {
+                            boolean lhsBound = conjunct.getChild(0).isBoundByTupleIds(tupleId.asList());
+                            boolean rhsBound = conjunct.getChild(1).isBoundByTupleIds(tupleId.asList());
+                            if (lhsBound != rhsBound) {
+                                result.add(conjunct);
+                            }
+                        }
+                        return result;
+                    }
+                };
+            }
+        };
+    }
+
+    private TableRef createTableRef(String tableName, long rowCount) {
+        return createTableRef(tableName, rowCount, true);
+    }
+
+    private TableRef createTableRef(String tableName, long rowCount, boolean isAnalyzed) {
+        Column column = new Column("k1", PrimitiveType.INT);
+        if (isAnalyzed) {
+            ColumnStats stats = new ColumnStats();
+            stats.setNumDistinctValues(rowCount);
+            column.setStats(stats);
+        }
+        OlapTable table = new OlapTable() {
+            {
+                name = tableName;
+            }
+
+            @Override
+            public long getRowCount() {
+                return rowCount;
+            }
+
+            @Override
+            public List<Column> getBaseSchema() {
+                return Lists.newArrayList(column);
+            }
+        };
+        TupleDescriptor desc = descTbl.createTupleDescriptor(tableName);
+        desc.setTable(table);
+        TableName name = new TableName("db", tableName);
+        BaseTableRef tableRef = new BaseTableRef(new TableRef(name, null), table, name);
+        tableRef.desc = desc;
+        tableRef.isAnalyzed = true;
+        return tableRef;
+    }
+
+    private SlotRef createSlotRef(TableRef tableRef) {
+        SlotDescriptor slot = descTbl.addSlotDescriptor(tableRef.getDesc());
+        slot.setType(Type.INT);
+        return new SlotRef(slot);
+    }
+
+    private void addEqJoinConjunct(Expr lhs, Expr rhs) {
+        eqJoinConjuncts.add(new BinaryPredicate(BinaryPredicate.Operator.EQ, lhs, rhs));
+    }
+
+    @Test
+    public void testStarJoin() {
+        TableRef fact = createTableRef("fact", 1000000);
+        TableRef dim1 = createTableRef("dim1", 100);
+        TableRef dim2 = createTableRef("dim2", 10);
+        addEqJoinConjunct(createSlotRef(fact), createSlotRef(dim1));
+        addEqJoinConjunct(createSlotRef(fact), createSlotRef(dim2));
+
+        List<TableRef> order = new JoinOrderEnumerator(analyzer, Lists.newArrayList(dim2, dim1, fact)).enumerate();
+        Assert.assertNotNull(order);
+        Assert.assertEquals(3, order.size());
+        // dimension tables can only be joined after the fact table
+        Assert.assertSame(fact, order.get(0));
+        Assert.assertTrue(order.contains(dim1));
+        Assert.assertTrue(order.contains(dim2));
+    }
+
+    @Test
+    public void testChainJoin() {
+        TableRef a = createTableRef("a", 1000);
+        TableRef b = createTableRef("b", 10);
+        TableRef c = createTableRef("c", 100000);
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(b));
+        addEqJoinConjunct(createSlotRef(b), createSlotRef(c));
+
+        // b references both a and c, so it must be the first one
+        List<TableRef> order = new JoinOrderEnumerator(analyzer, Lists.newArrayList(a, b, c)).enumerate();
+        Assert.assertNotNull(order);
+        Assert.assertSame(b, order.get(0));
+    }
+
+    @Test
+    public void testThreeTableOnClause() {
+        TableRef a = createTableRef("a", 1000);
+        TableRef b = createTableRef("b", 1000);
+        TableRef c = createTableRef("c", 10);
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(b));
+        // c.x = a.y + b.y
+        addEqJoinConjunct(createSlotRef(c),
+                new ArithmeticExpr(ArithmeticExpr.Operator.ADD, createSlotRef(a), createSlotRef(b)));
+
+        // c is the smallest table, but can only be joined after both a and b
+        List<TableRef> order = new JoinOrderEnumerator(analyzer, Lists.newArrayList(c, a, b)).enumerate();
+        Assert.assertNotNull(order);
+        Assert.assertEquals(3, order.size());
+        Assert.assertSame(c, order.get(2));
+    }
+
+    @Test
+    public void testNoValidOrder() {
+        TableRef a = createTableRef("a", 1000);
+        TableRef b = createTableRef("b", 1000);
+        TableRef c = createTableRef("c", 1000);
+        TableRef d = createTableRef("d", 1000);
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(b));
+        addEqJoinConjunct(createSlotRef(b), createSlotRef(c));
+        addEqJoinConjunct(createSlotRef(c), createSlotRef(d));
+
+        // both b and c reference two tables, one of them can not be joined after all its tables
+        Assert.assertNull(new JoinOrderEnumerator(analyzer, Lists.newArrayList(a, b, c, d)).enumerate());
+    }
+
+    @Test
+    public void testOuterJoin() {
+        TableRef a = createTableRef("a", 1000);
+        TableRef b = createTableRef("b", 10);
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(b));
+        b.setJoinOp(JoinOperator.LEFT_OUTER_JOIN);
+
+        Assert.assertNull(new JoinOrderEnumerator(analyzer, Lists.newArrayList(a, b)).enumerate());
+    }
+
+    @Test
+    public void testSemiJoin() {
+        TableRef a = createTableRef("a", 1000);
+        TableRef b = createTableRef("b", 10);
+        TableRef c = createTableRef("c", 100);
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(b));
+        addEqJoinConjunct(createSlotRef(a), createSlotRef(c));
+        c.setJoinOp(JoinOperator.LEFT_SEMI_JOIN);
+
+        Assert.assertNull(new JoinOrderEnumerator(analyzer, Lists.newArrayList(a, b, c)).enumerate());
+    }
+
+    @Test
+    public void testNotAnalyzed() {
+        TableRef fact = createTableRef("fact", 1000000);
+        TableRef dim1 = createTableRef("dim1", 100);
+        TableRef dim2 = createTableRef("dim2", 10, false);
+        addEqJoinConjunct(createSlotRef(fact), createSlotRef(dim1));
+        addEqJoinConjunct(createSlotRef(fact), createSlotRef(dim2));
+
+        // the estimation is only guessed, so the order of row count heuristic in SelectStmt is kept,
+        // and plans do not change for tables without stats
+        Assert.assertNull(new JoinOrderEnumerator(analyzer, Lists.newArrayList(dim2, dim1, fact)).enumerate());
+
+        // and cost based join reorder is disabled by default
+        Assert.assertFalse(new SessionVariable().isEnableCostBasedJoinReorder());
+    }
+}
@@ -21,11 +21,22 @@ import org.apache.doris.alter.AlterJob;
 import org.apache.doris.alter.AlterJob.JobType;
 import org.apache.doris.alter.SchemaChangeJob;
 import org.apache.doris.catalog.MaterializedIndex.IndexState;
+import org.apache.doris.catalog.OlapTable.OlapTableState;
 import org.apache.doris.cluster.Cluster;
+import org.apache.doris.common.Config;
+import org.apache.doris.common.DdlException;
 import org.apache.doris.common.FeConstants;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.io.Writable;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.journal.bdbje.Timestamp;
 import org.apache.doris.load.Load;
 import org.apache.doris.load.LoadJob;
 import org.apache.doris.meta.MetaContext;
+import org.apache.doris.persist.DropInfo;
+import org.apache.doris.persist.OperationType;
+
+import com.google.common.collect.Maps;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -44,6 +55,7 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -153,6 +165,47 @@ public class CatalogTest {
         deleteDir(dir);
     }
     
+    @Test
+    public void testSaveLoadDb() throws Exception {
+        String dir = "testLoadDb";
+        mkdir(dir);
+        File file = new File(dir, "image");
+        file.createNewFile();
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
+        Catalog catalog = Catalog.getInstance();
+        MetaContext.get().setMetaVersion(FeConstants.meta_version);
+        Field field = catalog.getClass().getDeclaredField("idToDb");
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        Map<Long, Database> idToDb = (Map<Long, Database>) field.get(catalog);
+        for (long i = 1; i <= 10; i++) {
+            idToDb.put(i, new Database(i, "db" + i));
+        }
+
+        long checksum1 = catalog.saveDb(dos, 0);
+        catalog.clear();
+        dos.close();
+
+        int oldThreadNum = Config.image_load_thread_num;
+        Config.image_load_thread_num = 4;
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            long checksum2 = catalog.loadDb(dis, 0);
+            Assert.assertEquals(checksum1, checksum2);
+            for (long i = 1; i <= 10; i++) {
+                Database db = catalog.getDb(i);
+                Assert.assertNotNull(db);
+                Assert.assertEquals("db" + i, db.getFullName());
+            }
+        } finally {
+            Config.image_load_thread_num = oldThreadNum;
+            dis.close();
+            catalog.clear();
+        }
+
+        deleteDir(dir);
+    }
+
     @Test
     public void testSaveLoadJob() throws Exception {
         String dir = "testLoadLoadJob";
@@ -235,4 +288,205 @@ public class CatalogTest {
         
         deleteDir(dir);
     }
+
+    // image with db sections only, returns the checksum
+    private long saveDbs(Catalog catalog, File file) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
+        try {
+            return catalog.saveDb(dos, 0);
+        } finally {
+            dos.close();
+        }
+    }
+
+    private long loadDbs(Catalog catalog, File file) throws IOException, DdlException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            return catalog.loadDb(dis, 0);
+        } finally {
+            dis.close();
+        }
+    }
+
+    // db id -> serialized db
+    private Map<Long, byte[]> readDbSections(File file) throws IOException {
+        Map<Long, byte[]> sections = Maps.newHashMap();
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            int dbCount = dis.readInt();
+            for (int i = 0; i < dbCount; i++) {
+                long dbId = dis.readLong();
+                byte[] data = new byte[dis.readInt()];
+                dis.readFully(data);
+                sections.put(dbId, data);
+            }
+        } finally {
+            dis.close();
+        }
+        return sections;
+    }
+
+    private JournalEntity createJournal(short opCode, Writable data) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(opCode);
+        entity.setData(data);
+        return entity;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void putDb(Catalog catalog, Database db) throws Exception {
+        // saveDb() treats the number of clusters as the number of information_schema dbs
+        Field clusterField = catalog.getClass().getDeclaredField("nameToCluster");
+        clusterField.setAccessible(true);
+        ((Map<String, Cluster>) clusterField.get(catalog)).clear();
+
+        Field field = catalog.getClass().getDeclaredField("idToDb");
+        field.setAccessible(true);
+        ((Map<Long, Database>) field.get(catalog)).put(db.getId(), db);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, byte[]> getReusedDbSections(Catalog catalog) throws Exception {
+        Field field = catalog.getClass().getDeclaredField("reusedDbSections");
+        field.setAccessible(true);
+        return (Map<Long, byte[]>) field.get(catalog);
+    }
+
+    @Test
+    public void testIncrementalCheckpointDb() throws Exception {
+        String dir = "testIncrementalCheckpointDb";
+        mkdir(dir);
+        File lastImage = new File(dir, "image.last");
+        File fullImage = new File(dir, "image.full");
+        File incrementalImage = new File(dir, "image.incremental");
+        Catalog catalog = Catalog.getInstance();
+        MetaContext.get().setMetaVersion(FeConstants.meta_version);
+        for (long i = 1; i <= 10; i++) {
+            putDb(catalog, new Database(i, "db" + i));
+        }
+        long lastChecksum = saveDbs(catalog, lastImage);
+        catalog.clear();
+
+        // journals since the last image: one modifies db3, one does not modify any db
+        JournalEntity modifyJournal = createJournal(OperationType.OP_DROP_TABLE, new DropInfo(3L, 100L, -1L));
+        JournalEntity timestampJournal = createJournal(OperationType.OP_TIMESTAMP, new Timestamp());
+
+        try {
+            // full checkpoint
+            Assert.assertEquals(lastChecksum, loadDbs(catalog, lastImage));
+            catalog.getDb(3L).setDataQuotaWithLock(1024L);
+            long fullChecksum = saveDbs(catalog, fullImage);
+            catalog.clear();
+
+            // incremental checkpoint
+            catalog.setIncrementalCheckpoint(true);
+            Assert.assertEquals(lastChecksum, loadDbs(catalog, lastImage));
+            Map<Long, byte[]> reusedDbSections = getReusedDbSections(catalog);
+            Assert.assertEquals(10, reusedDbSections.size());
+
+            catalog.loadReusedDbsOfJournal(timestampJournal);
+            Assert.assertEquals(10, reusedDbSections.size());
+            catalog.loadReusedDbsOfJournal(modifyJournal);
+            Assert.assertEquals(9, reusedDbSections.size());
+            Assert.assertFalse(reusedDbSections.containsKey(3L));
+            catalog.getDb(3L).setDataQuotaWithLock(1024L);
+            // clean db is still accessible by id, eg. by alter jobs
+            Assert.assertEquals("db5", catalog.getDb(5L).getFullName());
+            Assert.assertEquals(8, reusedDbSections.size());
+
+            long incrementalChecksum = saveDbs(catalog, incrementalImage);
+            Assert.assertEquals(fullChecksum, incrementalChecksum);
+
+            // same dbs as full checkpoint, though sections may be in different order
+            Map<Long, byte[]> fullSections = readDbSections(fullImage);
+            Map<Long, byte[]> incrementalSections = readDbSections(incrementalImage);
+            Assert.assertEquals(fullSections.keySet(), incrementalSections.keySet());
+            for (Map.Entry<Long, byte[]> entry : fullSections.entrySet()) {
+                Assert.assertArrayEquals(entry.getValue(), incrementalSections.get(entry.getKey()));
+            }
+            Assert.assertFalse(Arrays.equals(readDbSections(lastImage).get(3L), fullSections.get(3L)));
+        } finally {
+            catalog.setIncrementalCheckpoint(false);
+            catalog.clear();
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void testIncrementalCheckpointUnknownJournal() throws Exception {
+        String dir = "testIncrementalCheckpointUnknownJournal";
+        mkdir(dir);
+        File lastImage = new File(dir, "image.last");
+        Catalog catalog = Catalog.getInstance();
+        MetaContext.get().setMetaVersion(FeConstants.meta_version);
+        for (long i = 1; i <= 3; i++) {
+            putDb(catalog, new Database(i, "db" + i));
+        }
+        long lastChecksum = saveDbs(catalog, lastImage);
+        catalog.clear();
+
+        catalog.setIncrementalCheckpoint(true);
+        try {
+            Assert.assertEquals(lastChecksum, loadDbs(catalog, lastImage));
+            Map<Long, byte[]> reusedDbSections = getReusedDbSections(catalog);
+            Assert.assertEquals(3, reusedDbSections.size());
+
+            // drop db journal only has the db name, so all dbs are loaded
+            catalog.loadReusedDbsOfJournal(createJournal(OperationType.OP_DROP_DB, new Text("db2")));
+            Assert.assertTrue(reusedDbSections.isEmpty());
+            for (long i = 1; i <= 3; i++) {
+                Assert.assertNotNull(catalog.getDb(i));
+            }
+            Assert.assertEquals(lastChecksum, saveDbs(catalog, lastImage));
+        } finally {
+            catalog.setIncrementalCheckpoint(false);
+            catalog.clear();
+            deleteDir(dir);
+        }
+    }
+
+    @Test
+    public void testIncrementalCheckpointAlterJobOfCleanDb() throws Exception {
+        String dir = "testIncrementalCheckpointAlterJob";
+        mkdir(dir);
+        File file = new File(dir, "image");
+        Catalog catalog = Catalog.getInstance();
+        MetaContext.get().setMetaVersion(FeConstants.meta_version);
+
+        Database db1 = new Database(10000L, "db1");
+        MaterializedIndex baseIndex = new MaterializedIndex(20000L, IndexState.NORMAL);
+        Partition partition = new Partition(2000L, "single", baseIndex, new RandomDistributionInfo(10));
+        OlapTable table = new OlapTable(2L, "base", new LinkedList<Column>(), KeysType.AGG_KEYS,
+                                        new SinglePartitionInfo(), new RandomDistributionInfo(10));
+        table.addPartition(partition);
+        db1.createTable(table);
+        putDb(catalog, db1);
+        SchemaChangeJob job = new SchemaChangeJob(db1.getId(), table.getId(), null, table.getName(), -1);
+        catalog.getSchemaChangeHandler().unprotectedGetAlterJobs().put(table.getId(), job);
+
+        DataOutputStream dos = new DataOutputStream(new FileOutputStream(file));
+        long checksum1 = catalog.saveDb(dos, 0);
+        checksum1 = catalog.saveAlterJob(dos, checksum1, JobType.SCHEMA_CHANGE);
+        dos.close();
+        catalog.clear();
+
+        catalog.setIncrementalCheckpoint(true);
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            long checksum2 = catalog.loadDb(dis, 0);
+            Assert.assertEquals(1, getReusedDbSections(catalog).size());
+            checksum2 = catalog.loadAlterJob(dis, checksum2, JobType.SCHEMA_CHANGE);
+            Assert.assertEquals(checksum1, checksum2);
+
+            // the clean db is loaded to init the pending job
+            Assert.assertTrue(getReusedDbSections(catalog).isEmpty());
+            OlapTable loadedTable = (OlapTable) catalog.getDb(10000L).getTable(2L);
+            Assert.assertEquals(OlapTableState.SCHEMA_CHANGE, loadedTable.getState());
+        } finally {
+            dis.close();
+            catalog.setIncrementalCheckpoint(false);
+            catalog.clear();
+            deleteDir(dir);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.thrift.TStorageMedium;
+import org.apache.doris.thrift.TTablet;
+import org.apache.doris.thrift.TTabletInfo;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TabletInvertedIndexTest {
+
+    private TabletInvertedIndex invertedIndex;
+
+    @Before
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+    }
+
+    @Test
+    public void testAddAndDelete() {
+        TabletMeta tabletMeta = new TabletMeta(10, 20, 30, 40, 1, TStorageMedium.HDD);
+        for (long tabletId = 1; tabletId <= 1000; tabletId++) {
+            invertedIndex.addTablet(tabletId, tabletMeta);
+            invertedIndex.addReplica(tabletId, new Replica(tabletId * 10 + 1, 1L, 1, ReplicaState.NORMAL));
+            invertedIndex.addReplica(tabletId, new Replica(tabletId * 10 + 2, 2L, 1, ReplicaState.NORMAL));
+        }
+
+        Assert.assertEquals(10, invertedIndex.getDbId(500));
+        Assert.assertEquals(TabletInvertedIndex.NOT_EXIST_VALUE, invertedIndex.getDbId(1001));
+        Assert.assertEquals(Long.valueOf(500), invertedIndex.getTabletIdByReplica(5002));
+        Assert.assertEquals(2, invertedIndex.getReplicasByTabletId(500).size());
+        Assert.assertEquals(1000, invertedIndex.getTabletNumByBackendId(1L));
+        Assert.assertEquals(1000L, (long) invertedIndex.getReplicaNumByBeIdAndStorageMedium(2L).get(TStorageMedium.HDD));
+
+        invertedIndex.deleteReplica(500, 1L);
+        Assert.assertEquals(999, invertedIndex.getTabletNumByBackendId(1L));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(5001));
+        Assert.assertEquals(1, invertedIndex.getTabletBackends(500).size());
+
+        invertedIndex.deleteTablet(500);
+        Assert.assertNull(invertedIndex.getTabletMeta(500));
+        Assert.assertNull(invertedIndex.getTabletIdByReplica(5002));
+        Assert.assertEquals(999, invertedIndex.getTabletNumByBackendId(2L));
+        Assert.assertTrue(invertedIndex.getReplicasByTabletId(500).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        TabletMeta tabletMeta = new TabletMeta(10, 20, 30, 40, 1, TStorageMedium.SSD);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            final long backendId = i;
+            executor.submit(() -> {
+                for (long tabletId = backendId * 10000; tabletId < backendId * 10000 + 1000; tabletId++) {
+                    invertedIndex.addTablet(tabletId, tabletMeta);
+                    invertedIndex.addReplica(tabletId, new Replica(tabletId, backendId, 1, ReplicaState.NORMAL));
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        for (long backendId = 0; backendId < 8; backendId++) {
+            List<Long> tabletIds = invertedIndex.getTabletIdsByBackendIdAndStorageMedium(backendId,
+                    TStorageMedium.SSD);
+            Assert.assertEquals(1000, tabletIds.size());
+        }
+        Assert.assertEquals(8000, invertedIndex.getReplicaToTabletMap().size());
+    }
+
+    private TTablet createTabletReport(long tabletId, long version, long versionHash) {
+        TTabletInfo tabletInfo = new TTabletInfo(tabletId, 1, version, versionHash, 0, 0);
+        tabletInfo.setPartition_id(30);
+        TTablet tablet = new TTablet();
+        tablet.addToTablet_infos(tabletInfo);
+        return tablet;
+    }
+
+    // returns tablets to be deleted from meta, and fills the found tablets with valid schema and tablets to sync
+    private List<Long> tabletReport(Map<Long, TTablet> backendTablets, List<Long> deletedTablets,
+                                    Set<Long> foundTablets, ListMultimap<Long, Long> tabletSyncMap) {
+        ListMultimap<Long, Long> tabletDeleteFromMeta = ArrayListMultimap.create();
+        invertedIndex.tabletReport(1L, backendTablets, deletedTablets, Maps.newHashMap(), tabletSyncMap,
+                tabletDeleteFromMeta, foundTablets, Maps.newHashMap(), ArrayListMultimap.create(),
+                Maps.newHashMap(), ArrayListMultimap.create(), ArrayListMultimap.create(), HashMultimap.create());
+        return tabletDeleteFromMeta.get(10L);
+    }
+
+    @Test
+    public void testDeltaTabletReport() {
+        TabletMeta tabletMeta = new TabletMeta(10, 20, 30, 40, 1, TStorageMedium.HDD);
+        for (long tabletId = 1; tabletId <= 5; tabletId++) {
+            invertedIndex.addTablet(tabletId, tabletMeta);
+            invertedIndex.addReplica(tabletId, new Replica(tabletId * 10 + 1, 1L, ReplicaState.NORMAL, 2, 0, 1));
+        }
+
+        // full report: tablet 5 is not on backend
+        Map<Long, TTablet> backendTablets = Maps.newHashMap();
+        for (long tabletId = 1; tabletId <= 4; tabletId++) {
+            backendTablets.put(tabletId, createTabletReport(tabletId, 2, 0));
+        }
+        Set<Long> foundTablets = Sets.newHashSet();
+        ListMultimap<Long, Long> tabletSyncMap = ArrayListMultimap.create();
+        List<Long> tabletDeleteFromMeta = tabletReport(backendTablets, null, foundTablets, tabletSyncMap);
+        Assert.assertEquals(Sets.newHashSet(1L, 2L, 3L, 4L), foundTablets);
+        Assert.assertEquals(Lists.newArrayList(5L), tabletDeleteFromMeta);
+        Assert.assertTrue(tabletSyncMap.isEmpty());
+
+        // delta report: tablet 2 is loaded, tablet 3 is dropped, tablet 6 is not in meta,
+        // and the tablets not in the delta are not touched
+        backendTablets = Maps.newHashMap();
+        backendTablets.put(2L, createTabletReport(2L, 3, 1));
+        backendTablets.put(6L, createTabletReport(6L, 2, 0));
+        foundTablets = Sets.newHashSet();
+        tabletSyncMap = ArrayListMultimap.create();
+        tabletDeleteFromMeta = tabletReport(backendTablets, Lists.newArrayList(3L), foundTablets, tabletSyncMap);
+        Assert.assertEquals(Sets.newHashSet(2L), foundTablets);
+        Assert.assertEquals(Lists.newArrayList(2L), tabletSyncMap.get(10L));
+        Assert.assertEquals(Lists.newArrayList(3L), tabletDeleteFromMeta);
+
+        // empty delta report does nothing
+        foundTablets = Sets.newHashSet();
+        tabletSyncMap = ArrayListMultimap.create();
+        tabletDeleteFromMeta = tabletReport(Maps.newHashMap(), Lists.newArrayList(), foundTablets, tabletSyncMap);
+        Assert.assertTrue(foundTablets.isEmpty());
+        Assert.assertTrue(tabletSyncMap.isEmpty());
+        Assert.assertTrue(tabletDeleteFromMeta.isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.catalog;
+
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TabletScanStatTest {
+
+    private double origDecayFactor;
+    private TabletScanStat scanStat = TabletScanStat.getInstance();
+
+    @Before
+    public void setUp() {
+        origDecayFactor = Config.tablet_hotness_decay_factor;
+        scanStat.clear();
+    }
+
+    @After
+    public void tearDown() {
+        Config.tablet_hotness_decay_factor = origDecayFactor;
+        scanStat.clear();
+    }
+
+    @Test
+    public void testRoll() {
+        Config.tablet_hotness_decay_factor = 0.5;
+        scanStat.addScans(1, 10);
+        scanStat.addScans(1, 10);
+        scanStat.addScans(2, 0);
+        scanStat.roll();
+        Assert.assertEquals(20.0, scanStat.getHotness(1), 0.001);
+        Assert.assertFalse(scanStat.getAllHotness().containsKey(2L));
+
+        scanStat.addScans(2, 4);
+        scanStat.roll();
+        Assert.assertEquals(10.0, scanStat.getHotness(1), 0.001);
+        Assert.assertEquals(4.0, scanStat.getHotness(2), 0.001);
+    }
+
+    @Test
+    public void testAddScansWhileRolling() throws InterruptedException {
+        // no decay, so the hotness is the sum of all scans
+        Config.tablet_hotness_decay_factor = 1.0;
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 10000; j++) {
+                    scanStat.addScans(1, 1);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            scanStat.roll();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        scanStat.roll();
+        // no scan is lost when its count is removed by roll()
+        Assert.assertEquals(40000.0, scanStat.getHotness(1), 0.001);
+    }
+}
@@ -23,6 +23,9 @@ import org.apache.doris.catalog.Replica;
 import org.apache.doris.catalog.Replica.ReplicaState;
 import org.apache.doris.catalog.TabletInvertedIndex;
 import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.catalog.TabletScanStat;
+import org.apache.doris.clone.BackendLoadStatistic.LoadScore;
+import org.apache.doris.common.Config;
 import org.apache.doris.system.Backend;
 import org.apache.doris.system.SystemInfoService;
 import org.apache.doris.thrift.TStorageMedium;
@@ -151,4 +154,47 @@ public class ClusterLoadStatisticsTest {
         Assert.assertEquals(3, infos.size());
     }
 
+    @Test
+    public void testHotness() {
+        TabletScanStat scanStat = TabletScanStat.getInstance();
+        scanStat.clear();
+        try {
+            // tablet 60000 is hot, its replicas are on be2 and be3
+            scanStat.addScans(60000, 100);
+            scanStat.addScans(50000, 1);
+            scanStat.roll();
+            Assert.assertEquals(100.0, scanStat.getHotness(60000), 0.001);
+
+            ClusterLoadStatistic loadStatistic = new ClusterLoadStatistic(SystemInfoService.DEFAULT_CLUSTER,
+                    systemInfoService, invertedIndex);
+            loadStatistic.init();
+            BackendLoadStatistic be1Stat = loadStatistic.getBackendLoadStatistic(be1.getId());
+            BackendLoadStatistic be2Stat = loadStatistic.getBackendLoadStatistic(be2.getId());
+            Assert.assertEquals(1.0 / 3, be1Stat.getHotness(TStorageMedium.HDD), 0.001);
+            Assert.assertEquals(50 + 1.0 / 3, be2Stat.getHotness(TStorageMedium.HDD), 0.001);
+
+            // moving a replica of the hot tablet from be2 to be1 spreads the hotness
+            Assert.assertTrue(loadStatistic.isMoreBalanced(be2.getId(), be1.getId(), 60000, 0, TStorageMedium.HDD));
+
+            // hotness decays if not scanned any more
+            scanStat.roll();
+            Assert.assertEquals(100.0 * Config.tablet_hotness_decay_factor, scanStat.getHotness(60000), 0.001);
+        } finally {
+            scanStat.clear();
+        }
+    }
+
+    @Test
+    public void testLoadScore() {
+        // without hotness and io util, the score is only decided by capacity and replica number
+        LoadScore score = BackendLoadStatistic.calcSore(100, 1000, 10, 0, 0, 0.1, 10, 0, 0);
+        Assert.assertEquals(1.0, score.score, 0.001);
+        Assert.assertEquals(0.0, score.hotnessCoefficient, 0.001);
+
+        // hotter backend has higher score
+        LoadScore hotScore = BackendLoadStatistic.calcSore(100, 1000, 10, 20, 50, 0.1, 10, 10, 50);
+        Assert.assertTrue(hotScore.score > score.score);
+        Assert.assertEquals(1.0, hotScore.capacityCoefficient + hotScore.replicaNumCoefficient
+                + hotScore.hotnessCoefficient + hotScore.ioUtilCoefficient, 0.001);
+    }
 }
@@ -0,0 +1,197 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.clone;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.ColocateTableIndex;
+import org.apache.doris.catalog.DiskInfo;
+import org.apache.doris.catalog.Replica;
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.catalog.Tablet;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.catalog.TabletScanStat;
+import org.apache.doris.clone.TabletScheduler.PathSlot;
+import org.apache.doris.system.Backend;
+import org.apache.doris.system.SystemInfoService;
+import org.apache.doris.task.AgentBatchTask;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class LoadBalancerTest {
+
+    private static final long HIGH_BE_ID = 10001;
+    private static final long TABLET_ID_BASE = 20000;
+    private static final int TABLET_NUM = 10;
+
+    @Mocked
+    private Catalog catalog;
+
+    private SystemInfoService systemInfoService;
+    private TabletInvertedIndex invertedIndex;
+    private ColocateTableIndex colocateTableIndex;
+
+    @Before
+    public void setUp() {
+        // be1 is almost full, be2 and be3 are almost empty. each backend has only one path
+        systemInfoService = new SystemInfoService();
+        systemInfoService.addBackend(createBackend(HIGH_BE_ID, "192.168.0.1", 900000));
+        systemInfoService.addBackend(createBackend(10002, "192.168.0.2", 100000));
+        systemInfoService.addBackend(createBackend(10003, "192.168.0.3", 100000));
+
+        // all tablets are on be1
+        invertedIndex = new TabletInvertedIndex();
+        for (int i = 0; i < TABLET_NUM; i++) {
+            long tabletId = TABLET_ID_BASE + i;
+            invertedIndex.addTablet(tabletId, new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD));
+            invertedIndex.addReplica(tabletId, createReplica(tabletId));
+        }
+        colocateTableIndex = new ColocateTableIndex();
+
+        new Expectations() {
+            {
+                Catalog.getCurrentSystemInfo();
+                minTimes = 0;
+                result = systemInfoService;
+
+                Catalog.getCurrentInvertedIndex();
+                minTimes = 0;
+                result = invertedIndex;
+
+                Catalog.getCurrentColocateIndex();
+                minTimes = 0;
+                result = colocateTableIndex;
+            }
+        };
+
+        TabletScanStat.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() {
+        TabletScanStat.getInstance().clear();
+    }
+
+    private Backend createBackend(long beId, String host, long usedCapacityB) {
+        Backend backend = new Backend(beId, host, 9050);
+        DiskInfo diskInfo = new DiskInfo("/path1");
+        diskInfo.setPathHash(beId);
+        diskInfo.setStorageMedium(TStorageMedium.HDD);
+        diskInfo.setTotalCapacityB(1000000);
+        diskInfo.setAvailableCapacityB(1000000 - usedCapacityB);
+        diskInfo.setDataUsedCapacityB(usedCapacityB);
+        Map<String, DiskInfo> disks = Maps.newHashMap();
+        disks.put(diskInfo.getRootPath(), diskInfo);
+        backend.setDisks(ImmutableMap.copyOf(disks));
+        backend.setAlive(true);
+        backend.setOwnerClusterName(SystemInfoService.DEFAULT_CLUSTER);
+        return backend;
+    }
+
+    private Replica createReplica(long tabletId) {
+        Replica replica = new Replica(tabletId + 1, HIGH_BE_ID, 2, 0, 0, 100, 10, ReplicaState.NORMAL, -1, 0, 2, 0);
+        replica.setPathHash(HIGH_BE_ID);
+        return replica;
+    }
+
+    private LoadBalancer createLoadBalancer() {
+        ClusterLoadStatistic clusterStat = new ClusterLoadStatistic(SystemInfoService.DEFAULT_CLUSTER,
+                systemInfoService, invertedIndex);
+        clusterStat.init();
+        Map<String, ClusterLoadStatistic> statisticMap = Maps.newHashMap();
+        statisticMap.put(SystemInfoService.DEFAULT_CLUSTER, clusterStat);
+        return new LoadBalancer(statisticMap);
+    }
+
+    private Set<Long> getTabletIds(List<TabletSchedCtx> tabletCtxs) {
+        Set<Long> tabletIds = Sets.newHashSet();
+        for (TabletSchedCtx tabletCtx : tabletCtxs) {
+            tabletIds.add(tabletCtx.getTabletId());
+        }
+        return tabletIds;
+    }
+
+    @Test
+    public void testSelectHotTablets() {
+        // there are only 2 low load paths, so 2 of the 10 tablets on be1 are selected
+        List<TabletSchedCtx> alternativeTablets = createLoadBalancer().selectAlternativeTablets();
+        Assert.assertEquals(2, alternativeTablets.size());
+
+        // backends report the scans of tablets 20003 and 20007, they should be selected first
+        TabletScanStat scanStat = TabletScanStat.getInstance();
+        scanStat.addScans(TABLET_ID_BASE + 3, 100);
+        scanStat.addScans(TABLET_ID_BASE + 7, 50);
+        scanStat.addScans(TABLET_ID_BASE + 7, 50);
+        scanStat.roll();
+        for (int i = 0; i < 10; i++) {
+            alternativeTablets = createLoadBalancer().selectAlternativeTablets();
+            Assert.assertEquals(Sets.newHashSet(TABLET_ID_BASE + 3, TABLET_ID_BASE + 7),
+                    getTabletIds(alternativeTablets));
+        }
+    }
+
+    @Test
+    public void testMoveHotTablet() throws SchedException {
+        TabletScanStat scanStat = TabletScanStat.getInstance();
+        scanStat.addScans(TABLET_ID_BASE + 3, 100);
+        scanStat.roll();
+
+        LoadBalancer loadBalancer = createLoadBalancer();
+        TabletSchedCtx tabletCtx = null;
+        for (TabletSchedCtx alternativeTablet : loadBalancer.selectAlternativeTablets()) {
+            if (alternativeTablet.getTabletId() == TABLET_ID_BASE + 3) {
+                tabletCtx = alternativeTablet;
+            }
+        }
+        Assert.assertNotNull(tabletCtx);
+
+        Tablet tablet = new Tablet(tabletCtx.getTabletId());
+        tablet.addReplica(invertedIndex.getReplica(tabletCtx.getTabletId(), HIGH_BE_ID), true);
+        tabletCtx.setTablet(tablet);
+        tabletCtx.setStorageMedium(TStorageMedium.HDD);
+        tabletCtx.setVersionInfo(2, 0, 2, 0);
+
+        Map<Long, PathSlot> backendsWorkingSlots = Maps.newHashMap();
+        for (Long beId : systemInfoService.getBackendIds(false)) {
+            backendsWorkingSlots.put(beId, new PathSlot(Lists.newArrayList(beId), 2));
+        }
+        AgentBatchTask batchTask = new AgentBatchTask();
+        loadBalancer.createBalanceTask(tabletCtx, backendsWorkingSlots, batchTask);
+
+        // the hot replica is cloned from be1 to one of the low load backends
+        Assert.assertEquals(1, batchTask.getTaskNum());
+        Assert.assertEquals(HIGH_BE_ID, tabletCtx.getSrcBackendId());
+        Assert.assertNotEquals(HIGH_BE_ID, tabletCtx.getDestBackendId());
+    }
+}
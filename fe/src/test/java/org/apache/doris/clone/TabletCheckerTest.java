@@ -0,0 +1,180 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+
+package org.apache.doris.clone;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.Replica;
+import org.apache.doris.catalog.Replica.ReplicaState;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.common.Config;
+import org.apache.doris.system.SystemInfoService;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+public class TabletCheckerTest {
+    @Mocked
+    private Catalog catalog;
+    @Mocked
+    private SystemInfoService infoService;
+    @Mocked
+    private TabletScheduler tabletScheduler;
+
+    private TabletInvertedIndex invertedIndex = new TabletInvertedIndex();
+    private boolean isMaster = true;
+    // number of full checks, each of them gets all db ids
+    private int fullCheckNum = 0;
+    private long fullCheckIntervalSecond;
+
+    @Before
+    public void setUp() {
+        fullCheckIntervalSecond = Config.tablet_checker_full_check_interval_second;
+        new Expectations() {
+            {
+                Catalog.getCurrentInvertedIndex();
+                minTimes = 0;
+                result = invertedIndex;
+
+                Catalog.getCurrentCatalog();
+                minTimes = 0;
+                result = catalog;
+
+                catalog.isMaster();
+                minTimes = 0;
+                result = new Delegate() {
+                    boolean isMaster() {
+                        return isMaster;
+                    }
+                };
+
+                catalog.getDbIds();
+                minTimes = 0;
+                result = new Delegate() {
+                    List<Long> getDbIds() {
+                        fullCheckNum++;
+                        return Lists.newArrayList();
+                    }
+                };
+
+                // the tablets are dropped
+                catalog.getDb(anyLong);
+                minTimes = 0;
+                result = null;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.tablet_checker_full_check_interval_second = fullCheckIntervalSecond;
+    }
+
+    @Test
+    public void testDirtyTablets() {
+        TabletChecker checker = new TabletChecker(catalog, infoService, tabletScheduler, new TabletSchedulerStat());
+
+        // tablets are only marked on master, because the checker only runs on master
+        isMaster = false;
+        checker.markTabletDirty(1L);
+        checker.markTabletsDirty(Lists.newArrayList(2L, 3L));
+        Assert.assertEquals(0, checker.getDirtyTabletNum());
+
+        isMaster = true;
+        checker.markTabletDirty(1L);
+        checker.markTabletsDirty(Lists.newArrayList(1L, 2L, 3L));
+        Assert.assertEquals(3, checker.getDirtyTabletNum());
+
+        // the first round is a full check, which covers all dirty tablets
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(1, fullCheckNum);
+        Assert.assertEquals(0, checker.getDirtyTabletNum());
+
+        // the following rounds only check the dirty tablets
+        checker.markTabletDirty(4L);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(1, fullCheckNum);
+        Assert.assertEquals(0, checker.getDirtyTabletNum());
+    }
+
+    @Test
+    public void testDirtyBackend() {
+        TabletChecker checker = new TabletChecker(catalog, infoService, tabletScheduler, new TabletSchedulerStat());
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(1, fullCheckNum);
+
+        // all tablets on the dirty backend are checked, the db of them is looked up
+        invertedIndex.addTablet(10L, new TabletMeta(100L, 101L, 102L, 103L, 1, TStorageMedium.HDD));
+        invertedIndex.addReplica(10L, new Replica(11L, 1L, 1, ReplicaState.NORMAL));
+        checker.markBackendDirty(1L);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(1, fullCheckNum);
+        Assert.assertEquals(0, checker.getDirtyTabletNum());
+        new Verifications() {
+            {
+                catalog.getDb(100L);
+                times = 1;
+            }
+        };
+    }
+
+    @Test
+    public void testFullCheckScheduling() throws InterruptedException {
+        TabletChecker checker = new TabletChecker(catalog, infoService, tabletScheduler, new TabletSchedulerStat());
+        checker.runAfterCatalogReady();
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(1, fullCheckNum);
+
+        // ADMIN REPAIR triggers a full check in next round
+        checker.addPrios(1L, 2L, Lists.newArrayList(3L), 60 * 1000L);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(2, fullCheckNum);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(2, fullCheckNum);
+
+        // full check interval is reached
+        Config.tablet_checker_full_check_interval_second = 0;
+        Thread.sleep(10);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(3, fullCheckNum);
+
+        // too many tablets are being scheduled, skip checking
+        new Expectations() {
+            {
+                tabletScheduler.getPendingNum();
+                result = TabletScheduler.MAX_SCHEDULING_TABLETS + 1;
+            }
+        };
+        Thread.sleep(10);
+        checker.runAfterCatalogReady();
+        Assert.assertEquals(3, fullCheckNum);
+    }
+}
@@ -0,0 +1,75 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.clone;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class TabletSchedulerStatTest {
+
+    @Test
+    public void testRepairProgress() {
+        TabletSchedulerStat stat = new TabletSchedulerStat();
+        stat.updateRepairProgress(1000, 0);
+        // no throughput yet
+        Assert.assertEquals(1000, stat.repairTabletRemaining.get());
+        Assert.assertEquals(-1, stat.repairEtaSecond.get());
+
+        // 60 tablets are repaired in 60s
+        stat.counterRepairTabletFinished.addAndGet(60);
+        stat.updateRepairProgress(940, 60 * 1000L);
+        long throughput = stat.repairThroughputPerMinute.get();
+        Assert.assertTrue(throughput > 0);
+        Assert.assertEquals(Math.round(940 / (throughput / 60.0)), stat.repairEtaSecond.get(), 1);
+
+        // not sampled within the interval
+        stat.counterRepairTabletFinished.addAndGet(100);
+        stat.updateRepairProgress(840, 61 * 1000L);
+        Assert.assertEquals(throughput, stat.repairThroughputPerMinute.get());
+
+        stat.updateRepairProgress(0, 62 * 1000L);
+        Assert.assertEquals(0, stat.repairEtaSecond.get());
+    }
+
+    @Test
+    public void testGaugeInBrief() {
+        TabletSchedulerStat stat = new TabletSchedulerStat();
+        stat.counterRepairTabletFinished.addAndGet(10);
+        stat.repairTabletRemaining.set(100);
+        stat.incrementalBrief();
+
+        // a gauge is not taken as a counter, it has no increment and is not kept in the snapshot
+        stat.counterRepairTabletFinished.addAndGet(5);
+        stat.repairTabletRemaining.set(95);
+        String brief = stat.incrementalBrief();
+        Assert.assertTrue(brief.contains("num of repair tablet finished: 15 (+5)\n"));
+        Assert.assertTrue(brief.contains("num of repair tablet remaining: 95\n"));
+        Assert.assertEquals(0, stat.getLastSnapshot().repairTabletRemaining.get());
+
+        boolean found = false;
+        for (List<String> info : stat.getBrief()) {
+            if (info.get(0).equals("num of repair tablet remaining")) {
+                Assert.assertEquals("95", info.get(1));
+                found = true;
+            }
+        }
+        Assert.assertTrue(found);
+    }
+}
@@ -0,0 +1,135 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.clone;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.clone.TabletSchedCtx.Priority;
+import org.apache.doris.common.Config;
+import org.apache.doris.system.SystemInfoService;
+import org.apache.doris.task.AgentBatchTask;
+import org.apache.doris.task.CloneTask;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import mockit.Mock;
+import mockit.MockUp;
+import mockit.Mocked;
+
+public class TabletSchedulerTest {
+
+    @Mocked
+    private Catalog catalog;
+
+    private int origThreadNum;
+    private TabletScheduler tabletScheduler;
+
+    // the priority of tablets in the order of being started and finished to be scheduled
+    private List<Priority> startedPriorities = Collections.synchronizedList(Lists.newArrayList());
+    private List<Priority> finishedPriorities = Collections.synchronizedList(Lists.newArrayList());
+    private AtomicInteger runningNum = new AtomicInteger(0);
+    private AtomicInteger maxRunningNum = new AtomicInteger(0);
+
+    @Before
+    public void setUp() {
+        origThreadNum = Config.tablet_scheduler_thread_num;
+        Config.tablet_scheduler_thread_num = 4;
+        tabletScheduler = new TabletScheduler(catalog, new SystemInfoService(), new TabletInvertedIndex(),
+                new TabletSchedulerStat());
+
+        new MockUp<TabletScheduler>() {
+            @Mock
+            void scheduleTablet(TabletSchedCtx tabletCtx, AgentBatchTask batchTask) throws InterruptedException {
+                startedPriorities.add(tabletCtx.getDynamicPriority());
+                int running = runningNum.incrementAndGet();
+                maxRunningNum.accumulateAndGet(running, Math::max);
+                Thread.sleep(50);
+                runningNum.decrementAndGet();
+                finishedPriorities.add(tabletCtx.getDynamicPriority());
+
+                batchTask.addTask(new CloneTask(10001, 1, 2, 3, 4, tabletCtx.getTabletId(), 0,
+                        Lists.newArrayList(), TStorageMedium.HDD, 2, 0, 60));
+                tabletCtx.setState(TabletSchedCtx.State.RUNNING);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.tablet_scheduler_thread_num = origThreadNum;
+    }
+
+    private TabletSchedCtx createTabletCtx(long tabletId, Priority priority) {
+        TabletSchedCtx tabletCtx = new TabletSchedCtx(TabletSchedCtx.Type.REPAIR, SystemInfoService.DEFAULT_CLUSTER,
+                1, 2, 3, 4, tabletId, System.currentTimeMillis());
+        tabletCtx.setOrigPriority(priority);
+        return tabletCtx;
+    }
+
+    @Test
+    public void testScheduleByPriorityGroup() {
+        // the batch is taken from pending tablets in priority order
+        List<TabletSchedCtx> batch = Lists.newArrayList();
+        long tabletId = 10000;
+        for (Priority priority : new Priority[] { Priority.VERY_HIGH, Priority.HIGH, Priority.NORMAL,
+                Priority.LOW }) {
+            for (int i = 0; i < 4; i++) {
+                batch.add(createTabletCtx(tabletId++, priority));
+            }
+        }
+
+        AgentBatchTask batchTask = new AgentBatchTask();
+        tabletScheduler.scheduleTablets(batch, batchTask);
+
+        // tablets of same priority are scheduled in parallel
+        Assert.assertTrue(maxRunningNum.get() > 1);
+        Assert.assertTrue(maxRunningNum.get() <= Config.tablet_scheduler_thread_num);
+
+        // a tablet starts to be scheduled only after all tablets with higher priority are finished,
+        // so both lists are in priority order
+        Assert.assertEquals(batch.size(), startedPriorities.size());
+        Assert.assertEquals(batch.size(), finishedPriorities.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Assert.assertEquals(batch.get(i).getDynamicPriority(), startedPriorities.get(i));
+            Assert.assertEquals(batch.get(i).getDynamicPriority(), finishedPriorities.get(i));
+        }
+
+        // the tasks created by all threads are collected
+        Assert.assertEquals(batch.size(), batchTask.getTaskNum());
+        Assert.assertEquals(batch.size(), tabletScheduler.getRunningNum());
+        Assert.assertEquals(batch.size(), tabletScheduler.getStat().counterTabletScheduledSucceeded.get());
+    }
+
+    @Test
+    public void testScheduleSingleTablet() {
+        AgentBatchTask batchTask = new AgentBatchTask();
+        tabletScheduler.scheduleTablets(Lists.newArrayList(createTabletCtx(10000, Priority.NORMAL)), batchTask);
+        Assert.assertEquals(1, batchTask.getTaskNum());
+        Assert.assertEquals(1, maxRunningNum.get());
+    }
+}
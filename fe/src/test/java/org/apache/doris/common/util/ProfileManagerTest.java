@@ -0,0 +1,144 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.common.util;
+
+import org.apache.doris.common.Config;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+public class ProfileManagerTest {
+    private File profileDir;
+    private long maxMemoryBytes;
+    private long maxDiskBytes;
+
+    @Before
+    public void setUp() throws Exception {
+        profileDir = Files.createTempDirectory("profile_manager_test").toFile();
+        maxMemoryBytes = Config.max_profile_memory_bytes;
+        maxDiskBytes = Config.max_profile_disk_bytes;
+    }
+
+    @After
+    public void tearDown() {
+        Config.max_profile_memory_bytes = maxMemoryBytes;
+        Config.max_profile_disk_bytes = maxDiskBytes;
+        File[] files = profileDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        profileDir.delete();
+    }
+
+    private static RuntimeProfile createProfile(String queryId, String user) {
+        RuntimeProfile profile = new RuntimeProfile("Query");
+        RuntimeProfile summaryProfile = new RuntimeProfile("Summary");
+        summaryProfile.addInfoString(ProfileManager.QUERY_ID, queryId);
+        summaryProfile.addInfoString(ProfileManager.USER, user);
+        summaryProfile.addInfoString(ProfileManager.SQL_STATEMENT, "select * from t where id = '" + queryId + "'");
+        profile.addChild(summaryProfile);
+        return profile;
+    }
+
+    @Test
+    public void testSpillToDisk() {
+        // keep only one profile in memory
+        Config.max_profile_memory_bytes = 1;
+        Config.max_profile_disk_bytes = 1024 * 1024;
+        ProfileManager manager = new ProfileManager(profileDir);
+        manager.pushProfile(createProfile("q1", "user1"));
+        manager.pushProfile(createProfile("q2", "user2"));
+        manager.pushProfile(createProfile("q3", "user1"));
+        Assert.assertEquals(2, profileDir.listFiles().length);
+
+        Assert.assertTrue(manager.getProfile("q1").contains("id = 'q1'"));
+        Assert.assertTrue(manager.getProfile("q3").contains("id = 'q3'"));
+        Assert.assertTrue(manager.getProfile("q4").contains("not found"));
+
+        // from the latest to the oldest
+        List<List<String>> queries = manager.getAllQueries();
+        Assert.assertEquals(3, queries.size());
+        Assert.assertEquals("q3", queries.get(0).get(0));
+        Assert.assertEquals("q1", queries.get(2).get(0));
+        queries = manager.getQueries("user1", 0, Long.MAX_VALUE, 10);
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(1, manager.getQueries("user1", 0, Long.MAX_VALUE, 1).size());
+        Assert.assertTrue(manager.getQueries(null, 0, 1, 10).isEmpty());
+
+        // profiles on disk are loaded after restart
+        ProfileManager newManager = new ProfileManager(profileDir);
+        Assert.assertEquals(2, newManager.getAllQueries().size());
+        Assert.assertEquals("q2", newManager.getAllQueries().get(0).get(0));
+        Assert.assertTrue(newManager.getProfile("q1").contains("id = 'q1'"));
+    }
+
+    @Test
+    public void testDiskLimit() {
+        Config.max_profile_memory_bytes = 1;
+        Config.max_profile_disk_bytes = 1;
+        ProfileManager manager = new ProfileManager(profileDir);
+        manager.pushProfile(createProfile("q1", "user1"));
+        manager.pushProfile(createProfile("q2", "user1"));
+        manager.pushProfile(createProfile("q3", "user1"));
+        // the oldest files are deleted
+        Assert.assertEquals(0, profileDir.listFiles().length);
+        Assert.assertTrue(manager.getProfile("q1").contains("not found"));
+        Assert.assertEquals(1, manager.getAllQueries().size());
+
+        // not saved to disk
+        Config.max_profile_disk_bytes = 0;
+        manager.pushProfile(createProfile("q4", "user1"));
+        Assert.assertTrue(manager.getProfile("q3").contains("not found"));
+        Assert.assertTrue(manager.getProfile("q4").contains("id = 'q4'"));
+    }
+
+    @Test
+    public void testDiskLimitAfterRestart() {
+        Config.max_profile_memory_bytes = 1;
+        Config.max_profile_disk_bytes = 1024 * 1024;
+        ProfileManager manager = new ProfileManager(profileDir);
+        for (int i = 1; i <= 4; i++) {
+            manager.pushProfile(createProfile("q" + i, "user1"));
+        }
+        File[] files = profileDir.listFiles();
+        Assert.assertEquals(3, files.length);
+        long fileSize = files[0].length();
+
+        // the limit is lowered before restart, only the latest profile is kept
+        Config.max_profile_disk_bytes = fileSize + fileSize / 2;
+        ProfileManager newManager = new ProfileManager(profileDir);
+        Assert.assertEquals(1, profileDir.listFiles().length);
+        Assert.assertEquals(1, newManager.getAllQueries().size());
+        Assert.assertTrue(newManager.getProfile("q3").contains("id = 'q3'"));
+        Assert.assertTrue(newManager.getProfile("q1").contains("not found"));
+
+        // no profile is saved to disk
+        Config.max_profile_disk_bytes = 0;
+        newManager = new ProfileManager(profileDir);
+        Assert.assertEquals(0, profileDir.listFiles().length);
+        Assert.assertTrue(newManager.getAllQueries().isEmpty());
+    }
+}
@@ -0,0 +1,257 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.journal.bdbje;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.common.Pair;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.io.Writable;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.persist.OperationType;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.sleepycat.bind.tuple.TupleBinding;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DatabaseNotFoundException;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+import com.sleepycat.je.TransactionConfig;
+import com.sleepycat.je.rep.ReplicatedEnvironment;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class BDBJEJournalTest {
+
+    @Mocked
+    private Catalog catalog;
+    @Mocked
+    private BDBEnvironment bdbEnvironment;
+    @Mocked
+    private ReplicatedEnvironment replicatedEnvironment;
+    @Mocked
+    private Database database;
+    @Mocked
+    private Transaction txn;
+
+    private BDBJEJournal journal;
+
+    // result of each put, null for success
+    private LinkedList<Object> putResults = new LinkedList<>();
+    // journal id -> op code, written in the current transaction and committed
+    private Map<Long, Short> uncommitted = Maps.newTreeMap();
+    private Map<Long, Short> committed = Maps.newTreeMap();
+    private int beginNum = 0;
+    private int commitNum = 0;
+    private int abortNum = 0;
+
+    @Before
+    public void setUp() {
+        new Expectations() {
+            {
+                Catalog.getInstance();
+                minTimes = 0;
+                result = catalog;
+
+                // nothing listens on port 0
+                catalog.getSelfNode();
+                minTimes = 0;
+                result = Pair.create("127.0.0.1", 0);
+
+                bdbEnvironment.getReplicatedEnvironment();
+                minTimes = 0;
+                result = replicatedEnvironment;
+
+                replicatedEnvironment.beginTransaction(null, null);
+                minTimes = 0;
+                result = new Delegate() {
+                    Transaction beginTransaction(Transaction parent, TransactionConfig config) {
+                        beginNum++;
+                        return txn;
+                    }
+                };
+
+                database.getDatabaseName();
+                minTimes = 0;
+                result = "1";
+
+                database.put((Transaction) any, (DatabaseEntry) any, (DatabaseEntry) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    OperationStatus put(Transaction transaction, DatabaseEntry key, DatabaseEntry data)
+                            throws IOException {
+                        Object putResult = putResults.poll();
+                        if (putResult instanceof DatabaseNotFoundException) {
+                            throw (DatabaseNotFoundException) putResult;
+                        } else if (putResult != null) {
+                            return (OperationStatus) putResult;
+                        }
+
+                        long id = TupleBinding.getPrimitiveBinding(Long.class).entryToObject(key);
+                        JournalEntity entity = new JournalEntity();
+                        entity.readFields(new DataInputStream(new ByteArrayInputStream(data.getData())));
+                        if (transaction == null) {
+                            committed.put(id, entity.getOpCode());
+                        } else {
+                            uncommitted.put(id, entity.getOpCode());
+                        }
+                        return OperationStatus.SUCCESS;
+                    }
+                };
+
+                txn.commit();
+                minTimes = 0;
+                result = new Delegate() {
+                    void commit() {
+                        commitNum++;
+                        committed.putAll(uncommitted);
+                        uncommitted.clear();
+                    }
+                };
+
+                txn.abort();
+                minTimes = 0;
+                result = new Delegate() {
+                    void abort() {
+                        abortNum++;
+                        uncommitted.clear();
+                    }
+                };
+            }
+        };
+
+        journal = new BDBJEJournal("127.0.0.1_0_1");
+        Deencapsulation.setField(journal, "bdbEnvironment", bdbEnvironment);
+        Deencapsulation.setField(journal, "currentJournalDB", database);
+    }
+
+    private JournalEntity createEntity(short op, Writable data) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(op);
+        entity.setData(data);
+        return entity;
+    }
+
+    private JournalEntity createSaveNextIdEntity(long nextId) {
+        return createEntity(OperationType.OP_SAVE_NEXTID, new Text(Long.toString(nextId)));
+    }
+
+    private long getNextJournalId() {
+        AtomicLong nextJournalId = Deencapsulation.getField(journal, "nextJournalId");
+        return nextJournalId.get();
+    }
+
+    // a journal which can not be serialized
+    private static class BrokenWritable implements Writable {
+        @Override
+        public void write(DataOutput out) throws IOException {
+            throw new IOException("broken");
+        }
+    }
+
+    @Test
+    public void testWriteBatch() {
+        journal.writeBatch(Lists.newArrayList(createSaveNextIdEntity(1000),
+                createEntity(OperationType.OP_TIMESTAMP, new Timestamp()), createSaveNextIdEntity(2000)));
+        Assert.assertEquals(4, getNextJournalId());
+        // the next batch starts from the journal following the last batch
+        journal.writeBatch(Lists.newArrayList(createSaveNextIdEntity(3000), createSaveNextIdEntity(4000)));
+        Assert.assertEquals(6, getNextJournalId());
+        // an empty batch writes nothing
+        journal.writeBatch(Lists.newArrayList());
+        Assert.assertEquals(6, getNextJournalId());
+
+        // one transaction per batch
+        Assert.assertEquals(2, beginNum);
+        Assert.assertEquals(2, commitNum);
+        Assert.assertEquals(0, abortNum);
+        Assert.assertEquals(Lists.newArrayList(1L, 2L, 3L, 4L, 5L), Lists.newArrayList(committed.keySet()));
+        Assert.assertEquals(Short.valueOf(OperationType.OP_TIMESTAMP), committed.get(2L));
+        Assert.assertEquals(Short.valueOf(OperationType.OP_SAVE_NEXTID), committed.get(5L));
+
+        // single write follows the batch
+        journal.write(OperationType.OP_SAVE_NEXTID, new Text("5000"));
+        Assert.assertEquals(7, getNextJournalId());
+        Assert.assertTrue(committed.containsKey(6L));
+    }
+
+    @Test
+    public void testRetryAfterDatabaseException() {
+        // the second put of the first try fails, the first put must be rolled back
+        putResults.add(null);
+        putResults.add(new DatabaseNotFoundException("mock"));
+        journal.writeBatch(Lists.newArrayList(createSaveNextIdEntity(1000), createSaveNextIdEntity(2000),
+                createSaveNextIdEntity(3000)));
+
+        Assert.assertEquals(2, beginNum);
+        Assert.assertEquals(1, abortNum);
+        Assert.assertEquals(1, commitNum);
+        Assert.assertEquals(Lists.newArrayList(1L, 2L, 3L), Lists.newArrayList(committed.keySet()));
+        Assert.assertTrue(uncommitted.isEmpty());
+        Assert.assertEquals(4, getNextJournalId());
+    }
+
+    @Test
+    public void testTimestampBatchFail() {
+        // every try fails, but master does not exit for a batch of timestamps
+        for (int i = 0; i < 3; i++) {
+            putResults.add(OperationStatus.KEYEXIST);
+        }
+        journal.writeBatch(Lists.newArrayList(createEntity(OperationType.OP_TIMESTAMP, new Timestamp()),
+                createEntity(OperationType.OP_TIMESTAMP, new Timestamp())));
+        Assert.assertEquals(3, abortNum);
+        Assert.assertEquals(0, commitNum);
+        Assert.assertTrue(committed.isEmpty());
+        // the ids of the failed batch are reused
+        Assert.assertEquals(1, getNextJournalId());
+
+        journal.writeBatch(Lists.newArrayList(createSaveNextIdEntity(1000)));
+        Assert.assertEquals(Lists.newArrayList(1L), Lists.newArrayList(committed.keySet()));
+        Assert.assertEquals(2, getNextJournalId());
+    }
+
+    @Test
+    public void testSerializeFail() {
+        // nothing of the batch is written if one of the journals can not be serialized
+        journal.writeBatch(Lists.newArrayList(createEntity(OperationType.OP_TIMESTAMP, new Timestamp()),
+                createEntity(OperationType.OP_TIMESTAMP, new BrokenWritable())));
+        Assert.assertEquals(0, beginNum);
+        Assert.assertTrue(committed.isEmpty());
+        Assert.assertEquals(1, getNextJournalId());
+
+        journal.write(OperationType.OP_TIMESTAMP, new BrokenWritable());
+        Assert.assertTrue(committed.isEmpty());
+        Assert.assertEquals(1, getNextJournalId());
+    }
+}
@@ -0,0 +1,92 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.journal.local;
+
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.persist.EditLogOutputStream;
+import org.apache.doris.persist.OperationType;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class LocalJournalTest {
+
+    @Mocked
+    private EditLogOutputStream outputStream;
+
+    private LocalJournal journal;
+
+    @Before
+    public void setUp() {
+        journal = new LocalJournal("localJournalTestDir");
+        Deencapsulation.setField(journal, "outputStream", outputStream);
+    }
+
+    private List<JournalEntity> createBatch(int num) {
+        List<JournalEntity> entities = Lists.newArrayList();
+        for (int i = 0; i < num; i++) {
+            JournalEntity entity = new JournalEntity();
+            entity.setOpCode(OperationType.OP_SAVE_NEXTID);
+            entity.setData(new Text(String.valueOf(i)));
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private long getJournalId() {
+        AtomicLong journalId = Deencapsulation.getField(journal, "journalId");
+        return journalId.get();
+    }
+
+    @Test
+    public void testWriteBatch() {
+        journal.writeBatch(createBatch(2));
+        Assert.assertEquals(3, getJournalId());
+    }
+
+    @Test
+    public void testWriteBatchFail() throws IOException {
+        new Expectations() {
+            {
+                outputStream.flush();
+                result = new IOException("disk is full");
+            }
+        };
+
+        try {
+            journal.writeBatch(createBatch(2));
+            Assert.fail("No Exception throws.");
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+        // the failed batch is not counted
+        Assert.assertEquals(1, getJournalId());
+    }
+}
@@ -0,0 +1,72 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.master;
+
+import org.apache.doris.catalog.Database;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.io.Writable;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.journal.bdbje.Timestamp;
+import org.apache.doris.persist.DropInfo;
+import org.apache.doris.persist.OperationType;
+import org.apache.doris.persist.ReplicaPersistInfo;
+import org.apache.doris.persist.TableInfo;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DirtyDbCollectorTest {
+
+    private JournalEntity createJournal(short opCode, Writable data) {
+        JournalEntity entity = new JournalEntity();
+        entity.setOpCode(opCode);
+        entity.setData(data);
+        return entity;
+    }
+
+    @Test
+    public void testNoDb() {
+        Assert.assertEquals(DirtyDbCollector.NO_DB, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_TIMESTAMP, new Timestamp())));
+        Assert.assertEquals(DirtyDbCollector.NO_DB, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_SAVE_NEXTID, new Text("10000"))));
+    }
+
+    @Test
+    public void testOneDb() {
+        Assert.assertEquals(10L, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_CREATE_DB, new Database(10L, "db1"))));
+        Assert.assertEquals(11L, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_DROP_TABLE, new DropInfo(11L, 100L, -1L))));
+        Assert.assertEquals(12L, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_RENAME_TABLE, TableInfo.createForTableRename(12L, 100L, "tbl"))));
+        Assert.assertEquals(13L, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_CLEAR_ROLLUP_INFO,
+                        ReplicaPersistInfo.createForClearRollupInfo(13L, 100L, 1000L, 10000L))));
+    }
+
+    @Test
+    public void testAllDb() {
+        // drop db journal only has the name of db
+        Assert.assertEquals(DirtyDbCollector.ALL_DB, DirtyDbCollector.getModifiedDbId(
+                createJournal(OperationType.OP_DROP_DB, new Text("db1"))));
+        // unknown journal
+        Assert.assertEquals(DirtyDbCollector.ALL_DB, DirtyDbCollector.getModifiedDbId(
+                createJournal(Short.MAX_VALUE, new Text(""))));
+    }
+}
@@ -0,0 +1,173 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.master;
+
+import org.apache.doris.catalog.Catalog;
+import org.apache.doris.catalog.TabletScanStat;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.metric.MetricRepo;
+import org.apache.doris.system.Backend;
+import org.apache.doris.system.SystemInfoService;
+import org.apache.doris.thrift.TBackend;
+import org.apache.doris.thrift.TMasterResult;
+import org.apache.doris.thrift.TReportRequest;
+import org.apache.doris.thrift.TStatusCode;
+import org.apache.doris.thrift.TTablet;
+import org.apache.doris.thrift.TTabletInfo;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class ReportHandlerTest {
+
+    private static final long BACKEND_ID = 10001L;
+
+    @Mocked
+    private Catalog catalog;
+    @Mocked
+    private SystemInfoService systemInfoService;
+    @Mocked
+    private MetricRepo metricRepo;
+
+    private ReportHandler reportHandler;
+
+    @Before
+    public void setUp() {
+        Backend backend = new Backend(BACKEND_ID, "127.0.0.1", 9050);
+        new Expectations() {
+            {
+                Catalog.getCurrentSystemInfo();
+                minTimes = 0;
+                result = systemInfoService;
+
+                systemInfoService.getBackendWithBePort(anyString, anyInt);
+                minTimes = 0;
+                result = backend;
+            }
+        };
+        reportHandler = new ReportHandler();
+    }
+
+    // a tablet report, which is a delta report if baseGeneration is not -1
+    private TReportRequest createTabletReport(long generation, long baseGeneration) {
+        TReportRequest request = new TReportRequest(new TBackend("127.0.0.1", 9060, 8040));
+        Map<Long, TTablet> tablets = Maps.newHashMap();
+        TTablet tablet = new TTablet();
+        tablet.addToTablet_infos(new TTabletInfo(1L, 1, 2, 0, 0, 0));
+        tablets.put(1L, tablet);
+        request.setTablets(tablets);
+        request.setReport_version(generation);
+        request.setTablet_report_generation(generation);
+        if (baseGeneration != -1) {
+            request.setBase_tablet_report_generation(baseGeneration);
+            request.setDeleted_tablets(Lists.newArrayList(2L));
+        }
+        return request;
+    }
+
+    // returns the report task put to queue by the last report
+    private Object pollReportTask() {
+        List<BlockingQueue<?>> reportQueues = Deencapsulation.getField(reportHandler, "reportQueues");
+        Object task = reportQueues.get((int) (BACKEND_ID % reportQueues.size())).poll();
+        Assert.assertNotNull(task);
+        return task;
+    }
+
+    private boolean isNeedFullReport(TMasterResult result) {
+        Assert.assertEquals(TStatusCode.OK, result.getStatus().getStatus_code());
+        return result.isSetNeed_full_tablet_report() && result.isNeed_full_tablet_report();
+    }
+
+    @Test
+    public void testDeltaAfterFullReport() throws Exception {
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(5, -1))));
+        Object task = pollReportTask();
+        Assert.assertNotNull(Deencapsulation.getField(task, "tablets"));
+        Assert.assertNull(Deencapsulation.getField(task, "deletedTablets"));
+
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(6, 5))));
+        task = pollReportTask();
+        Assert.assertNotNull(Deencapsulation.getField(task, "tablets"));
+        Assert.assertEquals(Lists.newArrayList(2L), Deencapsulation.getField(task, "deletedTablets"));
+
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(7, 6))));
+        Assert.assertNotNull(Deencapsulation.getField(pollReportTask(), "deletedTablets"));
+    }
+
+    @Test
+    public void testDeltaWithoutFullReport() throws Exception {
+        // master does not know the tablets of backend, eg. master is changed
+        Assert.assertTrue(isNeedFullReport(reportHandler.handleReport(createTabletReport(6, 5))));
+        Assert.assertNull(Deencapsulation.getField(pollReportTask(), "tablets"));
+    }
+
+    @Test
+    public void testGenerationGap() throws Exception {
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(5, -1))));
+        pollReportTask();
+
+        // the report of generation 6 is lost
+        Assert.assertTrue(isNeedFullReport(reportHandler.handleReport(createTabletReport(7, 6))));
+        Assert.assertNull(Deencapsulation.getField(pollReportTask(), "tablets"));
+        // following delta is rejected too, until a full report is accepted
+        Assert.assertTrue(isNeedFullReport(reportHandler.handleReport(createTabletReport(8, 7))));
+        Assert.assertNull(Deencapsulation.getField(pollReportTask(), "tablets"));
+
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(8, -1))));
+        Assert.assertNull(Deencapsulation.getField(pollReportTask(), "deletedTablets"));
+        Assert.assertFalse(isNeedFullReport(reportHandler.handleReport(createTabletReport(9, 8))));
+        Assert.assertNotNull(Deencapsulation.getField(pollReportTask(), "deletedTablets"));
+    }
+
+    @Test
+    public void testTabletScanCounts() throws Exception {
+        TabletScanStat scanStat = TabletScanStat.getInstance();
+        scanStat.clear();
+        try {
+            // scan counts are collected even if the tablet report is rejected
+            TReportRequest request = createTabletReport(6, 5);
+            Map<Long, Long> scanCounts = Maps.newHashMap();
+            scanCounts.put(1L, 10L);
+            request.setTablet_scan_counts(scanCounts);
+            reportHandler.handleReport(request);
+            pollReportTask();
+
+            request = createTabletReport(7, -1);
+            request.setTablet_scan_counts(scanCounts);
+            reportHandler.handleReport(request);
+            pollReportTask();
+
+            scanStat.roll();
+            Assert.assertEquals(20.0, scanStat.getHotness(1L), 0.001);
+            Assert.assertEquals(0.0, scanStat.getHotness(2L), 0.001);
+        } finally {
+            scanStat.clear();
+        }
+    }
+}
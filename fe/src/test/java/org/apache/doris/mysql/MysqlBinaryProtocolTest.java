@@ -0,0 +1,77 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.mysql;
+
+import org.apache.doris.common.AnalysisException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public class MysqlBinaryProtocolTest {
+
+    @Test
+    public void testReadParam() throws AnalysisException {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeInt4(-5);
+        serializer.writeInt8(-1L);
+        serializer.writeLenEncodedString("it's");
+        // datetime
+        serializer.writeInt1(7);
+        serializer.writeInt2(2019);
+        serializer.writeInt1(8);
+        serializer.writeInt1(1);
+        serializer.writeInt1(10);
+        serializer.writeInt1(20);
+        serializer.writeInt1(30);
+        ByteBuffer buffer = serializer.toByteBuffer();
+
+        Assert.assertEquals("-5",
+                MysqlBinaryProtocol.readParamAsLiteral(buffer, MysqlColType.MYSQL_TYPE_LONG.getCode()));
+        Assert.assertEquals("18446744073709551615", MysqlBinaryProtocol.readParamAsLiteral(buffer,
+                MysqlColType.MYSQL_TYPE_LONGLONG.getCode() | MysqlBinaryProtocol.UNSIGNED_FLAG));
+        Assert.assertEquals("'it\\'s'",
+                MysqlBinaryProtocol.readParamAsLiteral(buffer, MysqlColType.MYSQL_TYPE_VARSTRING.getCode()));
+        Assert.assertEquals("'2019-08-01 10:20:30'",
+                MysqlBinaryProtocol.readParamAsLiteral(buffer, MysqlColType.MYSQL_TYPE_DATETIME.getCode()));
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testTextRowToBinaryRow() {
+        MysqlSerializer serializer = MysqlSerializer.newInstance();
+        serializer.writeLenEncodedString("abc");
+        serializer.writeNull();
+        serializer.writeLenEncodedString("12");
+        ByteBuffer binaryRow = MysqlBinaryProtocol.textRowToBinaryRow(serializer.toByteBuffer(), 3);
+
+        // header, null bitmap, "abc", "12"
+        Assert.assertEquals(1 + 1 + 4 + 3, binaryRow.remaining());
+        Assert.assertEquals(0, binaryRow.get());
+        // the second column is null, its bit is offset by 2 reserved bits
+        Assert.assertEquals(1 << 3, binaryRow.get());
+        Assert.assertEquals(3, binaryRow.get());
+        Assert.assertEquals('a', binaryRow.get());
+        Assert.assertEquals('b', binaryRow.get());
+        Assert.assertEquals('c', binaryRow.get());
+        Assert.assertEquals(2, binaryRow.get());
+        Assert.assertEquals('1', binaryRow.get());
+        Assert.assertEquals('2', binaryRow.get());
+    }
+}
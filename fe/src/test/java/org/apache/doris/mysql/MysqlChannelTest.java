@@ -17,14 +17,21 @@
 
 package org.apache.doris.mysql;
 
+import org.apache.doris.common.Config;
+import org.apache.doris.common.jmockit.Deencapsulation;
+
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 
 public class MysqlChannelTest {
@@ -205,6 +212,45 @@ public class MysqlChannelTest {
         Assert.fail("No Exception throws.");
     }
 
+    @Test
+    public void testReadAhead() throws IOException {
+        // mock, the header and the body of the packet arrive separately
+        EasyMock.expect(channel.read(EasyMock.anyObject(ByteBuffer.class))).andDelegateTo(new WrapperSocketChannel() {
+            @Override
+            public int read(ByteBuffer buffer) {
+                MysqlSerializer serializer = MysqlSerializer.newInstance();
+                int idx = readIdx++;
+                if (idx == 0) {
+                    serializer.writeInt3(10);
+                    serializer.writeInt1(packetId++);
+                    buffer.put(serializer.toArray());
+                    return 4;
+                } else if (idx == 2) {
+                    for (int i = 0; i < 10; ++i) {
+                        buffer.put((byte) ('a' + i));
+                    }
+                    return 10;
+                }
+                // no more data now
+                return 0;
+            }
+        }).anyTimes();
+        EasyMock.replay(channel);
+
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        Assert.assertFalse(channel1.readAhead());
+        Assert.assertFalse(channel1.hasReadAheadPacket());
+        Assert.assertTrue(channel1.readAhead());
+        Assert.assertTrue(channel1.hasReadAheadPacket());
+
+        ByteBuffer buf = channel1.fetchOnePacket();
+        Assert.assertEquals(10, buf.remaining());
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals('a' + i, buf.get());
+        }
+        Assert.assertFalse(channel1.hasReadAheadPacket());
+    }
+
     @Test
     public void testSend() throws IOException {
         // mock
@@ -259,4 +305,98 @@ public class MysqlChannelTest {
         Assert.fail("No Exception throws.");
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testReadTimeout() throws IOException {
+        int oldTimeout = Config.mysql_service_nio_timeout_second;
+        Config.mysql_service_nio_timeout_second = 1;
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                    SocketChannel accepted = server.accept()) {
+                accepted.configureBlocking(false);
+                MysqlChannel channel1 = new MysqlChannel(accepted);
+                // client sends only part of the header and then keeps silent
+                client.write(ByteBuffer.wrap(new byte[] {10, 0}));
+                long startMs = System.currentTimeMillis();
+                try {
+                    channel1.fetchOnePacket();
+                    Assert.fail("No Exception throws.");
+                } catch (SocketTimeoutException e) {
+                    Assert.assertTrue(System.currentTimeMillis() - startMs >= 1000);
+                }
+            }
+        } finally {
+            Config.mysql_service_nio_timeout_second = oldTimeout;
+        }
+    }
+
+    private ByteBuffer getSendBuffer(MysqlChannel channel1) {
+        return Deencapsulation.getField(channel1, "sendBuffer");
+    }
+
+    @Test
+    public void testReleaseSendBufferOnSendError() throws IOException {
+        EasyMock.expect(channel.write(EasyMock.anyObject(ByteBuffer.class))).andThrow(new IOException()).anyTimes();
+        EasyMock.replay(channel);
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.sendOnePacket(ByteBuffer.allocate(1000));
+        Assert.assertNotNull(getSendBuffer(channel1));
+        try {
+            channel1.flush();
+            Assert.fail("No Exception throws.");
+        } catch (IOException e) {
+            Assert.assertNull(getSendBuffer(channel1));
+        }
+
+        // send buffer is full and flushed during sending the packet
+        try {
+            channel1.sendOnePacket(ByteBuffer.allocate(0xffffff0));
+            Assert.fail("No Exception throws.");
+        } catch (IOException e) {
+            Assert.assertNull(getSendBuffer(channel1));
+        }
+    }
+
+    @Test
+    public void testReleaseSendBufferOnReadError() throws IOException {
+        EasyMock.expect(channel.read(EasyMock.anyObject(ByteBuffer.class))).andThrow(new IOException()).anyTimes();
+        EasyMock.replay(channel);
+        MysqlChannel channel1 = new MysqlChannel(channel);
+        channel1.sendOnePacket(ByteBuffer.allocate(1000));
+        Assert.assertNotNull(getSendBuffer(channel1));
+        try {
+            channel1.fetchOnePacket();
+            Assert.fail("No Exception throws.");
+        } catch (IOException e) {
+            Assert.assertNull(getSendBuffer(channel1));
+        }
+    }
+
+    @Test
+    public void testReleaseSendBufferOnClose() throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (SocketChannel client = SocketChannel.open(server.getLocalAddress());
+                    SocketChannel accepted = server.accept()) {
+                MysqlChannel channel1 = new MysqlChannel(accepted);
+                channel1.sendOnePacket(ByteBuffer.allocate(1000));
+                ByteBuffer sendBuffer = getSendBuffer(channel1);
+                Assert.assertNotNull(sendBuffer);
+
+                // eg. the connection is killed before the result is flushed
+                channel1.close();
+                Assert.assertNull(getSendBuffer(channel1));
+                Assert.assertEquals(0, sendBuffer.position());
+
+                // a closed channel does not take a send buffer again
+                try {
+                    channel1.sendOnePacket(ByteBuffer.allocate(1000));
+                    Assert.fail("No Exception throws.");
+                } catch (ClosedChannelException e) {
+                    Assert.assertNull(getSendBuffer(channel1));
+                }
+            }
+        }
+    }
+}
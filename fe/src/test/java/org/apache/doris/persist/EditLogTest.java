@@ -17,14 +17,77 @@
 
 package org.apache.doris.persist;
 
+import org.apache.doris.common.Config;
+import org.apache.doris.common.io.Text;
+import org.apache.doris.common.jmockit.Deencapsulation;
+import org.apache.doris.journal.JournalEntity;
+import org.apache.doris.journal.bdbje.BDBJEJournal;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
 
 public class EditLogTest {
     private String meta = "editLogTestDir/";
+
+    @Mocked
+    private BDBJEJournal journal;
+
+    private boolean origGroupCommit;
+    private int origGroupCommitMaxNum;
+    // the next ids saved by each batch written to journal
+    private List<List<String>> batches = Collections.synchronizedList(Lists.newArrayList());
+    private CountDownLatch firstBatchStarted = new CountDownLatch(1);
+    private CountDownLatch firstBatchReleased = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        origGroupCommit = Config.edit_log_group_commit;
+        origGroupCommitMaxNum = Config.edit_log_group_commit_max_num;
+        Config.edit_log_group_commit = true;
+        Config.edit_log_group_commit_max_num = 2;
+
+        new Expectations() {
+            {
+                journal.writeBatch((List<JournalEntity>) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    void writeBatch(List<JournalEntity> entities) throws InterruptedException {
+                        List<String> batch = Lists.newArrayList();
+                        for (JournalEntity entity : entities) {
+                            batch.add(entity.getData().toString());
+                        }
+                        batches.add(batch);
+                        if (batches.size() == 1) {
+                            // the writer of first batch is slow, others have to wait in the pending list
+                            firstBatchStarted.countDown();
+                            firstBatchReleased.await();
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.edit_log_group_commit = origGroupCommit;
+        Config.edit_log_group_commit_max_num = origGroupCommitMaxNum;
+    }
     
     public void mkdir() {
         File dir = new File(meta);
@@ -102,4 +165,69 @@ public class EditLogTest {
     public void test() {
 
     }
+
+    private Thread startSaveNextId(EditLog editLog, long nextId) {
+        Thread thread = new Thread(() -> editLog.logSaveNextId(nextId));
+        thread.start();
+        return thread;
+    }
+
+    // the next ids saved by the pending requests, in order
+    private List<String> getPendingNextIds(EditLog editLog) {
+        Object lock = Deencapsulation.getField(editLog, "groupCommitLock");
+        synchronized (lock) {
+            List<Object> pendingRequests = Deencapsulation.getField(editLog, "pendingRequests");
+            List<String> nextIds = Lists.newArrayList();
+            for (Object request : pendingRequests) {
+                JournalEntity entity = Deencapsulation.getField(request, "entity");
+                nextIds.add(entity.getData().toString());
+            }
+            return nextIds;
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws InterruptedException {
+        EditLog editLog = new EditLog("test");
+        List<Thread> threads = Lists.newArrayList(startSaveNextId(editLog, 0));
+        firstBatchStarted.await();
+
+        for (int i = 1; i <= 5; i++) {
+            threads.add(startSaveNextId(editLog, i));
+        }
+        List<String> pendingNextIds = getPendingNextIds(editLog);
+        while (pendingNextIds.size() < 5) {
+            Thread.sleep(10);
+            pendingNextIds = getPendingNextIds(editLog);
+        }
+        // all writers wait until their journals are written
+        for (Thread thread : threads) {
+            Assert.assertTrue(thread.isAlive());
+        }
+
+        firstBatchReleased.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // the pending requests are written in batches of at most edit_log_group_commit_max_num,
+        // in the order of being appended
+        Assert.assertEquals(4, batches.size());
+        Assert.assertEquals(Lists.newArrayList("0"), batches.get(0));
+        Assert.assertEquals(pendingNextIds.subList(0, 2), batches.get(1));
+        Assert.assertEquals(pendingNextIds.subList(2, 4), batches.get(2));
+        Assert.assertEquals(pendingNextIds.subList(4, 5), batches.get(3));
+        Assert.assertEquals(6, editLog.getTxId());
+    }
+
+    @Test
+    public void testGroupCommitSingleWriter() {
+        firstBatchReleased.countDown();
+        EditLog editLog = new EditLog("test");
+        editLog.logSaveNextId(1000);
+        editLog.logSaveNextId(2000);
+        // no other writer to group with
+        Assert.assertEquals(Lists.newArrayList(Lists.newArrayList("1000"), Lists.newArrayList("2000")), batches);
+        Assert.assertEquals(2, editLog.getTxId());
+    }
 }
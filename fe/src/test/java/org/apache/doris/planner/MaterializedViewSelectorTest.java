@@ -0,0 +1,226 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.Analyzer;
+import org.apache.doris.analysis.DescriptorTable;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.FunctionCallExpr;
+import org.apache.doris.analysis.FunctionParams;
+import org.apache.doris.analysis.SlotDescriptor;
+import org.apache.doris.analysis.SlotId;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.analysis.TupleDescriptor;
+import org.apache.doris.analysis.TupleId;
+import org.apache.doris.catalog.AggregateType;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.KeysType;
+import org.apache.doris.catalog.MaterializedIndex;
+import org.apache.doris.catalog.MaterializedIndex.IndexState;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Partition;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.RandomDistributionInfo;
+import org.apache.doris.catalog.ScalarType;
+import org.apache.doris.catalog.SinglePartitionInfo;
+import org.apache.doris.common.UserException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class MaterializedViewSelectorTest {
+
+    private static final long TABLE_ID = 10000;
+    private static final long PARTITION_ID = 10001;
+    private static final long MV_INDEX_ID = 10002;
+
+    @Mocked
+    private Analyzer analyzer;
+
+    private OlapTable table;
+    private DescriptorTable descTbl;
+    private TupleDescriptor tupleDesc;
+    // mv: SELECT k1, SUM(v1), MAX(v2) FROM tbl GROUP BY k1
+    private Map<String, Column> viewColumns;
+
+    @Before
+    public void setUp() {
+        // duplicate keys table tbl(k1, k2, v1, v2)
+        List<Column> baseColumns = Lists.newArrayList(createColumn("k1", true, null),
+                createColumn("k2", true, null), createColumn("v1", false, null), createColumn("v2", false, null));
+        List<Column> mvColumns = Lists.newArrayList(createColumn("k1", true, null),
+                createColumn("v1", false, AggregateType.SUM), createColumn("v2", false, AggregateType.MAX));
+        viewColumns = Maps.newTreeMap(String.CASE_INSENSITIVE_ORDER);
+        for (Column column : mvColumns) {
+            viewColumns.put(column.getName(), column);
+        }
+
+        // the materialized view has much fewer rows than the base index
+        MaterializedIndex baseIndex = new MaterializedIndex(TABLE_ID, IndexState.NORMAL);
+        baseIndex.setRowCount(100000);
+        MaterializedIndex mvIndex = new MaterializedIndex(MV_INDEX_ID, IndexState.NORMAL);
+        mvIndex.setRowCount(100);
+        RandomDistributionInfo distributionInfo = new RandomDistributionInfo(10);
+        Partition partition = new Partition(PARTITION_ID, "p1", baseIndex, distributionInfo);
+        partition.createRollupIndex(mvIndex);
+
+        table = new OlapTable(TABLE_ID, "tbl", baseColumns, KeysType.DUP_KEYS, new SinglePartitionInfo(),
+                distributionInfo);
+        table.addPartition(partition);
+        table.setIndexSchemaInfo(TABLE_ID, "tbl", baseColumns, 0, 1, (short) 2);
+        table.setBaseIndexId(TABLE_ID);
+        table.setIndexSchemaInfo(MV_INDEX_ID, "mv", mvColumns, 0, 2, (short) 1);
+        table.setIndexKeysType(MV_INDEX_ID, KeysType.AGG_KEYS);
+
+        descTbl = new DescriptorTable();
+        tupleDesc = descTbl.createTupleDescriptor();
+        tupleDesc.setTable(table);
+
+        new Expectations() {
+            {
+                analyzer.getEqJoinConjuncts((TupleId) any);
+                minTimes = 0;
+                result = Lists.newArrayList();
+            }
+        };
+    }
+
+    private Column createColumn(String name, boolean isKey, AggregateType aggregateType) {
+        return new Column(name, ScalarType.createType(PrimitiveType.INT), isKey, aggregateType, "0", "");
+    }
+
+    // a materialized slot of column of tbl
+    private SlotRef createSlotRef(String columnName) {
+        SlotDescriptor slot = descTbl.addSlotDescriptor(tupleDesc);
+        slot.setColumn(table.getColumn(columnName));
+        slot.setType(ScalarType.createType(PrimitiveType.INT));
+        slot.setIsMaterialized(true);
+        return new SlotRef(slot);
+    }
+
+    private FunctionCallExpr createAggregate(String fnName, boolean isDistinct, Expr child) {
+        return new FunctionCallExpr(fnName, new FunctionParams(isDistinct, Lists.newArrayList(child)));
+    }
+
+    private List<SlotId> getKeySlotIds(Expr... groupingExprs) {
+        List<SlotId> keySlotIds = Lists.newArrayList();
+        Expr.getIds(Lists.newArrayList(groupingExprs), null, keySlotIds);
+        return keySlotIds;
+    }
+
+    @Test
+    public void testMatched() {
+        // SELECT k1, SUM(v1), MAX(v2) FROM tbl GROUP BY k1
+        SlotRef k1 = createSlotRef("k1");
+        List<FunctionCallExpr> aggExprs = Lists.newArrayList(createAggregate("sum", false, createSlotRef("v1")),
+                createAggregate("max", false, createSlotRef("v2")));
+        Assert.assertTrue(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(k1), aggExprs));
+
+        // SELECT SUM(v1) FROM tbl, the aggregation of all rows
+        Assert.assertTrue(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(),
+                Lists.newArrayList(createAggregate("sum", false, createSlotRef("v1")))));
+    }
+
+    @Test
+    public void testAggregateMismatched() {
+        SlotRef v1 = createSlotRef("v1");
+        SlotRef v2 = createSlotRef("v2");
+        // v1 is summed in the materialized view, the min or max of the original rows is lost
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("min", false, v1),
+                viewColumns));
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("max", false, v1),
+                viewColumns));
+        // the number of original rows is lost
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("count", false, v1),
+                viewColumns));
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("sum", false, v2),
+                viewColumns));
+        Assert.assertTrue(MaterializedViewSelector.isAggregateMatched(createAggregate("sum", false, v1),
+                viewColumns));
+        Assert.assertTrue(MaterializedViewSelector.isAggregateMatched(createAggregate("max", false, v2),
+                viewColumns));
+
+        // SELECT k1, MIN(v1) FROM tbl GROUP BY k1
+        SlotRef k1 = createSlotRef("k1");
+        Assert.assertFalse(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(k1),
+                Lists.newArrayList(createAggregate("min", false, v1))));
+    }
+
+    @Test
+    public void testGroupByColumnNotInView() {
+        // SELECT k2, SUM(v1) FROM tbl GROUP BY k2, k2 is not in the materialized view
+        SlotRef k2 = createSlotRef("k2");
+        Assert.assertFalse(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(k2),
+                Lists.newArrayList(createAggregate("sum", false, createSlotRef("v1")))));
+    }
+
+    @Test
+    public void testGroupByValueColumn() {
+        // SELECT v2, SUM(v1) FROM tbl GROUP BY v2, v2 is aggregated in the materialized view
+        SlotRef v2 = createSlotRef("v2");
+        Assert.assertFalse(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(v2),
+                Lists.newArrayList(createAggregate("sum", false, createSlotRef("v1")))));
+    }
+
+    @Test
+    public void testDistinctOnKey() {
+        SlotRef k1 = createSlotRef("k1");
+        // the distinct values of key columns are kept in the materialized view
+        Assert.assertTrue(MaterializedViewSelector.isAggregateMatched(createAggregate("count", true, k1),
+                viewColumns));
+        Assert.assertTrue(MaterializedViewSelector.isAggregateMatched(createAggregate("sum", true, k1),
+                viewColumns));
+        Assert.assertTrue(MaterializedViewSelector.isAggregateMatched(createAggregate("min", false, k1),
+                viewColumns));
+        // but the number of rows is not
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("count", false, k1),
+                viewColumns));
+        Assert.assertFalse(MaterializedViewSelector.isAggregateMatched(createAggregate("sum", false, k1),
+                viewColumns));
+
+        // SELECT COUNT(DISTINCT k1) FROM tbl
+        Assert.assertTrue(MaterializedViewSelector.isMatched(tupleDesc, viewColumns, getKeySlotIds(),
+                Lists.newArrayList(createAggregate("count", true, k1))));
+    }
+
+    @Test
+    public void testFallbackToBaseTable() throws UserException {
+        createSlotRef("k1");
+        createSlotRef("v1");
+
+        // the materialized view has fewer rows, but it is not selected if it does not match the query
+        RollupSelector rollupSelector = new RollupSelector(analyzer, tupleDesc, table, Sets.newHashSet());
+        Assert.assertEquals(TABLE_ID, rollupSelector.selectBestRollup(Lists.newArrayList(PARTITION_ID),
+                Lists.newArrayList(), true));
+
+        rollupSelector = new RollupSelector(analyzer, tupleDesc, table, Sets.newHashSet(MV_INDEX_ID));
+        Assert.assertEquals(MV_INDEX_ID, rollupSelector.selectBestRollup(Lists.newArrayList(PARTITION_ID),
+                Lists.newArrayList(), true));
+    }
+}
@@ -0,0 +1,125 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.InPredicate;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.PartitionValue;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.DataProperty;
+import org.apache.doris.catalog.PartitionKey;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.RangePartitionInfo;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeMap;
+import com.google.common.collect.Sets;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RangePartitionPrunerTest {
+    private List<Column> columns;
+    private RangePartitionInfo partitionInfo;
+
+    @Before
+    public void setUp() throws AnalysisException {
+        columns = Lists.newArrayList(new Column("k1", PrimitiveType.INT, true));
+        partitionInfo = new RangePartitionInfo(columns);
+        // p1: [min, 10), p2: [10, 20), p3: [20, 30), p4: [30, 40)
+        PartitionKey lower = PartitionKey.createInfinityPartitionKey(columns, false);
+        for (long i = 1; i <= 4; i++) {
+            PartitionKey upper = createKey(i * 10);
+            partitionInfo.addPartition(i, Range.closedOpen(lower, upper),
+                    DataProperty.DEFAULT_HDD_DATA_PROPERTY, (short) 3);
+            lower = upper;
+        }
+    }
+
+    private PartitionKey createKey(long value) throws AnalysisException {
+        return PartitionKey.createPartitionKey(
+                Lists.newArrayList(new PartitionValue(String.valueOf(value))), columns);
+    }
+
+    private Set<Long> prune(RangeMap<PartitionKey, Long> rangeIndex, PartitionColumnFilter filter)
+            throws AnalysisException {
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put("k1", filter);
+        return Sets.newHashSet(new RangePartitionPruner(rangeIndex, columns, filters).prune());
+    }
+
+    private static PartitionColumnFilter createEqFilter(long value) throws AnalysisException {
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(value, Type.INT), true);
+        filter.setUpperBound(new IntLiteral(value, Type.INT), true);
+        return filter;
+    }
+
+    @Test
+    public void testDisjunctFilters() throws AnalysisException {
+        // k1 < 5 or k1 in (25) or k1 >= 35
+        PartitionColumnFilter lessFilter = new PartitionColumnFilter();
+        lessFilter.setUpperBound(new IntLiteral(5, Type.INT), false);
+        lessFilter.lowerBoundInclusive = true;
+
+        PartitionColumnFilter inFilter = new PartitionColumnFilter();
+        List<Expr> inList = Lists.newArrayList();
+        inList.add(new IntLiteral(25, Type.INT));
+        inFilter.setInPredicate(new InPredicate(new SlotRef(null, "k1"), inList, false));
+
+        PartitionColumnFilter greaterFilter = new PartitionColumnFilter();
+        greaterFilter.setLowerBound(new IntLiteral(35, Type.INT), true);
+
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setDisjunctFilters(Lists.newArrayList(lessFilter, inFilter, greaterFilter));
+        Assert.assertEquals(Sets.newHashSet(1L, 3L, 4L), prune(partitionInfo.getRangeIndex(), filter));
+
+        // the same result without the cached index
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put("k1", filter);
+        Assert.assertEquals(Sets.newHashSet(1L, 3L, 4L), Sets.newHashSet(
+                new RangePartitionPruner(partitionInfo.getIdToRange(), columns, filters).prune()));
+    }
+
+    @Test
+    public void testRangeIndexInvalidated() throws AnalysisException {
+        RangeMap<PartitionKey, Long> rangeIndex = partitionInfo.getRangeIndex();
+        Assert.assertSame(rangeIndex, partitionInfo.getRangeIndex());
+        Assert.assertEquals(Sets.newHashSet(2L), prune(rangeIndex, createEqFilter(15)));
+
+        // p5: [40, 50)
+        partitionInfo.addPartition(5L, Range.closedOpen(createKey(40), createKey(50)),
+                DataProperty.DEFAULT_HDD_DATA_PROPERTY, (short) 3);
+        Assert.assertNotSame(rangeIndex, partitionInfo.getRangeIndex());
+        Assert.assertEquals(Sets.newHashSet(5L), prune(partitionInfo.getRangeIndex(), createEqFilter(45)));
+
+        partitionInfo.dropPartition(2L);
+        Assert.assertTrue(prune(partitionInfo.getRangeIndex(), createEqFilter(15)).isEmpty());
+    }
+}
@@ -0,0 +1,239 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.BinaryPredicate;
+import org.apache.doris.analysis.DescriptorTable;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.JoinOperator;
+import org.apache.doris.analysis.SlotDescriptor;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.analysis.TableName;
+import org.apache.doris.analysis.TableRef;
+import org.apache.doris.analysis.TupleDescriptor;
+import org.apache.doris.catalog.OlapTable;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.planner.RuntimeFilter.RuntimeFilterType;
+import org.apache.doris.qe.SessionVariable;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class RuntimeFilterGeneratorTest {
+
+    private static final long MIN_SIZE = 1048576L;
+    private static final long MAX_SIZE = 16777216L;
+
+    private DescriptorTable descTbl;
+    private SessionVariable sessionVariable;
+    private int nextNodeId;
+
+    @Before
+    public void setUp() {
+        descTbl = new DescriptorTable();
+        sessionVariable = new SessionVariable();
+        sessionVariable.setRuntimeFilterMode("GLOBAL");
+        nextNodeId = 0;
+    }
+
+    private OlapScanNode createScanNode(String tableName, long cardinality) {
+        TupleDescriptor desc = descTbl.createTupleDescriptor(tableName);
+        desc.setTable(new OlapTable());
+        SlotDescriptor slot = descTbl.addSlotDescriptor(desc);
+        slot.setType(Type.INT);
+        slot.setIsMaterialized(true);
+        OlapScanNode scanNode = new OlapScanNode(new PlanNodeId(nextNodeId++), desc, "OlapScanNode");
+        scanNode.cardinality = cardinality;
+        return scanNode;
+    }
+
+    // the slot of the scan node, one for each scan node
+    private SlotRef createSlotRef(OlapScanNode scanNode) {
+        return new SlotRef(scanNode.desc.getSlots().get(0));
+    }
+
+    // probe.k = build.k, the build side must be a scan node
+    private HashJoinNode createJoinNode(PlanNode probe, Expr probeExpr, OlapScanNode build, JoinOperator joinOp) {
+        TableRef innerRef = new TableRef(new TableName("db", "t" + build.getId().asInt()), null);
+        innerRef.setJoinOp(joinOp);
+        List<Expr> eqJoinConjuncts = Lists.newArrayList(
+                new BinaryPredicate(BinaryPredicate.Operator.EQ, probeExpr, createSlotRef(build)));
+        HashJoinNode joinNode = new HashJoinNode(new PlanNodeId(nextNodeId++), probe, build, innerRef,
+                eqJoinConjuncts, Lists.newArrayList());
+        joinNode.cardinality = Math.max(probe.cardinality, build.cardinality);
+        return joinNode;
+    }
+
+    private Set<Long> getBuildNdvs(PlanNode node) {
+        Set<Long> buildNdvs = Sets.newHashSet();
+        for (RuntimeFilter filter : node.getRuntimeFilters()) {
+            buildNdvs.add(filter.getBuildNdv());
+        }
+        return buildNdvs;
+    }
+
+    @Test
+    public void testFindTargetNode() {
+        // (fact JOIN dim1) JOIN dim2 ON fact.k = dim2.k, with a select node above fact
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        OlapScanNode dim1 = createScanNode("dim1", 100);
+        OlapScanNode dim2 = createScanNode("dim2", 10000);
+        SelectNode select = new SelectNode(new PlanNodeId(nextNodeId++), fact);
+        select.cardinality = fact.cardinality;
+        HashJoinNode join1 = createJoinNode(select, createSlotRef(fact), dim1, JoinOperator.INNER_JOIN);
+        HashJoinNode join2 = createJoinNode(join1, createSlotRef(fact), dim2, JoinOperator.INNER_JOIN);
+
+        RuntimeFilterGenerator.generateRuntimeFilters(join2, sessionVariable);
+        // the filters of both joins are applied to the fact table
+        Assert.assertEquals(Sets.newHashSet(100L, 10000L), getBuildNdvs(fact));
+        Assert.assertTrue(select.getRuntimeFilters().isEmpty());
+        Assert.assertTrue(dim1.getRuntimeFilters().isEmpty());
+
+        // few build values make an IN filter, otherwise MIN_MAX and BLOOM filters for int key
+        Assert.assertEquals(1, join1.getRuntimeFilters().size());
+        Assert.assertEquals(RuntimeFilterType.IN, join1.getRuntimeFilters().get(0).getType());
+        Assert.assertEquals(2, join2.getRuntimeFilters().size());
+        Assert.assertEquals(RuntimeFilterType.MIN_MAX, join2.getRuntimeFilters().get(0).getType());
+        Assert.assertEquals(RuntimeFilterType.BLOOM, join2.getRuntimeFilters().get(1).getType());
+        Assert.assertEquals(3, fact.getRuntimeFilters().size());
+    }
+
+    @Test
+    public void testRemoteTarget() {
+        // the fact table is scanned in another fragment and sent to the join by exchange
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        new PlanFragment(new PlanFragmentId(0), fact, DataPartition.RANDOM);
+        ExchangeNode exchange = new ExchangeNode(new PlanNodeId(nextNodeId++), fact, false);
+        OlapScanNode dim = createScanNode("dim", 100);
+        HashJoinNode join = createJoinNode(exchange, createSlotRef(fact), dim, JoinOperator.INNER_JOIN);
+        new PlanFragment(new PlanFragmentId(1), join, DataPartition.UNPARTITIONED);
+
+        sessionVariable.setRuntimeFilterMode("LOCAL");
+        RuntimeFilterGenerator.generateRuntimeFilters(join, sessionVariable);
+        Assert.assertTrue(fact.getRuntimeFilters().isEmpty());
+
+        sessionVariable.setRuntimeFilterMode("GLOBAL");
+        RuntimeFilterGenerator.generateRuntimeFilters(join, sessionVariable);
+        Assert.assertEquals(1, fact.getRuntimeFilters().size());
+        Assert.assertTrue(fact.getRuntimeFilters().get(0).hasRemoteTargets());
+        Assert.assertFalse(fact.getRuntimeFilters().get(0).hasLocalTargets());
+    }
+
+    @Test
+    public void testOuterJoin() {
+        // (fact LEFT JOIN dim1 ON fact.k = dim1.k) JOIN dim2 ON dim1.k = dim2.k JOIN dim3 ON fact.k = dim3.k
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        OlapScanNode dim1 = createScanNode("dim1", 100000);
+        OlapScanNode dim2 = createScanNode("dim2", 10);
+        OlapScanNode dim3 = createScanNode("dim3", 20);
+        HashJoinNode join1 = createJoinNode(fact, createSlotRef(fact), dim1, JoinOperator.LEFT_OUTER_JOIN);
+        HashJoinNode join2 = createJoinNode(join1, createSlotRef(dim1), dim2, JoinOperator.INNER_JOIN);
+        HashJoinNode join3 = createJoinNode(join2, createSlotRef(fact), dim3, JoinOperator.INNER_JOIN);
+
+        RuntimeFilterGenerator.generateRuntimeFilters(join3, sessionVariable);
+        // no filter is built by the left outer join, or applied to its nullable side
+        Assert.assertTrue(join1.getRuntimeFilters().isEmpty());
+        Assert.assertTrue(join2.getRuntimeFilters().isEmpty());
+        Assert.assertTrue(dim1.getRuntimeFilters().isEmpty());
+        // but it is applied to the other side
+        Assert.assertEquals(Sets.newHashSet(20L), getBuildNdvs(fact));
+        Assert.assertEquals(1, join3.getRuntimeFilters().size());
+    }
+
+    @Test
+    public void testLimit() {
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        OlapScanNode dim1 = createScanNode("dim1", 10);
+        OlapScanNode dim2 = createScanNode("dim2", 20);
+        HashJoinNode join1 = createJoinNode(fact, createSlotRef(fact), dim1, JoinOperator.INNER_JOIN);
+        join1.setLimit(100);
+        HashJoinNode join2 = createJoinNode(join1, createSlotRef(fact), dim2, JoinOperator.INNER_JOIN);
+
+        // the filter of join2 can not be pushed through join1 with limit
+        RuntimeFilterGenerator.generateRuntimeFilters(join2, sessionVariable);
+        Assert.assertEquals(Sets.newHashSet(10L), getBuildNdvs(fact));
+        Assert.assertTrue(join2.getRuntimeFilters().isEmpty());
+
+        // or to the scan node with limit
+        OlapScanNode limitedFact = createScanNode("fact", 1000000);
+        limitedFact.setLimit(100);
+        HashJoinNode join3 = createJoinNode(limitedFact, createSlotRef(limitedFact), createScanNode("dim3", 10),
+                JoinOperator.INNER_JOIN);
+        RuntimeFilterGenerator.generateRuntimeFilters(join3, sessionVariable);
+        Assert.assertTrue(limitedFact.getRuntimeFilters().isEmpty());
+    }
+
+    @Test
+    public void testMaxNum() {
+        // fact JOIN dim1 JOIN dim2 JOIN dim3, each join generates an IN filter
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        PlanNode root = fact;
+        for (long cardinality : new long[] { 30, 10, 20 }) {
+            root = createJoinNode(root, createSlotRef(fact), createScanNode("dim", cardinality),
+                    JoinOperator.INNER_JOIN);
+        }
+
+        // the filters with fewer build values are kept
+        sessionVariable.setRuntimeFiltersMaxNum(2);
+        RuntimeFilterGenerator.generateRuntimeFilters(root, sessionVariable);
+        Assert.assertEquals(Sets.newHashSet(10L, 20L), getBuildNdvs(fact));
+        // ids are assigned in plan order
+        Assert.assertEquals(0, fact.getRuntimeFilters().get(0).getId());
+        Assert.assertEquals(10L, fact.getRuntimeFilters().get(0).getBuildNdv());
+        Assert.assertEquals(1, fact.getRuntimeFilters().get(1).getId());
+    }
+
+    @Test
+    public void testDefaultOff() {
+        OlapScanNode fact = createScanNode("fact", 1000000);
+        HashJoinNode join = createJoinNode(fact, createSlotRef(fact), createScanNode("dim", 10),
+                JoinOperator.INNER_JOIN);
+        RuntimeFilterGenerator.generateRuntimeFilters(join, new SessionVariable());
+        Assert.assertTrue(fact.getRuntimeFilters().isEmpty());
+        Assert.assertTrue(join.getRuntimeFilters().isEmpty());
+    }
+
+    @Test
+    public void testBloomFilterSize() {
+        // 1000 values need about 780 bytes
+        Assert.assertEquals(1024L, RuntimeFilterGenerator.computeBloomFilterSize(1000, 1, MAX_SIZE));
+        Assert.assertEquals(MIN_SIZE, RuntimeFilterGenerator.computeBloomFilterSize(1000, MIN_SIZE, MAX_SIZE));
+        // 10 million values need about 7.8MB
+        Assert.assertEquals(8388608L,
+                RuntimeFilterGenerator.computeBloomFilterSize(10000000L, MIN_SIZE, MAX_SIZE));
+        Assert.assertEquals(MAX_SIZE,
+                RuntimeFilterGenerator.computeBloomFilterSize(1000000000L, MIN_SIZE, MAX_SIZE));
+        // unknown
+        Assert.assertEquals(MAX_SIZE, RuntimeFilterGenerator.computeBloomFilterSize(-1, MIN_SIZE, MAX_SIZE));
+        Assert.assertEquals(1L, RuntimeFilterGenerator.computeBloomFilterSize(0, 1, MAX_SIZE));
+    }
+
+    @Test
+    public void testTypeMask() {
+        Assert.assertTrue(RuntimeFilterType.IN.isEnabled(7));
+        Assert.assertTrue(RuntimeFilterType.BLOOM.isEnabled(4));
+        Assert.assertFalse(RuntimeFilterType.MIN_MAX.isEnabled(5));
+    }
+}
@@ -0,0 +1,181 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.planner;
+
+import org.apache.doris.analysis.DateLiteral;
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.InPredicate;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.SlotRef;
+import org.apache.doris.catalog.AggregateType;
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.KeysType;
+import org.apache.doris.catalog.PrimitiveType;
+import org.apache.doris.catalog.Tablet;
+import org.apache.doris.catalog.TabletInvertedIndex;
+import org.apache.doris.catalog.TabletMeta;
+import org.apache.doris.catalog.TabletZoneMap;
+import org.apache.doris.catalog.Type;
+import org.apache.doris.common.AnalysisException;
+import org.apache.doris.thrift.TColumnZoneMap;
+import org.apache.doris.thrift.TStorageMedium;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class TabletZoneMapPrunerTest {
+    private TabletInvertedIndex invertedIndex;
+    private List<Column> columns;
+    private List<Tablet> tablets;
+
+    @Before
+    public void setUp() {
+        invertedIndex = new TabletInvertedIndex();
+        columns = Lists.newArrayList(new Column("user_id", PrimitiveType.BIGINT, true),
+                new Column("dt", PrimitiveType.DATE, true));
+        tablets = Lists.newArrayList();
+        // tablet i has dt in [2020-01-0i, 2020-01-0(i+1)], and user_id in [0, 100]
+        for (long i = 1; i <= 4; i++) {
+            invertedIndex.addTablet(i, new TabletMeta(1, 2, 3, 4, 5, TStorageMedium.HDD));
+            tablets.add(new Tablet(i));
+            TColumnZoneMap userIdZoneMap = new TColumnZoneMap("user_id");
+            userIdZoneMap.setMin_value("0");
+            userIdZoneMap.setMax_value("100");
+            userIdZoneMap.setHas_null(false);
+            TColumnZoneMap dtZoneMap = new TColumnZoneMap("dt");
+            dtZoneMap.setMin_value("2020-01-0" + i);
+            dtZoneMap.setMax_value("2020-01-0" + (i + 1));
+            dtZoneMap.setHas_null(i == 4);
+            invertedIndex.updateTabletZoneMap(i, new TabletZoneMap(10, Lists.newArrayList(userIdZoneMap, dtZoneMap)));
+        }
+    }
+
+    private List<Long> prune(String columnName, PartitionColumnFilter filter, long visibleVersion) {
+        return prune(KeysType.DUP_KEYS, columns, columnName, filter, visibleVersion);
+    }
+
+    private List<Long> prune(KeysType keysType, List<Column> columns, String columnName,
+                             PartitionColumnFilter filter, long visibleVersion) {
+        Map<String, PartitionColumnFilter> filters = Maps.newHashMap();
+        filters.put(columnName, filter);
+        List<Long> tabletIds = Lists.newArrayList();
+        TabletZoneMapPruner pruner = new TabletZoneMapPruner(invertedIndex, keysType, columns, filters);
+        for (Tablet tablet : pruner.prune(tablets, visibleVersion)) {
+            tabletIds.add(tablet.getId());
+        }
+        return tabletIds;
+    }
+
+    @Test
+    public void testRange() throws AnalysisException {
+        // dt > '2020-01-04'
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new DateLiteral("2020-01-04", Type.DATE), false);
+        Assert.assertEquals(Lists.newArrayList(4L), prune("dt", filter, 10));
+
+        // dt <= '2020-01-02'
+        filter = new PartitionColumnFilter();
+        filter.setUpperBound(new DateLiteral("2020-01-02", Type.DATE), true);
+        filter.lowerBoundInclusive = true;
+        Assert.assertEquals(Lists.newArrayList(1L, 2L), prune("dt", filter, 10));
+
+        // zone maps of old version are not used
+        Assert.assertEquals(4, prune("dt", filter, 11).size());
+
+        // user_id > 100
+        filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(100, Type.BIGINT), false);
+        Assert.assertTrue(prune("user_id", filter, 10).isEmpty());
+    }
+
+    @Test
+    public void testInAndNull() throws AnalysisException {
+        // dt in ('2020-01-01', '2020-01-05')
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        List<Expr> inList = Lists.newArrayList();
+        inList.add(new DateLiteral("2020-01-01", Type.DATE));
+        inList.add(new DateLiteral("2020-01-05", Type.DATE));
+        filter.setInPredicate(new InPredicate(new SlotRef(null, "dt"), inList, false));
+        Assert.assertEquals(Lists.newArrayList(1L, 4L), prune("dt", filter, 10));
+
+        // dt is null
+        filter = new PartitionColumnFilter();
+        filter.setLowerBound(new NullLiteral(), true);
+        filter.setUpperBound(new NullLiteral(), true);
+        Assert.assertEquals(Lists.newArrayList(4L), prune("dt", filter, 10));
+    }
+
+    @Test
+    public void testAggTable() throws AnalysisException {
+        // dt is key, user_id is a value column of SUM
+        List<Column> aggColumns = Lists.newArrayList(
+                new Column("dt", Type.DATE, true, null, true, null, ""),
+                new Column("user_id", Type.BIGINT, false, AggregateType.SUM, true, null, ""));
+
+        // the max value of unmerged rows does not bound the sum, so value columns are not used
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new IntLiteral(100, Type.BIGINT), false);
+        Assert.assertEquals(4, prune(KeysType.AGG_KEYS, aggColumns, "user_id", filter, 10).size());
+        Assert.assertEquals(4, prune(KeysType.UNIQUE_KEYS, aggColumns, "user_id", filter, 10).size());
+
+        // key columns are still used
+        filter = new PartitionColumnFilter();
+        filter.setLowerBound(new DateLiteral("2020-01-04", Type.DATE), false);
+        Assert.assertEquals(Lists.newArrayList(4L), prune(KeysType.AGG_KEYS, aggColumns, "dt", filter, 10));
+    }
+
+    @Test
+    public void testDeletedTablet() throws AnalysisException {
+        invertedIndex.deleteTablet(1L);
+        Assert.assertNull(invertedIndex.getTabletZoneMap(1L));
+        // no zone map, can not be pruned
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new DateLiteral("2020-01-04", Type.DATE), false);
+        Assert.assertEquals(Lists.newArrayList(1L, 4L), prune("dt", filter, 10));
+    }
+
+    @Test
+    public void testParseOnce() throws AnalysisException {
+        TabletZoneMap zoneMap = invertedIndex.getTabletZoneMap(1L);
+        int columnIndex = zoneMap.getColumnIndex("dt");
+        TabletZoneMap.ColumnBounds bounds = zoneMap.getBounds(columnIndex, Type.DATE);
+        Assert.assertEquals(0, bounds.getMinValue().compareLiteral(new DateLiteral("2020-01-01", Type.DATE)));
+        Assert.assertEquals(0, bounds.getMaxValue().compareLiteral(new DateLiteral("2020-01-02", Type.DATE)));
+
+        // the parsed values are kept for the following queries
+        PartitionColumnFilter filter = new PartitionColumnFilter();
+        filter.setLowerBound(new DateLiteral("2020-01-04", Type.DATE), false);
+        prune("dt", filter, 10);
+        Assert.assertSame(bounds, zoneMap.getBounds(columnIndex, Type.DATE));
+
+        // parsed again if the type is changed
+        Assert.assertNotSame(bounds, zoneMap.getBounds(columnIndex, Type.DATETIME));
+
+        // invalid value is unknown
+        columnIndex = zoneMap.getColumnIndex("user_id");
+        Assert.assertNull(zoneMap.getBounds(columnIndex, Type.DATE).getMinValue());
+    }
+}
@@ -0,0 +1,218 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.ConfigBase;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AuditEventProcessorTest {
+    private int queueSize;
+    private int batchSize;
+    private long flushIntervalMs;
+
+    private static class MockSink implements AuditSink {
+        private boolean enabled = true;
+        private boolean fail = false;
+        private List<List<AuditEvent>> batches = Collections.synchronizedList(Lists.newArrayList());
+        // if not null, send() waits until it is counted down
+        private CountDownLatch hang = null;
+
+        @Override
+        public String getName() {
+            return "mock";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        @Override
+        public void send(List<AuditEvent> events) throws Exception {
+            if (hang != null) {
+                hang.await();
+            }
+            batches.add(events);
+            if (fail) {
+                throw new Exception("mock failure");
+            }
+        }
+    }
+
+    @Before
+    public void setUp() {
+        queueSize = Config.audit_event_queue_size;
+        batchSize = Config.audit_flush_batch_size;
+        flushIntervalMs = Config.audit_flush_interval_ms;
+    }
+
+    @After
+    public void tearDown() {
+        Config.audit_event_queue_size = queueSize;
+        Config.audit_flush_batch_size = batchSize;
+        Config.audit_flush_interval_ms = flushIntervalMs;
+    }
+
+    private static void flush(AuditEventProcessor processor) {
+        for (AuditEventProcessor.SinkWorker worker : processor.getWorkers()) {
+            worker.runOneCycle();
+        }
+    }
+
+    private static AuditEvent createEvent(long stmtId) {
+        return new AuditEvent.Builder().user("root").db("db1").stmtId(stmtId).stmt("select 1").build();
+    }
+
+    @Test
+    public void testBatch() {
+        Config.audit_flush_batch_size = 2;
+        MockSink sink = new MockSink();
+        MockSink failedSink = new MockSink();
+        failedSink.fail = true;
+        MockSink disabledSink = new MockSink();
+        disabledSink.enabled = false;
+        AuditEventProcessor processor = new AuditEventProcessor(Lists.newArrayList(failedSink, sink, disabledSink));
+
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(processor.submit(createEvent(i)));
+        }
+        // the events are not queued for the disabled sink
+        Assert.assertEquals(10, processor.getQueueSize());
+        flush(processor);
+        Assert.assertEquals(0, processor.getQueueSize());
+
+        // a failed sink does not affect the others
+        Assert.assertEquals(3, failedSink.batches.size());
+        Assert.assertEquals(3, sink.batches.size());
+        Assert.assertEquals(2, sink.batches.get(0).size());
+        Assert.assertEquals(1, sink.batches.get(2).size());
+        Assert.assertEquals(4, sink.batches.get(2).get(0).getStmtId());
+        Assert.assertTrue(disabledSink.batches.isEmpty());
+    }
+
+    @Test
+    public void testQueueFull() {
+        Config.audit_event_queue_size = 2;
+        MockSink sink = new MockSink();
+        AuditEventProcessor processor = new AuditEventProcessor(Lists.newArrayList(sink));
+        Assert.assertTrue(processor.submit(createEvent(1)));
+        Assert.assertTrue(processor.submit(createEvent(2)));
+        Assert.assertFalse(processor.submit(createEvent(3)));
+        Assert.assertEquals(1, processor.getDroppedNum());
+
+        flush(processor);
+        Assert.assertTrue(processor.submit(createEvent(4)));
+    }
+
+    @Test
+    public void testHungSink() throws Exception {
+        Config.audit_flush_interval_ms = 10;
+        Config.audit_event_queue_size = 2;
+        MockSink sink = new MockSink();
+        MockSink hungSink = new MockSink();
+        hungSink.hang = new CountDownLatch(1);
+        AuditEventProcessor processor = new AuditEventProcessor(Lists.newArrayList(hungSink, sink));
+        processor.start();
+        try {
+            for (int i = 0; i < 10; i++) {
+                processor.submit(createEvent(i));
+                // a hung sink does not block the others, whose events are sent and not dropped
+                long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+                while (sink.batches.size() <= i && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(5);
+                }
+            }
+            Assert.assertEquals(10, sink.batches.size());
+            Assert.assertTrue(hungSink.batches.isEmpty());
+            // only the events of the hung sink are dropped when its queue is full
+            Assert.assertTrue(processor.getDroppedNum() > 0);
+        } finally {
+            hungSink.hang.countDown();
+            for (AuditEventProcessor.SinkWorker worker : processor.getWorkers()) {
+                worker.exit();
+            }
+        }
+    }
+
+    @Test
+    public void testPasswordMasked() throws Exception {
+        ConfigBase.confClass = Config.class;
+        String password = Config.audit_load_password;
+        Config.audit_load_password = "secret";
+        try {
+            Assert.assertEquals(ConfigBase.MASKED_VALUE, ConfigBase.dump().get("audit_load_password"));
+            for (List<String> config : ConfigBase.getConfigInfo()) {
+                Assert.assertFalse(config.contains("secret"));
+            }
+            Assert.assertFalse(ConfigBase.getAllMutableConfigs().containsKey("audit_load_password"));
+        } finally {
+            Config.audit_load_password = password;
+        }
+    }
+
+    @Test
+    public void testEventFormat() {
+        AuditEvent event = new AuditEvent.Builder().client("127.0.0.1:1234").user("root").db("db1")
+                .state("EOF").queryTime(10).isQuery(true).stmt("select\t1").build();
+        String log = event.toLogString();
+        Assert.assertTrue(log.startsWith("|Client=127.0.0.1:1234|User=root|Db=db1|State=EOF|Time=10|"));
+        Assert.assertTrue(log.endsWith("|IsQuery=1|Stmt=select\t1"));
+
+        String content = StreamLoadAuditSink.toContent(Lists.newArrayList(event));
+        Assert.assertEquals(15, content.split("\t").length);
+        Assert.assertTrue(content.endsWith("\tselect 1\n"));
+    }
+
+    @Test
+    public void testTruncateStmt() {
+        // 3 bytes for each character in UTF-8, the stmt is far longer than 4096 bytes but has only 3000 chars
+        StringBuilder sb = new StringBuilder("select '");
+        for (int i = 0; i < 3000; i++) {
+            sb.append('\u4e2d');
+        }
+        String stmt = sb.append("'").toString();
+        String content = StreamLoadAuditSink.toContent(Lists.newArrayList(
+                new AuditEvent.Builder().stmt(stmt).build()));
+        String[] columns = content.substring(0, content.length() - 1).split("\t");
+        String truncated = columns[columns.length - 1];
+        byte[] bytes = truncated.getBytes(StandardCharsets.UTF_8);
+        // 8 bytes of "select '" and 1362 whole characters
+        Assert.assertEquals(8 + 1362 * 3, bytes.length);
+        Assert.assertTrue(stmt.startsWith(truncated));
+
+        Assert.assertEquals("abc", StreamLoadAuditSink.truncateUtf8("abc", 3));
+        Assert.assertEquals("ab", StreamLoadAuditSink.truncateUtf8("abc", 2));
+        Assert.assertEquals("a", StreamLoadAuditSink.truncateUtf8("a\u4e2d", 3));
+        // a character out of BMP is never split
+        Assert.assertEquals("a", StreamLoadAuditSink.truncateUtf8("a\ud83d\ude00", 4));
+        Assert.assertEquals("a\ud83d\ude00", StreamLoadAuditSink.truncateUtf8("a\ud83d\ude00", 5));
+    }
+}
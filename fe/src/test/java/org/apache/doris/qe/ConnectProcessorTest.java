@@ -53,7 +53,7 @@ public class ConnectProcessorTest {
     private static ByteBuffer quitPacket;
     private static ByteBuffer queryPacket;
     private static ByteBuffer fieldListPacket;
-    private static AuditBuilder auditBuilder = new AuditBuilder();
+    private static AuditEvent.Builder auditEventBuilder = new AuditEvent.Builder();
     ConnectContext myContext;
 
     private static PQueryStatistics statistics = new PQueryStatistics();
@@ -150,7 +150,7 @@ public class ConnectProcessorTest {
         EasyMock.expect(context.isKilled()).andReturn(true).once();
         EasyMock.expect(context.getCatalog()).andReturn(catalog).anyTimes();
         EasyMock.expect(context.getState()).andReturn(myContext.getState()).anyTimes();
-        EasyMock.expect(context.getAuditBuilder()).andReturn(auditBuilder).anyTimes();
+        EasyMock.expect(context.getAuditEventBuilder()).andReturn(auditEventBuilder).anyTimes();
         EasyMock.expect(context.getQualifiedUser()).andReturn("testCluster:user").anyTimes();
         EasyMock.expect(context.getClusterName()).andReturn("testCluster").anyTimes();
         EasyMock.expect(context.getStartTime()).andReturn(0L).anyTimes();
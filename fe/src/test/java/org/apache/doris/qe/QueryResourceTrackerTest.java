@@ -0,0 +1,113 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.thrift.TCounter;
+import org.apache.doris.thrift.TRuntimeProfileNode;
+import org.apache.doris.thrift.TRuntimeProfileTree;
+import org.apache.doris.thrift.TUniqueId;
+import org.apache.doris.thrift.TUnit;
+
+import com.google.common.collect.Lists;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryResourceTrackerTest {
+    private long maxMemBytes = Config.query_max_mem_bytes;
+    private long maxCpuTimeSecond = Config.query_max_cpu_time_second;
+
+    @After
+    public void tearDown() {
+        Config.query_max_mem_bytes = maxMemBytes;
+        Config.query_max_cpu_time_second = maxCpuTimeSecond;
+    }
+
+    // an instance profile with a scan node
+    private static TRuntimeProfileTree createProfile(long instanceMem, long scanMem, long rows, long cpuTimeNs) {
+        TRuntimeProfileNode instanceNode = new TRuntimeProfileNode();
+        instanceNode.setName("Instance");
+        instanceNode.setNum_children(1);
+        instanceNode.setCounters(Lists.newArrayList(new TCounter("PeakMemoryUsage", TUnit.BYTES, instanceMem)));
+
+        TRuntimeProfileNode scanNode = new TRuntimeProfileNode();
+        scanNode.setName("OLAP_SCAN_NODE");
+        scanNode.setNum_children(0);
+        scanNode.setCounters(Lists.newArrayList(new TCounter("PeakMemoryUsage", TUnit.BYTES, scanMem),
+                new TCounter("RawRowsRead", TUnit.UNIT, rows),
+                new TCounter("CompressedBytesRead", TUnit.BYTES, rows * 10),
+                new TCounter("ScannerThreadsUserTime", TUnit.TIME_NS, cpuTimeNs / 2),
+                new TCounter("ScannerThreadsSysTime", TUnit.TIME_NS, cpuTimeNs / 2),
+                new TCounter("ScannerThreadsTotalWallClockTime", TUnit.TIME_NS, cpuTimeNs * 10)));
+
+        TRuntimeProfileTree tree = new TRuntimeProfileTree();
+        tree.setNodes(Lists.newArrayList(instanceNode, scanNode));
+        return tree;
+    }
+
+    @Test
+    public void testUpdate() {
+        QueryResourceTracker tracker = new QueryResourceTracker();
+        TUniqueId instance1 = new TUniqueId(1, 1);
+        TUniqueId instance2 = new TUniqueId(1, 2);
+
+        tracker.update(instance1, createProfile(100, 50, 10, 2000000), false);
+        tracker.update(instance2, createProfile(200, 50, 20, 4000000), false);
+        Assert.assertEquals(300, tracker.getMemBytes());
+        Assert.assertEquals(30, tracker.getScanRows());
+        Assert.assertEquals(300, tracker.getScanBytes());
+        Assert.assertEquals(6, tracker.getCpuTimeMs());
+
+        // profiles are cumulative, the latest one replaces the old one
+        tracker.update(instance1, createProfile(150, 50, 15, 4000000), false);
+        Assert.assertEquals(350, tracker.getMemBytes());
+        Assert.assertEquals(35, tracker.getScanRows());
+        Assert.assertEquals(8, tracker.getCpuTimeMs());
+
+        // memory of finished instance is released, but still counted in peak memory
+        tracker.update(instance2, createProfile(300, 50, 30, 4000000), true);
+        Assert.assertEquals(150, tracker.getMemBytes());
+        Assert.assertEquals(450, tracker.getPeakMemBytes());
+        Assert.assertEquals(45, tracker.getScanRows());
+
+        // reports after done are ignored
+        tracker.update(instance2, createProfile(1000, 50, 100, 4000000), false);
+        Assert.assertEquals(150, tracker.getMemBytes());
+        Assert.assertEquals(45, tracker.getScanRows());
+    }
+
+    @Test
+    public void testCheckLimit() {
+        QueryResourceTracker tracker = new QueryResourceTracker();
+        tracker.update(new TUniqueId(1, 1), createProfile(100, 50, 10, 2000000000L), false);
+        Config.query_max_mem_bytes = 0;
+        Config.query_max_cpu_time_second = 0;
+        Assert.assertNull(tracker.checkLimit());
+
+        Config.query_max_mem_bytes = 100;
+        Assert.assertNull(tracker.checkLimit());
+        Config.query_max_mem_bytes = 99;
+        Assert.assertTrue(tracker.checkLimit().contains("memory"));
+
+        Config.query_max_mem_bytes = 0;
+        Config.query_max_cpu_time_second = 1;
+        Assert.assertTrue(tracker.checkLimit().contains("cpu time"));
+    }
+}
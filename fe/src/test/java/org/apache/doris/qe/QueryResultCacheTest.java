@@ -0,0 +1,88 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.QueryStmt;
+import org.apache.doris.analysis.SqlParser;
+import org.apache.doris.analysis.SqlScanner;
+import org.apache.doris.common.Config;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+public class QueryResultCacheTest {
+
+    private static boolean isDeterministic(String sql) throws Exception {
+        SqlParser parser = new SqlParser(new SqlScanner(new StringReader(sql)));
+        return QueryResultCache.isDeterministic((QueryStmt) parser.parse().value);
+    }
+
+    @Test
+    public void testDeterministic() throws Exception {
+        Assert.assertTrue(isDeterministic("select k1, k2 from t where k2 > 1 order by k1"));
+        Assert.assertFalse(isDeterministic("select k1 from t where k2 > NOW()"));
+        Assert.assertFalse(isDeterministic("select k1 from t order by rand()"));
+        // inline views and subqueries
+        Assert.assertFalse(isDeterministic("select * from (select k1, uuid() as id from t) v"));
+        Assert.assertFalse(isDeterministic("select k1 from t where k1 in (select k1 from t2 where k2 > now())"));
+        Assert.assertFalse(isDeterministic("select k1 from t union all select unix_timestamp() from t2"));
+        // an unresolved function may be an UDF
+        Assert.assertFalse(isDeterministic("select my_udf(k1) from t"));
+    }
+
+    @Test
+    public void testNormalizeSql() {
+        Assert.assertEquals("select k1 from t where k2 = 'a  b'",
+                QueryResultCache.normalizeSql("  select k1\n  from t\twhere k2 = 'a  b' ;\n"));
+        Assert.assertEquals("select 'it\\'s ; '",
+                QueryResultCache.normalizeSql("select   'it\\'s ; '"));
+    }
+
+    @Test
+    public void testPutAndGet() {
+        QueryResultCache cache = QueryResultCache.getInstance();
+        List<byte[]> rows = Lists.newArrayList(new byte[] {1, 'a'}, new byte[] {1, 'b'});
+        cache.put("key1", rows);
+        Assert.assertSame(rows, cache.get("key1"));
+        Assert.assertNull(cache.get("key2"));
+
+        long maxEntrySize = Config.query_result_cache_max_entry_size_bytes;
+        Config.query_result_cache_max_entry_size_bytes = 10;
+        try {
+            cache.put("key3", rows);
+            Assert.assertNull(cache.get("key3"));
+        } finally {
+            Config.query_result_cache_max_entry_size_bytes = maxEntrySize;
+        }
+    }
+
+    @Test
+    public void testCopyRow() {
+        ByteBuffer row = ByteBuffer.wrap(new byte[] {0, 1, 2, 3});
+        row.position(1);
+        byte[] bytes = QueryResultCache.copyRow(row);
+        Assert.assertArrayEquals(new byte[] {1, 2, 3}, bytes);
+        Assert.assertEquals(1, row.position());
+    }
+}
@@ -0,0 +1,138 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.Status;
+import org.apache.doris.proto.PFetchDataResult;
+import org.apache.doris.proto.PStatus;
+import org.apache.doris.rpc.BackendServiceProxy;
+import org.apache.doris.rpc.PFetchDataRequest;
+import org.apache.doris.thrift.TNetworkAddress;
+import org.apache.doris.thrift.TResultBatch;
+import org.apache.doris.thrift.TStatusCode;
+import org.apache.doris.thrift.TUniqueId;
+
+import com.google.common.collect.Lists;
+
+import org.apache.thrift.TException;
+import org.apache.thrift.TSerializer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+
+public class ResultReceiverTest {
+
+    @Mocked
+    private BackendServiceProxy proxy;
+
+    private boolean origPrefetch;
+    // the futures returned by fetch requests, in order
+    private List<CompletableFuture<PFetchDataResult>> futures = Lists.newArrayList();
+    private long packetSeq = 0;
+
+    @Before
+    public void setUp() throws Exception {
+        origPrefetch = Config.enable_result_prefetch;
+
+        new Expectations() {
+            {
+                BackendServiceProxy.getInstance();
+                minTimes = 0;
+                result = proxy;
+
+                proxy.fetchDataAsync((TNetworkAddress) any, (PFetchDataRequest) any);
+                minTimes = 0;
+                result = new Delegate() {
+                    Future<PFetchDataResult> fetchDataAsync(TNetworkAddress address, PFetchDataRequest request)
+                            throws TException {
+                        CompletableFuture<PFetchDataResult> future = new CompletableFuture<>();
+                        if (futures.isEmpty()) {
+                            // only the first batch arrives, backend is still producing the following ones
+                            future.complete(createResult(request));
+                        }
+                        futures.add(future);
+                        return future;
+                    }
+                };
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        Config.enable_result_prefetch = origPrefetch;
+    }
+
+    // a batch of one row, which is not the last one
+    private PFetchDataResult createResult(PFetchDataRequest request) throws TException {
+        TResultBatch resultBatch = new TResultBatch(Lists.newArrayList(ByteBuffer.wrap(new byte[] {1})), false,
+                packetSeq);
+        request.setSerializedResult(new TSerializer().serialize(resultBatch));
+
+        PFetchDataResult result = new PFetchDataResult();
+        result.status = new PStatus();
+        result.status.status_code = TStatusCode.OK.getValue();
+        result.packet_seq = packetSeq++;
+        result.eos = false;
+        return result;
+    }
+
+    private ResultReceiver createReceiver() {
+        return new ResultReceiver(new TUniqueId(1, 2), 10001L, new TNetworkAddress("127.0.0.1", 8060), 10000);
+    }
+
+    @Test
+    public void testCancelPrefetch() throws TException {
+        Config.enable_result_prefetch = true;
+        ResultReceiver receiver = createReceiver();
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals(1, batch.getBatch().getRows().size());
+        // the next batch is being fetched
+        Assert.assertEquals(2, futures.size());
+        Assert.assertFalse(futures.get(1).isDone());
+
+        // eg. the client is gone
+        receiver.cancel();
+        Assert.assertTrue(futures.get(1).isCancelled());
+    }
+
+    @Test
+    public void testPrefetchDisabled() throws TException {
+        Assert.assertFalse(Config.enable_result_prefetch);
+        ResultReceiver receiver = createReceiver();
+        Status status = new Status();
+        RowBatch batch = receiver.getNext(status);
+        Assert.assertTrue(status.ok());
+        Assert.assertEquals(1, batch.getBatch().getRows().size());
+        // the next batch is fetched only when it is asked for
+        Assert.assertEquals(1, futures.size());
+    }
+}
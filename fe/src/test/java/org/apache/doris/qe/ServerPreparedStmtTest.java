@@ -0,0 +1,88 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.analysis.Expr;
+import org.apache.doris.analysis.IntLiteral;
+import org.apache.doris.analysis.NullLiteral;
+import org.apache.doris.analysis.SelectStmt;
+import org.apache.doris.analysis.StringLiteral;
+import org.apache.doris.common.AnalysisException;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServerPreparedStmtTest {
+
+    @Test
+    public void testBind() {
+        ServerPreparedStmt stmt = new ServerPreparedStmt(1, "select * from t where k1 = ? and k2 = '?' and k3 > ?");
+        Assert.assertEquals(2, stmt.getParamNum());
+        Assert.assertEquals("select * from t where k1 = 10 and k2 = '?' and k3 > 'abc'",
+                stmt.bind(Lists.newArrayList("10", "'abc'")));
+    }
+
+    @Test
+    public void testPlaceholderInCommentAndQuote() {
+        ServerPreparedStmt stmt = new ServerPreparedStmt(2,
+                "select `a?`, \"b\\\"?\" /* ? */ from t -- ?\nwhere k1 = ? # ?");
+        Assert.assertEquals(1, stmt.getParamNum());
+        Assert.assertEquals("select `a?`, \"b\\\"?\" /* ? */ from t -- ?\nwhere k1 = NULL # ?",
+                stmt.bind(Lists.newArrayList("NULL")));
+    }
+
+    @Test
+    public void testNoPlaceholder() {
+        ServerPreparedStmt stmt = new ServerPreparedStmt(3, "select 1");
+        Assert.assertEquals(0, stmt.getParamNum());
+        Assert.assertEquals("select 1", stmt.bind(Lists.newArrayList()));
+    }
+
+    @Test
+    public void testBindTemplate() throws AnalysisException {
+        ServerPreparedStmt stmt = new ServerPreparedStmt(4, "select k1 from t where k1 = ? and k2 in (?, 'b')");
+        SelectStmt bound = (SelectStmt) stmt.bindTemplate(0, Lists.newArrayList(
+                ServerPreparedStmt.toLiteralExpr("10"), ServerPreparedStmt.toLiteralExpr("'it\\'s\\n'")));
+        Expr where = bound.getWhereClause();
+        Assert.assertEquals(10, ((IntLiteral) where.getChild(0).getChild(1)).getLongValue());
+        Assert.assertEquals("it's\n", ((StringLiteral) where.getChild(1).getChild(1)).getStringValue());
+
+        // the template is reused, and not changed by the previous binding
+        bound = (SelectStmt) stmt.bindTemplate(0, Lists.newArrayList(new IntLiteral(20), new NullLiteral()));
+        where = bound.getWhereClause();
+        Assert.assertEquals(20, ((IntLiteral) where.getChild(0).getChild(1)).getLongValue());
+        Assert.assertTrue(where.getChild(1).getChild(1) instanceof NullLiteral);
+
+        // the template is parsed again after invalidated
+        ParsedStmtCache.getInstance().invalidateAll();
+        bound = (SelectStmt) stmt.bindTemplate(0, Lists.newArrayList(new IntLiteral(30), new IntLiteral(1)));
+        Assert.assertEquals(30, ((IntLiteral) bound.getWhereClause().getChild(0).getChild(1)).getLongValue());
+    }
+
+    @Test
+    public void testTemplateUnusable() throws AnalysisException {
+        // placeholder in limit clause can not be parsed as a string literal
+        ServerPreparedStmt stmt = new ServerPreparedStmt(5, "select k1 from t limit ?");
+        Assert.assertNull(stmt.bindTemplate(0, Lists.newArrayList(new IntLiteral(10))));
+        // not a select statement
+        stmt = new ServerPreparedStmt(6, "insert into t values (?)");
+        Assert.assertNull(stmt.bindTemplate(0, Lists.newArrayList(new IntLiteral(10))));
+    }
+}
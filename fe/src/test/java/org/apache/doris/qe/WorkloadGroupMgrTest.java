@@ -0,0 +1,174 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.qe;
+
+import org.apache.doris.common.Config;
+import org.apache.doris.common.UserException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class WorkloadGroupMgrTest {
+    private WorkloadGroupMgr mgr;
+
+    private int maxRunningQueries;
+    private int[] maxConcurrency;
+    private long[] maxMemBytes;
+    private int maxQueueSize;
+
+    @Before
+    public void setUp() {
+        mgr = new WorkloadGroupMgr();
+        maxRunningQueries = Config.qe_max_running_queries;
+        maxConcurrency = Config.workload_group_max_concurrency;
+        maxMemBytes = Config.workload_group_max_mem_bytes;
+        maxQueueSize = Config.workload_group_max_queue_size;
+    }
+
+    @After
+    public void tearDown() {
+        Config.qe_max_running_queries = maxRunningQueries;
+        Config.workload_group_max_concurrency = maxConcurrency;
+        Config.workload_group_max_mem_bytes = maxMemBytes;
+        Config.workload_group_max_queue_size = maxQueueSize;
+    }
+
+    private Thread admitAsync(WorkloadGroupMgr.QueueToken token, ConcurrentLinkedQueue<String> admitted,
+                              String name) {
+        Thread thread = new Thread(() -> {
+            try {
+                mgr.admit(token, 10000);
+                admitted.add(name);
+            } catch (UserException e) {
+                admitted.add("failed " + name);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void waitQueueSize(WorkloadGroup group, int size) throws InterruptedException {
+        while (mgr.getQueueSize(group) != size) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testConcurrency() throws Exception {
+        Config.workload_group_max_concurrency = new int[] {0, 1, 0};
+        WorkloadGroupMgr.QueueToken token1 = mgr.createToken("normal", 100);
+        mgr.admit(token1, 1000);
+        // other groups are not limited
+        WorkloadGroupMgr.QueueToken highToken = mgr.createToken("high", 100);
+        mgr.admit(highToken, 1000);
+
+        try {
+            mgr.admit(mgr.createToken("normal", 100), 50);
+            Assert.fail();
+        } catch (UserException e) {
+            Assert.assertTrue(e.getMessage().contains("normal"));
+        }
+
+        ConcurrentLinkedQueue<String> admitted = new ConcurrentLinkedQueue<>();
+        WorkloadGroupMgr.QueueToken token2 = mgr.createToken("unknown_group", 100);
+        Assert.assertEquals("normal", token2.getGroup().getName());
+        Thread thread = admitAsync(token2, admitted, "token2");
+        waitQueueSize(token2.getGroup(), 1);
+        Assert.assertTrue(admitted.isEmpty());
+
+        mgr.release(token1);
+        thread.join();
+        Assert.assertEquals("token2", admitted.poll());
+        Assert.assertEquals(1, mgr.getRunningNum(token2.getGroup()));
+        // release twice has no effect
+        mgr.release(token1);
+        Assert.assertEquals(1, mgr.getRunningNum(token2.getGroup()));
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        Config.qe_max_running_queries = 1;
+        WorkloadGroupMgr.QueueToken token1 = mgr.createToken("low", 100);
+        mgr.admit(token1, 1000);
+
+        ConcurrentLinkedQueue<String> admitted = new ConcurrentLinkedQueue<>();
+        WorkloadGroupMgr.QueueToken lowToken = mgr.createToken("low", 100);
+        Thread lowThread = admitAsync(lowToken, admitted, "low");
+        waitQueueSize(lowToken.getGroup(), 1);
+        WorkloadGroupMgr.QueueToken highToken = mgr.createToken("high", 100);
+        Thread highThread = admitAsync(highToken, admitted, "high");
+        waitQueueSize(highToken.getGroup(), 1);
+
+        mgr.release(token1);
+        highThread.join();
+        Assert.assertEquals("high", admitted.poll());
+        Assert.assertEquals(1, mgr.getQueueSize(lowToken.getGroup()));
+
+        mgr.release(highToken);
+        lowThread.join();
+        Assert.assertEquals("low", admitted.poll());
+        Assert.assertTrue(lowToken.getQueueTimeMs() >= 0);
+    }
+
+    @Test
+    public void testMemory() throws Exception {
+        Config.workload_group_max_mem_bytes = new long[] {0, 100, 0};
+        // a query larger than the budget runs if it is the only one
+        WorkloadGroupMgr.QueueToken bigToken = mgr.createToken("normal", 200);
+        mgr.admit(bigToken, 1000);
+        try {
+            mgr.admit(mgr.createToken("normal", 10), 50);
+            Assert.fail();
+        } catch (UserException e) {
+            // expected
+        }
+        mgr.release(bigToken);
+
+        mgr.admit(mgr.createToken("normal", 60), 1000);
+        mgr.admit(mgr.createToken("normal", 40), 1000);
+        Assert.assertEquals(2, mgr.getRunningNum(mgr.getGroup("normal")));
+    }
+
+    @Test
+    public void testQueueFullAndCancel() throws Exception {
+        Config.workload_group_max_concurrency = new int[] {0, 1, 0};
+        Config.workload_group_max_queue_size = 1;
+        mgr.admit(mgr.createToken("normal", 100), 1000);
+
+        ConcurrentLinkedQueue<String> admitted = new ConcurrentLinkedQueue<>();
+        WorkloadGroupMgr.QueueToken token = mgr.createToken("normal", 100);
+        Thread thread = admitAsync(token, admitted, "token");
+        waitQueueSize(token.getGroup(), 1);
+        try {
+            mgr.admit(mgr.createToken("normal", 100), 1000);
+            Assert.fail();
+        } catch (UserException e) {
+            Assert.assertTrue(e.getMessage().contains("Too many queries"));
+        }
+
+        mgr.cancel(token);
+        thread.join();
+        Assert.assertEquals("failed token", admitted.poll());
+        Assert.assertEquals(0, mgr.getQueueSize(token.getGroup()));
+        Assert.assertEquals(2, token.getGroup().getRejectedNum());
+    }
+}
@@ -0,0 +1,93 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.statistics;
+
+import org.apache.doris.catalog.Column;
+import org.apache.doris.catalog.ColumnStats;
+import org.apache.doris.catalog.PrimitiveType;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class StatisticsCollectorTest {
+
+    private List<Column> columns = Lists.newArrayList(
+            new Column("id", PrimitiveType.INT), new Column("city", PrimitiveType.VARCHAR));
+
+    @Test
+    public void testComputeStatsFromSample() {
+        // 1000 of 10000 rows are sampled
+        // every id in the sample is distinct, cities are few
+        List<String> values = Lists.newArrayList("1000", "1000", "1000", "10", "900", "5.5", "12");
+        Map<String, ColumnStats> stats = StatisticsCollector.computeStats(columns, values, 10000);
+
+        ColumnStats idStats = stats.get("id");
+        Assert.assertEquals(10000, idStats.getNumDistinctValues());
+        Assert.assertEquals(0, idStats.getNumNulls());
+
+        // low cardinality column is not scaled up
+        ColumnStats cityStats = stats.get("city");
+        Assert.assertEquals(10, cityStats.getNumDistinctValues());
+        Assert.assertEquals(1000, cityStats.getNumNulls());
+        Assert.assertEquals(5.5, cityStats.getAvgSerializedSize(), 0.001);
+        Assert.assertEquals(12, cityStats.getMaxSize());
+    }
+
+    @Test
+    public void testComputeStatsOfWholeTable() {
+        // row count is not reported yet, and ndv is over estimated by hll
+        List<String> values = Lists.newArrayList("100", "103", "100", "0", "0", null, null);
+        Map<String, ColumnStats> stats = StatisticsCollector.computeStats(columns, values, 0);
+
+        Assert.assertEquals(100, stats.get("id").getNumDistinctValues());
+        Assert.assertEquals(0, stats.get("city").getNumDistinctValues());
+        Assert.assertEquals(100, stats.get("city").getNumNulls());
+    }
+
+    @Test
+    public void testEstimateNumDistinct() {
+        // 1000 values, each in 100 of 100000 rows. 1% rows are sampled, about 1000 * (1 - 0.99 ^ 100) = 634
+        // distinct values are in the sample
+        long numDistinct = StatisticsCollector.estimateNumDistinct(634, 1000, 100000);
+        Assert.assertTrue(String.valueOf(numDistinct), Math.abs(numDistinct - 1000) <= 5);
+        // saturated sample
+        Assert.assertEquals(3, StatisticsCollector.estimateNumDistinct(3, 1000, 100000));
+        // unique column
+        Assert.assertEquals(100000, StatisticsCollector.estimateNumDistinct(1000, 1000, 100000));
+        // stale row count
+        Assert.assertEquals(1000, StatisticsCollector.estimateNumDistinct(1000, 1000, 10));
+        Assert.assertEquals(0, StatisticsCollector.estimateNumDistinct(0, 0, 100000));
+        // not sampled
+        Assert.assertEquals(500, StatisticsCollector.estimateNumDistinct(500, 1000, 1000));
+    }
+
+    @Test
+    public void testBuildQuery() {
+        String query = StatisticsCollector.buildQuery("tbl", columns, 0.0001);
+        Assert.assertTrue(query, query.contains("WHERE rand() < 0.0001"));
+        Assert.assertFalse(query, query.contains("LIMIT"));
+        query = StatisticsCollector.buildQuery("tbl", columns, 1.0);
+        Assert.assertFalse(query, query.contains("rand()"));
+        Assert.assertTrue(query, query.contains("LIMIT"));
+    }
+}
@@ -268,4 +268,31 @@ public class AgentTaskTest {
         Assert.assertEquals(1, AgentTaskQueue.getTaskNum(backendId1, TTaskType.DROP, true));
         Assert.assertEquals(2, AgentTaskQueue.getTaskNum(-1, TTaskType.DROP, true));
     }
+
+    @Test
+    public void agentTaskQueueCounterTest() {
+        AgentTaskQueue.clearAllTasks();
+
+        DropReplicaTask dropTask2 = new DropReplicaTask(backendId2, tabletId1, schemaHash1);
+        AgentTaskQueue.addTask(dropTask);
+        AgentTaskQueue.addTask(dropTask2);
+        AgentTaskQueue.addTask(createReplicaTask);
+        Assert.assertEquals(3, AgentTaskQueue.getTaskNum());
+        Assert.assertEquals(2, AgentTaskQueue.getTaskNum(-1, TTaskType.DROP, false));
+        Assert.assertEquals(1, AgentTaskQueue.getTaskNum(-1, TTaskType.CREATE, false));
+        Assert.assertEquals(1, AgentTaskQueue.getTask(TTaskType.CREATE).size());
+
+        // remove the task of all backends
+        AgentTaskQueue.removeTaskOfType(TTaskType.DROP, dropTask.getSignature());
+        Assert.assertEquals(1, AgentTaskQueue.getTaskNum());
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum(-1, TTaskType.DROP, false));
+
+        // remove a task which is not exist does not change the counter
+        AgentTaskQueue.removeTask(backendId1, TTaskType.DROP, dropTask.getSignature());
+        Assert.assertEquals(1, AgentTaskQueue.getTaskNum());
+
+        AgentTaskQueue.removeReplicaRelatedTasks(backendId1, createReplicaTask.getSignature());
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum());
+        Assert.assertEquals(0, AgentTaskQueue.getTaskNum(-1, TTaskType.CREATE, false));
+    }
 }
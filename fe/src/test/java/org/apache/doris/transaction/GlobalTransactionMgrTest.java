@@ -619,4 +619,76 @@ public class GlobalTransactionMgrTest {
         transactionState = masterTransMgr.getTransactionState(transactionId);
         assertNull(transactionState);
     }
+
+    @Test
+    public void testReadNotCreateDatabaseTransactionMgr() {
+        long dbId = 9999;
+        assertEquals(TransactionStatus.UNKNOWN, masterTransMgr.getLabelState(dbId, "label"));
+        assertTrue(masterTransMgr.isPreviousTransactionsFinished(100, dbId));
+        List<List<String>> infos = masterTransMgr.getDbTransStateInfo(dbId);
+        assertEquals("0", infos.get(0).get(1));
+        assertEquals("0", infos.get(1).get(1));
+        try {
+            masterTransMgr.abortTransaction(dbId, "label", "test");
+            Assert.fail("No Exception throws.");
+        } catch (UserException e) {
+            // transaction not found
+        }
+        assertNull(masterTransMgr.getDatabaseTransactionMgr(dbId));
+    }
+
+    @Test
+    public void testDatabaseTransactionMgrLifecycle() throws UserException {
+        FakeCatalog.setCatalog(masterCatalog);
+        long transactionId = masterTransMgr.beginTransaction(CatalogTestUtil.testDbId1,
+                CatalogTestUtil.testTxnLable1, transactionSource, LoadJobSourceType.FRONTEND,
+                Config.stream_load_default_timeout_second);
+        assertNotNull(masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+
+        // not removed while there is any transaction of the db
+        masterTransMgr.removeDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        assertNotNull(masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+
+        // replay creates the manager on follower, and delete keeps it
+        FakeCatalog.setCatalog(slaveCatalog);
+        TransactionState transactionState = masterTransMgr.getTransactionState(transactionId);
+        slaveTransMgr.replayUpsertTransactionState(transactionState);
+        assertNotNull(slaveTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+        slaveTransMgr.replayDeleteTransactionState(transactionState);
+        assertNull(slaveTransMgr.getTransactionState(transactionId));
+        slaveTransMgr.removeDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        assertNull(slaveTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+
+        FakeCatalog.setCatalog(masterCatalog);
+        masterTransMgr.deleteTransaction(transactionId);
+        masterTransMgr.removeDatabaseTransactionMgr(CatalogTestUtil.testDbId1);
+        assertNull(masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+
+        // begin again after removed
+        masterTransMgr.beginTransaction(CatalogTestUtil.testDbId1, CatalogTestUtil.testTxnLable2,
+                transactionSource, LoadJobSourceType.FRONTEND, Config.stream_load_default_timeout_second);
+        assertNotNull(masterTransMgr.getDatabaseTransactionMgr(CatalogTestUtil.testDbId1));
+    }
+
+    @Test
+    public void testRemoveDatabaseTransactionMgrOfDroppedDb() throws UserException {
+        FakeCatalog.setCatalog(masterCatalog);
+        // the db does not exist in catalog, eg: it is dropped during the transaction
+        long dbId = 9999;
+        long transactionId = masterTransMgr.beginTransaction(dbId, CatalogTestUtil.testTxnLable1,
+                transactionSource, LoadJobSourceType.FRONTEND, Config.stream_load_default_timeout_second);
+        masterTransMgr.removeExpiredAndTimeoutTxns();
+        assertNotNull(masterTransMgr.getDatabaseTransactionMgr(dbId));
+
+        masterTransMgr.abortTransaction(transactionId, "test");
+        int labelKeepMaxSecond = Config.label_keep_max_second;
+        Config.label_keep_max_second = -1;
+        try {
+            masterTransMgr.removeExpiredAndTimeoutTxns();
+        } finally {
+            Config.label_keep_max_second = labelKeepMaxSecond;
+        }
+        assertNull(masterTransMgr.getTransactionState(transactionId));
+        assertNull(masterTransMgr.getDatabaseTransactionMgr(dbId));
+    }
 }
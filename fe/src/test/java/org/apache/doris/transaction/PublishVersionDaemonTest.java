@@ -0,0 +1,69 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+package org.apache.doris.transaction;
+
+import org.apache.doris.task.AgentBatchTask;
+import org.apache.doris.task.AgentTask;
+import org.apache.doris.task.PublishVersionTask;
+import org.apache.doris.thrift.TPartitionVersionInfo;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PublishVersionDaemonTest {
+
+    @Test
+    public void testOneRpcPerBackend() {
+        // 10 transactions published to 3 backends
+        Map<Long, List<PublishVersionTask>> backendToTasks = Maps.newHashMap();
+        for (long txnId = 1; txnId <= 10; txnId++) {
+            List<TPartitionVersionInfo> versionInfos = Lists.newArrayList(new TPartitionVersionInfo(100, txnId + 1, 0));
+            for (long backendId = 10001; backendId <= 10003; backendId++) {
+                backendToTasks.computeIfAbsent(backendId, k -> Lists.newArrayList())
+                        .add(new PublishVersionTask(backendId, txnId, 1, versionInfos));
+            }
+        }
+
+        List<AgentBatchTask> batchTasks = PublishVersionDaemon.createBatchTasks(backendToTasks);
+        // an AgentBatchTask sends one submit_tasks rpc to each backend of its tasks
+        Map<Long, Integer> backendToRpcNum = Maps.newHashMap();
+        for (AgentBatchTask batchTask : batchTasks) {
+            Set<Long> backendIds = Sets.newHashSet();
+            for (AgentTask task : batchTask.getAllTasks()) {
+                backendIds.add(task.getBackendId());
+            }
+            Assert.assertEquals(1, backendIds.size());
+            for (long backendId : backendIds) {
+                backendToRpcNum.merge(backendId, 1, Integer::sum);
+            }
+            Assert.assertEquals(10, batchTask.getTaskNum());
+        }
+        Assert.assertEquals(3, backendToRpcNum.size());
+        for (int rpcNum : backendToRpcNum.values()) {
+            Assert.assertEquals(1, rpcNum);
+        }
+    }
+}
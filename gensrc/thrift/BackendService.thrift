@@ -28,10 +28,20 @@ struct TExportTaskRequest {
     1: required PaloInternalService.TExecPlanFragmentParams params
 }
 
+struct TColumnZoneMap {
+    1: required string column_name
+    2: optional string min_value
+    3: optional string max_value
+    4: optional bool has_null
+}
+
 struct TTabletStat {
     1: required i64 tablet_id
     2: optional i64 data_size
     3: optional i64 row_num
+    // the version of tablet data which the zone maps are collected from
+    4: optional i64 version
+    5: optional list<TColumnZoneMap> column_zone_maps
 }
 
 struct TTabletStatResult {
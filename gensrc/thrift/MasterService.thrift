@@ -70,6 +70,8 @@ struct TDisk {
     5: optional Types.TSize disk_available_capacity
     6: optional i64 path_hash
     7: optional Types.TStorageMedium storage_medium
+    // percent of time the disk is busy with io recently, [0, 100]
+    8: optional double io_util
 }
 
 struct TReportRequest {
@@ -83,11 +85,21 @@ struct TReportRequest {
     // the max compaction score of all tablets on a backend,
     // this field should be set along with tablet report
     8: optional i64 tablet_max_compaction_score
+    // the generation of tablets on backend, which is increased whenever any tablet is changed
+    9: optional i64 tablet_report_generation
+    // if set, this is a delta tablet report: only the tablets changed since this generation are
+    // in 'tablets' or 'tablet_list', and the tablets dropped since then are in 'deleted_tablets'
+    10: optional i64 base_tablet_report_generation
+    11: optional list<Types.TTabletId> deleted_tablets
+    // the number of scans of each tablet on backend since last report, tablets not scanned are absent
+    12: optional map<Types.TTabletId, i64> tablet_scan_counts
 }
 
 struct TMasterResult {
     // required in V1
     1: required Status.TStatus status
+    // set if the next tablet report of backend should be a full report
+    2: optional bool need_full_tablet_report
 }
 
 // Now we only support CPU share.
@@ -129,6 +129,9 @@ struct TQueryOptions {
   // if this is a query option for LOAD, load_mem_limit should be set to limit the mem comsuption
   // of load channel.
   28: optional i64 load_mem_limit = 0;
+
+  // max time a scan node waits for its runtime filters before reading data without them
+  29: optional i32 runtime_filter_wait_time_ms = 1000;
 }
 
 // A scan range plus the parameters needed to execute that scan.
@@ -320,6 +320,45 @@ struct THashJoinNode {
   5: optional bool add_probe_filters
 }
 
+enum TRuntimeFilterType {
+  // the distinct values of the build side, applied as an IN predicate
+  IN = 1
+  // the min and max value of the build side, applied as a range predicate
+  MIN_MAX = 2
+  BLOOM = 4
+}
+
+// A runtime filter is built from the values of an equal join key on the build side of
+// a hash join, and is applied to the probe side scan nodes before rows are read.
+// The same desc is attached to the join node which produces the filter, and to
+// all the scan nodes which consume it.
+struct TRuntimeFilterDesc {
+  // unique in a query
+  1: required i32 filter_id
+  2: required TRuntimeFilterType type
+
+  // expr on the build side of the join node, whose values are put into the filter
+  3: required Exprs.TExpr src_expr
+  4: required Types.TPlanNodeId src_node_id
+
+  // target scan node id -> expr to be filtered, bound by the tuple of the scan node
+  5: required map<Types.TPlanNodeId, Exprs.TExpr> planId_to_target_expr
+
+  // true if some target is in the same fragment as the join node
+  6: required bool has_local_targets
+  // true if some target is in another fragment, the filter must be sent to it by rpc
+  7: required bool has_remote_targets
+
+  // true if every instance of the join node builds the filter of the whole build side,
+  // otherwise filters of all instances must be merged before applied to remote targets
+  8: required bool is_broadcast_join
+
+  // size of the bloom filter, power of 2
+  9: optional i64 bloom_filter_size_bytes
+  // the IN filter is disabled if the build side has more distinct values than this
+  10: optional i32 max_in_num
+}
+
 struct TMergeJoinNode {
   // anything from the ON, USING or WHERE clauses that's an equi-join predicate
   1: required list<TEqJoinCondition> cmp_conjuncts
@@ -612,6 +651,10 @@ struct TPlanNode {
   29: optional TBackendResourceProfile resource_profile
   30: optional TEsScanNode es_scan_node
   31: optional TAssertNumRowsNode assert_num_rows_node
+
+  // runtime filters produced by this node if it is a hash join node,
+  // or applied by this node if it is a scan node
+  32: optional list<TRuntimeFilterDesc> runtime_filters
 }
 
 // A flattened representation of a tree of PlanNodes, obtained by depth-first